@@ -2,11 +2,13 @@ package org.elixir_lang.jps;
 
 import com.intellij.execution.process.BaseOSProcessHandler;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.util.CommonProcessors;
 import com.intellij.util.containers.ContainerUtil;
 import gnu.trove.THashSet;
+import org.elixir_lang.jps.builder.DependencyGraph;
 import org.elixir_lang.jps.builder.ExecutionException;
 import org.elixir_lang.jps.builder.GeneralCommandLine;
 import org.elixir_lang.jps.builder.ProcessAdapter;
@@ -83,19 +85,41 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
 
     /**
      * Build With elixirc.
-     * if "isMake": compile all files of the module and dependent module.
+     * if "isMake": compile the dirty files and the files that depend on them at compile-time.
      * else: just for compile the target affected file.
      */
     private static void doBuildWithElixirc(Target target,
                                            CompileContext context,
                                            JpsModule module,
                                            CompilerOptions compilerOptions,
-                                           Collection<File> filesToCompile) throws ProjectBuildException {
+                                           Collection<File> filesToCompile,
+                                           Collection<String> removedPaths) throws ProjectBuildException {
 
         // ensure compile output directory
         File outputDirectory = getBuildOutputDirectory(module, target.isTests(), context);
 
-        runElixirc(target, context, compilerOptions, filesToCompile, outputDirectory);
+        Ref<DependencyGraph> dependencyGraphRef = Ref.create();
+        List<String> compileFilePaths =
+                getCompileFilePaths(module, target, context, filesToCompile, removedPaths, dependencyGraphRef);
+        DependencyGraph dependencyGraph = dependencyGraphRef.get();
+        File dataRoot = context.getProjectDescriptor().dataManager.getDataPaths().getTargetDataRoot(target);
+
+        if (dependencyGraph != null) {
+            /* The saved graph no longer knows which files are dirty or removed, so if the compile fails or is
+               interrupted, the next make must compile all files */
+            DependencyGraph.delete(dataRoot);
+        }
+
+        boolean compiled = compileFilePaths.isEmpty() ||
+                runElixirc(target, context, compilerOptions, compileFilePaths, outputDirectory);
+
+        if (dependencyGraph != null && compiled) {
+            try {
+                dependencyGraph.save(dataRoot);
+            } catch (IOException ioException) {
+                LOGGER.warn("Could not save dependency graph for " + target.getPresentableName(), ioException);
+            }
+        }
     }
 
     private static void doBuildWithMix(Target target,
@@ -137,20 +161,24 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
         return outputDirectory;
     }
 
-    private static void runElixirc(Target target,
+    /**
+     * @return whether elixirc exited successfully
+     */
+    private static boolean runElixirc(Target target,
                                    CompileContext context,
                                    CompilerOptions compilerOptions,
-                                   Collection<File> files,
+                                   List<String> compileFilePaths,
                                    File outputDirectory) throws ProjectBuildException {
-        GeneralCommandLine commandLine = getElixircCommandLine(target, context, compilerOptions, files, outputDirectory);
+        GeneralCommandLine commandLine =
+                getElixircCommandLine(target, context, compilerOptions, compileFilePaths, outputDirectory);
 
-        run(commandLine, context, ElIXIRC_NAME, compilerOptions);
+        return run(commandLine, context, ElIXIRC_NAME, compilerOptions);
     }
 
     private static GeneralCommandLine getElixircCommandLine(Target target,
                                                             CompileContext context,
                                                             CompilerOptions compilerOptions,
-                                                            Collection<File> files,
+                                                            List<String> compileFilePaths,
                                                             File outputDirectory) throws ProjectBuildException {
 
         GeneralCommandLine commandLine = new GeneralCommandLine();
@@ -160,8 +188,6 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
         JpsSdk<SdkProperties> sdk = BuilderUtil.getSdk(context, module);
         File executable = Elixir.getByteCodeCompilerExecutable(sdk.getHomePath());
 
-        List<String> compileFilePaths = getCompileFilePaths(module, target, context, files);
-
         commandLine.withWorkDirectory(outputDirectory);
         commandLine.setExePath(executable.getAbsolutePath());
         addDependentModuleCodePath(commandLine, module, target, context);
@@ -175,16 +201,52 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
     private static List<String> getCompileFilePaths(@NotNull JpsModule module,
                                                     @NotNull Target target,
                                                     @NotNull CompileContext context,
-                                                    Collection<File> files) {
+                                                    Collection<File> files,
+                                                    Collection<String> removedPaths,
+                                                    @NotNull Ref<DependencyGraph> dependencyGraphRef) {
         // make
         if (context.getScope().isBuildIncrementally(target.getTargetType())) {
-            return getCompileFilePathsDefault(module, target);
+            return getCompileFilePathsIncrementally(module, target, context, files, removedPaths, dependencyGraphRef);
         }
 
         // force build files
         return ContainerUtil.map(files, File::getAbsolutePath);
     }
 
+    /**
+     * The dirty {@code files} and all files that transitively depend on them at compile-time according to the
+     * target's {@link DependencyGraph}.  All files are compiled when there is no saved graph yet.
+     *
+     * @param dependencyGraphRef set to the updated graph, which is only saved once the files compile.
+     */
+    @NotNull
+    private static List<String> getCompileFilePathsIncrementally(@NotNull JpsModule module,
+                                                                 @NotNull Target target,
+                                                                 @NotNull CompileContext context,
+                                                                 @NotNull Collection<File> files,
+                                                                 @NotNull Collection<String> removedPaths,
+                                                                 @NotNull Ref<DependencyGraph> dependencyGraphRef) {
+        File dataRoot = context.getProjectDescriptor().dataManager.getDataPaths().getTargetDataRoot(target);
+        DependencyGraph dependencyGraph = DependencyGraph.load(dataRoot);
+        List<String> defaultPaths = getCompileFilePathsDefault(module, target);
+        List<String> compileFilePaths;
+
+        if (dependencyGraph == null) {
+            dependencyGraph = DependencyGraph.scan(defaultPaths);
+            compileFilePaths = defaultPaths;
+        } else {
+            Set<String> defaultPathSet = new HashSet<>(defaultPaths);
+            compileFilePaths = ContainerUtil.filter(
+                    dependencyGraph.update(ContainerUtil.map(files, File::getAbsolutePath), removedPaths),
+                    defaultPathSet::contains
+            );
+        }
+
+        dependencyGraphRef.set(dependencyGraph);
+
+        return compileFilePaths;
+    }
+
     @NotNull
     private static List<String> getCompileFilePathsDefault(@NotNull JpsModule module, @NotNull Target target) {
         CommonProcessors.CollectProcessor<File> exFilesCollector = new CommonProcessors.CollectProcessor<File>() {
@@ -452,10 +514,13 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
         run(commandLine, context, MIX_NAME, compilerOptions);
     }
 
-    private static void run(@NotNull GeneralCommandLine commandLine,
-                            @NotNull CompileContext context,
-                            @NotNull String builderName,
-                            @NotNull CompilerOptions compilerOptions) throws ProjectBuildException {
+    /**
+     * @return whether the process exited with {@code 0}
+     */
+    private static boolean run(@NotNull GeneralCommandLine commandLine,
+                               @NotNull CompileContext context,
+                               @NotNull String builderName,
+                               @NotNull CompilerOptions compilerOptions) throws ProjectBuildException {
         Process process;
 
         try {
@@ -478,6 +543,10 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
         handler.addProcessListener(adapter);
         handler.startNotify();
         handler.waitFor();
+
+        Integer exitCode = handler.getExitCode();
+
+        return exitCode != null && exitCode == 0;
     }
 
     @Override
@@ -507,7 +576,14 @@ public class Builder extends TargetBuilder<SourceRootDescriptor, Target> {
         } else {
             // elixirc can not compile tests now.
             if (!target.isTests()) {
-                doBuildWithElixirc(target, context, module, compilerOptions, filesToCompile);
+                doBuildWithElixirc(
+                        target,
+                        context,
+                        module,
+                        compilerOptions,
+                        filesToCompile,
+                        holder.getRemovedFiles(target)
+                );
             }
         }
     }
@@ -0,0 +1,540 @@
+package org.elixir_lang.jps.builder;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The compile-time dependencies between the {@code .ex} files of a {@link org.elixir_lang.jps.Target}, persisted in
+ * the target's data root, so that a make only needs to recompile the dirty files and the files that transitively
+ * depend on them at compile-time instead of every file in the module.
+ *
+ * The dependencies are scanned from the source: the modules a file defines, the modules it names in
+ * {@code import}, {@code require}, {@code use}, {@code @behaviour}, {@code defimpl}, struct literals, module
+ * attribute values and remote calls outside of {@code def} bodies, which are the places the compiler needs another
+ * module to already be compiled, and every module it names anywhere, which is what its code may call once compiled.
+ *
+ * Code that runs while a file compiles, such as the macros of a {@code require}d module, can call any module that
+ * code names, and those modules can call others, so a file is recompiled when any module in the closure of its
+ * compile-time dependencies over every module named by the files defining them changes.
+ *
+ * The scan is textual, so it cannot see a module named only by a variable or built by {@code Module.concat}.  Files
+ * that call {@code Code} or {@code Module} outside of {@code def} bodies are treated as depending on every module, so
+ * they are recompiled whenever anything is.
+ */
+public class DependencyGraph {
+    private static final Logger LOGGER = Logger.getInstance(DependencyGraph.class);
+    private static final String FILE_NAME = "elixir_dependency_graph.dat";
+    private static final int VERSION = 3;
+
+    private static final String ALIAS = "[A-Z]\\w*(?:\\.[A-Z]\\w*)*";
+    private static final Pattern ALIAS_PATTERN = Pattern.compile("\\b(" + ALIAS + ")");
+    private static final Pattern DEFINITION_PATTERN = Pattern.compile(
+            "\\b(?:defmodule|defprotocol|defimpl)\\s+(" + ALIAS + ")(?:\\s*,\\s*for:\\s*(" + ALIAS + "))?"
+    );
+    private static final Pattern MULTI_ALIAS_PATTERN = Pattern.compile(
+            "\\balias\\s+(" + ALIAS + ")\\.\\{([^}]*)}"
+    );
+    private static final Pattern SINGLE_ALIAS_PATTERN = Pattern.compile(
+            "\\balias\\s+(" + ALIAS + ")(?!\\.\\{)(?:\\s*,\\s*as:\\s*([A-Z]\\w*))?"
+    );
+    private static final Pattern REFERENCE_PATTERN = Pattern.compile(
+            "(?:\\b(?:import|require|use|defimpl)\\s+|@behaviour\\s+|%)(" + ALIAS + ")"
+    );
+    /**
+     * The tokens that {@link #remoteCallModuleSet(CharSequence)} needs to tell whether a remote call is in a
+     * {@code def} body: the definition macros (group 1), the keyword form {@code do:} (group 2), the block delimiters
+     * (group 3), newlines (group 4), typespec attributes (group 5) and the module of remote calls (group 6).
+     */
+    private static final Pattern DEFINITION_BODY_TOKEN_PATTERN = Pattern.compile(
+            "(?<![\\w.:@])(def|defp|defmacro|defmacrop|defguard|defguardp)(?![\\w?!:])|" +
+                    "(?<![\\w.:])(do:)|" +
+                    "(?<![\\w.:])(do|end|fn)(?![\\w?!:])|" +
+                    "(\\n)|" +
+                    "(@(?:spec|type|typep|opaque|callback|macrocallback)\\b)|" +
+                    "\\b(" + ALIAS + ")\\.[a-z_]"
+    );
+    /**
+     * Modules whose remote calls at compile time can name any module.
+     */
+    private static final Pattern OPAQUE_MODULE_PATTERN = Pattern.compile("Code|Module");
+    private static final Pattern MODULE_ATTRIBUTE_PATTERN = Pattern.compile(
+            "^\\s*@(?!(?:doc|moduledoc|typedoc|spec|type|typep|opaque|callback|macrocallback|impl)\\b)\\w+\\s+(.*)$",
+            Pattern.MULTILINE
+    );
+
+    @NotNull
+    private final Map<String, Node> nodeByPath;
+
+    private DependencyGraph(@NotNull Map<String, Node> nodeByPath) {
+        this.nodeByPath = nodeByPath;
+    }
+
+    /**
+     * @param dataRoot {@code BuildDataPaths#getTargetDataRoot} of the target
+     * @return {@code null} if the graph was never saved or was saved in an incompatible format, in which case the
+     *   caller can't know which files depend on the dirty files and must compile all of them.
+     */
+    @Nullable
+    public static DependencyGraph load(@NotNull File dataRoot) {
+        File file = new File(dataRoot, FILE_NAME);
+        DependencyGraph dependencyGraph = null;
+
+        if (file.isFile()) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (input.readInt() == VERSION) {
+                    int nodeCount = input.readInt();
+                    Map<String, Node> nodeByPath = new HashMap<>(nodeCount);
+
+                    for (int i = 0; i < nodeCount; i++) {
+                        String path = input.readUTF();
+                        Set<String> definedModuleSet = readStringSet(input);
+                        Set<String> referencedModuleSet = readStringSet(input);
+                        Set<String> namedModuleSet = readStringSet(input);
+                        boolean opaque = input.readBoolean();
+
+                        nodeByPath.put(
+                                path,
+                                new Node(definedModuleSet, referencedModuleSet, namedModuleSet, opaque)
+                        );
+                    }
+
+                    dependencyGraph = new DependencyGraph(nodeByPath);
+                }
+            } catch (IOException ioException) {
+                LOGGER.warn("Could not load " + file.getPath() + ", so all files will be compiled", ioException);
+            }
+        }
+
+        return dependencyGraph;
+    }
+
+    /**
+     * Deletes the graph saved in {@code dataRoot}, so that the next {@link #load(File)} returns {@code null} and all
+     * files are compiled.
+     */
+    public static void delete(@NotNull File dataRoot) {
+        FileUtil.delete(new File(dataRoot, FILE_NAME));
+    }
+
+    /**
+     * Scans all {@code paths} into a new graph.  Used when there is no saved graph.
+     */
+    @NotNull
+    public static DependencyGraph scan(@NotNull Collection<String> paths) {
+        DependencyGraph dependencyGraph = new DependencyGraph(new HashMap<>());
+
+        for (String path : paths) {
+            dependencyGraph.scanPath(path);
+        }
+
+        return dependencyGraph;
+    }
+
+    @NotNull
+    private static Set<String> readStringSet(@NotNull DataInput input) throws IOException {
+        int size = input.readInt();
+        Set<String> stringSet = new HashSet<>(size);
+
+        for (int i = 0; i < size; i++) {
+            stringSet.add(input.readUTF());
+        }
+
+        return stringSet;
+    }
+
+    private static void writeStringSet(@NotNull DataOutput output, @NotNull Set<String> stringSet) throws IOException {
+        output.writeInt(stringSet.size());
+
+        for (String string : stringSet) {
+            output.writeUTF(string);
+        }
+    }
+
+    /**
+     * Whether {@code referencedModule}, which may still be relative to an enclosing {@code defmodule} or to an alias
+     * the scan could not see, could be {@code definedModule}, which may itself be relative to an enclosing
+     * {@code defmodule}.
+     */
+    private static boolean mayBe(@NotNull String referencedModule, @NotNull String definedModule) {
+        return referencedModule.equals(definedModule) ||
+                referencedModule.endsWith("." + definedModule) ||
+                definedModule.endsWith("." + referencedModule);
+    }
+
+    @NotNull
+    static Node scanText(@NotNull CharSequence text) {
+        Set<String> definedModuleSet = new HashSet<>();
+        Set<String> referencedModuleSet = new HashSet<>();
+
+        Matcher definitionMatcher = DEFINITION_PATTERN.matcher(text);
+
+        while (definitionMatcher.find()) {
+            String name = definitionMatcher.group(1);
+            String forName = definitionMatcher.group(2);
+
+            if (forName != null) {
+                definedModuleSet.add(name + "." + forName);
+            } else {
+                definedModuleSet.add(name);
+            }
+        }
+
+        Map<String, String> expansionByAlias = new HashMap<>();
+        Matcher multiAliasMatcher = MULTI_ALIAS_PATTERN.matcher(text);
+
+        while (multiAliasMatcher.find()) {
+            String prefix = multiAliasMatcher.group(1);
+            Matcher suffixMatcher = ALIAS_PATTERN.matcher(multiAliasMatcher.group(2));
+
+            while (suffixMatcher.find()) {
+                putAlias(expansionByAlias, prefix + "." + suffixMatcher.group(1), null);
+            }
+        }
+
+        Matcher singleAliasMatcher = SINGLE_ALIAS_PATTERN.matcher(text);
+
+        while (singleAliasMatcher.find()) {
+            putAlias(expansionByAlias, singleAliasMatcher.group(1), singleAliasMatcher.group(2));
+        }
+
+        Matcher referenceMatcher = REFERENCE_PATTERN.matcher(text);
+
+        while (referenceMatcher.find()) {
+            addReference(referencedModuleSet, expansionByAlias, referenceMatcher.group(1));
+        }
+
+        // module attribute values are evaluated at compile time, so any remote call in them is a compile dependency
+        Matcher moduleAttributeMatcher = MODULE_ATTRIBUTE_PATTERN.matcher(text);
+
+        while (moduleAttributeMatcher.find()) {
+            Matcher aliasMatcher = ALIAS_PATTERN.matcher(moduleAttributeMatcher.group(1));
+
+            while (aliasMatcher.find()) {
+                addReference(referencedModuleSet, expansionByAlias, aliasMatcher.group(1));
+            }
+        }
+
+        CharSequence code = withoutCommentsAndStrings(text);
+
+        // remote calls outside of `def` bodies run at compile time
+        boolean opaque = false;
+
+        for (String remoteCallModule : remoteCallModuleSet(code)) {
+            if (OPAQUE_MODULE_PATTERN.matcher(remoteCallModule).matches()) {
+                opaque = true;
+            }
+
+            addReference(referencedModuleSet, expansionByAlias, remoteCallModule);
+        }
+
+        // any module named in `code`, including in `def` bodies and interpolation, may be called once compiled
+        Set<String> namedModuleSet = new HashSet<>(referencedModuleSet);
+        Matcher namedMatcher = ALIAS_PATTERN.matcher(code);
+
+        while (namedMatcher.find()) {
+            addReference(namedModuleSet, expansionByAlias, namedMatcher.group(1));
+        }
+
+        return new Node(definedModuleSet, referencedModuleSet, namedModuleSet, opaque);
+    }
+
+    /**
+     * The modules of remote calls outside of {@code def}, {@code defp}, {@code defmacro}, {@code defmacrop},
+     * {@code defguard} and {@code defguardp} bodies and typespecs.  {@code do}/{@code end} and {@code fn}/{@code end}
+     * are matched to find the end of block bodies.  Keyword {@code do:} bodies and typespecs are assumed to end at the
+     * end of the line, so the following lines of those that span lines are counted as compile-time.
+     *
+     * @param code {@link #withoutCommentsAndStrings(CharSequence)}
+     */
+    @NotNull
+    private static Set<String> remoteCallModuleSet(@NotNull CharSequence code) {
+        Set<String> remoteCallModuleSet = new HashSet<>();
+        Deque<Boolean> definitionBodyStack = new ArrayDeque<>();
+        boolean definitionHead = false;
+        // the rest of the line is a keyword `do:` body or a typespec
+        boolean runtimeLine = false;
+        Matcher matcher = DEFINITION_BODY_TOKEN_PATTERN.matcher(code);
+
+        while (matcher.find()) {
+            if (matcher.group(1) != null) {
+                definitionHead = true;
+            } else if (matcher.group(2) != null) {
+                runtimeLine = runtimeLine || definitionHead;
+                definitionHead = false;
+            } else if (matcher.group(3) != null) {
+                switch (matcher.group(3)) {
+                    case "do":
+                        definitionBodyStack.push(definitionHead);
+                        definitionHead = false;
+                        break;
+                    case "fn":
+                        definitionBodyStack.push(false);
+                        break;
+                    default:
+                        definitionBodyStack.poll();
+                }
+            } else if (matcher.group(4) != null) {
+                runtimeLine = false;
+            } else if (matcher.group(5) != null) {
+                runtimeLine = true;
+            } else if (!runtimeLine && !definitionBodyStack.contains(true)) {
+                remoteCallModuleSet.add(matcher.group(6));
+            }
+        }
+
+        return remoteCallModuleSet;
+    }
+
+    /**
+     * {@code text} with comments and the contents of strings, heredocs and charlists replaced by spaces, so that
+     * their {@code do}, {@code end} and aliases are not mistaken for code.  Newlines and {@code #{}} interpolation,
+     * which is code, are kept.
+     */
+    @NotNull
+    private static CharSequence withoutCommentsAndStrings(@NotNull CharSequence text) {
+        StringBuilder code = new StringBuilder(text);
+        int length = code.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = code.charAt(i);
+
+            if (c == '?' && i + 1 < length) {
+                // character literals, such as `?"` and `?#`
+                i += 2;
+            } else if (c == '#') {
+                while (i < length && code.charAt(i) != '\n') {
+                    code.setCharAt(i++, ' ');
+                }
+            } else if (c == '"' || c == '\'') {
+                boolean heredoc = i + 2 < length && code.charAt(i + 1) == c && code.charAt(i + 2) == c;
+                int start = i + (heredoc ? 3 : 1);
+                int end = start;
+
+                while (end < length &&
+                        !(code.charAt(end) == c &&
+                                (!heredoc || end + 2 < length && code.charAt(end + 1) == c && code.charAt(end + 2) == c))) {
+                    end += code.charAt(end) == '\\' ? 2 : 1;
+                }
+
+                int interpolationDepth = 0;
+
+                for (int j = start; j < Math.min(end, length); j++) {
+                    char stringChar = code.charAt(j);
+
+                    if (interpolationDepth > 0) {
+                        if (stringChar == '{') {
+                            interpolationDepth++;
+                        } else if (stringChar == '}') {
+                            interpolationDepth--;
+                        }
+                    } else if (stringChar == '#' && j + 1 < end && code.charAt(j + 1) == '{') {
+                        interpolationDepth = 1;
+                        j++;
+                    } else if (stringChar != '\n') {
+                        code.setCharAt(j, ' ');
+                    }
+                }
+
+                i = end + (heredoc ? 3 : 1);
+            } else {
+                i++;
+            }
+        }
+
+        return code;
+    }
+
+    private static void putAlias(@NotNull Map<String, String> expansionByAlias,
+                                 @NotNull String expansion,
+                                 @Nullable String as) {
+        String alias = as;
+
+        if (alias == null) {
+            int lastDot = expansion.lastIndexOf('.');
+
+            if (lastDot != -1) {
+                alias = expansion.substring(lastDot + 1);
+            }
+        }
+
+        if (alias != null) {
+            expansionByAlias.put(alias, expansion);
+        }
+    }
+
+    private static void addReference(@NotNull Set<String> referencedModuleSet,
+                                     @NotNull Map<String, String> expansionByAlias,
+                                     @NotNull String reference) {
+        referencedModuleSet.add(reference);
+
+        int firstDot = reference.indexOf('.');
+        String head = firstDot == -1 ? reference : reference.substring(0, firstDot);
+        String expansion = expansionByAlias.get(head);
+
+        if (expansion != null) {
+            referencedModuleSet.add(expansion + reference.substring(head.length()));
+        }
+    }
+
+    /**
+     * Rescans the {@code dirtyPaths}, forgets the {@code removedPaths} and returns the {@code dirtyPaths} along with
+     * every file that depends at compile-time on a module that may behave differently: a module that is or was defined
+     * in them or a module defined in a file that names such a module, transitively.
+     */
+    @NotNull
+    public Set<String> update(@NotNull Collection<String> dirtyPaths, @NotNull Collection<String> removedPaths) {
+        Set<String> changedModuleSet = new HashSet<>();
+
+        for (String removedPath : removedPaths) {
+            Node removed = nodeByPath.remove(removedPath);
+
+            if (removed != null) {
+                changedModuleSet.addAll(removed.definedModuleSet);
+            }
+        }
+
+        for (String dirtyPath : dirtyPaths) {
+            Node previous = nodeByPath.get(dirtyPath);
+
+            if (previous != null) {
+                changedModuleSet.addAll(previous.definedModuleSet);
+            }
+
+            changedModuleSet.addAll(scanPath(dirtyPath).definedModuleSet);
+        }
+
+        // a file that names a changed module may now behave differently when called, such as from a macro
+        Set<String> changedPathSet = new HashSet<>(dirtyPaths);
+        Deque<String> moduleQueue = new ArrayDeque<>(changedModuleSet);
+
+        while (!moduleQueue.isEmpty()) {
+            String changedModule = moduleQueue.remove();
+
+            for (Map.Entry<String, Node> entry : nodeByPath.entrySet()) {
+                String path = entry.getKey();
+
+                if (!changedPathSet.contains(path) && entry.getValue().names(changedModule)) {
+                    changedPathSet.add(path);
+
+                    for (String definedModule : entry.getValue().definedModuleSet) {
+                        if (changedModuleSet.add(definedModule)) {
+                            moduleQueue.add(definedModule);
+                        }
+                    }
+                }
+            }
+        }
+
+        /* the modules of files that are recompiled are all in `changedModuleSet` already, as a file that references a
+           module at compile-time also names it */
+        Set<String> compilePathSet = new LinkedHashSet<>(dirtyPaths);
+
+        for (Map.Entry<String, Node> entry : nodeByPath.entrySet()) {
+            for (String changedModule : changedModuleSet) {
+                if (entry.getValue().references(changedModule)) {
+                    compilePathSet.add(entry.getKey());
+
+                    break;
+                }
+            }
+        }
+
+        return compilePathSet;
+    }
+
+    public void save(@NotNull File dataRoot) throws IOException {
+        FileUtil.createDirectory(dataRoot);
+        File file = new File(dataRoot, FILE_NAME);
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            output.writeInt(VERSION);
+            output.writeInt(nodeByPath.size());
+
+            for (Map.Entry<String, Node> entry : nodeByPath.entrySet()) {
+                Node node = entry.getValue();
+
+                output.writeUTF(entry.getKey());
+                writeStringSet(output, node.definedModuleSet);
+                writeStringSet(output, node.referencedModuleSet);
+                writeStringSet(output, node.namedModuleSet);
+                output.writeBoolean(node.opaque);
+            }
+        }
+    }
+
+    @NotNull
+    private Node scanPath(@NotNull String path) {
+        Node node;
+
+        try {
+            node = scanText(FileUtil.loadFile(new File(path)));
+        } catch (IOException ioException) {
+            // an unreadable file will fail to compile anyway, so it can't be depended upon
+            node = new Node(Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), false);
+        }
+
+        nodeByPath.put(path, node);
+
+        return node;
+    }
+
+    static class Node {
+        @NotNull
+        final Set<String> definedModuleSet;
+        @NotNull
+        final Set<String> referencedModuleSet;
+        /**
+         * Every module named in the file, including {@link #referencedModuleSet} and those only called from
+         * {@code def} bodies.
+         */
+        @NotNull
+        final Set<String> namedModuleSet;
+        /**
+         * Whether the file calls {@code Code} or {@code Module} at compile time, so it may depend on modules that
+         * are not in {@link #referencedModuleSet}.
+         */
+        final boolean opaque;
+
+        Node(@NotNull Set<String> definedModuleSet,
+             @NotNull Set<String> referencedModuleSet,
+             @NotNull Set<String> namedModuleSet,
+             boolean opaque) {
+            this.definedModuleSet = definedModuleSet;
+            this.referencedModuleSet = referencedModuleSet;
+            this.namedModuleSet = namedModuleSet;
+            this.opaque = opaque;
+        }
+
+        /**
+         * Whether the file depends on {@code module} at compile-time.
+         */
+        boolean references(@NotNull String module) {
+            return opaque || mayBeAny(referencedModuleSet, module);
+        }
+
+        /**
+         * Whether the file's code may call {@code module} at any time.
+         */
+        boolean names(@NotNull String module) {
+            return opaque || mayBeAny(namedModuleSet, module);
+        }
+
+        private static boolean mayBeAny(@NotNull Set<String> referencedModuleSet, @NotNull String module) {
+            for (String referencedModule : referencedModuleSet) {
+                if (mayBe(referencedModule, module)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
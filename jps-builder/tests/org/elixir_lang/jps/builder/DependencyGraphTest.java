@@ -0,0 +1,178 @@
+package org.elixir_lang.jps.builder;
+
+import com.intellij.openapi.util.io.FileUtil;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class DependencyGraphTest extends TestCase {
+    private File directory;
+
+    public void testScanTextDefinedModules() {
+        DependencyGraph.Node node = DependencyGraph.scanText(
+                "defmodule Foo.Bar do\n" +
+                "end\n" +
+                "defprotocol Foo.Protocol do\n" +
+                "end\n" +
+                "defimpl Foo.Protocol, for: Foo.Bar do\n" +
+                "end\n"
+        );
+
+        assertEquals(
+                new HashSet<>(Arrays.asList("Foo.Bar", "Foo.Protocol", "Foo.Protocol.Foo.Bar")),
+                node.definedModuleSet
+        );
+    }
+
+    public void testScanTextReferencedModulesExpandsAliases() {
+        DependencyGraph.Node node = DependencyGraph.scanText(
+                "defmodule Foo do\n" +
+                "  alias Foo.{Behaviour, Struct}\n" +
+                "  alias Other.Macros, as: M\n" +
+                "  @behaviour Behaviour\n" +
+                "  @doc \"Ignores Documentation.Only\"\n" +
+                "  @value Computed.value()\n" +
+                "  require M\n" +
+                "  def new, do: %Struct{}\n" +
+                "  def call, do: Runtime.call()\n" +
+                "end\n"
+        );
+
+        Set<String> referencedModuleSet = node.referencedModuleSet;
+
+        assertTrue(referencedModuleSet.contains("Foo.Behaviour"));
+        assertTrue(referencedModuleSet.contains("Foo.Struct"));
+        assertTrue(referencedModuleSet.contains("Other.Macros"));
+        assertTrue(referencedModuleSet.contains("Computed"));
+        assertFalse(referencedModuleSet.contains("Documentation.Only"));
+        assertFalse(referencedModuleSet.contains("Runtime"));
+    }
+
+    public void testScanTextRemoteCallsOutsideDefinitionBodies() {
+        DependencyGraph.Node node = DependencyGraph.scanText(
+                "defmodule Foo do\n" +
+                "  @spec typed() :: Typespec.t()\n" +
+                "  for name <- Names.list() do\n" +
+                "    def unquote(name)(), do: OneLine.call()\n" +
+                "  end\n" +
+                "  \"String.ignored()\"\n" +
+                "  # Comment.ignored()\n" +
+                "  def block do\n" +
+                "    Enum.map([], fn x -> Block.call(x) end)\n" +
+                "  end\n" +
+                "  Module.after()\n" +
+                "end\n"
+        );
+
+        Set<String> referencedModuleSet = node.referencedModuleSet;
+
+        assertTrue(referencedModuleSet.contains("Names"));
+        assertTrue(referencedModuleSet.contains("Module"));
+        assertFalse(referencedModuleSet.contains("Typespec"));
+        assertFalse(referencedModuleSet.contains("OneLine"));
+        assertFalse(referencedModuleSet.contains("String"));
+        assertFalse(referencedModuleSet.contains("Comment"));
+        assertFalse(referencedModuleSet.contains("Block"));
+        assertTrue(node.opaque);
+    }
+
+    public void testUpdateRecompilesOpaqueFiles() throws IOException {
+        String changed = write("changed.ex", "defmodule Changed do\nend\n");
+        String opaque = write("opaque.ex", "defmodule Opaque do\n  @module Module.concat([:Changed])\nend\n");
+        String unrelated = write("unrelated.ex", "defmodule Unrelated do\nend\n");
+
+        DependencyGraph dependencyGraph = DependencyGraph.scan(Arrays.asList(changed, opaque, unrelated));
+
+        assertEquals(
+                new HashSet<>(Arrays.asList(changed, opaque)),
+                dependencyGraph.update(Collections.singletonList(changed), Collections.emptyList())
+        );
+    }
+
+    public void testUpdateReturnsTransitiveDependents() throws IOException {
+        String macros = write("macros.ex", "defmodule Macros do\nend\n");
+        String user = write("user.ex", "defmodule User do\n  require Macros\nend\n");
+        String userUser = write("user_user.ex", "defmodule UserUser do\n  use User\nend\n");
+        String runtime = write("runtime.ex", "defmodule Runtime do\n  def f, do: User.f()\nend\n");
+
+        DependencyGraph dependencyGraph = DependencyGraph.scan(Arrays.asList(macros, user, userUser, runtime));
+        dependencyGraph.save(directory);
+
+        DependencyGraph loaded = DependencyGraph.load(directory);
+
+        assertNotNull(loaded);
+        assertEquals(
+                new HashSet<>(Arrays.asList(macros, user, userUser)),
+                loaded.update(Collections.singletonList(macros), Collections.emptyList())
+        );
+        assertEquals(
+                Collections.singleton(runtime),
+                loaded.update(Collections.singletonList(runtime), Collections.emptyList())
+        );
+    }
+
+    public void testUpdateRecompilesFilesWhoseMacrosCallChangedModules() throws IOException {
+        String helper = write("helper.ex", "defmodule Helper do\n  def gen, do: :ok\nend\n");
+        String macros = write(
+                "macros.ex",
+                "defmodule Macros do\n  defmacro generate do\n    Helper.gen()\n  end\nend\n"
+        );
+        String user = write("user.ex", "defmodule User do\n  require Macros\n  Macros.generate()\nend\n");
+        String runtime = write("runtime.ex", "defmodule Runtime do\n  def f, do: Macros.generate()\nend\n");
+
+        DependencyGraph dependencyGraph = DependencyGraph.scan(Arrays.asList(helper, macros, user, runtime));
+
+        assertEquals(
+                new HashSet<>(Arrays.asList(helper, user)),
+                dependencyGraph.update(Collections.singletonList(helper), Collections.emptyList())
+        );
+    }
+
+    public void testScanTextInterpolation() {
+        DependencyGraph.Node node = DependencyGraph.scanText(
+                "defmodule Foo do\n" +
+                "  IO.puts \"#{Interpolated.value()}\"\n" +
+                "end\n"
+        );
+
+        assertTrue(node.referencedModuleSet.contains("Interpolated"));
+    }
+
+    public void testDeleteAfterSave() throws IOException {
+        DependencyGraph.scan(Collections.emptyList()).save(directory);
+
+        assertNotNull(DependencyGraph.load(directory));
+
+        DependencyGraph.delete(directory);
+
+        assertNull(DependencyGraph.load(directory));
+    }
+
+    public void testLoadWithoutSave() {
+        assertNull(DependencyGraph.load(directory));
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        directory = FileUtil.createTempDirectory("dependency_graph", null);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtil.delete(directory);
+        super.tearDown();
+    }
+
+    private String write(String name, String text) throws IOException {
+        File file = new File(directory, name);
+        FileUtil.writeToFile(file, text);
+
+        return file.getAbsolutePath();
+    }
+}
@@ -0,0 +1,83 @@
+defmodule IntelliJElixir.Credo.Worker do
+  @moduledoc """
+  Runs `mix credo` requests read from standard input in one VM, so that each request does not have to pay for booting
+  the VM and loading the Mix project again.
+
+  Each request is one line of tab-separated `mix credo` arguments.  The response is the output `mix credo` would have
+  printed followed by the end of response marker on its own line.  The ready marker is printed once before the first
+  request is read, so that any output from loading the project can be skipped.
+  """
+
+  @end_of_response "\u0000intellij_elixir.credo.end"
+  @ready "\u0000intellij_elixir.credo.ready"
+
+  def start do
+    {:ok, _} = Application.ensure_all_started(:credo)
+
+    case runner() do
+      nil ->
+        IO.puts(:stderr, "Credo does not have a function that runs without halting")
+        System.halt(1)
+
+      runner ->
+        IO.puts(@ready)
+        loop(runner)
+    end
+  end
+
+  defp loop(runner) do
+    case IO.read(:stdio, :line) do
+      :eof ->
+        :ok
+
+      {:error, _} ->
+        :ok
+
+      line ->
+        output =
+          line
+          |> String.trim_trailing()
+          |> String.split("\t", trim: true)
+          |> run(runner)
+
+        IO.write(output)
+
+        # the end of response marker must be on its own line
+        unless output == "" or String.ends_with?(output, "\n") do
+          IO.write("\n")
+        end
+
+        IO.puts(@end_of_response)
+
+        loop(runner)
+    end
+  end
+
+  defp run(argv, runner) do
+    {:ok, device} = StringIO.open("")
+    group_leader = Process.group_leader()
+    Process.group_leader(self(), device)
+
+    try do
+      runner.(argv)
+    rescue
+      exception -> IO.puts(:stderr, Exception.format(:error, exception, __STACKTRACE__))
+    catch
+      kind, reason -> IO.puts(:stderr, Exception.format(kind, reason, __STACKTRACE__))
+    after
+      Process.group_leader(self(), group_leader)
+    end
+
+    {:ok, {_, output}} = StringIO.close(device)
+
+    output
+  end
+
+  defp runner do
+    cond do
+      Code.ensure_loaded?(Credo) && function_exported?(Credo, :run, 1) -> &Credo.run/1
+      Code.ensure_loaded?(Credo.CLI) && function_exported?(Credo.CLI, :run, 1) -> &Credo.CLI.run/1
+      true -> nil
+    end
+  end
+end
@@ -35,7 +35,10 @@ defmodule IntelliJElixir.Debugger.Server do
   end
 
   defstruct attached: nil,
-            evaluate_meta_pid_to_froms: %{}
+            evaluate_meta_pid_to_froms: %{},
+            interpret_on_demand: false,
+            reject_regex: nil,
+            sdk_absolute_path_set: MapSet.new()
 
   # Functions
 
@@ -64,15 +67,27 @@ defmodule IntelliJElixir.Debugger.Server do
     {:reply, GenServer.call(IntelliJElixir.Debugged, :continue), %__MODULE__{state | attached: pid}}
   end
 
+  # When `interpret_on_demand` is `true`, only the modules matching `interpret_elixir_module_name_patterns` are
+  # interpreted now; modules with breakpoints are interpreted when the breakpoint is set and the modules called from a
+  # breakpoint are interpreted when stepping into them.
+  #
+  # Replies `{:ok, [{module, microseconds}]}`, so that the slowest modules can be rejected in later sessions.
   def handle_call(
-        {:interpret, %{sdk_paths: sdk_paths, reject_elixir_module_name_patterns: elixir_module_name_patterns}},
+        {:interpret,
+         options = %{sdk_paths: sdk_paths, reject_elixir_module_name_patterns: reject_elixir_module_name_patterns}},
         _from,
         state = %__MODULE__{}
       )
-      when is_list(sdk_paths) and is_list(elixir_module_name_patterns) do
-    erlang_module_name_patterns = Enum.map(elixir_module_name_patterns, &elixir_module_name_to_erlang_module_name/1)
-
-    regex = erlang_module_name_patterns_to_regex(erlang_module_name_patterns)
+      when is_list(sdk_paths) and is_list(reject_elixir_module_name_patterns) do
+    reject_regex = elixir_module_name_patterns_to_regex(reject_elixir_module_name_patterns)
+    interpret_on_demand = Map.get(options, :interpret_on_demand, false)
+
+    accept_regex =
+      if interpret_on_demand do
+        options
+        |> Map.get(:interpret_elixir_module_name_patterns, [])
+        |> elixir_module_name_patterns_to_regex()
+      end
 
     code_absolute_paths =
       :code.get_path()
@@ -86,27 +101,38 @@ defmodule IntelliJElixir.Debugger.Server do
       |> Stream.map(&Path.absname/1)
       |> MapSet.new()
 
-    Enum.each(code_absolute_paths, fn code_absolute_path ->
-      message = [:blue, "Interpreting modules under ", :magenta, code_absolute_path, :blue, "..."]
+    module_microseconds =
+      Enum.flat_map(code_absolute_paths, fn code_absolute_path ->
+        message = [:blue, "Interpreting modules under ", :magenta, code_absolute_path, :blue, "..."]
 
-      if MapSet.member?(sdk_absolute_path_set, code_absolute_path) do
-        [message, "  ...", :yellow, "skipped"]
-        |> IO.ANSI.format()
-        |> IO.puts()
-      else
-        message
-        |> IO.ANSI.format()
-        |> IO.puts()
+        if MapSet.member?(sdk_absolute_path_set, code_absolute_path) do
+          [message, "  ...", :yellow, "skipped"]
+          |> IO.ANSI.format()
+          |> IO.puts()
+
+          []
+        else
+          message
+          |> IO.ANSI.format()
+          |> IO.puts()
 
-        interpret_modules_in(code_absolute_path, regex)
+          module_microseconds = interpret_modules_in(code_absolute_path, reject_regex, accept_regex)
 
-        [:blue, "  ...", :green, "completed"]
-        |> IO.ANSI.format()
-        |> IO.puts()
-      end
-    end)
+          [:blue, "  ...", :green, "completed"]
+          |> IO.ANSI.format()
+          |> IO.puts()
 
-    {:reply, :ok, state}
+          module_microseconds
+        end
+      end)
+
+    {:reply, {:ok, module_microseconds},
+     %__MODULE__{
+       state
+       | interpret_on_demand: interpret_on_demand,
+         reject_regex: reject_regex,
+         sdk_absolute_path_set: sdk_absolute_path_set
+     }}
   end
 
   def handle_call(:interpreted, _from, state = %__MODULE__{}) do
@@ -131,16 +157,39 @@ defmodule IntelliJElixir.Debugger.Server do
 
   def handle_call({:set_breakpoint, module, line}, _from, state = %__MODULE__{})
       when is_atom(module) and is_integer(line) do
-    unless module in :int.interpreted(), do: :int.ni(module)
+    {:reply, set_breakpoint(module, line, :int.interpreted()), state}
+  end
 
-    {:reply, :int.break(module, line), state}
+  # Sets many breakpoints, such as all those restored when a debug session starts, with one message instead of a
+  # round-trip for each.  Replies with the result for each `{module, line}` in the same order.
+  def handle_call({:set_breakpoints, module_lines}, _from, state = %__MODULE__{}) when is_list(module_lines) do
+    {replies, _interpreted} =
+      Enum.map_reduce(module_lines, :int.interpreted(), fn {module, line}, interpreted ->
+        {set_breakpoint(module, line, interpreted), [module | interpreted]}
+      end)
+
+    {:reply, replies, state}
   end
 
   def handle_call({:remove_breakpoint, module, line}, _from, state) when is_atom(module) and is_integer(line) do
     {:reply, :int.delete_break(module, line), state}
   end
 
-  def handle_call({:step_into, pid}, _from, state) when is_pid(pid) do
+  # The stack of a process that was not suspended at the breakpoint is only sent when it is expanded in the debugger
+  def handle_call({:stack, pid}, _from, state) when is_pid(pid) do
+    stack =
+      case List.keyfind(:int.snapshot(), pid, 0) do
+        {^pid, _init, status, info} -> stack(pid, status, full_info(info))
+        nil -> []
+      end
+
+    {:reply, stack, state}
+  end
+
+  def handle_call({:step_into, pid}, _from, state = %__MODULE__{interpret_on_demand: interpret_on_demand})
+      when is_pid(pid) do
+    if interpret_on_demand, do: interpret_callees(pid, state)
+
     {:reply, :int.step(pid), state}
   end
 
@@ -283,7 +332,7 @@ defmodule IntelliJElixir.Debugger.Server do
   @impl GenServer
 
   def handle_cast({:breakpoint_reached, pid}, state = %__MODULE__{attached: attached}) when is_pid(attached) do
-    GenServer.cast(attached, {:breakpoint_reached, pid, snapshot_with_stacks()})
+    GenServer.cast(attached, {:breakpoint_reached, pid, snapshot_with_stack(pid)})
 
     {:noreply, state}
   end
@@ -335,6 +384,12 @@ defmodule IntelliJElixir.Debugger.Server do
     |> String.replace(~S"\*", ".*")
   end
 
+  defp elixir_module_name_patterns_to_regex(elixir_module_name_patterns) do
+    elixir_module_name_patterns
+    |> Enum.map(&elixir_module_name_to_erlang_module_name/1)
+    |> erlang_module_name_patterns_to_regex()
+  end
+
   defp erlang_module_name_patterns_to_regex(erlang_module_name_patterns) do
     unpinned_pattern =
       erlang_module_name_patterns
@@ -344,40 +399,111 @@ defmodule IntelliJElixir.Debugger.Server do
     Regex.compile!("^(#{unpinned_pattern})$")
   end
 
-  defp interpret_modules_in(paths, reject_regex) when is_list(paths) do
-    Enum.each(paths, &interpret_modules_in(&1, reject_regex))
+  # The modules of the remote calls on the line `pid` is stopped at, so that stepping into them stops in them instead
+  # of stepping over code that was not interpreted yet.  Like when interpreting up front, modules under the SDK's code
+  # paths are skipped.
+  defp interpret_callees(pid, %__MODULE__{reject_regex: reject_regex, sdk_absolute_path_set: sdk_absolute_path_set}) do
+    case List.keyfind(:int.snapshot(), pid, 0) do
+      {^pid, _init, :break, {module, line}} ->
+        interpreted = :int.interpreted()
+
+        module
+        |> callees(line)
+        |> Enum.reject(&(&1 in interpreted))
+        |> Enum.reject(&in_sdk?(&1, sdk_absolute_path_set))
+        |> Enum.filter(&interpretable?(&1, reject_regex, nil))
+        |> interpret_concurrently()
+
+      _ ->
+        []
+    end
   end
 
-  defp interpret_modules_in(path, reject_regex) when is_binary(path) do
-    filtered =
-      path
-      |> Path.join("**/*.beam")
-      |> Path.wildcard()
-      |> Stream.map(&Path.basename(&1, ".beam"))
-      |> Enum.flat_map(fn basename ->
-        if Regex.match?(reject_regex, basename) do
-          []
-        else
-          [basename]
-        end
-      end)
+  defp callees(module, line) do
+    with beam when is_list(beam) <- :code.where_is_file(Atom.to_charlist(module) ++ '.beam'),
+         {:ok, {^module, [abstract_code: {:raw_abstract_v1, forms}]}} <- :beam_lib.chunks(beam, [:abstract_code]) do
+      forms
+      |> remote_call_modules(line, MapSet.new())
+      |> MapSet.to_list()
+    else
+      _ -> []
+    end
+  end
 
-    filtered
-    |> Stream.map(&String.to_atom/1)
-    |> Stream.filter(&(:int.interpretable(&1) == true && !:code.is_sticky(&1) && &1 != __MODULE__))
-    |> Enum.each(&time_interpret/1)
+  defp remote_call_modules(
+         {:call, anno, {:remote, _, {:atom, _, callee}, {:atom, _, _function}}, arguments},
+         line,
+         modules
+       ) do
+    modules = if anno_line(anno) == line, do: MapSet.put(modules, callee), else: modules
+
+    remote_call_modules(arguments, line, modules)
+  end
+
+  defp remote_call_modules(tuple, line, modules) when is_tuple(tuple) do
+    tuple
+    |> Tuple.to_list()
+    |> remote_call_modules(line, modules)
+  end
 
-    :ok
+  defp remote_call_modules(list, line, modules) when is_list(list) do
+    Enum.reduce(list, modules, &remote_call_modules(&1, line, &2))
+  end
+
+  defp remote_call_modules(_, _, modules), do: modules
+
+  defp anno_line(line) when is_integer(line), do: line
+  defp anno_line({line, _column}) when is_integer(line), do: line
+  defp anno_line(anno) when is_list(anno), do: Keyword.get(anno, :location) |> anno_line()
+  defp anno_line(_), do: nil
+
+  defp in_sdk?(module, sdk_absolute_path_set) do
+    case :code.which(module) do
+      path when is_list(path) ->
+        MapSet.member?(sdk_absolute_path_set, path |> to_string() |> Path.dirname() |> Path.absname())
+
+      _ ->
+        false
+    end
+  end
+
+  defp interpretable?(module, reject_regex, accept_regex) do
+    name = Atom.to_string(module)
+
+    !Regex.match?(reject_regex, name) && (accept_regex == nil || Regex.match?(accept_regex, name)) &&
+      :int.interpretable(module) == true && !:code.is_sticky(module) && module != __MODULE__
+  end
+
+  # `:int.ni/1` mostly reads and checks the abstract code in the calling process, so interpreting on all schedulers
+  # at once is faster than one module after another
+  defp interpret_concurrently(modules) do
+    modules
+    |> Task.async_stream(&time_interpret/1,
+      max_concurrency: System.schedulers_online(),
+      ordered: false,
+      timeout: :infinity
+    )
+    |> Enum.map(fn {:ok, module_microseconds} -> module_microseconds end)
+  end
+
+  defp interpret_modules_in(path, reject_regex, accept_regex) when is_binary(path) do
+    path
+    |> Path.join("**/*.beam")
+    |> Path.wildcard()
+    |> Stream.map(&Path.basename(&1, ".beam"))
+    |> Stream.map(&String.to_atom/1)
+    |> Enum.filter(&interpretable?(&1, reject_regex, accept_regex))
+    |> interpret_concurrently()
   end
 
   defp time_interpret(module) when is_atom(module) do
-    {microseconds, result} = :timer.tc(fn -> safely_interpret(module) end)
+    {microseconds, _result} = :timer.tc(fn -> safely_interpret(module) end)
 
     [[:blue, "  ", :bright, :magenta, inspect(module), :blue, " in ", :magenta, to_string(microseconds), :italic, "μs"]]
     |> IO.ANSI.format()
     |> IO.puts()
 
-    result
+    {module, microseconds}
   end
 
   defp meta_pid_to_stack(meta_pid, %{line: break_line}) do
@@ -445,15 +571,29 @@ defmodule IntelliJElixir.Debugger.Server do
     e -> {:error, e}
   end
 
-  defp snapshot_with_stacks() do
+  defp set_breakpoint(module, line, interpreted) when is_atom(module) and is_integer(line) and is_list(interpreted) do
+    unless module in interpreted, do: :int.ni(module)
+
+    :int.break(module, line)
+  end
+
+  defp full_info({break_module, break_line}), do: {break_module, break_line, source(break_module)}
+  defp full_info(info), do: info
+
+  # Only the stack of `suspended_pid` is computed: computing the backtrace and bindings of every interpreted process
+  # stalls on nodes with many processes, so the other stacks are `:not_loaded` until requested with `{:stack, pid}`.
+  defp snapshot_with_stack(suspended_pid) do
     for {pid, init, status, info} <- :int.snapshot(), into: [] do
-      full_info =
-        case info do
-          {break_module, break_line} -> {break_module, break_line, source(break_module)}
-          _ -> info
+      full_info = full_info(info)
+
+      stack =
+        if pid == suspended_pid do
+          stack(pid, status, full_info)
+        else
+          :not_loaded
         end
 
-      {pid, init, status, full_info, stack(pid, status, full_info)}
+      {pid, init, status, full_info, stack}
     end
   end
 
@@ -0,0 +1,71 @@
+defmodule IntelliJElixir.Formatter.Server do
+  @moduledoc """
+  Formats source with `Code.format_string!/2` for the IDE, so that formatting matches `mix format` without booting a VM
+  for each file.
+
+  The IDE reaches this server over distribution as a `GenServer`.  Each `{:format, texts, dot_formatter_path, options}`
+  call formats all `texts` in parallel and replies with a list in the same order where each element is
+  `{:ok, formatted}` or `{:error, message}`.
+  """
+
+  use GenServer
+
+  # `.formatter.exs` options that `Code.format_string!/2` understands.  `:import_deps` and `:inputs` need the Mix
+  # project, so they are ignored.
+  @dot_formatter_keys ~w(line_length locals_without_parens rename_deprecated_at)a
+
+  def start do
+    if Code.ensure_loaded?(Code) and function_exported?(Code, :format_string!, 2) do
+      {:ok, _} = GenServer.start(__MODULE__, nil, name: __MODULE__)
+    else
+      IO.puts(:stderr, "Code.format_string!/2 requires Elixir 1.6 or later")
+      System.halt(1)
+    end
+  end
+
+  # Callbacks
+
+  def init(state), do: {:ok, state}
+
+  def handle_call({:format, texts, dot_formatter_path, options}, from, state) do
+    # formatted outside the server, so a long batch doesn't block other callers
+    spawn(fn -> GenServer.reply(from, format(texts, dot_formatter_path, options)) end)
+
+    {:noreply, state}
+  end
+
+  # Functions
+
+  defp dot_formatter_options(nil), do: []
+
+  defp dot_formatter_options(path) do
+    {options, _} = Code.eval_file(path)
+
+    Keyword.take(options, @dot_formatter_keys)
+  rescue
+    _ -> []
+  end
+
+  defp format(texts, dot_formatter_path, options) do
+    merged_options = Keyword.merge(options, dot_formatter_options(dot_formatter_path))
+
+    texts
+    |> Task.async_stream(&format_text(&1, merged_options), ordered: true, timeout: :infinity)
+    |> Enum.map(fn {:ok, result} -> result end)
+  end
+
+  defp format_text(text, options) do
+    formatted =
+      text
+      |> Code.format_string!(options)
+      |> IO.iodata_to_binary()
+
+    # `mix format` ends non-empty files with a newline
+    case formatted do
+      "" -> {:ok, ""}
+      _ -> {:ok, formatted <> "\n"}
+    end
+  rescue
+    exception -> {:error, Exception.message(exception)}
+  end
+end
@@ -3,8 +3,11 @@ package org.elixir_lang
 import com.intellij.openapi.Disposable
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.components.ProjectComponent
+import com.intellij.openapi.module.Module
 import com.intellij.openapi.module.ModuleManager
 import com.intellij.openapi.module.ModuleUtil
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.roots.ModuleRootManager
 import com.intellij.openapi.roots.OrderRootType
@@ -15,15 +18,21 @@ import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.openapi.vfs.VirtualFileEvent
 import com.intellij.openapi.vfs.VirtualFileListener
 import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.util.Alarm
 import org.elixir_lang.mix.Watcher
 import org.elixir_lang.mix.library.Kind
+import org.jetbrains.annotations.TestOnly
 import java.net.URI
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * Watches the [project]'s `deps` folder for changes to `mix` deps
  *
  * * `deps/APPLICATION/{c_src,lib,priv,src}` - sources
  * * `_build/ENVIRONMENT/{consolidated,lib/APPLICATION/ebin` - classes
+ *
+ * Events only record which deps changed.  The libraries are synced once the events stop for [QUIET_MILLIS], with the
+ * changes computed off the EDT and applied in one write action.
  */
 class DepsWatcher(
         private val project: Project,
@@ -31,6 +40,17 @@ class DepsWatcher(
         private val virtualFileManager: VirtualFileManager
 ) :
         ProjectComponent, Disposable, VirtualFileListener {
+    private val pendingLock = Any()
+    /**
+     * Guarded by [pendingLock]
+     */
+    private var pending = Pending()
+    private val syncAlarm = Alarm(Alarm.ThreadToUse.POOLED_THREAD, this)
+    /**
+     * The number of [sync]s being computed or waiting to be applied
+     */
+    private val syncingCount = AtomicInteger(0)
+
     override fun initComponent() {
         virtualFileManager.addVirtualFileListener(this, this)
     }
@@ -119,57 +139,272 @@ class DepsWatcher(
         }
     }
 
+    /**
+     * Queues a sync of all the deps' libraries.  The sync is asynchronous: the libraries are changed in a later write
+     * action on the EDT once the events stop for [QUIET_MILLIS], not before this returns.
+     */
     fun syncLibraries(project: Project) {
-        project.baseDir.findChild("deps")?.let { syncLibraries(it) }
+        if (project == this.project) {
+            queue { syncAll = true }
+        }
     }
 
-    private fun syncLibrary(dep: VirtualFile) = syncLibraries(arrayOf(dep))
+    private fun syncLibrary(dep: VirtualFile) = queue {
+        deletedDepNameSet.remove(dep.name)
+        syncedDepNameSet.add(dep.name)
+    }
 
-    private fun syncLibraries(deps: VirtualFile) = deps.children.let { syncLibraries(it) }
+    private fun syncLibraries(@Suppress("UNUSED_PARAMETER") deps: VirtualFile) = queue { syncAll = true }
 
-    private fun syncLibraries(deps: Array<VirtualFile>) {
-        ApplicationManager.getApplication().invokeAndWait {
-            ApplicationManager.getApplication().runWriteAction {
-                val libraryTable = LibraryTablesRegistrar.getInstance().getLibraryTable(project)
+    private fun deleteAllLibraries(@Suppress("UNUSED_PARAMETER") deps: VirtualFile) = queue {
+        deleteAll = true
+        syncAll = false
+        syncedDepNameSet.clear()
+        deletedDepNameSet.clear()
+    }
 
-                syncLibraries(deps, libraryTable)
+    private fun deleteLibrary(dep: VirtualFile) = queue {
+        syncedDepNameSet.remove(dep.name)
+        deletedDepNameSet.add(dep.name)
+    }
+
+    /**
+     * The deps changed since the last [sync].
+     */
+    private class Pending {
+        var deleteAll = false
+        val deletedDepNameSet = mutableSetOf<String>()
+        var syncAll = false
+        val syncedDepNameSet = mutableSetOf<String>()
+        var firstQueuedMillis = 0L
+
+        fun isEmpty(): Boolean = !deleteAll && deletedDepNameSet.isEmpty() && !syncAll && syncedDepNameSet.isEmpty()
+
+        /**
+         * Records the [newer] changes on top of these older ones.
+         */
+        fun addAll(newer: Pending) {
+            if (newer.deleteAll) {
+                deleteAll = true
+                syncAll = false
+                syncedDepNameSet.clear()
+                deletedDepNameSet.clear()
             }
+
+            syncedDepNameSet.removeAll(newer.deletedDepNameSet)
+            deletedDepNameSet.addAll(newer.deletedDepNameSet)
+            deletedDepNameSet.removeAll(newer.syncedDepNameSet)
+            syncedDepNameSet.addAll(newer.syncedDepNameSet)
+            syncAll = syncAll || newer.syncAll
         }
+    }
+
+    /**
+     * Records the change in [pending] and (re)starts the quiet window, so that the thousands of events from
+     * `mix deps.get` or `mix compile` become one [sync].  A steady stream of events still syncs every
+     * [MAX_QUEUED_MILLIS].
+     */
+    private fun queue(change: Pending.() -> Unit) {
+        synchronized(pendingLock) {
+            val now = System.currentTimeMillis()
+
+            if (pending.isEmpty()) {
+                pending.firstQueuedMillis = now
+            }
+
+            pending.change()
 
-        moduleManager.modules.forEach { module ->
-            module.getComponent(Watcher::class.java).syncLibraries()
+            if (now - pending.firstQueuedMillis < MAX_QUEUED_MILLIS) {
+                syncAlarm.cancelAllRequests()
+                syncAlarm.addRequest({ sync() }, QUIET_MILLIS)
+            } else if (syncAlarm.isEmpty) {
+                syncAlarm.addRequest({ sync() }, QUIET_MILLIS)
+            }
         }
     }
 
-    private fun syncLibraries(
-            deps: Array<VirtualFile>,
-            libraryTable: LibraryTable
-    ) {
-        val libraryTableModifiableModel = libraryTable.modifiableModel
+    /**
+     * Puts the [synced] changes back in front of any queued since, so that they are retried by the next [sync].
+     */
+    private fun requeue(synced: Pending) {
+        synchronized(pendingLock) {
+            synced.addAll(pending)
+            pending = synced
 
-        deps.forEach { dep ->
-            syncLibrary(dep, libraryTable, libraryTableModifiableModel)
+            if (syncAlarm.isEmpty) {
+                syncAlarm.addRequest({ sync() }, QUIET_MILLIS)
+            }
         }
+    }
 
-        libraryTableModifiableModel.commit()
+    /**
+     * Computes the changes to the [LibraryTable] in a read action on the pooled thread and then applies them all in
+     * one write action.
+     *
+     * The read action yields to write actions: if one is waiting, the read action is canceled and the changes are
+     * [requeue]d instead of blocking the EDT.
+     */
+    private fun sync() {
+        syncingCount.incrementAndGet()
+
+        try {
+            val synced = synchronized(pendingLock) {
+                pending.also { pending = Pending() }
+            }
+
+            if (!synced.isEmpty() && !project.isDisposed) {
+                var computed: Change? = null
+
+                if (!ProgressIndicatorUtils.runInReadActionWithWriteActionPriority { computed = change(synced) }) {
+                    requeue(synced)
+
+                    return
+                }
 
+                val change = computed!!
+                val application = ApplicationManager.getApplication()
+
+                syncingCount.incrementAndGet()
+                application.invokeLater(
+                        {
+                            try {
+                                if (!change.isEmpty()) {
+                                    application.runWriteAction { change.apply() }
+                                }
+
+                                moduleManager.modules.forEach { module ->
+                                    module.getComponent(Watcher::class.java)?.syncLibraries()
+                                }
+                            } finally {
+                                syncingCount.decrementAndGet()
+                            }
+                        },
+                        project.disposed
+                )
+            }
+        } finally {
+            syncingCount.decrementAndGet()
+        }
     }
 
-    private fun syncLibrary(
-            dep: VirtualFile,
-            libraryTable: LibraryTable,
-            libraryTableModifiableModel: LibraryTable.ModifiableModel
+    /**
+     * Whether events are waiting for the quiet window to end or a sync is being computed or applied.
+     */
+    @TestOnly
+    fun isSyncing(): Boolean =
+            synchronized(pendingLock) { !pending.isEmpty() || !syncAlarm.isEmpty } || syncingCount.get() > 0
+
+    /**
+     * The roots to add to each dep's [Library] and the folders to exclude from each [Module].
+     *
+     * Roots are only ever added, as before, so a [Library] that already has all its roots is left alone.
+     */
+    private class LibraryChange(val name: String, val classesRoots: List<VirtualFile>, val sourcesRoots: List<VirtualFile>)
+
+    private inner class Change(
+            private val removedLibraryList: List<Library>,
+            private val libraryChangeList: List<LibraryChange>,
+            private val excludeFolderListByModule: Map<Module, List<VirtualFile>>
     ) {
-        val depName = dep.name
+        fun isEmpty(): Boolean =
+                removedLibraryList.isEmpty() && libraryChangeList.isEmpty() && excludeFolderListByModule.isEmpty()
+
+        /**
+         * Must be called in a write action.  Anything deleted since the [Change] was computed is skipped.
+         */
+        fun apply() {
+            val libraryTable = LibraryTablesRegistrar.getInstance().getLibraryTable(project)
+            val libraryTableModifiableModel = libraryTable.modifiableModel
+
+            for (library in removedLibraryList) {
+                if (libraryTable.getLibraryByName(library.name ?: continue) == library) {
+                    libraryTableModifiableModel.removeLibrary(library)
+                }
+            }
 
-        val library = libraryTable.getLibraryByName(depName)
-                ?: libraryTableModifiableModel.createLibrary(dep.name, Kind)
+            for (libraryChange in libraryChangeList) {
+                val library = libraryTableModifiableModel.getLibraryByName(libraryChange.name)
+                        ?: libraryTableModifiableModel.createLibrary(libraryChange.name, Kind)
+                val libraryModifiableModel = library.modifiableModel
+
+                addRoots(libraryModifiableModel, libraryChange.classesRoots, OrderRootType.CLASSES)
+                addRoots(libraryModifiableModel, libraryChange.sourcesRoots, OrderRootType.SOURCES)
 
-        syncLibrary(library, dep, depName)
+                libraryModifiableModel.commit()
+            }
+
+            libraryTableModifiableModel.commit()
+
+            for ((module, excludeFolderList) in excludeFolderListByModule) {
+                if (!module.isDisposed) {
+                    /* Mark build output as excluded when marking it as CLASSES, so that dependency will show up in
+                       External Libraries AND be pushed out into non-project results */
+                    ModuleRootManager.getInstance(module).modifiableModel.apply {
+                        contentEntries.forEach { contentEntry ->
+                            excludeFolderList.filter { it.isValid }.forEach { contentEntry.addExcludeFolder(it) }
+                        }
+
+                        commit()
+                    }
+                }
+            }
+        }
+
+        private fun addRoots(
+                libraryModifiableModel: Library.ModifiableModel,
+                roots: List<VirtualFile>,
+                rootType: OrderRootType
+        ) {
+            val urlSet = libraryModifiableModel.getUrls(rootType).toSet()
+
+            roots
+                    .filter { it.isValid && it.url !in urlSet }
+                    .forEach { libraryModifiableModel.addRoot(it, rootType) }
+        }
     }
 
-    private fun syncLibrary(library: Library, dep: VirtualFile, depName: String) {
-        val libraryModifiableModel = library.modifiableModel
+    /**
+     * Must be called in a read action.  Checks for cancellation between deps, so that a waiting write action can
+     * cancel it.
+     */
+    private fun change(pending: Pending): Change {
+        val libraryTable = LibraryTablesRegistrar.getInstance().getLibraryTable(project)
+        val baseDir = project.baseDir
+        val removedLibraryList = mutableListOf<Library>()
+
+        if (pending.deleteAll) {
+            removedLibraryList.addAll(depsLibraries(libraryTable, baseDir.url + "/deps"))
+        }
+
+        pending.deletedDepNameSet.mapNotNullTo(removedLibraryList) { libraryTable.getLibraryByName(it) }
+
+        val depsDirectory = baseDir.findChild("deps")
+        val syncedDeps = when {
+            depsDirectory == null -> emptyList()
+            pending.syncAll -> depsDirectory.children.toList()
+            else -> pending.syncedDepNameSet.mapNotNull { depsDirectory.findChild(it) }
+        }
+        val libraryChangeList = mutableListOf<LibraryChange>()
+        val excludeFolderListByModule = mutableMapOf<Module, MutableList<VirtualFile>>()
+
+        for (dep in syncedDeps) {
+            ProgressManager.checkCanceled()
+            libraryChange(dep, libraryTable, excludeFolderListByModule)?.let { libraryChangeList.add(it) }
+        }
+
+        return Change(removedLibraryList, libraryChangeList, excludeFolderListByModule)
+    }
+
+    /**
+     * @return `null` if the [Library] for [dep] already has all its roots.
+     */
+    private fun libraryChange(
+            dep: VirtualFile,
+            libraryTable: LibraryTable,
+            excludeFolderListByModule: MutableMap<Module, MutableList<VirtualFile>>
+    ): LibraryChange? {
+        val depName = dep.name
+        val classesRoots = mutableListOf<VirtualFile>()
 
         project.baseDir.findChild("_build")?.let { build ->
             build.children.filter { it.isDirectory }.forEach { environment ->
@@ -177,27 +412,27 @@ class DepsWatcher(
                     val environmentChildName = environmentChild.name
 
                     if (environmentChildName == "consolidated") {
-                        libraryModifiableModel.addRoot(environmentChild, OrderRootType.CLASSES)
+                        classesRoots.add(environmentChild)
                     } else if (environmentChildName == "lib") {
                         environmentChild.findChild(depName)?.let{ depEnvironmentLibrary ->
                             depEnvironmentLibrary.findChild("ebin")?.let { ebin ->
                                 if (ebin.isDirectory) {
-                                    /* Mark build output as excluded when marking it as CLASSES, so that
-                                       dependency will show up in External Libraries AND be pushed out into
-                                       non-project results */
                                     ModuleUtil
                                             .findModuleForFile(depEnvironmentLibrary, project)
                                             ?.let { module ->
-                                                ModuleRootManager.getInstance(module).modifiableModel.apply {
-                                                    contentEntries.forEach { contentEntry ->
-                                                        contentEntry.addExcludeFolder(depEnvironmentLibrary)
-                                                    }
-
-                                                    commit()
+                                                val isExcluded = ModuleRootManager
+                                                        .getInstance(module)
+                                                        .contentEntries
+                                                        .all { depEnvironmentLibrary.url in it.excludeFolderUrls }
+
+                                                if (!isExcluded) {
+                                                    excludeFolderListByModule
+                                                            .getOrPut(module) { mutableListOf() }
+                                                            .add(depEnvironmentLibrary)
                                                 }
                                             }
 
-                                    libraryModifiableModel.addRoot(ebin, OrderRootType.CLASSES)
+                                    classesRoots.add(ebin)
                                 }
                             }
                         }
@@ -206,24 +441,25 @@ class DepsWatcher(
             }
         }
 
-        dep.children.filter { it.isDirectory }.forEach { child ->
-            if (child.name in SOURCE_NAMES) {
-                libraryModifiableModel.addRoot(child, OrderRootType.SOURCES)
-            }
-        }
+        val sourcesRoots = dep.children.filter { it.isDirectory && it.name in SOURCE_NAMES }
+        val library = libraryTable.getLibraryByName(depName)
 
-        libraryModifiableModel.commit()
+        return if (library != null &&
+                library.getUrls(OrderRootType.CLASSES).toSet().containsAll(classesRoots.map { it.url }) &&
+                library.getUrls(OrderRootType.SOURCES).toSet().containsAll(sourcesRoots.map { it.url })) {
+            null
+        } else {
+            LibraryChange(depName, classesRoots, sourcesRoots)
+        }
     }
 
-    private fun deleteAllLibraries(deps: VirtualFile) {
-        val libraryTable = LibraryTablesRegistrar.getInstance().getLibraryTable(project)
-
-        val depsLibraries = libraryTable.libraries.filter { library ->
+    private fun depsLibraries(libraryTable: LibraryTable, depsUrl: String): List<Library> =
+        libraryTable.libraries.filter { library ->
             // `getFile` won't return a `VirtualFile` that has been deleted, so need to use `getUrls`
             val urls = library.getUrls(OrderRootType.SOURCES)
 
             if (urls.isNotEmpty()) {
-                val prefixURI = URI(deps.url)
+                val prefixURI = URI(depsUrl)
 
                 urls.all { url ->
                     val uri = URI(url)
@@ -235,28 +471,16 @@ class DepsWatcher(
                 false
             }
         }
-
-        if (depsLibraries.isNotEmpty()) {
-            ApplicationManager.getApplication().invokeAndWait {
-                ApplicationManager.getApplication().runWriteAction {
-                    depsLibraries.forEach { libraryTable.removeLibrary(it) }
-                }
-            }
-        }
-    }
-
-    private fun deleteLibrary(dep: VirtualFile) {
-        val libraryTable = LibraryTablesRegistrar.getInstance().getLibraryTable(project)
-        val depName = dep.name
-
-        libraryTable.getLibraryByName(depName)?.let { library ->
-            ApplicationManager.getApplication().invokeAndWait {
-                ApplicationManager.getApplication().runWriteAction {
-                    libraryTable.removeLibrary(library)
-                }
-            }
-        }
-    }
 }
 
 private val SOURCE_NAMES = arrayOf("c_src", "lib", "priv", "src")
+
+/**
+ * How long VFS events must stop for before a [DepsWatcher] syncs.
+ */
+private const val QUIET_MILLIS = 500
+
+/**
+ * The longest a [DepsWatcher] waits for VFS events to stop before syncing anyway.
+ */
+private const val MAX_QUEUED_MILLIS = 5_000
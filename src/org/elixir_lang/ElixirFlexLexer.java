@@ -1147,6 +1147,16 @@ public class ElixirFlexLexer implements FlexLexer {
     this.project = project;
   }
 
+  // for {@link org.elixir_lang.lexer.RestartableFlexLexer}
+  @NotNull
+  public org.elixir_lang.lexer.Stack getStack() {
+    return stack;
+  }
+
+  public void setStack(@NotNull org.elixir_lang.lexer.Stack stack) {
+    this.stack = stack;
+  }
+
 
   /**
    * Creates a new scanner
@@ -1,16 +1,43 @@
 package org.elixir_lang
 
 import com.intellij.lexer.FlexAdapter
+import com.intellij.lexer.FlexLexer
 import com.intellij.openapi.project.Project
+import org.elixir_lang.lexer.RestartableFlexLexer
 
 import java.io.Reader
 
-class ElixirFlexLexerAdapter(project: Project?) : FlexAdapter(ElixirFlexLexer(null as Reader?)) {
+/**
+ * @param restartable whether [getState] should include the [ElixirFlexLexer.getStack] by using a
+ *   [RestartableFlexLexer], so that the lexer can be restarted at any token boundary, such as by an editor highlighter.
+ *   When `false`, [getState] is only the [ElixirFlexLexer.yystate].
+ */
+class ElixirFlexLexerAdapter(project: Project?, restartable: Boolean) : FlexAdapter(flexLexer(restartable)) {
+    constructor(project: Project?) : this(project, false)
+
+    private val elixirFlexLexer: ElixirFlexLexer
+        get() = flex.let { flex ->
+            when (flex) {
+                is RestartableFlexLexer -> flex.elixirFlexLexer
+                else -> flex as ElixirFlexLexer
+            }
+        }
+
     var level: Level?
-      get() = (flex as ElixirFlexLexer).level
-      set(value) = (flex as ElixirFlexLexer).setLevel(value)
+      get() = elixirFlexLexer.level
+      set(value) = elixirFlexLexer.setLevel(value)
 
     init {
-        (flex as ElixirFlexLexer).project = project
+        elixirFlexLexer.project = project
+    }
+}
+
+private fun flexLexer(restartable: Boolean): FlexLexer {
+    val elixirFlexLexer = ElixirFlexLexer(null as Reader?)
+
+    return if (restartable) {
+        RestartableFlexLexer(elixirFlexLexer)
+    } else {
+        elixirFlexLexer
     }
 }
@@ -400,10 +400,14 @@ public class ElixirSyntaxHighlighter extends SyntaxHighlighterBase {
             ElixirTypes.OCTAL_WHOLE_NUMBER_BASE
     );
 
+    /**
+     * The states of the highlighting lexer include the heredoc, sigil, and interpolation nesting, so that the editor
+     * only restarts lexing after an edit where the nesting is really empty.
+     */
     @NotNull
     @Override
     public Lexer getHighlightingLexer() {
-        return new ElixirLexer();
+        return new ElixirLexer(new ElixirFlexLexerAdapter(null, true));
     }
 
     @NotNull
@@ -2,10 +2,14 @@ package org.elixir_lang
 
 import com.ericsson.otp.erlang.*
 import com.intellij.openapi.application.ApplicationManager
+import com.intellij.util.concurrency.AppExecutorUtil
 import org.elixir_lang.mail_box.BADRPC
 import org.elixir_lang.mail_box.BadRPC
+import org.elixir_lang.mail_box.Envelope
 import org.elixir_lang.mail_box.WaitingMatcher
 import org.elixir_lang.psi.impl.QuotableImpl.NIL
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ConcurrentLinkedQueue
 import java.util.concurrent.ExecutionException
 import java.util.concurrent.TimeUnit
@@ -16,37 +20,64 @@ fun otpErlangTuple(vararg elements: OtpErlangObject) = OtpErlangTuple(elements)
 /**
  * [OtpMbox] that supports selective receive.
  *
- * Messages are [OtpMbox.receive]d in a pooled thread and stored until [selectiveReceive]
+ * Messages are [OtpMbox.receive]d in a pooled thread.  Replies to calls made through this mailbox are handed directly
+ * to the caller waiting on their `reference()`; all other messages are stored until [receive]d.
  */
 class MailBox(private val otpNode: OtpNode, private val otpMbox: OtpMbox) {
+    // declared before `init` because the pooled thread started there uses them
+    private val receivedEnvelopes = ConcurrentLinkedQueue<Envelope>()
+    private val replyByRef = ConcurrentHashMap<OtpErlangRef, CompletableFuture<OtpErlangObject>>()
+    private val waitingMatchers = ConcurrentLinkedQueue<WaitingMatcher>()
+    private val serverPidByServer = ConcurrentHashMap<Server, OtpErlangPid>()
+
     init {
         ApplicationManager.getApplication().executeOnPooledThread {
             try {
                 loop()
             } catch (exception: Exception) {
-                while (!waitingMatchers.isEmpty()) {
-                    waitingMatchers.poll()?.completeExceptionally(exception)
-                }
+                completeAllExceptionally(exception)
             }
         }
     }
 
-    fun genericServerCall(remote: Server, request: OtpErlangObject, timeout: Int): OtpErlangObject {
-        val serverPid = processWhereIs(remote, timeout)
-                ?: throw OtpErlangExit("Could not determine PID for $remote within $timeout")
+    fun genericServerCall(remote: Server, request: OtpErlangObject, timeout: Int): OtpErlangObject =
+            get(genericServerCallAsync(remote, request, timeout), null)
 
-        return genericServerCall(serverPid, request, timeout)
+    /**
+     * Like [genericServerCall], but returns as soon as [request] is sent, so that many requests can be in flight over
+     * this mailbox at once.  [remote] receives the requests in the order they are sent.
+     *
+     * @return completed with the reply, or exceptionally with [OtpErlangExit] if there is no reply within [timeout].
+     */
+    fun genericServerCallAsync(remote: Server,
+                               request: OtpErlangObject,
+                               timeout: Int): CompletableFuture<OtpErlangObject> {
+        val serverPid = serverPid(remote, timeout)
+
+        return genericUnmonitoredCallAsync(GEN_CALL, request, timeout) { message -> otpMbox.send(serverPid, message) }
+                .whenComplete { _, throwable ->
+                    if (throwable != null) {
+                        serverPidByServer.remove(remote, serverPid)
+                    }
+                }
     }
 
-    private fun genericServerCall(serverPid: OtpErlangPid, request: OtpErlangObject, timeout: Int): OtpErlangObject {
-        otpMbox.link(serverPid)
-
-        val response = genericServerUnmonitoredCall(serverPid, request, timeout)
-
-        otpMbox.unlink(serverPid)
+    /**
+     * The PID of [remote] is looked up on the first call, so that later calls don't need to wait for a
+     * `Process.whereis` round-trip before sending their request.
+     *
+     * JInterface has no monitors and a link would take this mailbox down with [remote], so instead the PID is evicted
+     * when a call to it fails or times out, as it does once [remote] is down, and the next call looks it up again.
+     * The lookup blocks, so it is done outside of [serverPidByServer]'s lock; concurrent first calls may each look it
+     * up, but they all use the first PID stored.
+     */
+    private fun serverPid(remote: Server, timeout: Int): OtpErlangPid =
+            serverPidByServer[remote] ?: run {
+                val serverPid = processWhereIs(remote, timeout)
+                        ?: throw OtpErlangExit("Could not determine PID for $remote within $timeout")
 
-        return response
-    }
+                serverPidByServer.putIfAbsent(remote, serverPid) ?: serverPid
+            }
 
     @Throws(BadRPC::class)
     private fun processWhereIs(remote: Server, timeout: Int): OtpErlangPid? {
@@ -96,9 +127,6 @@ class MailBox(private val otpNode: OtpNode, private val otpMbox: OtpMbox) {
     private fun genericServerUnmonitoredCall(remote: Server, request: OtpErlangObject, timeout: Int): OtpErlangObject =
             genericUnmonitoredCall(remote, GEN_CALL, request, timeout)
 
-    private fun genericServerUnmonitoredCall(serverPid: OtpErlangPid, request: OtpErlangObject, timeout: Int): OtpErlangObject =
-            genericUnmonitoredCall(serverPid, GEN_CALL, request, timeout)
-
     /**
      * Sends a generic message containing `request` with the given `label` to `remoteName` process on
      * `remoteNode` from `localMbox` on `localNode`.  Unlike, `gen:call`, a monitor is not setup prior
@@ -109,31 +137,44 @@ class MailBox(private val otpNode: OtpNode, private val otpMbox: OtpMbox) {
     private fun genericUnmonitoredCall(remote: Server, label: OtpErlangAtom, request: OtpErlangObject, timeout: Int): OtpErlangObject =
             genericUnmonitoredCall(label, request, timeout) { message -> otpMbox.send(remote.registeredNamed, remote.nodeName, message) }
 
-    private fun genericUnmonitoredCall(serverPid: OtpErlangPid, label: OtpErlangAtom, request: OtpErlangObject, timeout: Int): OtpErlangObject =
-            genericUnmonitoredCall(label, request, timeout) { message -> otpMbox.send(serverPid, message) }
-
     private fun genericUnmonitoredCall(
             label: OtpErlangAtom,
             request: OtpErlangObject,
             timeout: Int,
             send: (message: OtpErlangObject) -> Unit
-    ): OtpErlangObject {
+    ): OtpErlangObject = get(genericUnmonitoredCallAsync(label, request, timeout, send), null)
+
+    private fun genericUnmonitoredCallAsync(
+            label: OtpErlangAtom,
+            request: OtpErlangObject,
+            timeout: Int,
+            send: (message: OtpErlangObject) -> Unit
+    ): CompletableFuture<OtpErlangObject> {
         val ref = otpNode.createRef()
         val message = otpErlangTuple(label, returnAddress(otpMbox, ref), request)
+        val reply = CompletableFuture<OtpErlangObject>()
 
-        send(message)
+        // registered before sending, so that the reply can't arrive before anyone is waiting for it
+        replyByRef[ref] = reply
 
-        val received = receive(timeout) { receivedMessage ->
-            if (receivedMessage is OtpErlangTuple &&
-                    receivedMessage.arity() == 2 &&
-                    receivedMessage.elementAt(0) == ref) {
-                receivedMessage.elementAt(1)
-            } else {
-                null
-            }
+        val timeoutFuture = AppExecutorUtil.getAppScheduledExecutorService().schedule(
+                { reply.completeExceptionally(OtpErlangExit(TIMEOUT)) },
+                timeout.toLong(),
+                TimeUnit.MILLISECONDS
+        )
+
+        reply.whenComplete { _, _ ->
+            replyByRef.remove(ref)
+            timeoutFuture.cancel(false)
+        }
+
+        try {
+            send(message)
+        } catch (exception: Exception) {
+            reply.completeExceptionally(exception)
         }
 
-        return received as OtpErlangObject
+        return reply
     }
 
     /**
@@ -143,30 +184,46 @@ class MailBox(private val otpNode: OtpNode, private val otpMbox: OtpMbox) {
      *
      * @return output of [matcher] if it found a match; otherwise, `null`.
      */
-    fun <T> match(matcher: (message: OtpErlangObject) -> T): T? =
-        synchronized(receivedMessages) {
-            var matchedIndex: Int? = null
-            var matched: T? = null
+    fun <T : Any> match(matcher: (message: OtpErlangObject) -> T?): T? = match(matcher) { true }
 
-            for ((index, receivedMessage) in receivedMessages.withIndex()) {
-                matched = matcher(receivedMessage)
+    /**
+     * Like [match], but the matched message is only removed from the mailbox if [complete] accepts the output of
+     * [matcher].
+     */
+    private fun <T : Any> match(matcher: (message: OtpErlangObject) -> T?, complete: (matched: T) -> Boolean): T? {
+        val iterator = receivedEnvelopes.iterator()
 
-                if (matched != null) {
-                    matchedIndex = index
-                    break
-                }
+        while (iterator.hasNext()) {
+            val envelope = iterator.next()
+
+            if (envelope.isConsumed) {
+                iterator.remove()
+                continue
             }
 
-            if (matchedIndex != null) {
-                receivedMessages.removeAt(matchedIndex)
+            if (!envelope.isAvailable) {
+                continue
             }
 
-            @Suppress("PLATFORM_CLASS_MAPPED_TO_KOTLIN")
-            (receivedMessages as java.lang.Object).notifyAll()
+            val matched = matcher(envelope.message) ?: continue
 
-            matched
+            if (envelope.claim()) {
+                return if (complete(matched)) {
+                    envelope.consume()
+                    iterator.remove()
+
+                    matched
+                } else {
+                    release(envelope)
+
+                    null
+                }
+            }
         }
 
+        return null
+    }
+
     /**
      * Waits to receive message matching [matcher] until [timeout]
      */
@@ -193,69 +250,125 @@ class MailBox(private val otpNode: OtpNode, private val otpMbox: OtpMbox) {
     }
 
     private fun wait(timeout: Int? = null, matcher: (message: OtpErlangObject) -> Any?): Any {
-        val waitingMatcher = org.elixir_lang.mail_box.WaitingMatcher(matcher)
+        val waitingMatcher = WaitingMatcher(matcher)
 
         waitingMatchers.add(waitingMatcher)
 
-        return if (timeout != null) {
-            try {
-                waitingMatcher.get(timeout.toLong(), TimeUnit.MILLISECONDS)!!
-            } catch (timeoutException: TimeoutException) {
-                throw OtpErlangExit(TIMEOUT)
-            }
-        } else {
+        /* a message may have arrived between when [match] failed and [waitingMatcher] was added, and it is only
+           offered to the [waitingMatchers] when it arrives, so check again now that [waitingMatcher] is visible. */
+        match(matcher) { matched -> waitingMatcher.complete(matched) }
+
+        return try {
+            get(waitingMatcher, timeout)
+        } finally {
+            waitingMatchers.remove(waitingMatcher)
+        }
+    }
+
+    @Throws(OtpErlangExit::class)
+    private fun <T> get(future: CompletableFuture<T>, timeout: Int?): T =
             try {
-                waitingMatcher.get()
+                if (timeout != null) {
+                    try {
+                        future.get(timeout.toLong(), TimeUnit.MILLISECONDS)!!
+                    } catch (timeoutException: TimeoutException) {
+                        // cancel fails if the future was completed after the timeout, so the message is not lost
+                        if (future.cancel(false)) {
+                            throw OtpErlangExit(TIMEOUT)
+                        } else {
+                            future.get()
+                        }
+                    }
+                } else {
+                    future.get()
+                }
             } catch (executionException: ExecutionException) {
                 throw executionException.cause!!
             }
-        }
-    }
-
-    private val waitingMatchers = ConcurrentLinkedQueue<WaitingMatcher>()
 
     private tailrec fun loop() {
         val received = otpMbox.receive()
 
         if (received != CLOSE) {
-            synchronized(receivedMessages) {
-                receivedMessages.add(received)
+            if (!reply(received)) {
+                val envelope = Envelope(received)
 
-                checkWaitingMatchers()
+                receivedEnvelopes.add(envelope)
+                offer(envelope)
             }
 
             loop()
         } else {
-            val exit = OtpErlangExit("normal")
-
-            while (!waitingMatchers.isEmpty()) {
-                waitingMatchers.poll()?.completeExceptionally(exit)
-            }
+            completeAllExceptionally(OtpErlangExit("normal"))
 
             otpMbox.close()
             otpNode.close()
         }
     }
 
-    private fun checkWaitingMatchers() {
-        val iterator = waitingMatchers.iterator()
+    /**
+     * Completes the call waiting for [received] if [received] is a `{reference(), reply}` for a call made by this
+     * mailbox.
+     *
+     * @return `true` if [received] was a reply that was handed to its caller.
+     */
+    private fun reply(received: OtpErlangObject): Boolean =
+            if (received is OtpErlangTuple && received.arity() == 2) {
+                val ref = received.elementAt(0)
+
+                if (ref is OtpErlangRef) {
+                    replyByRef.remove(ref)?.complete(received.elementAt(1)) ?: false
+                } else {
+                    false
+                }
+            } else {
+                false
+            }
 
-        while (iterator.hasNext()) {
-            val waitingMatcher = iterator.next()
-            val matcher = waitingMatcher.matcher
-            /* could call on only new message, but there is a potential race condition between when [match] failed and
-               [wait] was called, so re-run on all messages to be safe. */
-            val matched = match(matcher)
+    /**
+     * Offers [envelope] to the first of the [waitingMatchers] that matches its message.
+     */
+    private fun offer(envelope: Envelope) {
+        for (waitingMatcher in waitingMatchers) {
+            if (waitingMatcher.isDone) {
+                continue
+            }
 
-            if (matched != null) {
-                iterator.remove()
-                waitingMatcher.complete(matched)
-                break
+            val matched = waitingMatcher.matcher(envelope.message) ?: continue
+
+            if (envelope.claim()) {
+                if (waitingMatcher.complete(matched)) {
+                    envelope.consume()
+                    receivedEnvelopes.remove(envelope)
+                } else {
+                    // [waitingMatcher] was completed by another message or timed out since it was checked
+                    release(envelope)
+                }
             }
+
+            // whoever has claimed the envelope is responsible for releasing it
+            break
         }
     }
 
-    private val receivedMessages: MutableList<OtpErlangObject> = mutableListOf()
+    /**
+     * Makes [envelope] available again and re-offers it, as [waitingMatchers] that were added while it was claimed
+     * will have skipped it.
+     */
+    private fun release(envelope: Envelope) {
+        envelope.release()
+        offer(envelope)
+    }
+
+    private fun completeAllExceptionally(exception: Exception) {
+        while (!waitingMatchers.isEmpty()) {
+            waitingMatchers.poll()?.completeExceptionally(exception)
+        }
+
+        for (ref in replyByRef.keys) {
+            replyByRef.remove(ref)?.completeExceptionally(exception)
+        }
+    }
 
     private fun returnAddress(otpMbox: OtpMbox, otpErlangRef: OtpErlangRef): OtpErlangTuple = OtpErlangTuple(arrayOf(
             otpMbox.self(),
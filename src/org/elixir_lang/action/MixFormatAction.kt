@@ -0,0 +1,109 @@
+package org.elixir_lang.action
+
+import com.intellij.openapi.actionSystem.AnAction
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.actionSystem.CommonDataKeys
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.ReadAction
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.progress.Task
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectFileIndex
+import com.intellij.openapi.vfs.VfsUtilCore
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiManager
+import com.intellij.psi.codeStyle.CodeStyleSettingsManager
+import org.elixir_lang.ElixirFileType
+import org.elixir_lang.ElixirLanguage
+import org.elixir_lang.formatter.worker.Batch
+
+/**
+ * Formats the selected Elixir files and all Elixir files under the selected directories with `Code.format_string!`.
+ *
+ * All the files that share an SDK and `.formatter.exs` are sent to the formatter worker in one request, which formats
+ * them in parallel, instead of launching `mix format` for each file.
+ */
+class MixFormatAction : AnAction() {
+    override fun update(event: AnActionEvent) {
+        val virtualFiles = event.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY)
+
+        event.presentation.isEnabledAndVisible = event.project != null &&
+                virtualFiles != null &&
+                virtualFiles.any { it.isDirectory || it.fileType == ElixirFileType.INSTANCE }
+    }
+
+    override fun actionPerformed(event: AnActionEvent) {
+        val project = event.project ?: return
+        val virtualFiles = event.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY) ?: return
+        val lineLength = CodeStyleSettingsManager.getSettings(project).getRightMargin(ElixirLanguage)
+
+        ProgressManager.getInstance().run(object : Task.Backgroundable(project, "Formatting with mix format", true) {
+            override fun run(indicator: ProgressIndicator) {
+                val batchList = ReadAction.compute<List<Batch>, RuntimeException> {
+                    Batch.batchList(elixirPsiFileList(project, virtualFiles), lineLength)
+                }
+                val formattedByPsiFile = mutableMapOf<PsiFile, Pair<Long, String>>()
+
+                for (batch in batchList) {
+                    indicator.checkCanceled()
+
+                    batch.formattedList()?.let { formattedList ->
+                        batch.psiFileList.indices.forEach { index ->
+                            formattedList[index]?.let { formatted ->
+                                formattedByPsiFile[batch.psiFileList[index]] =
+                                        Pair(batch.modificationStampList[index], formatted)
+                            }
+                        }
+                    }
+                }
+
+                ApplicationManager.getApplication().invokeLater {
+                    val psiDocumentManager = PsiDocumentManager.getInstance(project)
+
+                    WriteCommandAction.runWriteCommandAction(project, COMMAND_NAME, null, Runnable {
+                        for ((psiFile, modificationStampFormatted) in formattedByPsiFile) {
+                            val (modificationStamp, formatted) = modificationStampFormatted
+
+                            // skip documents edited while formatting, as `formatted` is of their old text
+                            if (psiFile.isValid &&
+                                    psiDocumentManager.getDocument(psiFile)?.modificationStamp == modificationStamp) {
+                                Batch.replace(psiFile, formatted)
+                            }
+                        }
+                    })
+                }
+            }
+        })
+    }
+}
+
+/**
+ * Must be called in a read action.  Excluded directories, such as `_build` and `deps`, are skipped.
+ */
+private fun elixirPsiFileList(project: Project, virtualFiles: Array<VirtualFile>): List<PsiFile> {
+    val projectFileIndex = ProjectFileIndex.getInstance(project)
+    val psiManager = PsiManager.getInstance(project)
+    val psiFileList = mutableListOf<PsiFile>()
+
+    for (root in virtualFiles) {
+        VfsUtilCore.iterateChildrenRecursively(
+                root,
+                { !projectFileIndex.isExcluded(it) },
+                { virtualFile ->
+                    if (!virtualFile.isDirectory && virtualFile.fileType == ElixirFileType.INSTANCE) {
+                        psiManager.findFile(virtualFile)?.let { psiFileList.add(it) }
+                    }
+
+                    true
+                }
+        )
+    }
+
+    return psiFileList.distinct()
+}
+
+private const val COMMAND_NAME = "Reformat with mix format"
@@ -0,0 +1,28 @@
+package org.elixir_lang.atom
+
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter
+import com.intellij.util.indexing.ID
+import com.intellij.util.indexing.ScalarIndexExtension
+import com.intellij.util.io.EnumeratorStringDescriptor
+import com.intellij.util.io.KeyDescriptor
+import org.elixir_lang.ElixirFileType
+
+/**
+ * Indexes the unquoted atom literals, such as `:foo`, in Elixir files, so that atom completion can look up names by
+ * prefix without loading any PSI.
+ */
+class Index: ScalarIndexExtension<String>() {
+    override fun dependsOnFileContent() = true
+    override fun getIndexer() = INDEXER
+    override fun getInputFilter() = DefaultFileTypeSpecificInputFilter(ElixirFileType.INSTANCE)
+    override fun getKeyDescriptor(): KeyDescriptor<String> = EnumeratorStringDescriptor.INSTANCE
+    override fun getName() = NAME
+    override fun getVersion() = VERSION
+
+    companion object {
+        const val VERSION = 0
+
+        val INDEXER = Indexer()
+        val NAME = ID.create<String, Void>("elixir.atom")
+    }
+}
@@ -0,0 +1,34 @@
+package org.elixir_lang.atom
+
+import com.intellij.psi.tree.IElementType
+import com.intellij.util.indexing.DataIndexer
+import com.intellij.util.indexing.FileContent
+import org.elixir_lang.ElixirLexer
+import org.elixir_lang.psi.ElixirTypes
+
+/**
+ * Lexes instead of parsing, as an atom literal is always a `COLON` immediately followed by an `ATOM_FRAGMENT`.  Quoted
+ * atoms are skipped as their names can contain interpolation.
+ */
+class Indexer: DataIndexer<String, Void, FileContent> {
+    override fun map(inputData: FileContent): Map<String, Void?> {
+        val lexer = ElixirLexer()
+        val atomNameSet = mutableSetOf<String>()
+        var previousTokenType: IElementType? = null
+
+        lexer.start(inputData.contentAsText)
+
+        while (true) {
+            val tokenType = lexer.tokenType ?: break
+
+            if (tokenType == ElixirTypes.ATOM_FRAGMENT && previousTokenType == ElixirTypes.COLON) {
+                atomNameSet.add(":" + lexer.tokenText)
+            }
+
+            previousTokenType = tokenType
+            lexer.advance()
+        }
+
+        return atomNameSet.associate { Pair(it, null) }
+    }
+}
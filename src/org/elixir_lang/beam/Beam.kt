@@ -4,6 +4,8 @@ import com.ericsson.otp.erlang.OtpErlangDecodeException
 import com.ericsson.otp.erlang.OtpErlangObject
 import com.ericsson.otp.erlang.OtpInputStream
 import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.project.ProjectManager
+import com.intellij.openapi.vfs.VfsUtilCore
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.util.indexing.FileContent
 import org.elixir_lang.beam.chunk.*
@@ -12,7 +14,11 @@ import org.elixir_lang.beam.chunk.Chunk.length
 import org.elixir_lang.beam.chunk.Chunk.typeID
 import org.elixir_lang.beam.term.ByteCount
 import java.io.*
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
 import java.nio.charset.Charset
+import java.nio.file.Paths
+import java.nio.file.StandardOpenOption
 import java.util.*
 import java.util.zip.GZIPInputStream
 
@@ -29,31 +35,59 @@ fun binaryToTerm(byteArray: ByteArray, offset: Int): Pair<OtpErlangObject, ByteC
     return Pair(term, stream.pos - offset)
 }
 
-private fun decompressedInputStream(inputStream: InputStream): InputStream? {
-    assert(inputStream.markSupported())
+private fun isGzipped(byteBuffer: ByteBuffer): Boolean =
+        byteBuffer.remaining() >= 2 &&
+                byteBuffer.get(byteBuffer.position()).toInt() and 0xFF == GZIP_FIRST_UNSIGNED_BYTE &&
+                byteBuffer.get(byteBuffer.position() + 1).toInt() and 0xFF == GZIP_SECOND_UNSIGNED_BYTE
 
-    inputStream.mark(2)
-
-    return try {
-        if (inputStream.read() == GZIP_FIRST_UNSIGNED_BYTE && inputStream.read() == GZIP_SECOND_UNSIGNED_BYTE) {
-            inputStream.reset()
-            GZIPInputStream(inputStream)
-        } else {
-            inputStream.reset()
-            inputStream
+/**
+ * Whether [virtualFile] is under the base directory of an open project, such as in its `_build` or `deps`.
+ */
+private fun isInOpenProject(virtualFile: VirtualFile): Boolean =
+        ProjectManager.getInstance().openProjects.any { project ->
+            !project.isDisposed && project.baseDir?.let { VfsUtilCore.isAncestor(it, virtualFile, false) } == true
         }
-    } catch (e: IOException) {
-        null
-    }
-}
 
-private fun virtualFileToInputStream(virtualFile: VirtualFile): InputStream? =
+/**
+ * Maps local `.beam` files outside the open projects, such as those in SDKs, instead of reading them, so that chunks
+ * that are never decoded are never paged in.  `.beam` files in a project are read onto the heap instead: a mapping
+ * holds the file open until it is garbage collected, which on Windows stops `mix compile` from overwriting it.
+ */
+internal fun virtualFileToByteBuffer(virtualFile: VirtualFile): ByteBuffer? =
         try {
-            virtualFile.inputStream
+            if (virtualFile.isInLocalFileSystem && !isInOpenProject(virtualFile)) {
+                FileChannel.open(Paths.get(virtualFile.path), StandardOpenOption.READ).use { fileChannel ->
+                    fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size())
+                }
+            } else {
+                ByteBuffer.wrap(virtualFile.contentsToByteArray())
+            }
         } catch (e: IOException) {
             null
+        } catch (e: UnsupportedOperationException) {
+            null
         }
 
+private class ByteBufferInputStream(private val byteBuffer: ByteBuffer) : InputStream() {
+    override fun available(): Int = byteBuffer.remaining()
+
+    override fun read(): Int =
+            if (byteBuffer.hasRemaining()) {
+                byteBuffer.get().toInt() and 0xFF
+            } else {
+                -1
+            }
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int =
+            if (!byteBuffer.hasRemaining()) {
+                -1
+            } else {
+                val count = minOf(len, byteBuffer.remaining())
+                byteBuffer.get(b, off, count)
+                count
+            }
+}
+
 /**
  * See http://beam-wisdoms.clau.se/en/latest/indepth-beam-file.html
  */
@@ -65,6 +99,7 @@ class Beam private constructor(chunkCollection: Collection<Chunk>) {
                     chunk(ATU8)?.let { Atoms.from(it, ATU8, Charset.forName("UTF-8")) }
 
     fun attributes(): Keyword? = chunk(ATTR)?.let(::from)
+    fun attributesByteArray(): ByteArray? = chunk(ATTR)?.data
     private fun chunk(typeID: String): Chunk? = chunkByTypeID[typeID]
     private fun chunk(typeID: Chunk.TypeID): Chunk? = chunk(typeID.toString())
     fun chunkCollection(): Collection<Chunk> = chunkByTypeID.values
@@ -169,20 +204,92 @@ class Beam private constructor(chunkCollection: Collection<Chunk>) {
             return Beam(chunkList)
         }
 
+        /**
+         * Records only the offset and length of each chunk in `byteBuffer`: no chunk data is copied until the chunk is
+         * decoded.
+         *
+         * @param byteBuffer uncompressed `.beam` contents, such as a memory-mapped file or wrapped
+         *   [FileContent.getContent].  The position of `byteBuffer` is not changed.
+         */
+        fun from(byteBuffer: ByteBuffer, path: String): Beam? {
+            val fileByteBuffer = byteBuffer.duplicate()
+            val header = typeID(fileByteBuffer, path)
+
+            if (HEADER != header) {
+                if (!testCase(header)) {
+                    LOGGER.error(
+                            "header typeID ($header) did not match expected ($HEADER) from $path. " +
+                                    "There are ${fileByteBuffer.remaining()} bytes remaining in the byteBuffer."
+                    )
+                }
+                return null
+            }
+
+            try {
+                length(fileByteBuffer)
+            } catch (ioException: IOException) {
+                LOGGER.error("Could not read length from BEAM ByteBuffer from " + path, ioException)
+                return null
+            }
+
+            val section = typeID(fileByteBuffer, path)
+
+            if ("BEAM" != section) {
+                LOGGER.error("Section header is not BEAM in " + path)
+                return null
+            }
+
+            val chunkList = ArrayList<Chunk>()
+
+            while (true) {
+                val chunk: Chunk?
+
+                try {
+                    chunk = Chunk.from(fileByteBuffer, path)
+                } catch (ioException: IOException) {
+                    LOGGER.error(
+                            "Could not read chunk number " + (chunkList.size + 1) + " from BEAM ByteBuffer from " +
+                                    path + ".  Returning truncated Beam object",
+                            ioException
+                    )
+                    break
+                }
+
+                if (chunk != null) {
+                    chunkList.add(chunk)
+                } else {
+                    break
+                }
+            }
+
+            return Beam(chunkList)
+        }
+
         @Throws(IOException::class, OtpErlangDecodeException::class)
-        fun from(content: ByteArray, path: String): Beam? =
-                decompressedInputStream(ByteArrayInputStream(content))
-                        ?.let { DataInputStream(it) }
-                        ?.let { Beam.from(it, path) }
+        fun from(content: ByteArray, path: String): Beam? = fromPossiblyGzipped(ByteBuffer.wrap(content), path)
 
         @Throws(IOException::class, OtpErlangDecodeException::class)
         fun from(fileContent: FileContent): Beam? = from(fileContent.content, fileContent.file.path)
 
         fun from(virtualFile: VirtualFile): Beam? =
-                virtualFileToInputStream(virtualFile)
-                        ?.let { decompressedInputStream(it) }
-                        ?.let { DataInputStream(it) }
-                        ?.let { Beam.from(it, virtualFile.path) }
+                virtualFileToByteBuffer(virtualFile)?.let { fromPossiblyGzipped(it, virtualFile.path) }
+
+        /**
+         * Gzipped `.beam` files have to be inflated, so only they fall back to reading through a stream.
+         */
+        internal fun fromPossiblyGzipped(byteBuffer: ByteBuffer, path: String): Beam? =
+                if (isGzipped(byteBuffer)) {
+                    val inflated = try {
+                        GZIPInputStream(ByteBufferInputStream(byteBuffer.duplicate())).use { it.readBytes() }
+                    } catch (ioException: IOException) {
+                        LOGGER.error("Could not inflate gzipped BEAM from " + path, ioException)
+                        null
+                    }
+
+                    inflated?.let { from(ByteBuffer.wrap(it), path) }
+                } else {
+                    from(byteBuffer, path)
+                }
 
         fun `is`(virtualFile: VirtualFile): Boolean = !virtualFile.isDirectory && "beam" == virtualFile.extension
 
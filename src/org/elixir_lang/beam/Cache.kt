@@ -4,19 +4,21 @@ import com.intellij.openapi.util.Key
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.util.indexing.FileContent
 import org.elixir_lang.beam.chunk.*
+import java.nio.ByteBuffer
 
-class Cache private constructor(private val beam: Beam) {
-    val atoms: Atoms? by lazy { beam.atoms() }
-    val attributes: Keyword? by lazy { beam.attributes() }
+class Cache private constructor(private val beam: Beam, metadata: Lazy<Metadata>) {
+    private val metadata: Metadata by metadata
+    val atoms: Atoms? by lazy { this.metadata.atoms }
+    val attributes: Keyword? by lazy { this.metadata.attributes }
     val code: Code? by lazy { beam.code() }
     val compileInfo: Keyword? by lazy { beam.compileInfo() }
     val debugInfo: DebugInfo? by lazy { beam.debugInfo() }
     val elixirDocumentation: ElixirDocumentation? by lazy { beam.elixirDocumentation() }
-    val exports: CallDefinitions? by lazy { beam.exports(atoms) }
+    val exports: CallDefinitions? by lazy { this.metadata.exports }
     val functions: Functions? by lazy { beam.functions(atoms) }
     val lines: Lines? by lazy { beam.lines(atoms) }
     val literals: Literals? by lazy { beam.literals() }
-    val locals: CallDefinitions? by lazy { beam.locals(atoms) }
+    val locals: CallDefinitions? by lazy { this.metadata.locals }
     val imports: Imports? by lazy { beam.imports(atoms) }
     val strings: Strings? by lazy { beam.strings() }
 
@@ -35,11 +37,20 @@ class Cache private constructor(private val beam: Beam) {
                 } else {
                     null
                 }
-            } ?: Beam.from(virtualFile)?.let(::Cache)
+            } ?: virtualFileToByteBuffer(virtualFile)?.let { from(virtualFile.path, it) }
 
             virtualFile.putUserData(KEY, Pair(currentModificationCount, cache))
 
             return cache
         }
+
+        /**
+         * [atoms], [attributes], [exports] and [locals] come from [Metadata], so they are loaded from the
+         * [org.elixir_lang.beam.metadata.Store] when the `.beam` file is unchanged instead of being decoded.
+         */
+        private fun from(path: String, byteBuffer: ByteBuffer): Cache? =
+                Beam.fromPossiblyGzipped(byteBuffer, path)?.let { beam ->
+                    Cache(beam, lazy { Metadata.from(byteBuffer, path) ?: Metadata.from(beam) })
+                }
     }
 }
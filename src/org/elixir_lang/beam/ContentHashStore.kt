@@ -0,0 +1,239 @@
+package org.elixir_lang.beam
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.projectRoots.ProjectJdkTable
+import com.intellij.openapi.projectRoots.Sdk
+import com.intellij.openapi.util.io.FileUtil
+import org.jetbrains.annotations.TestOnly
+import java.io.*
+import java.nio.ByteBuffer
+import java.security.MessageDigest
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Persistent store of records derived from `.beam` files, keyed by the SHA-1 of the `.beam` file's contents, so that
+ * SDK and `_build` `.beam` files that haven't changed don't need to be decoded again after a restart.
+ *
+ * `.beam` files under an SDK's home path are keyed by the SHA-1 of their path, length, and last modified time instead,
+ * so that looking up their records doesn't read the whole of their memory-mapped contents.
+ *
+ * Records for `.beam` files under an SDK's home path are kept in a bucket for that SDK, so that removing the SDK
+ * removes its records.  All other records share a single bucket.  When the store grows past [maximumByteCount],
+ * the least recently used records are evicted.
+ *
+ * @param name the directory under `elixir/beam` in the system path
+ * @param version increment when the record format or the decoding that produces the records changes
+ */
+abstract class ContentHashStore<T : Any>(name: String, version: Int, private val maximumByteCount: Long) {
+    private val root = File(PathManager.getSystemPath(), "elixir/beam/$name/v$version")
+    private val byteCount: AtomicLong by lazy { AtomicLong(byteCount(root)) }
+    private val evictedByteCount = maximumByteCount * 3 / 4
+    /**
+     * The home paths of the SDKs in the [ProjectJdkTable], so that [file] doesn't go through all the SDKs for every
+     * `.beam` file.  `null` until the next [file] after SDKs are added, renamed, or removed.  Changing an SDK's home
+     * path doesn't notify the [ProjectJdkTable.Listener], so [sdkHomePathList] also checks the home paths are current.
+     */
+    @Volatile
+    private var sdkHomePaths: SdkHomePaths? = null
+
+    init {
+        ApplicationManager
+                .getApplication()
+                .messageBus
+                .connect()
+                .subscribe(ProjectJdkTable.JDK_TABLE_TOPIC, object : ProjectJdkTable.Listener {
+                    override fun jdkAdded(jdk: Sdk) {
+                        sdkHomePaths = null
+                    }
+
+                    override fun jdkNameChanged(jdk: Sdk, previousName: String) {
+                        sdkHomePaths = null
+                    }
+
+                    override fun jdkRemoved(jdk: Sdk) {
+                        sdkHomePaths = null
+                        jdk.homePath?.let { remove(it) }
+                    }
+                })
+    }
+
+    /**
+     * @return `null` if the record is missing or was written with a different `version`
+     */
+    protected abstract fun read(dataInput: DataInput): T?
+    protected abstract fun write(dataOutput: DataOutput, record: T)
+
+    /**
+     * The number of times [getOrPut] or [putIfAbsent] had to decode a record because it wasn't stored
+     */
+    private val decodeCount = AtomicLong(0)
+
+    @TestOnly
+    fun decodeCount(): Long = decodeCount.get()
+
+    fun getOrPut(byteBuffer: ByteBuffer, path: String, decode: () -> T?): T? {
+        val file = file(byteBuffer, path)
+
+        return get(file) ?: decode(decode)?.also { put(file, it) }
+    }
+
+    /**
+     * Like [getOrPut], but doesn't read the record if it is already stored.
+     *
+     * @return whether the record is stored
+     */
+    fun putIfAbsent(byteBuffer: ByteBuffer, path: String, decode: () -> T?): Boolean {
+        val file = file(byteBuffer, path)
+
+        return file.isFile || decode(decode)?.also { put(file, it) } != null
+    }
+
+    private fun decode(decode: () -> T?): T? {
+        decodeCount.incrementAndGet()
+
+        return decode()
+    }
+
+    private fun get(file: File): T? =
+            if (file.isFile) {
+                try {
+                    DataInputStream(BufferedInputStream(FileInputStream(file))).use { read(it) }?.also {
+                        touch(file)
+                    }
+                } catch (ioException: IOException) {
+                    LOGGER.warn("Could not read BEAM record from $file", ioException)
+                    FileUtil.delete(file)
+                    null
+                }
+            } else {
+                null
+            }
+
+    private fun put(file: File, record: T) {
+        try {
+            FileUtil.createParentDirs(file)
+            val temporaryFile = File.createTempFile(file.name, ".tmp", file.parentFile)
+
+            DataOutputStream(BufferedOutputStream(FileOutputStream(temporaryFile))).use { write(it, record) }
+
+            // a record already stored for the same contents, such as by another thread, is replaced and stops counting
+            val replacedByteCount = if (file.isFile) file.length() else 0L
+
+            if (temporaryFile.renameTo(file)) {
+                if (byteCount.addAndGet(file.length() - replacedByteCount) > maximumByteCount) {
+                    evict()
+                }
+            } else {
+                FileUtil.delete(temporaryFile)
+            }
+        } catch (ioException: IOException) {
+            LOGGER.warn("Could not write BEAM record to $file", ioException)
+        }
+    }
+
+    private fun remove(sdkHomePath: String) {
+        val bucket = File(root, bucketName(sdkHomePath))
+
+        if (bucket.exists()) {
+            byteCount.addAndGet(-byteCount(bucket))
+            FileUtil.delete(bucket)
+        }
+    }
+
+    /**
+     * Deletes the least recently used records until the store is back under 3/4 of [maximumByteCount].
+     */
+    @Synchronized
+    private fun evict() {
+        if (byteCount.get() > maximumByteCount) {
+            val fileList = root.walkTopDown().filter { it.isFile }.sortedBy { it.lastModified() }
+
+            for (file in fileList) {
+                if (byteCount.get() <= evictedByteCount) {
+                    break
+                }
+
+                val length = file.length()
+
+                if (FileUtil.delete(file)) {
+                    byteCount.addAndGet(-length)
+                }
+            }
+        }
+    }
+
+    private fun file(byteBuffer: ByteBuffer, path: String): File {
+        val sdkHomePath = sdkHomePathList().firstOrNull { FileUtil.isAncestor(it, path, true) }
+        val bucketName = sdkHomePath?.let { bucketName(it) } ?: SHARED_BUCKET_NAME
+        val hash = sdkHomePath?.let { statHash(path) } ?: contentHash(byteBuffer)
+
+        return File(File(File(root, bucketName), hash.substring(0, 2)), hash)
+    }
+
+    private fun sdkHomePathList(): List<String> {
+        val sdks = ProjectJdkTable.getInstance().allJdks
+
+        return sdkHomePaths
+                ?.takeIf { it.isCurrent(sdks) }
+                ?.homePathList
+                ?: SdkHomePaths(sdks).also { sdkHomePaths = it }.homePathList
+    }
+
+    /**
+     * The [Sdk.getHomePath] of each of [sdks] when they were listed.
+     */
+    private class SdkHomePaths(private val sdks: Array<Sdk>) {
+        private val homePaths = sdks.map { it.homePath }
+        val homePathList = homePaths.filterNotNull()
+
+        fun isCurrent(currentSdks: Array<Sdk>): Boolean =
+                currentSdks.size == sdks.size &&
+                        currentSdks.indices.all { currentSdks[it] === sdks[it] && sdks[it].homePath == homePaths[it] }
+    }
+
+    companion object {
+        private val LOGGER = Logger.getInstance(ContentHashStore::class.java)
+
+        private const val SHARED_BUCKET_NAME = "shared"
+
+        /**
+         * Only update the last modified time of records that haven't been used in this long, so that reads don't turn
+         * into writes.
+         */
+        private const val TOUCH_INTERVAL = 24L * 60 * 60 * 1000
+
+        private fun byteCount(directory: File): Long =
+                directory.walkTopDown().filter { it.isFile }.map { it.length() }.sum()
+
+        private fun bucketName(sdkHomePath: String): String = "sdk-" + sha1(sdkHomePath.toByteArray())
+
+        /**
+         * `null` if `path` isn't a local file, such as an entry in an archive, so that [contentHash] has to be used.
+         */
+        private fun statHash(path: String): String? =
+                File(path)
+                        .takeIf { it.isFile }
+                        ?.let { sha1("$path\u0000${it.length()}\u0000${it.lastModified()}".toByteArray()) }
+
+        private fun contentHash(byteBuffer: ByteBuffer): String =
+                MessageDigest.getInstance("SHA-1").let { messageDigest ->
+                    messageDigest.update(byteBuffer.duplicate())
+                    hex(messageDigest.digest())
+                }
+
+        private fun sha1(byteArray: ByteArray): String = hex(MessageDigest.getInstance("SHA-1").digest(byteArray))
+
+        private fun hex(byteArray: ByteArray): String =
+                byteArray.joinToString("") { String.format("%02x", it.toInt() and 0xFF) }
+
+        private fun touch(file: File) {
+            val now = System.currentTimeMillis()
+
+            if (now - file.lastModified() > TOUCH_INTERVAL) {
+                file.setLastModified(now)
+            }
+        }
+    }
+}
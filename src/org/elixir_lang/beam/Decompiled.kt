@@ -0,0 +1,66 @@
+package org.elixir_lang.beam
+
+import com.intellij.openapi.util.Key
+import com.intellij.openapi.vfs.VirtualFile
+import org.elixir_lang.beam.decompiled.Store
+import java.lang.ref.SoftReference
+import java.nio.ByteBuffer
+import java.util.*
+
+/**
+ * The source [Decompiler] recreates for a `.beam` file along with where the `defmodule` and each call definition
+ * start in it, so that the module and its call definitions can be navigated to without parsing [text] into the
+ * [org.elixir_lang.beam.psi.BeamFileImpl.getMirror].
+ *
+ * @param moduleOffset `null` when the `.beam` file could not be decompiled
+ * @param offsetByNameArity offsets of the `def`, `defp`, `defmacro`, or `defmacrop` keyed by `name/arity`
+ */
+class Decompiled(val text: CharSequence, val moduleOffset: Int?, val offsetByNameArity: Map<String, Int>) {
+    fun callDefinitionOffset(name: String, arity: Int): Int? = offsetByNameArity[nameArity(name, arity)]
+
+    companion object {
+        /**
+         * Softly referenced, so that the [text] of every `.beam` file that was ever navigated to is not kept in memory
+         * by the [VirtualFile]s, which live as long as the project.  Once collected, [from] reloads it from the [Store].
+         */
+        private val KEY = Key.create<SoftReference<Pair<Long, Decompiled>>>("beam.decompiled")
+
+        fun nameArity(name: String, arity: Int): String = "$name/$arity"
+
+        fun from(virtualFile: VirtualFile): Decompiled {
+            val currentModificationCount = virtualFile.modificationCount
+            val cached = virtualFile.getUserData(KEY)?.get()?.let { (cachedModificationCount, cachedDecompiled) ->
+                if (cachedModificationCount == currentModificationCount) {
+                    cachedDecompiled
+                } else {
+                    null
+                }
+            }
+
+            return cached ?: decompiled(virtualFile).also { decompiled ->
+                virtualFile.putUserData(KEY, SoftReference(Pair(currentModificationCount, decompiled)))
+            }
+        }
+
+        private fun decompiled(virtualFile: VirtualFile): Decompiled =
+                virtualFileToByteBuffer(virtualFile)?.let { from(it, virtualFile.path) }
+                        ?: Decompiler.decompiled(Optional.empty())
+
+        /**
+         * Loads the `Decompiled` source for `byteBuffer`'s contents from the [Store] when possible, otherwise
+         * decompiles it and stores it for next time.
+         */
+        private fun from(byteBuffer: ByteBuffer, path: String): Decompiled {
+            val store = Store.getInstance()
+
+            return if (store != null) {
+                store.getOrPut(byteBuffer, path) { decompile(byteBuffer, path) }!!
+            } else {
+                decompile(byteBuffer, path)
+            }
+        }
+
+        private fun decompile(byteBuffer: ByteBuffer, path: String): Decompiled =
+                Decompiler.decompiled(Optional.ofNullable(Metadata.from(byteBuffer, path)))
+    }
+}
@@ -39,15 +39,20 @@ public class Decompiler implements BinaryFileDecompiler {
         MACRO_NAME_ARITY_DECOMPILER_LIST.add(Default.INSTANCE);
     }
 
+    /**
+     * @return the decompiled source along with the offsets of the {@code defmodule} and each call definition in it
+     */
     @NotNull
-    private static CharSequence decompiled(
-            @SuppressWarnings("OptionalUsedAsFieldOrParameterType") @NotNull Optional<Beam> beamOptional
+    public static Decompiled decompiled(
+            @SuppressWarnings("OptionalUsedAsFieldOrParameterType") @NotNull Optional<Metadata> metadataOptional
     ) {
         StringBuilder decompiled = new StringBuilder("# Decompilation Error: ");
+        Integer moduleOffset = null;
+        Map<String, Integer> offsetByNameArity = new HashMap<>();
 
-        if (beamOptional.isPresent()) {
-            Beam beam = beamOptional.get();
-            Atoms atoms = beam.atoms();
+        if (metadataOptional.isPresent()) {
+            Metadata metadata = metadataOptional.get();
+            Atoms atoms = metadata.getAtoms();
 
             if (atoms != null) {
                 String moduleName = atoms.moduleName();
@@ -57,12 +62,14 @@ public class Decompiler implements BinaryFileDecompiler {
 
                     decompiled = new StringBuilder(
                             "# Source code recreated from a .beam file by IntelliJ Elixir\n"
-                    )
+                    );
+                    moduleOffset = decompiled.length();
+                    decompiled
                             .append("defmodule ")
                             .append(defmoduleArgument)
                             .append(" do\n");
 
-                    appendCallDefinitions(decompiled, beam, atoms);
+                    appendCallDefinitions(decompiled, offsetByNameArity, metadata);
 
                     decompiled.append("end\n");
                 } else {
@@ -75,14 +82,15 @@ public class Decompiler implements BinaryFileDecompiler {
             decompiled.append("BEAM format could not be read");
         }
 
-        return decompiled;
+        return new Decompiled(decompiled.toString(), moduleOffset, offsetByNameArity);
     }
 
     private static void appendCallDefinitions(@NotNull StringBuilder decompiled,
-                                              @NotNull Beam beam,
-                                              @NotNull Atoms atoms) {
-        SortedSet<MacroNameArity> macroNameAritySortedSet = CallDefinitions.macroNameAritySortedSet(beam, atoms);
-        appendCallDefinitions(decompiled, macroNameAritySortedSet);
+                                              @NotNull Map<String, Integer> offsetByNameArity,
+                                              @NotNull Metadata metadata) {
+        SortedSet<MacroNameArity> macroNameAritySortedSet =
+                CallDefinitions.macroNameAritySortedSet(metadata.callDefinitionsList());
+        appendCallDefinitions(decompiled, offsetByNameArity, macroNameAritySortedSet);
     }
 
     @NotNull
@@ -91,6 +99,7 @@ public class Decompiler implements BinaryFileDecompiler {
     }
 
     private static void appendCallDefinitions(@NotNull StringBuilder decompiled,
+                                              @NotNull Map<String, Integer> offsetByNameArity,
                                               @NotNull SortedSet<MacroNameArity> macroNameAritySortedSet) {
         MacroNameArity lastMacroNameArity = null;
 
@@ -105,6 +114,11 @@ public class Decompiler implements BinaryFileDecompiler {
 
             decompiled.append("\n");
 
+            //noinspection ConstantConditions
+            offsetByNameArity.put(
+                    Decompiled.Companion.nameArity(macroNameArity.name, macroNameArity.arity),
+                    decompiled.length()
+            );
             appendMacroNameArity(decompiled, macroNameArity);
 
             lastMacroNameArity = macroNameArity;
@@ -183,6 +197,6 @@ public class Decompiler implements BinaryFileDecompiler {
     @NotNull
     @Override
     public CharSequence decompile(@NotNull VirtualFile virtualFile) {
-        return decompiled(Optional.ofNullable(Beam.Companion.from(virtualFile)));
+        return Decompiled.Companion.from(virtualFile).getText();
     }
 }
@@ -0,0 +1,68 @@
+package org.elixir_lang.beam
+
+import com.intellij.openapi.vfs.VirtualFile
+import org.elixir_lang.beam.chunk.Atoms
+import org.elixir_lang.beam.chunk.CallDefinitions
+import org.elixir_lang.beam.chunk.Keyword
+import org.elixir_lang.beam.metadata.Store
+import java.nio.ByteBuffer
+
+/**
+ * The decoded parts of a `.beam` file that stubs, the decompiler, and the structure view need: the atoms (including the
+ * module name), the exports and locals, and the attributes.
+ *
+ * Unlike [Beam], `Metadata` can be reloaded from the [Store] without decoding any chunks.
+ *
+ * @param attributesByteArray the `Attr` chunk's `term_to_binary` contents.  Only decoded if [attributes] is used.
+ */
+class Metadata(
+        val atoms: Atoms?,
+        val exports: CallDefinitions?,
+        val locals: CallDefinitions?,
+        val attributesByteArray: ByteArray?
+) {
+    val attributes: Keyword? by lazy {
+        attributesByteArray?.let { org.elixir_lang.beam.chunk.from(binaryToTerm(it, 0).first) }
+    }
+
+    fun callDefinitionsList(): List<CallDefinitions> = listOfNotNull(exports, locals)
+    fun moduleName(): String? = atoms?.moduleName()
+
+    companion object {
+        fun from(beam: Beam): Metadata {
+            val atoms = beam.atoms()
+
+            return Metadata(atoms, beam.exports(atoms), beam.locals(atoms), beam.attributesByteArray())
+        }
+
+        fun from(byteArray: ByteArray, path: String): Metadata? = from(ByteBuffer.wrap(byteArray), path)
+
+        fun from(virtualFile: VirtualFile): Metadata? =
+                virtualFileToByteBuffer(virtualFile)?.let { from(it, virtualFile.path) }
+
+        /**
+         * Loads the `Metadata` for `byteBuffer`'s contents from the [Store] when possible, otherwise decodes it from
+         * the `byteBuffer` and stores it for next time.
+         */
+        fun from(byteBuffer: ByteBuffer, path: String): Metadata? {
+            val store = Store.getInstance()
+
+            return if (store != null) {
+                store.getOrPut(byteBuffer, path) { decode(byteBuffer, path) }
+            } else {
+                decode(byteBuffer, path)
+            }
+        }
+
+        /**
+         * Decodes and stores the `Metadata` for `byteBuffer`'s contents unless [store] already has it.
+         *
+         * @return whether [store] has the `Metadata`
+         */
+        fun putIfAbsent(byteBuffer: ByteBuffer, path: String, store: Store): Boolean =
+                store.putIfAbsent(byteBuffer, path) { decode(byteBuffer, path) }
+
+        private fun decode(byteBuffer: ByteBuffer, path: String): Metadata? =
+                Beam.fromPossiblyGzipped(byteBuffer, path)?.let { from(it) }
+    }
+}
@@ -0,0 +1,142 @@
+package org.elixir_lang.beam
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.openapi.progress.ProgressManager
+import com.intellij.openapi.progress.Task
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.OrderEnumerator
+import com.intellij.openapi.startup.StartupActivity
+import com.intellij.openapi.vfs.VfsUtilCore
+import org.elixir_lang.beam.metadata.Store
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveTask
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Decodes the [Metadata] of every `.beam` file in the SDK and library `ebin` directories of a project in parallel when
+ * the project is opened and puts it in the [Store].
+ *
+ * [StubBuilder] builds stubs from the [Metadata] in the [Store], so the [StubBuilder] calls made during indexing only
+ * assemble stubs from the stored [Metadata] instead of decoding the `.beam` files one at a time.  The stubs themselves
+ * are not prebuilt, as only indexing can store them.  Files whose [Metadata] is already in the [Store], such as on
+ * every open after the first, are only hashed.
+ */
+class Prebuilder : StartupActivity {
+    override fun runActivity(project: Project) {
+        if (!ApplicationManager.getApplication().isUnitTestMode) {
+            val ebinDirectoryList = ebinDirectoryList(project)
+
+            if (ebinDirectoryList.isNotEmpty()) {
+                Store.getInstance()?.let { store ->
+                    val task = object : Task.Backgroundable(project, "Decoding BEAM metadata", true) {
+                        override fun run(indicator: ProgressIndicator) {
+                            val beamFileList = beamFileList(ebinDirectoryList)
+                            val start = System.nanoTime()
+                            val storedCount = storeMetadata(beamFileList, store, indicator)
+
+                            LOGGER.info(
+                                    "Stored metadata for $storedCount of ${beamFileList.size} .beam files in " +
+                                            "${(System.nanoTime() - start) / 1_000_000} ms"
+                            )
+                        }
+                    }
+
+                    ProgressManager.getInstance().run(task)
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits [beamFileList] in half until each half is at most [THRESHOLD] long.
+     *
+     * @return the number of `.beam` files whose [Metadata] is in the [store]
+     */
+    private class StoreMetadata(
+            private val beamFileList: List<File>,
+            private val store: Store,
+            private val indicator: ProgressIndicator?,
+            private val completedCount: AtomicInteger,
+            private val totalCount: Int
+    ) : RecursiveTask<Int>() {
+        override fun compute(): Int =
+                if (beamFileList.size <= THRESHOLD) {
+                    beamFileList.count { beamFile ->
+                        indicator?.checkCanceled()
+
+                        val stored = storeMetadata(beamFile, store)
+
+                        indicator?.fraction = completedCount.incrementAndGet().toDouble() / totalCount
+
+                        stored
+                    }
+                } else {
+                    val middle = beamFileList.size / 2
+                    val left = subtask(0, middle)
+                    val right = subtask(middle, beamFileList.size)
+
+                    left.fork()
+
+                    right.compute() + left.join()
+                }
+
+        private fun subtask(fromIndex: Int, toIndex: Int) =
+                StoreMetadata(
+                        beamFileList.subList(fromIndex, toIndex),
+                        store,
+                        indicator,
+                        completedCount,
+                        totalCount
+                )
+    }
+
+    companion object {
+        private val LOGGER = Logger.getInstance(Prebuilder::class.java)
+        private const val THRESHOLD = 16
+
+        fun ebinDirectoryList(project: Project): List<File> =
+                OrderEnumerator
+                        .orderEntries(project)
+                        .withoutModuleSourceEntries()
+                        .classesRoots
+                        .filter { it.isInLocalFileSystem && it.isDirectory }
+                        .map { VfsUtilCore.virtualToIoFile(it) }
+                        .distinct()
+
+        fun beamFileList(ebinDirectoryList: List<File>): List<File> =
+                ebinDirectoryList.flatMap { ebinDirectory ->
+                    ebinDirectory.listFiles { file -> file.isFile && file.extension == "beam" }?.toList() ?: emptyList()
+                }
+
+        /**
+         * Puts the [Metadata] of each of `beamFileList` in [store] across all cores.
+         *
+         * @return the number of `.beam` files whose [Metadata] is in the [store]
+         */
+        fun storeMetadata(beamFileList: List<File>, store: Store, indicator: ProgressIndicator?): Int {
+            val forkJoinPool = ForkJoinPool(Runtime.getRuntime().availableProcessors())
+
+            return try {
+                forkJoinPool.invoke(StoreMetadata(beamFileList, store, indicator, AtomicInteger(), beamFileList.size))
+            } finally {
+                forkJoinPool.shutdown()
+            }
+        }
+
+        private fun storeMetadata(beamFile: File, store: Store): Boolean =
+                try {
+                    val byteBuffer = ByteBuffer.wrap(Files.readAllBytes(beamFile.toPath()))
+
+                    Metadata.putIfAbsent(byteBuffer, beamFile.path, store)
+                } catch (ioException: IOException) {
+                    LOGGER.warn("Could not read ${beamFile.path}", ioException)
+                    false
+                }
+    }
+}
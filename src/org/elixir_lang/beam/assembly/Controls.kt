@@ -32,6 +32,18 @@ class Controls(val cache: Cache, val project: Project): JBScrollPane() {
     )
     val document: Document
 
+    /**
+     * The functions whose assembly is in [document].  Only this window is disassembled, so that the memory used is
+     * proportional to what is shown instead of the whole `Code` chunk.
+     */
+    var window: IntRange = cache.code?.takeIf { it.functionCount() > 0 }?.window(0) ?: IntRange.EMPTY
+        set(window) {
+            if (window != field) {
+                field = window
+                setDocumentText()
+            }
+        }
+
     init {
         val text = computeDocumentText()
         val psiFile = PsiFileFactory.getInstance(project).createFileFromText(Language, text)
@@ -175,7 +187,7 @@ class Controls(val cache: Cache, val project: Project): JBScrollPane() {
         setViewportView(scrollable)
     }
 
-    private fun computeDocumentText() = cache.code?.assembly(cache, assemblyOptions) ?: DEFAULT_TEXT
+    private fun computeDocumentText() = cache.code?.assembly(cache, assemblyOptions, window) ?: DEFAULT_TEXT
 
     private fun setDocumentText() {
         ApplicationManager.getApplication().runWriteAction {
@@ -19,8 +19,11 @@ class Atoms private constructor(private val atomList: List<Atom>) {
     fun getOrNull(index: Int): Atom? = atomList.getOrNull(index - 1)
     fun moduleName(): String? = atomList.getOrNull(0)?.string
     fun size(): Int = atomList.size
+    fun toList(): List<Atom> = atomList
 
     companion object {
+        fun from(atomList: List<Atom>): Atoms = Atoms(atomList)
+
         fun from(chunk: Chunk, typeID: Chunk.TypeID, charset: Charset): Atoms? {
             var atoms: Atoms? = null
 
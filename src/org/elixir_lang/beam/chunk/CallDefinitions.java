@@ -52,12 +52,12 @@ public class CallDefinitions {
     public static CallDefinitions from(@NotNull Chunk chunk, @NotNull Chunk.TypeID typeID, @Nullable Atoms atoms) {
         CallDefinitions callDefinitions = null;
 
-        if (chunk.typeID.equals(typeID.toString()) && chunk.data.length >= 4) {
+        if (chunk.typeID.equals(typeID.toString()) && chunk.getData().length >= 4) {
             Collection<CallDefinition> callDefinitionCollection = new THashSet<CallDefinition>();
 
             int offset = 0;
 
-            Pair<Long, Integer> exportCountByteCount = unsignedInt(chunk.data, 0);
+            Pair<Long, Integer> exportCountByteCount = unsignedInt(chunk.getData(), 0);
             long exportCount = exportCountByteCount.first;
             offset += exportCountByteCount.second;
 
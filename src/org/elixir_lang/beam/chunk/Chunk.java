@@ -8,29 +8,72 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import static com.intellij.openapi.util.Pair.pair;
 
 /**
  * Chunk of a `.beam` file.  Same chunk format as base IFF
+ *
+ * The chunk only holds a read-only slice of the `.beam` file's bytes.  The slice is copied into {@link #getData()}
+ * the first time a decoder asks for it, so chunks that are never decoded are never copied.
  */
 public class Chunk {
     private static final int ALIGNMENT = 4;
     private static final int BYTE_BIT_COUNT = 8;
     private static final Logger LOGGER = Logger.getInstance(Chunk.class);
+    private static final int TYPE_ID_BYTE_COUNT = 4;
     private static final int UNSIGNED_INT_BYTE_COUNT = 4;
     private static final int UNSIGNED_SHORT_BYTE_COUNT = 2;
 
     @NotNull
     public final String typeID;
     @NotNull
-    public final byte[] data;
+    private final ByteBuffer byteBuffer;
+    @Nullable
+    private volatile byte[] data;
 
     private Chunk(@NotNull String typeID, @NotNull byte[] data) {
         this.typeID = typeID;
+        this.byteBuffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
         this.data = data;
     }
 
+    private Chunk(@NotNull String typeID, @NotNull ByteBuffer byteBuffer) {
+        this.typeID = typeID;
+        this.byteBuffer = byteBuffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a new view of the chunk's bytes with its own position and limit, so callers can't disturb each other.
+     */
+    @NotNull
+    public ByteBuffer byteBuffer() {
+        return byteBuffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * @return the chunk's bytes.  Copied out of the `.beam` file's buffer on first call and reused afterwards.
+     */
+    @NotNull
+    public byte[] getData() {
+        byte[] data = this.data;
+
+        if (data == null) {
+            data = new byte[byteBuffer.remaining()];
+            byteBuffer().get(data);
+            this.data = data;
+        }
+
+        return data;
+    }
+
+    public int length() {
+        return byteBuffer.remaining();
+    }
+
     @Nullable
     public static Chunk from(@NotNull DataInputStream dataInputStream, @NotNull String path) throws IOException {
         String typeID = typeID(dataInputStream, path);
@@ -51,6 +94,52 @@ public class Chunk {
         return chunk;
     }
 
+    /**
+     * Slices the next chunk out of {@code fileByteBuffer} without copying its data and advances
+     * {@code fileByteBuffer} past the chunk and its padding.
+     *
+     * @param fileByteBuffer the whole `.beam` file positioned at the start of a chunk
+     * @return {@code null} if there are no more chunks
+     */
+    @Nullable
+    public static Chunk from(@NotNull ByteBuffer fileByteBuffer, @NotNull String path) throws IOException {
+        String typeID = typeID(fileByteBuffer, path);
+        Chunk chunk = null;
+
+        if (typeID != null) {
+            long length = length(fileByteBuffer);
+
+            if (length > fileByteBuffer.remaining()) {
+                throw new IOException(
+                        "Chunk " + typeID + " length (" + length + ") is longer than the remaining " +
+                                fileByteBuffer.remaining() + " bytes in " + path
+                );
+            }
+
+            int start = fileByteBuffer.position();
+            int end = start + (int) length;
+
+            ByteBuffer slice = fileByteBuffer.duplicate();
+            slice.limit(end);
+            slice = slice.slice();
+
+            int padding = (int) ((ALIGNMENT - (length % ALIGNMENT)) % ALIGNMENT);
+            fileByteBuffer.position(Math.min(end + padding, fileByteBuffer.limit()));
+
+            chunk = new Chunk(typeID, slice);
+        }
+
+        return chunk;
+    }
+
+    public static long length(@NotNull ByteBuffer byteBuffer) throws IOException {
+        try {
+            return byteBuffer.getInt() & 0xFFFFFFFFL;
+        } catch (BufferUnderflowException bufferUnderflowException) {
+            throw new IOException("Could not read length", bufferUnderflowException);
+        }
+    }
+
     public static long length(@NotNull DataInputStream dataInputStream) throws IOException {
         return readUnsignedInt(dataInputStream);
     }
@@ -80,6 +169,25 @@ public class Chunk {
         return typeID;
     }
 
+    @Nullable
+    public static String typeID(@NotNull ByteBuffer byteBuffer, @NotNull String path) {
+        int remaining = byteBuffer.remaining();
+        String typeID = null;
+
+        if (remaining >= TYPE_ID_BYTE_COUNT) {
+            byte[] bytes = new byte[TYPE_ID_BYTE_COUNT];
+            byteBuffer.get(bytes);
+            typeID = new String(bytes);
+        } else if (remaining > 0) {
+            LOGGER.error(
+                    "Could not read typeID: read only " + remaining + " of " + TYPE_ID_BYTE_COUNT + " bytes from " +
+                            path
+            );
+        }
+
+        return typeID;
+    }
+
     @NotNull
     @Contract(pure = true)
     public static Pair<Integer, Integer> unsignedByte(byte signedByte) {
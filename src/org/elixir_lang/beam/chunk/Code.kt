@@ -6,9 +6,13 @@ import com.intellij.openapi.util.component2
 import org.elixir_lang.beam.Cache
 import org.elixir_lang.beam.chunk.Chunk.unsignedInt
 import org.elixir_lang.beam.chunk.code.Operation
+import org.elixir_lang.beam.chunk.code.Operations
+import org.elixir_lang.beam.chunk.code.operation.code.reference
+import org.elixir_lang.beam.term.Atom
 import org.elixir_lang.beam.term.Literal
+import org.elixir_lang.beam.term.Term
 
-class Code(private val operationList: List<Operation>) {
+class Code(private val operations: Operations) {
     data class Options(val inline: Inline = Inline(), val showArgumentNames: Boolean = true) {
         data class Inline(
                 val atoms: Boolean = true,
@@ -41,21 +45,31 @@ class Code(private val operationList: List<Operation>) {
     }
 
     private val labelIndexToOperationIndex by lazy {
-        operationList
-                .withIndex()
-                .filter { indexedOperation ->
-                    indexedOperation.value.code == org.elixir_lang.beam.chunk.code.operation.Code.LABEL
-                }.associate { indexedOperation ->
-                    val labelIndex = (indexedOperation.value.termList[0] as Literal).index
-                    val operationIndex = indexedOperation.index
+        (0 until operations.size)
+                .filter { operationIndex ->
+                    operations.code(operationIndex) == org.elixir_lang.beam.chunk.code.operation.Code.LABEL
+                }.associate { operationIndex ->
+                    val labelIndex = operations.firstOperandValue(operationIndex).toInt()
 
                     Pair(labelIndex, operationIndex)
                 }
     }
     private val labelIndexToFuncInfoIndex by lazy { mutableMapOf<Int, Int?>() }
 
-    fun assembly(cache: Cache, options: Options): String =
-        indentOperationList().joinToString("\n") { (indent, operation) ->
+    /**
+     * The operation index ranges of the head and body of each function
+     */
+    private val functionHeadBodyPairList by lazy { functionHeadBodyPairList() }
+
+    fun assembly(cache: Cache, options: Options): String = assembly(cache, options, 0 until functionCount())
+
+    /**
+     * Only disassembles and formats the functions in [functionRange], so that huge `Code` chunks can be shown a
+     * [window] at a time.
+     */
+    fun assembly(cache: Cache, options: Options, functionRange: IntRange): String =
+        functionRange.asSequence().flatMap { indentOperationIndexSequence(it) }.joinToString("\n") { (indent, index) ->
+            val operation = operations[index]
             val operationAssembly = operation.assembly(cache, options)
 
             val suffix = when (operation.code) {
@@ -75,15 +89,70 @@ class Code(private val operationList: List<Operation>) {
             "${" ".repeat(indent)}$operationAssembly$suffix"
         }
 
-    operator fun get(index: Int): Operation = operationList[index]
+    operator fun get(index: Int): Operation = operations[index]
+
+    /**
+     * The number of functions, including the operations before the first function, if any, as a nameless function.
+     */
+    fun functionCount(): Int = functionHeadBodyPairList.size
+
+    /**
+     * `module.function/arity` of the function at [functionIndex]; `null` for the operations before the first function.
+     */
+    fun functionName(cache: Cache, functionIndex: Int): String? =
+        functionHeadBodyPairList[functionIndex]
+                .first
+                .lastOrNull()
+                ?.takeIf { operations.code(it) == org.elixir_lang.beam.chunk.code.operation.Code.FUNC_INFO }
+                ?.let { funcInfoReference(cache, it) }
+
+    /**
+     * `module.function/arity` of the `func_info` operation at [funcInfoIndex]
+     */
+    fun funcInfoReference(cache: Cache, funcInfoIndex: Int): String? {
+        val termList = operations[funcInfoIndex].termList
+        val module = atomString(cache, termList[0])
+        val function = atomString(cache, termList[1])
+        val arity = (termList[2] as? Literal)?.index
+
+        return if (module != null && function != null && arity != null) {
+            reference(module, function, arity.toLong())
+        } else {
+            null
+        }
+    }
+
+    /**
+     * The functions starting at [firstFunctionIndex] that together have no more than [WINDOW_OPERATION_COUNT]
+     * operations, but always at least the function at [firstFunctionIndex].
+     */
+    fun window(firstFunctionIndex: Int): IntRange {
+        var operationCount = functionOperationCount(firstFunctionIndex)
+        var lastFunctionIndex = firstFunctionIndex
+
+        while (lastFunctionIndex + 1 < functionCount()) {
+            val nextOperationCount = functionOperationCount(lastFunctionIndex + 1)
+
+            if (operationCount + nextOperationCount > WINDOW_OPERATION_COUNT) {
+                break
+            }
+
+            operationCount += nextOperationCount
+            lastFunctionIndex++
+        }
+
+        return firstFunctionIndex..lastFunctionIndex
+    }
+
+    private fun functionOperationCount(functionIndex: Int): Int =
+            functionHeadBodyPairList[functionIndex].let { (head, body) -> head.count() + body.count() }
 
     fun labelIndexToFuncInfoIndex(labelIndex: Int): Int? =
         labelIndexToFuncInfoIndex.computeIfAbsent(labelIndex) { key ->
             labelIndexToOperationIndex[key]?.let { operationIndex ->
                 val funcInfoIndex = operationIndex - 1
 
-                if (operationList.getOrNull(funcInfoIndex)?.code ==
-                        org.elixir_lang.beam.chunk.code.operation.Code.FUNC_INFO) {
+                if (operations.codeOrNull(funcInfoIndex) == org.elixir_lang.beam.chunk.code.operation.Code.FUNC_INFO) {
                     funcInfoIndex
                 } else {
                     null
@@ -91,37 +160,30 @@ class Code(private val operationList: List<Operation>) {
             }
         }
 
-    fun size(): Int = operationList.size
+    fun size(): Int = operations.size
 
-    private fun functionHeadBodyPairList(): List<Pair<List<Operation>, List<Operation>>> {
+    private fun functionHeadBodyPairList(): List<Pair<IntRange, IntRange>> {
         val headerIndexLengthPairs = headerIndexLengthPairs()
 
         return headerIndexLengthPairs.mapIndexed { index, (headerIndex, headerLength) ->
             val bodyIndex = headerIndex + headerLength
-            val nextHeaderIndex = headerIndexLengthPairs.getOrNull(index + 1)?.first ?: operationList.size
+            val nextHeaderIndex = headerIndexLengthPairs.getOrNull(index + 1)?.first ?: operations.size
 
-            val functionHead = operationList.subList(headerIndex, bodyIndex)
-            val functionBody = operationList.subList(bodyIndex, nextHeaderIndex)
-
-            Pair(functionHead, functionBody)
+            Pair(headerIndex until bodyIndex, bodyIndex until nextHeaderIndex)
         }
     }
 
     private fun headerIndexLengthPairs(): List<Pair<Int, Int>> {
-        val headerIndexLengthPairs = operationList
-                .mapIndexedNotNull { index, operation ->
-                    if (operation.code == org.elixir_lang.beam.chunk.code.operation.Code.FUNC_INFO) {
-                        index
-                    } else {
-                        null
-                    }
+        val headerIndexLengthPairs = (0 until operations.size)
+                .filter { index ->
+                    operations.code(index) == org.elixir_lang.beam.chunk.code.operation.Code.FUNC_INFO
                 }.map { funcInfoIndex ->
                     val lineIndex = funcInfoIndex - 1
-                    val hasLine = operationList.getOrNull(lineIndex)?.code == org.elixir_lang.beam.chunk.code.operation.Code.LINE
+                    val hasLine = operations.codeOrNull(lineIndex) == org.elixir_lang.beam.chunk.code.operation.Code.LINE
 
                     if (hasLine) {
                         val labelIndex = lineIndex - 1
-                        val hasLabel = operationList.getOrNull(labelIndex)?.code == org.elixir_lang.beam.chunk.code.operation.Code.LABEL
+                        val hasLabel = operations.codeOrNull(labelIndex) == org.elixir_lang.beam.chunk.code.operation.Code.LABEL
 
                         if (hasLabel) {
                             Pair(labelIndex, 3)
@@ -144,30 +206,42 @@ class Code(private val operationList: List<Operation>) {
         }
     }
 
-    private fun indentOperationList() =
-            functionHeadBodyPairList().flatMap { (functionHead, functionBody) ->
-                val indentOperationList = mutableListOf<Pair<Int, Operation>>()
-
-                functionHead.forEach {
-                    indentOperationList.add(Pair(0, it))
-                }
+    /**
+     * The indent and operation index of each operation in the function at [functionIndex].  Only indices are
+     * produced, so [Operation]s are only decoded as they are formatted.
+     */
+    private fun indentOperationIndexSequence(functionIndex: Int): Sequence<Pair<Int, Int>> {
+        val (functionHead, functionBody) = functionHeadBodyPairList[functionIndex]
 
-                functionBody.forEach {
-                    val indent = when (it.code) {
+        return functionHead.asSequence().map { Pair(0, it) } +
+                functionBody.asSequence().map {
+                    val indent = when (operations.code(it)) {
                         org.elixir_lang.beam.chunk.code.operation.Code.LABEL -> 2
                         org.elixir_lang.beam.chunk.code.operation.Code.LINE -> 4
                         else -> 6
                     }
 
-                    indentOperationList.add(Pair(indent, it))
+                    Pair(indent, it)
                 }
-
-                indentOperationList
-            }
+    }
 
     companion object {
         private val LOGGER = Logger.getInstance(Code::class.java)
 
+        /**
+         * The most operations [window] puts in one window, unless a single function is bigger
+         */
+        const val WINDOW_OPERATION_COUNT = 10_000
+
+        private fun atomString(cache: Cache, term: Term): String? =
+                (term as? Atom)?.index?.let { index ->
+                    if (index == 0) {
+                        "nil"
+                    } else {
+                        cache.atoms?.getOrNull(index)?.string
+                    }
+                }
+
         fun from(chunk: Chunk, literalFloat: Boolean = true): Code {
             val data = chunk.data
             var offset = 0
@@ -203,16 +277,7 @@ class Code(private val operationList: List<Operation>) {
             val (functionCount, functionCountByteCount) = unsignedInt(data, offset)
             offset += functionCountByteCount
 
-            val operationList = mutableListOf<Operation>()
-
-            while (offset < data.lastIndex) {
-                val (operation, operationByteCount) = Operation.from(data, offset, literalFloat)
-
-                operationList.add(operation)
-                offset += operationByteCount
-            }
-
-            return Code(operationList)
+            return Code(Operations.from(data, offset, literalFloat))
         }
     }
 }
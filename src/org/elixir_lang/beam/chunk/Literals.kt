@@ -9,13 +9,46 @@ import org.elixir_lang.beam.chunk.literals.literal
 import org.elixir_lang.beam.term.unsignedIntToInt
 import java.util.zip.Inflater
 
-class Literals(private val termList: List<OtpErlangObject>) {
-    operator fun get(index: Int): OtpErlangObject = termList[index]
-    fun getOrNull(index: Int): OtpErlangObject? = termList.getOrNull(index)
-    fun size(): Int = termList.size
+/**
+ * The literal table of a `LitT` chunk.
+ *
+ * Only the offsets of the literals in the inflated table are recorded up front.  Each literal is decoded the first time
+ * it is [get], and at most [DECODED_CACHE_SIZE] decoded literals are kept, so that modules with large literals don't
+ * hold every literal as an [OtpErlangObject] when only a few are shown.
+ *
+ * @param inflated the inflated `LitT` table
+ * @param offsets the offset in `inflated` of each literal's byte count
+ */
+class Literals(private val inflated: ByteArray, private val offsets: IntArray) {
+    private val decodedByIndex = object : LinkedHashMap<Int, OtpErlangObject>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Int, OtpErlangObject>?): Boolean =
+                size > DECODED_CACHE_SIZE
+    }
+
+    operator fun get(index: Int): OtpErlangObject =
+            if (index in 0 until size()) {
+                decoded(index)
+            } else {
+                throw IndexOutOfBoundsException("Index $index is out of bounds for ${size()} literals")
+            }
+
+    fun getOrNull(index: Int): OtpErlangObject? =
+            if (index in 0 until size()) {
+                decoded(index)
+            } else {
+                null
+            }
+
+    fun size(): Int = offsets.size
+
+    private fun decoded(index: Int): OtpErlangObject =
+            synchronized(decodedByIndex) {
+                decodedByIndex.getOrPut(index) { literal(inflated, offsets[index]).first }
+            }
 
     companion object {
         val LOGGER = Logger.getInstance(Literals::class.java)
+        private const val DECODED_CACHE_SIZE = 256
 
         fun from(chunk: Chunk): Literals? {
             val data = chunk.data
@@ -45,22 +78,25 @@ class Literals(private val termList: List<OtpErlangObject>) {
             }
         }
 
+        /**
+         * Records the offset of each literal using only the byte count that prefixes it, without decoding any terms.
+         */
         private fun fromInflated(inflated: ByteArray, offset: Int): Literals? {
             var internalOffset = offset
 
             val (count, countByteCount) = unsignedInt(inflated, internalOffset)
             internalOffset += countByteCount
 
-            val termList = mutableListOf<OtpErlangObject>()
+            val offsets = IntArray(unsignedIntToInt(count))
+
+            for (index in offsets.indices) {
+                offsets[index] = internalOffset
 
-            repeat(unsignedIntToInt(count)) {
-                val (literal, literalByteCount) = literal(inflated, internalOffset)
-                termList.add(literal)
-                internalOffset += literalByteCount
+                val (termByteCount, termByteCountByteCount) = unsignedInt(inflated, internalOffset)
+                internalOffset += termByteCountByteCount + unsignedIntToInt(termByteCount)
             }
 
-            return Literals(termList)
+            return Literals(inflated, offsets)
         }
     }
-
 }
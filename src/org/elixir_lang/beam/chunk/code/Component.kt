@@ -3,12 +3,17 @@ package org.elixir_lang.beam.chunk.code
 import com.intellij.openapi.editor.Document
 import com.intellij.openapi.editor.EditorFactory
 import com.intellij.openapi.project.Project
+import com.intellij.ui.components.JBList
+import com.intellij.ui.components.JBScrollPane
 import com.intellij.ui.components.JBTabbedPane
 import com.intellij.util.ui.components.BorderLayoutPanel
 import org.elixir_lang.beam.Cache
 import org.elixir_lang.beam.assembly.Controls
 import org.elixir_lang.beam.assembly.file.Type
+import org.elixir_lang.beam.chunk.Code
+import javax.swing.AbstractListModel
 import javax.swing.JComponent
+import javax.swing.ListSelectionModel
 import javax.swing.event.ChangeEvent
 import javax.swing.event.ChangeListener
 
@@ -30,11 +35,37 @@ class Component(private val cache: Cache, private val project: Project, tabbedPa
         val controls = Controls(cache, project)
         addToTop(controls)
 
+        cache.code?.let { code ->
+            addToLeft(functionList(code, controls))
+        }
+
         val document = controls.document
         val editorComponent = editorComponent(document, project)
         addToCenter(editorComponent)
     }
 
+    /**
+     * Lists the functions in [code], so that selecting one moves the [Controls.window] to start at it.  Names are only
+     * looked up for the rows that are painted.
+     */
+    private fun functionList(code: Code, controls: Controls): JComponent {
+        val functionList = JBList<String>(object : AbstractListModel<String>() {
+            override fun getSize(): Int = code.functionCount()
+
+            override fun getElementAt(index: Int): String = code.functionName(cache, index) ?: BEFORE_FIRST_FUNCTION
+        })
+        // a prototype keeps the list from measuring every row
+        functionList.prototypeCellValue = PROTOTYPE_FUNCTION_NAME
+        functionList.selectionMode = ListSelectionModel.SINGLE_SELECTION
+        functionList.addListSelectionListener { listSelectionEvent ->
+            if (!listSelectionEvent.valueIsAdjusting) {
+                functionList.selectedIndex.takeIf { it != -1 }?.let { controls.window = code.window(it) }
+            }
+        }
+
+        return JBScrollPane(functionList)
+    }
+
     private fun ensureChildrenAdded() {
         if (!childrenAdded) {
             addChildren()
@@ -45,3 +76,6 @@ class Component(private val cache: Cache, private val project: Project, tabbedPa
 
 private fun editorComponent(document: Document, project: Project): JComponent =
         EditorFactory.getInstance().createEditor(document, project, Type, true).component
+
+private const val BEFORE_FIRST_FUNCTION = "(before first function)"
+private const val PROTOTYPE_FUNCTION_NAME = "Elixir.Module.Name.function_name/1"
@@ -6,9 +6,7 @@ import org.elixir_lang.beam.Cache
 import org.elixir_lang.beam.chunk.Chunk.unsignedByte
 import org.elixir_lang.beam.chunk.code.operation.Code
 import org.elixir_lang.beam.chunk.code.operation.code.Argument
-import org.elixir_lang.beam.chunk.code.operation.code.reference
 import org.elixir_lang.beam.chunk.code.operation.codeByNumber
-import org.elixir_lang.beam.term.Atom
 import org.elixir_lang.beam.term.Label
 import org.elixir_lang.beam.term.Literal
 import org.elixir_lang.beam.term.Term
@@ -180,29 +178,7 @@ data class Operation(val code: Code, val termList: List<Term>) {
             val code = cache.code!!
 
             code.labelIndexToFuncInfoIndex(label.index)?.let { funcInfoIndex ->
-                val funcInfo = code[funcInfoIndex]
-                val termList = funcInfo.termList
-                val module = (termList[0] as? Atom)?.index?.let { index ->
-                    if (index == 0) {
-                        "nil"
-                    } else {
-                        cache.atoms?.getOrNull(index)?.string
-                    }
-                }
-                val function = (termList[1] as? Atom)?.index?.let { index ->
-                    if (index == 0) {
-                        "nil"
-                    } else {
-                        cache.atoms?.getOrNull(index)?.string
-                    }
-                }
-                val arity = (termList[2] as? Literal)?.index
-
-                if (module != null && function != null && arity != null) {
-                    reference(module, function, arity.toLong())
-                } else {
-                    null
-                }
+                code.funcInfoReference(cache, funcInfoIndex)
             }
         }
 
@@ -0,0 +1,257 @@
+package org.elixir_lang.beam.chunk.code
+
+import org.elixir_lang.beam.chunk.code.operation.Code
+import org.elixir_lang.beam.term.*
+import org.elixir_lang.beam.term.Character
+import org.elixir_lang.beam.term.Float
+import org.elixir_lang.beam.term.Integer
+import org.elixir_lang.beam.term.List
+
+private const val LITERAL: Byte = 0
+private const val INTEGER: Byte = 1
+private const val ATOM: Byte = 2
+private const val X_REGISTER: Byte = 3
+private const val Y_REGISTER: Byte = 4
+private const val LABEL: Byte = 5
+private const val CHARACTER: Byte = 6
+private const val FLOAT: Byte = 7
+private const val LIST: Byte = 8
+private const val FLOATING_POINT_REGISTER: Byte = 9
+private const val ALLOCATION_LIST: Byte = 10
+
+private val codeByNumberArray: Array<Code?> =
+        arrayOfNulls<Code>(Code.values().map(Code::number).max()!! + 1).apply {
+            Code.values().forEach { set(it.number, it) }
+        }
+
+/**
+ * The operations of a `Code` chunk decoded into primitive arrays.
+ *
+ * Each operand is an entry in [operandTags] and [operandValues].  [List] and [AllocationList] operands store their size
+ * as their value and are followed by their elements, so the operands of operation `i` are all the entries from
+ * `operandStarts[i]` until `operandStarts[i + 1]`.  [Operation]s and their [Term]s are only created when [get] is
+ * called.
+ */
+class Operations private constructor(
+        private val codes: Array<Code?>,
+        private val operandStarts: IntArray,
+        private val operandTags: ByteArray,
+        private val operandValues: LongArray,
+        val size: Int
+) {
+    operator fun get(index: Int): Operation {
+        val code = code(index)
+        val termList = ArrayList<Term>(code.arguments.size)
+        var operandIndex = operandStarts[index]
+
+        repeat(code.arguments.size) {
+            operandIndex = term(operandIndex, termList)
+        }
+
+        return Operation(code, termList)
+    }
+
+    fun code(index: Int): Code = codes[index]!!
+    fun codeOrNull(index: Int): Code? = if (index in 0 until size) codes[index] else null
+
+    /**
+     * The value of the first operand of the operation at [index], such as the label number of a `label`.
+     */
+    fun firstOperandValue(index: Int): Long = operandValues[operandStarts[index]]
+
+    /**
+     * Adds the [Term] at [operandIndex] to [termList]
+     *
+     * @return the operand index after the term and its elements
+     */
+    private fun term(operandIndex: Int, termList: MutableList<Term>): Int {
+        val value = operandValues[operandIndex]
+        var nextOperandIndex = operandIndex + 1
+
+        val term = when (operandTags[operandIndex]) {
+            LITERAL -> Literal(value.toInt())
+            INTEGER -> Integer(value)
+            ATOM -> Atom(value.toInt())
+            X_REGISTER -> XRegister(value.toInt())
+            Y_REGISTER -> YRegister(value.toInt())
+            LABEL -> Label(value.toInt())
+            CHARACTER -> Character(value.toInt())
+            FLOAT -> Float()
+            LIST -> {
+                val elements = ArrayList<Term>(value.toInt())
+
+                repeat(value.toInt()) {
+                    nextOperandIndex = term(nextOperandIndex, elements)
+                }
+
+                List(elements)
+            }
+            FLOATING_POINT_REGISTER -> FloatingPointRegister(value.toInt())
+            ALLOCATION_LIST -> {
+                val allocationList = ArrayList<AllocationList.Allocation>(value.toInt())
+
+                repeat(value.toInt()) {
+                    val type = allocationType(operandValues[nextOperandIndex].toInt())
+                    val allocationValue = operandValues[nextOperandIndex + 1].toInt()
+                    nextOperandIndex += 2
+
+                    allocationList.add(AllocationList.Allocation(type, allocationValue))
+                }
+
+                AllocationList(allocationList)
+            }
+            else -> throw IllegalStateException("Unknown operand tag (${operandTags[operandIndex]})")
+        }
+
+        termList.add(term)
+
+        return nextOperandIndex
+    }
+
+    /**
+     * Decodes operations from a [Cursor] into growing primitive arrays.  Only the arrays are allocated: there is no
+     * per-operand allocation.
+     */
+    private class Decoder(private val cursor: Cursor, private val literalFloat: Boolean) {
+        var codes = arrayOfNulls<Code>(1024)
+        var operandStarts = IntArray(1025)
+        var operandTags = ByteArray(4096)
+        var operandValues = LongArray(4096)
+        var size = 0
+        var operandCount = 0
+
+        fun operation() {
+            val opcode = cursor.unsignedByte()
+            val code = codeByNumberArray.getOrNull(opcode) ?: throw IllegalArgumentException("Unknown opcode ($opcode)")
+
+            if (size == codes.size) {
+                codes = codes.copyOf(size * 2)
+                operandStarts = operandStarts.copyOf(size * 2 + 1)
+            }
+
+            codes[size] = code
+            operandStarts[size] = operandCount
+
+            repeat(code.arguments.size) {
+                term()
+            }
+
+            size++
+            operandStarts[size] = operandCount
+        }
+
+        private fun add(tag: Byte, value: Long): Int {
+            if (operandCount == operandTags.size) {
+                operandTags = operandTags.copyOf(operandCount * 2)
+                operandValues = operandValues.copyOf(operandCount * 2)
+            }
+
+            operandTags[operandCount] = tag
+            operandValues[operandCount] = value
+
+            return operandCount++
+        }
+
+        private fun index(fullTag: UnsignedByte): Long = unsignedIntToInt(cursor.unsignedValue(fullTag)).toLong()
+
+        // http://beam-wisdoms.clau.se/en/latest/indepth-beam-file.html#beam-term-format
+        private fun term() {
+            val fullTag = cursor.unsignedByte()
+
+            when (fullTag.and(0b111)) {
+                0b000 -> add(LITERAL, index(fullTag))
+                0b001 -> add(INTEGER, cursor.signedValue(fullTag))
+                0b010 -> add(ATOM, index(fullTag))
+                0b011 -> add(X_REGISTER, index(fullTag))
+                0b100 -> add(Y_REGISTER, index(fullTag))
+                0b101 -> add(LABEL, index(fullTag))
+                0b110 -> add(CHARACTER, index(fullTag))
+                else -> extendedTerm(fullTag.ushr(3).and(0b1_1111))
+            }
+        }
+
+        /* In OTP 20 the Floats are encoded as literals, and every other extended code is shifted, i.e. List
+           becomes 1 (0b10111), Float register becomes 2 (0b100111), alloc list becomes 3 (0b110111) and
+           literal becomes 4 (0b1000111). */
+        private fun extendedTerm(extendedTag: Int) {
+            val shiftedExtendedTag = if (literalFloat) {
+                extendedTag + 0b0010
+            } else {
+                extendedTag
+            }
+
+            when (shiftedExtendedTag) {
+                0b0010 -> if (literalFloat) {
+                    throw IllegalArgumentException("Extended tag ($extendedTag) is not properly shifted and masked")
+                } else {
+                    add(FLOAT, 0)
+                }
+                0b0100 -> {
+                    val listOperandIndex = add(LIST, 0)
+                    val size = literal()
+
+                    operandValues[listOperandIndex] = size.toLong()
+
+                    repeat(size) {
+                        term()
+                    }
+                }
+                0b0110 -> add(FLOATING_POINT_REGISTER, literal().toLong())
+                0b1000 -> {
+                    val size = literal()
+                    add(ALLOCATION_LIST, size.toLong())
+
+                    // https://github.com/erlang/otp/blob/OTP-20.2.2/lib/compiler/src/beam_disasm.erl#L566-L572
+                    repeat(size) {
+                        val typeNumber = literal()
+                        allocationType(typeNumber)
+                        add(LITERAL, typeNumber.toLong())
+                        add(LITERAL, literal().toLong())
+                    }
+                }
+                0b1010 -> add(LITERAL, literal().toLong())
+                else -> throw IllegalArgumentException("Extended tag ($extendedTag) is not properly shifted and masked")
+            }
+        }
+
+        /**
+         * Reads a term that must be a [Literal], such as the size of a [List], without adding it as an operand.
+         */
+        private fun literal(): Int {
+            val fullTag = cursor.unsignedByte()
+
+            return when {
+                fullTag.and(0b111) == 0b000 -> index(fullTag).toInt()
+                fullTag.and(0b111) == 0b111 && isExtendedLiteral(fullTag.ushr(3).and(0b1_1111)) -> literal()
+                else -> throw IllegalArgumentException("Expected a Literal term, but got full tag ($fullTag)")
+            }
+        }
+
+        private fun isExtendedLiteral(extendedTag: Int) =
+                (literalFloat && extendedTag == 0b1000) || (!literalFloat && extendedTag == 0b1010)
+    }
+
+    companion object {
+        fun from(data: ByteArray, offset: Int, literalFloat: Boolean): Operations {
+            val cursor = Cursor(data, offset)
+            val decoder = Decoder(cursor, literalFloat)
+
+            while (cursor.hasRemaining(data.lastIndex)) {
+                decoder.operation()
+            }
+
+            return Operations(
+                    decoder.codes,
+                    decoder.operandStarts,
+                    decoder.operandTags,
+                    decoder.operandValues,
+                    decoder.size
+            )
+        }
+
+        private fun allocationType(number: Int): AllocationList.Type =
+                AllocationList.Type.values().firstOrNull { it.number == number } ?: throw IllegalArgumentException(
+                        "typeTerm Literal index ($number) is not a recognized Type number"
+                )
+    }
+}
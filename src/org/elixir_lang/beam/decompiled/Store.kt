@@ -0,0 +1,68 @@
+package org.elixir_lang.beam.decompiled
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.components.ServiceManager
+import org.elixir_lang.beam.ContentHashStore
+import org.elixir_lang.beam.Decompiled
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * Persistent store of [Decompiled] source keyed by the SHA-1 of the `.beam` file's contents, so that opening or
+ * navigating into an unchanged SDK or library module after a restart doesn't decompile it again.
+ */
+class Store : ContentHashStore<Decompiled>("decompiled", VERSION, MAXIMUM_BYTE_COUNT) {
+    override fun read(dataInput: DataInput): Decompiled? =
+            if (dataInput.readInt() == VERSION) {
+                // `readUTF` is limited to 64KB, which large modules, like `:erlang`, exceed
+                val text = ByteArray(dataInput.readInt()).let {
+                    dataInput.readFully(it)
+                    String(it, Charsets.UTF_8)
+                }
+                val moduleOffset = dataInput.readInt().takeIf { it >= 0 }
+                val callDefinitionCount = dataInput.readInt()
+                val offsetByNameArity = HashMap<String, Int>(callDefinitionCount)
+
+                for (i in 0 until callDefinitionCount) {
+                    val nameArity = dataInput.readUTF()
+                    offsetByNameArity[nameArity] = dataInput.readInt()
+                }
+
+                Decompiled(text, moduleOffset, offsetByNameArity)
+            } else {
+                null
+            }
+
+    override fun write(dataOutput: DataOutput, record: Decompiled) {
+        dataOutput.writeInt(VERSION)
+
+        val textByteArray = record.text.toString().toByteArray(Charsets.UTF_8)
+        dataOutput.writeInt(textByteArray.size)
+        dataOutput.write(textByteArray)
+
+        dataOutput.writeInt(record.moduleOffset ?: -1)
+
+        val offsetByNameArity = record.offsetByNameArity
+        dataOutput.writeInt(offsetByNameArity.size)
+
+        for ((nameArity, offset) in offsetByNameArity) {
+            dataOutput.writeUTF(nameArity)
+            dataOutput.writeInt(offset)
+        }
+    }
+
+    companion object {
+        /**
+         * Increment when the [Decompiled] record format or the output of [org.elixir_lang.beam.Decompiler] changes.
+         */
+        private const val VERSION = 1
+        private const val MAXIMUM_BYTE_COUNT = 128L * 1024 * 1024
+
+        fun getInstance(): Store? =
+                if (ApplicationManager.getApplication() != null) {
+                    ServiceManager.getService(Store::class.java)
+                } else {
+                    null
+                }
+    }
+}
@@ -0,0 +1,137 @@
+package org.elixir_lang.beam.metadata
+
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.components.ServiceManager
+import org.elixir_lang.beam.ContentHashStore
+import org.elixir_lang.beam.Metadata
+import org.elixir_lang.beam.chunk.Atoms
+import org.elixir_lang.beam.chunk.CallDefinitions
+import org.elixir_lang.beam.chunk.Chunk
+import org.elixir_lang.beam.chunk.atoms.Atom
+import org.elixir_lang.beam.chunk.call_definitions.CallDefinition
+import java.io.DataInput
+import java.io.DataOutput
+
+/**
+ * Persistent store of [Metadata] keyed by the SHA-1 of the `.beam` file's contents, so that SDK and `_build` `.beam`
+ * files that haven't changed don't need to be decoded again after a restart.
+ */
+class Store : ContentHashStore<Metadata>("metadata", VERSION, MAXIMUM_BYTE_COUNT) {
+    override fun read(dataInput: DataInput): Metadata? = readMetadata(dataInput)
+    override fun write(dataOutput: DataOutput, record: Metadata) = writeMetadata(dataOutput, record)
+
+    companion object {
+        /**
+         * Increment when the [Metadata] record format or the decoding of any of its chunks changes.
+         */
+        private const val VERSION = 1
+        private const val MAXIMUM_BYTE_COUNT = 64L * 1024 * 1024
+
+        fun getInstance(): Store? =
+                if (ApplicationManager.getApplication() != null) {
+                    ServiceManager.getService(Store::class.java)
+                } else {
+                    null
+                }
+
+        private fun readMetadata(dataInput: DataInput): Metadata? =
+                if (dataInput.readInt() == VERSION) {
+                    val atoms = if (dataInput.readBoolean()) {
+                        val atomCount = dataInput.readInt()
+                        val atomList = ArrayList<Atom>(atomCount)
+
+                        for (index in 1..atomCount) {
+                            val byteCount = dataInput.readInt()
+                            val string = dataInput.readUTF()
+
+                            atomList.add(Atom(index, byteCount, string))
+                        }
+
+                        Atoms.from(atomList)
+                    } else {
+                        null
+                    }
+
+                    val exports = readCallDefinitions(dataInput, Chunk.TypeID.EXPT, atoms)
+                    val locals = readCallDefinitions(dataInput, Chunk.TypeID.LOCT, atoms)
+
+                    val attributesByteCount = dataInput.readInt()
+                    val attributesByteArray = if (attributesByteCount >= 0) {
+                        ByteArray(attributesByteCount).also { dataInput.readFully(it) }
+                    } else {
+                        null
+                    }
+
+                    Metadata(atoms, exports, locals, attributesByteArray)
+                } else {
+                    null
+                }
+
+        private fun readCallDefinitions(dataInput: DataInput, typeID: Chunk.TypeID, atoms: Atoms?): CallDefinitions? =
+                if (dataInput.readBoolean()) {
+                    val callDefinitionCount = dataInput.readInt()
+                    val callDefinitionList = ArrayList<CallDefinition>(callDefinitionCount)
+
+                    for (i in 0 until callDefinitionCount) {
+                        val atomIndex = readUnsignedInt(dataInput)
+                        val arity = readUnsignedInt(dataInput)
+                        val label = readUnsignedInt(dataInput)
+
+                        callDefinitionList.add(CallDefinition(atomIndex, arity, label, atoms))
+                    }
+
+                    CallDefinitions(typeID, callDefinitionList)
+                } else {
+                    null
+                }
+
+        private fun readUnsignedInt(dataInput: DataInput): Long = dataInput.readInt().toLong() and 0xFFFFFFFFL
+
+        private fun writeMetadata(dataOutput: DataOutput, metadata: Metadata) {
+            dataOutput.writeInt(VERSION)
+
+            val atoms = metadata.atoms
+
+            dataOutput.writeBoolean(atoms != null)
+
+            if (atoms != null) {
+                val atomList = atoms.toList()
+
+                dataOutput.writeInt(atomList.size)
+
+                for (atom in atomList) {
+                    dataOutput.writeInt(atom.byteCount)
+                    dataOutput.writeUTF(atom.string)
+                }
+            }
+
+            writeCallDefinitions(dataOutput, metadata.exports)
+            writeCallDefinitions(dataOutput, metadata.locals)
+
+            val attributesByteArray = metadata.attributesByteArray
+
+            if (attributesByteArray != null) {
+                dataOutput.writeInt(attributesByteArray.size)
+                dataOutput.write(attributesByteArray)
+            } else {
+                dataOutput.writeInt(-1)
+            }
+        }
+
+        private fun writeCallDefinitions(dataOutput: DataOutput, callDefinitions: CallDefinitions?) {
+            dataOutput.writeBoolean(callDefinitions != null)
+
+            if (callDefinitions != null) {
+                val callDefinitionCollection = callDefinitions.callDefinitionCollection
+
+                dataOutput.writeInt(callDefinitionCollection.size)
+
+                for (callDefinition in callDefinitionCollection) {
+                    dataOutput.writeInt(callDefinition.atomIndex.toInt())
+                    dataOutput.writeInt(callDefinition.arity.toInt())
+                    dataOutput.writeInt(callDefinition.label.toInt())
+                }
+            }
+        }
+    }
+}
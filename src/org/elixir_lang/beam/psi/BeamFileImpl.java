@@ -1,6 +1,5 @@
 package org.elixir_lang.beam.psi;
 
-import com.ericsson.otp.erlang.OtpErlangDecodeException;
 import com.intellij.lang.ASTNode;
 import com.intellij.lang.FileASTNode;
 import com.intellij.openapi.application.ApplicationManager;
@@ -26,10 +25,9 @@ import com.intellij.reference.SoftReference;
 import com.intellij.util.ArrayUtil;
 import com.intellij.util.IncorrectOperationException;
 import org.elixir_lang.ElixirLanguage;
-import org.elixir_lang.beam.Beam;
+import org.elixir_lang.beam.Decompiled;
 import org.elixir_lang.beam.MacroNameArity;
-import org.elixir_lang.beam.chunk.Atoms;
-import org.elixir_lang.beam.chunk.CallDefinitions;
+import org.elixir_lang.beam.Metadata;
 import org.elixir_lang.beam.psi.impl.CallDefinitionStubImpl;
 import org.elixir_lang.beam.psi.impl.ModuleElementImpl;
 import org.elixir_lang.beam.psi.impl.ModuleImpl;
@@ -44,10 +42,8 @@ import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
-import java.util.SortedSet;
 
 import static com.intellij.reference.SoftReference.dereference;
 import static org.elixir_lang.beam.Decompiler.defmoduleArgument;
@@ -84,45 +80,33 @@ public class BeamFileImpl extends ModuleElementImpl implements ModuleOwner, PsiC
     }
 
     public static Optional<Stub> buildFileStub(@NotNull byte[] bytes, @NotNull String path) {
-        Optional<Beam> beamOptional;
-
-        try {
-            beamOptional = Optional.ofNullable(Beam.Companion.from(bytes, path));
-        } catch (IOException e) {
-            LOGGER.error("IOException during BeamFileImpl.buildFileStub(bytes, " + path + ")",  e);
-            beamOptional = Optional.empty();
-        } catch (OtpErlangDecodeException e) {
-            LOGGER.error("OtpErlangDecodeException during BeamFileImpl.buildFileStub(bytes, " + path + ")", e);
-            beamOptional = Optional.empty();
-        }
-
-        return beamOptional.flatMap(BeamFileImpl::buildModuleStub).map(StubElement::getParentStub);
+        return Optional
+                .ofNullable(Metadata.Companion.from(bytes, path))
+                .flatMap(BeamFileImpl::buildModuleStub)
+                .map(StubElement::getParentStub);
     }
 
-    private static Optional<ModuleStub> buildModuleStub(@NotNull Beam beam) {
+    private static Optional<ModuleStub> buildModuleStub(@NotNull Metadata metadata) {
         Optional<ModuleStub> moduleStubOptional = Optional.empty();
 
-        Atoms atoms = beam.atoms();
-
-        if (atoms != null) {
-            String moduleName = atoms.moduleName();
+        String moduleName = metadata.moduleName();
 
-            if (moduleName != null) {
-                String name = defmoduleArgument(moduleName);
-                ElixirFileStubImpl parentStub = new ElixirFileStubImpl();
-                ModuleStub moduleStub = new ModuleStubImpl(parentStub, name);
+        if (moduleName != null) {
+            String name = defmoduleArgument(moduleName);
+            ElixirFileStubImpl parentStub = new ElixirFileStubImpl();
+            ModuleStub moduleStub = new ModuleStubImpl(parentStub, name);
 
-                buildCallDefinitions(moduleStub, beam, atoms);
+            buildCallDefinitions(moduleStub, metadata);
 
-                moduleStubOptional = Optional.of(moduleStub);
-            }
+            moduleStubOptional = Optional.of(moduleStub);
         }
 
         return moduleStubOptional;
     }
 
-    private static void buildCallDefinitions(@NotNull ModuleStub parentStub, @NotNull Beam beam, @NotNull Atoms atoms) {
-        macroNameAritySortedSet(beam, atoms).forEach(macroNameArity -> buildCallDefinition(parentStub, macroNameArity));
+    private static void buildCallDefinitions(@NotNull ModuleStub parentStub, @NotNull Metadata metadata) {
+        macroNameAritySortedSet(metadata.callDefinitionsList())
+                .forEach(macroNameArity -> buildCallDefinition(parentStub, macroNameArity));
     }
 
     @NotNull
@@ -140,6 +124,15 @@ public class BeamFileImpl extends ModuleElementImpl implements ModuleOwner, PsiC
         return new CallDefinitionStubImpl(parentStub, macro, name, arity);
     }
 
+    /**
+     * @return the start of the decompiled source
+     */
+    @NotNull
+    @Override
+    protected Integer decompiledOffset(@NotNull Decompiled decompiled) {
+        return 0;
+    }
+
     @Override
     public PsiFile getDecompiledPsiFile() {
         return (PsiFile) getMirror();
@@ -1,12 +1,18 @@
 package org.elixir_lang.beam.psi.impl;
 
+import com.intellij.navigation.ItemPresentation;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.StubBasedPsiElement;
 import com.intellij.psi.impl.source.tree.TreeElement;
 import com.intellij.psi.stubs.IStubElementType;
 import com.intellij.util.IncorrectOperationException;
+import org.elixir_lang.Visibility;
+import org.elixir_lang.beam.Decompiled;
 import org.elixir_lang.beam.psi.CallDefinition;
 import org.elixir_lang.beam.psi.stubs.CallDefinitionStub;
+import org.elixir_lang.beam.psi.stubs.ModuleStub;
+import org.elixir_lang.navigation.item_presentation.NameArity;
+import org.elixir_lang.structure_view.element.Timed;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
@@ -14,6 +20,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Set;
 
+import static org.elixir_lang.psi.call.name.Function.*;
+
 public class CallDefinitionImpl<T extends CallDefinitionStub> extends ModuleElementImpl implements CallDefinition, StubBasedPsiElement<T> {
     private final T stub;
 
@@ -63,6 +71,12 @@ public class CallDefinitionImpl<T extends CallDefinitionStub> extends ModuleElem
         setMirrorCheckingType(element, null);
     }
 
+    @Nullable
+    @Override
+    protected Integer decompiledOffset(@NotNull Decompiled decompiled) {
+        return decompiled.callDefinitionOffset(exportedName(), exportedArity());
+    }
+
     /**
      * @return {@code null} if it does not have a canonical name OR if it has more than one canonical name
      */
@@ -85,12 +99,53 @@ public class CallDefinitionImpl<T extends CallDefinitionStub> extends ModuleElem
         return null;
     }
 
+    @NotNull
+    @Override
+    public String getName() {
+        return stub.getName();
+    }
+
+    /**
+     * The name of the module that defines this call definition
+     */
+    @NotNull
+    public String moduleName() {
+        return ((ModuleStub) stub.getParentStub()).getName();
+    }
+
     @Nullable
     @Override
     public PsiElement getNameIdentifier() {
         return this;
     }
 
+    /**
+     * Rendered from the stub, like the source call definition, so that listing the call definition, such as in Go To
+     * Symbol, doesn't decompile its module.
+     */
+    @NotNull
+    @Override
+    public ItemPresentation getPresentation() {
+        String macro = stub.resolvedFunctionName();
+        Timed.Time time;
+
+        if (DEFMACRO.equals(macro) || DEFMACROP.equals(macro)) {
+            time = Timed.Time.COMPILE;
+        } else {
+            time = Timed.Time.RUN;
+        }
+
+        Visibility visibility;
+
+        if (DEFP.equals(macro) || DEFMACROP.equals(macro)) {
+            visibility = Visibility.PRIVATE;
+        } else {
+            visibility = Visibility.PUBLIC;
+        }
+
+        return new NameArity(moduleName(), false, time, visibility, false, false, getName(), exportedArity());
+    }
+
     /**
      * Renames the element.
      *
@@ -65,6 +65,12 @@ class CallDefinitionStubImpl<T : CallDefinition> : StubbicBase<T>, CallDefinitio
 
     override fun callDefinitionClauseHeadArity(): Int = callDefinitionClauseHeadArity
 
+    /**
+     * Each arity is exported separately in a `.beam`, so there is never more than one arity.
+     */
+    override fun callDefinitionClauseArityRange(): IntRange =
+            callDefinitionClauseHeadArity..callDefinitionClauseHeadArity
+
     /**
      * Arity of `def ... do` or `defmacro ... do`.
      *
@@ -3,8 +3,10 @@ package org.elixir_lang.beam.psi.impl;
 import com.intellij.lang.ASTNode;
 import com.intellij.lang.Language;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.PsiElementBase;
 import com.intellij.psi.impl.source.SourceTreeToPsiMap;
@@ -13,6 +15,7 @@ import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ArrayUtil;
 import org.elixir_lang.ElixirLanguage;
+import org.elixir_lang.beam.Decompiled;
 import org.elixir_lang.beam.psi.BeamFileImpl;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
@@ -131,6 +134,58 @@ public abstract class ModuleElementImpl extends PsiElementBase implements PsiCom
 
     public abstract void setMirror(@NotNull TreeElement element) throws InvalidMirrorException;
 
+    /**
+     * @return where this element starts in the {@link Decompiled#getText()} of its {@code .beam} file;
+     *   {@code null} if unknown.
+     */
+    @Nullable
+    protected abstract Integer decompiledOffset(@NotNull Decompiled decompiled);
+
+    @Override
+    public boolean canNavigate() {
+        return (mirror == null && getContainingFile().getVirtualFile() != null) || super.canNavigate();
+    }
+
+    @Override
+    public boolean canNavigateToSource() {
+        return canNavigate();
+    }
+
+    /**
+     * Until the mirror is built, navigates straight to the {@link #decompiledOffset(Decompiled)} in the decompiled
+     * source, so that choosing this element in a navigation list doesn't need to parse its whole module first.
+     */
+    @Override
+    public void navigate(boolean requestFocus) {
+        OpenFileDescriptor decompiledDescriptor = decompiledDescriptor();
+
+        if (decompiledDescriptor != null) {
+            decompiledDescriptor.navigate(requestFocus);
+        } else {
+            super.navigate(requestFocus);
+        }
+    }
+
+    @Nullable
+    private OpenFileDescriptor decompiledDescriptor() {
+        OpenFileDescriptor decompiledDescriptor = null;
+
+        if (mirror == null) {
+            PsiFile containingFile = getContainingFile();
+            VirtualFile virtualFile = containingFile.getVirtualFile();
+
+            if (virtualFile != null) {
+                Integer offset = decompiledOffset(Decompiled.Companion.from(virtualFile));
+
+                if (offset != null) {
+                    decompiledDescriptor = new OpenFileDescriptor(containingFile.getProject(), virtualFile, offset);
+                }
+            }
+        }
+
+        return decompiledDescriptor;
+    }
+
     /**
      * Returns the language of the PSI element.
      *
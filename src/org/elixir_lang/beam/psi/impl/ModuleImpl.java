@@ -1,5 +1,7 @@
 package org.elixir_lang.beam.psi.impl;
 
+import com.intellij.ide.projectView.PresentationData;
+import com.intellij.navigation.ItemPresentation;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.StubBasedPsiElement;
@@ -7,7 +9,10 @@ import com.intellij.psi.impl.source.tree.TreeElement;
 import com.intellij.psi.stubs.IStubElementType;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.util.IncorrectOperationException;
+import org.elixir_lang.Icons;
+import org.elixir_lang.beam.Decompiled;
 import org.elixir_lang.beam.psi.Module;
+import org.elixir_lang.beam.psi.stubs.ModuleStub;
 import org.elixir_lang.psi.Modular;
 import org.elixir_lang.psi.call.Call;
 import org.elixir_lang.psi.call.MaybeExported;
@@ -21,6 +26,7 @@ import java.util.List;
 import java.util.Set;
 
 import static org.elixir_lang.beam.psi.stubs.ModuleStubElementTypes.CALL_DEFINITION;
+import static org.elixir_lang.psi.impl.PresentationImplKt.locationString;
 
 // See com.intellij.psi.impl.compiled.ClsClassImpl
 public class ModuleImpl<T extends StubElement> extends ModuleElementImpl implements Module, StubBasedPsiElement<T> {
@@ -74,6 +80,12 @@ public class ModuleImpl<T extends StubElement> extends ModuleElementImpl impleme
         setMirrors(callDefinitions(), callDefinitions(element));
     }
 
+    @Nullable
+    @Override
+    protected Integer decompiledOffset(@NotNull Decompiled decompiled) {
+        return decompiled.getModuleOffset();
+    }
+
     @Contract(pure = true)
     @NotNull
     private static MaybeExported[] callDefinitions(@NotNull TreeElement mirror) {
@@ -128,12 +140,33 @@ public class ModuleImpl<T extends StubElement> extends ModuleElementImpl impleme
         return null;
     }
 
+    @NotNull
+    @Override
+    public String getName() {
+        return ((ModuleStub) stub).getName();
+    }
+
     @Nullable
     @Override
     public PsiElement getNameIdentifier() {
         return this;
     }
 
+    /**
+     * Rendered from the stub, like the source {@code defmodule}, so that listing the module, such as in Go To Symbol,
+     * doesn't decompile it.
+     */
+    @NotNull
+    @Override
+    public ItemPresentation getPresentation() {
+        return new PresentationData(
+                "defmodule " + getName(),
+                locationString(getContainingFile(), getProject()),
+                Icons.MODULE,
+                null
+        );
+    }
+
     /**
      * Renames the element.
      *
@@ -156,6 +189,6 @@ public class ModuleImpl<T extends StubElement> extends ModuleElementImpl impleme
     @NotNull
     @Override
     public Project getProject() {
-        return getMirror().getProject();
+        return getContainingFile().getProject();
     }
 }
@@ -0,0 +1,87 @@
+package org.elixir_lang.beam.term
+
+/**
+ * Reads [data] from [offset] onward, advancing [offset] as it goes instead of returning the byte count of everything it
+ * reads in a [Pair], so that decoding doesn't allocate.
+ */
+class Cursor(private val data: ByteArray, var offset: Int) {
+    fun hasRemaining(limit: Int): Boolean = offset < limit
+
+    fun unsignedByte(): UnsignedByte = data[offset++].toInt() and 0xFF
+
+    fun unsignedInt(): Long {
+        var unsignedInt = 0L
+
+        repeat(4) {
+            unsignedInt = unsignedInt.shl(8).or(unsignedByte().toLong())
+        }
+
+        return unsignedInt
+    }
+
+    /**
+     * Reads the value of a compact term whose first byte was [fullTag] as an unsigned integer.
+     *
+     * Same encoding as [value], but without boxing into [Any] or allocating an [org.elixir_lang.beam.ByteSubarray].
+     */
+    fun unsignedValue(fullTag: UnsignedByte): Long {
+        val bit3 = fullTag.ushr(3).and(0b1)
+
+        return if (bit3 == 0) {
+            fullTag.ushr(4).toLong()
+        } else {
+            val bit4 = fullTag.ushr(4).and(0b1)
+            val bits7to5 = fullTag.and(0b1110_0000).shr(5)
+
+            if (bit4 == 0) {
+                bits7to5.shl(8).or(unsignedByte()).toLong()
+            } else {
+                var unsignedValue = 0L
+
+                repeat(byteCount(bits7to5)) {
+                    unsignedValue = unsignedValue.shl(8).or(unsignedByte().toLong())
+                }
+
+                unsignedValue
+            }
+        }
+    }
+
+    /**
+     * Reads the value of a compact term whose first byte was [fullTag] as a signed integer.
+     *
+     * Same as [org.elixir_lang.beam.ByteSubarray.toLong] for values that don't fit in the tag.
+     */
+    fun signedValue(fullTag: UnsignedByte): Long {
+        val bit3 = fullTag.ushr(3).and(0b1)
+        val bit4 = fullTag.ushr(4).and(0b1)
+
+        return if (bit3 == 0 || bit4 == 0) {
+            unsignedValue(fullTag)
+        } else {
+            val bits7to5 = fullTag.and(0b1110_0000).shr(5)
+            val byteCount = byteCount(bits7to5)
+            val firstUnsignedByte = unsignedByte()
+            val signBit = firstUnsignedByte.ushr(7).and(0b1) == 1
+
+            var signedValue = if (signBit) {
+                0xFF.shl(24).or(0xFF.shl(16)).or(0xFF.shl(8)).or(firstUnsignedByte).toLong()
+            } else {
+                firstUnsignedByte.toLong()
+            }
+
+            repeat(byteCount - 1) {
+                signedValue = signedValue.shl(8).or(unsignedByte().toLong())
+            }
+
+            signedValue
+        }
+    }
+
+    private fun byteCount(bits7to5: Int): Int =
+            if (bits7to5 == 0b111) {
+                unsignedByte()
+            } else {
+                bits7to5 + 2
+            }
+}
@@ -0,0 +1,20 @@
+package org.elixir_lang.code_insight.completion.contributor;
+
+import com.intellij.codeInsight.completion.CompletionContributor;
+import com.intellij.codeInsight.completion.CompletionType;
+import org.elixir_lang.psi.ElixirAtom;
+import org.elixir_lang.psi.ElixirFile;
+import org.elixir_lang.psi.ElixirTypes;
+
+import static com.intellij.patterns.PlatformPatterns.psiElement;
+import static com.intellij.patterns.StandardPatterns.instanceOf;
+
+public class Atom extends CompletionContributor {
+    public Atom() {
+        extend(
+                CompletionType.BASIC,
+                psiElement(ElixirTypes.ATOM_FRAGMENT).withParent(ElixirAtom.class).inFile(instanceOf(ElixirFile.class)),
+                new org.elixir_lang.code_insight.completion.provider.Atom()
+        );
+    }
+}
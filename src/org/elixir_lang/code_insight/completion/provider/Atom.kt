@@ -0,0 +1,33 @@
+package org.elixir_lang.code_insight.completion.provider
+
+import com.intellij.codeInsight.completion.CompletionParameters
+import com.intellij.codeInsight.completion.CompletionProvider
+import com.intellij.codeInsight.completion.CompletionResultSet
+import com.intellij.codeInsight.lookup.LookupElementBuilder
+import com.intellij.util.ProcessingContext
+import org.elixir_lang.psi.ElixirAtom
+import org.elixir_lang.psi.scope.atom.Variants
+
+/**
+ * Completes unquoted atoms from index keys alone.  Only the first [LIMIT] names are shown, so completion is restarted
+ * when the prefix changes to show the names that did not fit.
+ */
+class Atom : CompletionProvider<CompletionParameters>() {
+    override fun addCompletions(parameters: CompletionParameters,
+                                context: ProcessingContext,
+                                resultSet: CompletionResultSet) {
+        val atom = parameters.position.parent as? ElixirAtom ?: return
+        val prefix = atom.text.substring(0, parameters.offset - atom.textRange.startOffset)
+        val prefixedNameList = Variants.prefixedNameList(parameters.originalFile.project, prefix, LIMIT)
+
+        if (prefixedNameList.size > LIMIT) {
+            resultSet.restartCompletionOnAnyPrefixChange()
+        }
+
+        resultSet
+                .withPrefixMatcher(prefix)
+                .addAllElements(prefixedNameList.take(LIMIT).map { LookupElementBuilder.create(it) })
+    }
+}
+
+private const val LIMIT = 500
@@ -10,6 +10,10 @@ public class CodeStyleSettings extends CustomCodeStyleSettings {
     public boolean ALIGN_TWO_OPERANDS = true;
     public boolean ALIGN_TYPE_DEFINITION_TO_RIGHT_OF_OPERATOR = true;
     public int ALIGN_UNMATCHED_CALL_DO_BLOCKS = UnmatchedCallDoBlockAlignment.LINE.value;
+    /**
+     * Replace the result of Reformat Code with `Code.format_string!` from the SDK, so it matches `mix format`.
+     */
+    public boolean MIX_FORMAT = false;
     public boolean SPACE_AFTER_CAPTURE_OPERATOR = false;
     public boolean SPACE_AROUND_AND_OPERATORS = true;
     public boolean SPACE_AROUND_ARROW_OPERATORS = true;
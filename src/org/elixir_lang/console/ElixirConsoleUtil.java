@@ -15,6 +15,6 @@ public final class ElixirConsoleUtil {
   }
 
   public static void attachFilters(@NotNull Project project, @NotNull ConsoleView consoleView){
-    consoleView.addMessageFilter(new FileReferenceFilter(project, COMPILATION_ERROR_PATH));
+    consoleView.addMessageFilter(new FileReferenceFilter(project, COMPILATION_ERROR_PATH, consoleView));
   }
 }
@@ -3,14 +3,19 @@ package org.elixir_lang.console;
 import com.intellij.execution.filters.Filter;
 import com.intellij.execution.filters.InvalidExpressionException;
 import com.intellij.execution.filters.OpenFileHyperlinkInfo;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.PsiFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.ProjectScope;
+import com.intellij.util.containers.SLRUMap;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -31,13 +36,33 @@ public final class FileReferenceFilter implements Filter {
     private static final String NUMBER_REGEXP = "([0-9]+)";
 
     private static final Pattern PATTERN_FILENAME = Pattern.compile("[/\\\\]?([^/\\\\]*?\\.e(ex|x|xs))$");
+    /**
+     * Stack traces repeat the same few paths over and over, so only a small number of paths need to be remembered for
+     * most lines to skip resolving.
+     */
+    private static final int VIRTUAL_FILE_COLLECTION_BY_PATH_PROTECTED_SIZE = 512;
+    private static final int VIRTUAL_FILE_COLLECTION_BY_PATH_PROBATIONAL_SIZE = 512;
     private final int myColumnMatchGroup;
     private final int myFileMatchGroup;
     private final int myLineMatchGroup;
     private final Pattern myPattern;
     private final Project myProject;
-
-    FileReferenceFilter(@NotNull Project project, @NonNls @NotNull String expression) {
+    /**
+     * Paths from the console to the {@link VirtualFile}s they resolved to, including those that resolved to none.
+     * Cleared whenever files are created, deleted, moved, or renamed as that can change what a path resolves to.
+     */
+    private final SLRUMap<String, Collection<VirtualFile>> myVirtualFileCollectionByPath = new SLRUMap<>(
+            VIRTUAL_FILE_COLLECTION_BY_PATH_PROTECTED_SIZE,
+            VIRTUAL_FILE_COLLECTION_BY_PATH_PROBATIONAL_SIZE
+    );
+
+    /**
+     * @param parentDisposable the console whose lines are filtered, so that VFS events stop clearing the cache of
+     *                         resolved paths once the console is gone.
+     */
+    FileReferenceFilter(@NotNull Project project,
+                        @NonNls @NotNull String expression,
+                        @NotNull Disposable parentDisposable) {
         myProject = project;
 
         if (StringUtil.isEmpty(expression)) {
@@ -84,6 +109,21 @@ public final class FileReferenceFilter implements Filter {
         myLineMatchGroup = lineIndex;
         myColumnMatchGroup = columnIndex;
         myPattern = Pattern.compile(regex, Pattern.MULTILINE);
+
+        project.getMessageBus().connect(parentDisposable).subscribe(
+                VirtualFileManager.VFS_CHANGES,
+                new BulkFileListener() {
+                    @Override
+                    public void after(@NotNull List<? extends VFileEvent> events) {
+                        for (VFileEvent event : events) {
+                            if (!(event instanceof VFileContentChangeEvent)) {
+                                clearVirtualFileCollectionByPath();
+                                break;
+                            }
+                        }
+                    }
+                }
+        );
     }
 
     private static int matchGroupToNumber(@NotNull Matcher matcher, int matchGroup) {
@@ -114,7 +154,7 @@ public final class FileReferenceFilter implements Filter {
 
         if (matcher.find()) {
             String filePath = matcher.group(myFileMatchGroup);
-            Collection<VirtualFile> virtualFileCollection = resolveVirtualFileCollection(filePath);
+            Collection<VirtualFile> virtualFileCollection = cachedVirtualFileCollection(filePath);
 
             if (virtualFileCollection.size() > 0) {
                 List<ResultItem> resultItemList = new ArrayList<>(virtualFileCollection.size());
@@ -140,6 +180,31 @@ public final class FileReferenceFilter implements Filter {
         return result;
     }
 
+    @NotNull
+    private Collection<VirtualFile> cachedVirtualFileCollection(@NotNull String path) {
+        Collection<VirtualFile> virtualFileCollection;
+
+        synchronized (myVirtualFileCollectionByPath) {
+            virtualFileCollection = myVirtualFileCollectionByPath.get(path);
+        }
+
+        if (virtualFileCollection == null) {
+            virtualFileCollection = resolveVirtualFileCollection(path);
+
+            synchronized (myVirtualFileCollectionByPath) {
+                myVirtualFileCollectionByPath.put(path, virtualFileCollection);
+            }
+        }
+
+        return virtualFileCollection;
+    }
+
+    private void clearVirtualFileCollectionByPath() {
+        synchronized (myVirtualFileCollectionByPath) {
+            myVirtualFileCollectionByPath.clear();
+        }
+    }
+
     @NotNull
     private Collection<VirtualFile> resolveVirtualFileCollection(@NotNull String path) {
         VirtualFile asIsFile = pathToVirtualFile(path);
@@ -195,10 +260,11 @@ public final class FileReferenceFilter implements Filter {
                                                                  @NotNull String basename,
                                                                  @NotNull GlobalSearchScope scope) {
         List<VirtualFile> suffixedVirtualFiles = new ArrayList<>();
-        PsiFile[] projectFilesWithBaseName = FilenameIndex.getFilesByName(myProject, basename, scope);
+        // VirtualFiles instead of PsiFiles, so that no PSI is loaded just to check the path
+        Collection<VirtualFile> virtualFilesWithBaseName =
+                FilenameIndex.getVirtualFilesByName(myProject, basename, scope);
 
-        for (PsiFile projectFileWithBaseName : projectFilesWithBaseName) {
-            VirtualFile virtualFile = projectFileWithBaseName.getVirtualFile();
+        for (VirtualFile virtualFile : virtualFilesWithBaseName) {
             String virtualFilePath = virtualFile.getPath();
 
             if (virtualFilePath.endsWith(path)) {
@@ -3,9 +3,6 @@ package org.elixir_lang.credo;
 import com.google.common.base.Joiner;
 import com.intellij.diagnostic.LogMessageEx;
 import com.intellij.execution.ExecutionException;
-import com.intellij.execution.configurations.GeneralCommandLine;
-import com.intellij.execution.process.ProcessOutput;
-import com.intellij.execution.util.ExecUtil;
 import com.intellij.lang.annotation.Annotation;
 import com.intellij.lang.annotation.AnnotationHolder;
 import com.intellij.lang.annotation.ExternalAnnotator;
@@ -19,11 +16,11 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import gnu.trove.THashMap;
-import org.elixir_lang.Mix;
 import org.elixir_lang.annotator.FunctionWithIndex;
 import org.elixir_lang.credo.inspection_tool.Global;
 import org.elixir_lang.mix.MissingSdk;
@@ -31,7 +28,10 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -40,7 +40,6 @@ import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static java.util.Collections.emptyList;
-import static java.util.Collections.emptyMap;
 import static org.apache.commons.lang.StringEscapeUtils.escapeHtml;
 import static org.elixir_lang.run.ConfigurationKt.ensureWorkingDirectory;
 import static org.elixir_lang.sdk.elixir.Type.mostSpecificSdk;
@@ -59,18 +58,20 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
 
     @NotNull
     public static List<Issue> lineListToIssueList(@NotNull List<String> lineList) throws MissingSdk {
-        return lineListToIssueList(lineList, false, null, null);
+        return lineListToIssueList(lineList, false, null, null, null);
     }
 
     @NotNull
     private static List<Issue> lineListToIssueList(@NotNull List<String> lineList,
                                                    @NotNull Project project,
-                                                   @Nullable Module module) throws MissingSdk {
+                                                   @Nullable Module module,
+                                                   @Nullable String contentHash) throws MissingSdk {
         return lineListToIssueList(
                 lineList,
                 Service.getInstance(project).includeExplanation(),
                 project,
-                module
+                module,
+                contentHash
         );
     }
 
@@ -78,14 +79,15 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
     private static List<Issue> lineListToIssueList(@NotNull List<String> lineList,
                                                    boolean includeExplanation,
                                                    @Nullable Project project,
-                                                   @Nullable Module module) throws MissingSdk {
+                                                   @Nullable Module module,
+                                                   @Nullable String contentHash) throws MissingSdk {
         List<Issue> issueList;
 
         if (!lineList.isEmpty()) {
             issueList = new ArrayList<>();
 
             for (String line : lineList) {
-                Issue issue = lineToIssue(line, includeExplanation, project, module);
+                Issue issue = lineToIssue(line, includeExplanation, project, module, contentHash);
 
                 if (issue != null) {
                     issueList.add(issue);
@@ -102,7 +104,8 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
     private static Issue lineToIssue(@NotNull String line,
                                      boolean includeExplanation,
                                      @Nullable Project project,
-                                     @Nullable Module module) throws MissingSdk {
+                                     @Nullable Module module,
+                                     @Nullable String contentHash) throws MissingSdk {
         Matcher matcher = LINE_PATTERN.matcher(line);
         Issue issue;
 
@@ -125,7 +128,7 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
             if (includeExplanation) {
                 assert project != null : "Project must not be null to include explanation";
 
-                issue.putExplanation(project, module);
+                issue.putExplanation(project, module, contentHash);
             }
                 } else {
             issue = null;
@@ -135,10 +138,7 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
     }
 
     @NotNull
-    private static GeneralCommandLine generalCommandLine(@NotNull String workingDirectory,
-                                                         @NotNull Project project,
-                                                         @Nullable Module module,
-                                                         @NotNull List<String> parameters) throws MissingSdk {
+    public static Sdk sdk(@NotNull Project project, @Nullable Module module) throws MissingSdk {
         Sdk sdk;
 
         if (module != null) {
@@ -151,60 +151,95 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
             throw new MissingSdk(project, module);
         }
 
-        GeneralCommandLine commandLine = Mix.commandLine(
-                emptyMap(),
-                workingDirectory,
-                sdk,
-                emptyList(),
-                emptyList()
-        );
-
-        commandLine.addParameters(parameters);
-
-        return commandLine;
+        return sdk;
     }
 
+    /**
+     * The arguments to {@code mix credo}, not including {@code credo} itself, so that they can be sent to a
+     * {@link Worker}.
+     */
     @NotNull
-    private static List<String> mixParametersList() {
-        List<String> parametersList = new ArrayList<>();
-        parametersList.add("credo");
-
-        return parametersList;
+    private static List<String> credoArgumentList() {
+        return new ArrayList<>();
     }
 
     @NotNull
-    private static List<String> mixParametersList(@NotNull Issue issue) {
+    private static List<String> credoArgumentList(@NotNull Issue issue) {
         StringBuilder explainableBuilder = new StringBuilder(issue.path).append(':').append(issue.line + 1);
 
         if (issue.column != null) {
             explainableBuilder.append(':').append(issue.column);
         }
 
-        return mixParametersList(explainableBuilder.toString());
+        return credoArgumentList(explainableBuilder.toString());
     }
 
     @NotNull
-    private static List<String> mixParametersList(@NotNull String explainable) {
-        List<String> parametersList = mixParametersList();
-        parametersList.add(explainable);
+    private static List<String> credoArgumentList(@NotNull String explainable) {
+        List<String> argumentList = credoArgumentList();
+        argumentList.add(explainable);
 
-        return parametersList;
+        return argumentList;
     }
 
+    /**
+     * Runs {@code mix credo} on the {@link Worker} for the Mix project of {@code module}.
+     *
+     * @param contentHash hash of the content of the file being checked, so that unchanged files reuse the output of
+     *                    earlier runs.
+     * @return standard output lines of {@code mix credo}
+     */
     @NotNull
-    private static GeneralCommandLine generalCommandLine(@NotNull Project project,
-                                                         @Nullable Module module,
-                                                         @NotNull List<String> parameters) throws MissingSdk {
+    private static List<String> credo(@NotNull Project project,
+                                      @Nullable Module module,
+                                      @NotNull List<String> credoArgumentList,
+                                      @Nullable String contentHash) throws ExecutionException, MissingSdk {
         String workingDirectory = ensureWorkingDirectory(project, module);
 
-        return generalCommandLine(
+        return Workers.getInstance(project).credo(
                 workingDirectory,
-                project,
-                module,
-                parameters
+                sdk(project, module),
+                credoArgumentList,
+                contentHash
         );
     }
 
+    /**
+     * Runs {@code mix credo --format flycheck} on {@code path} on the {@link Worker} for the Mix project of
+     * {@code module}.
+     *
+     * @return flycheck lines for {@code path}
+     */
+    @NotNull
+    private static List<String> flycheck(@NotNull Project project,
+                                         @Nullable Module module,
+                                         @NotNull String path,
+                                         @Nullable String contentHash) throws ExecutionException, MissingSdk {
+        String workingDirectory = ensureWorkingDirectory(project, module);
+
+        return Workers.getInstance(project).flycheck(
+                workingDirectory,
+                sdk(project, module),
+                Collections.singletonMap(path, contentHash)
+        );
+    }
+
+    @Nullable
+    public static String contentHash(@Nullable VirtualFile virtualFile) {
+        String contentHash = null;
+
+        if (virtualFile != null) {
+            try {
+                MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+                contentHash = StringUtil.toHexString(messageDigest.digest(virtualFile.contentsToByteArray()));
+            } catch (IOException | NoSuchAlgorithmException exception) {
+                contentHash = null;
+            }
+        }
+
+        return contentHash;
+    }
+
     @NotNull
     private static String navigationHref(@NotNull String workingDirectory, @NotNull Matcher matcher) {
         String relativePath = matcher.group("path");
@@ -320,11 +355,13 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
         List<Issue> issueList;
 
         try {
-            ProcessOutput processOutput = ExecUtil.execAndGetOutput(generalCommandLine(file));
             Project project = file.getProject();
             Module module = ModuleUtilCore.findModuleForPsiElement(file);
+            VirtualFile virtualFile = file.getVirtualFile();
+            String contentHash = contentHash(virtualFile);
+            List<String> lineList = flycheck(project, module, virtualFile.getPath(), contentHash);
 
-            issueList = lineListToIssueList(processOutput.getStdoutLines(), project, module);
+            issueList = lineListToIssueList(lineList, project, module, contentHash);
         } catch (ExecutionException | MissingSdk executionException) {
             issueList = emptyList();
         }
@@ -332,28 +369,6 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
         return issueList;
     }
 
-    @NotNull
-    private List<String> mixParametersList(@NotNull PsiFile file) {
-        List<String> parametersList = mixParametersList();
-        parametersList.add("--format");
-        parametersList.add("flycheck");
-        parametersList.add(file.getVirtualFile().getPath());
-
-        return parametersList;
-    }
-
-    @NotNull
-    private GeneralCommandLine generalCommandLine(@NotNull PsiFile file) throws MissingSdk {
-        Project project = file.getProject();
-        Module module = ModuleUtilCore.findModuleForPsiElement(file);
-
-        return generalCommandLine(
-                project,
-                module,
-                mixParametersList(file)
-        );
-    }
-
     @Override
     public void apply(@NotNull PsiFile file, @NotNull List<Issue> issueList, @NotNull AnnotationHolder holder) {
         if (issueList.size() > 0) {
@@ -559,19 +574,18 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
         }
 
         @NotNull
-        private Optional<Stream<String>> explanation(@NotNull Project project, @Nullable Module module) throws MissingSdk {
-            List<String> mixParametersList = mixParametersList(this);
-            GeneralCommandLine generalCommandLine = generalCommandLine(project, module, mixParametersList);
+        private Optional<Stream<String>> explanation(@NotNull Project project,
+                                                     @Nullable Module module,
+                                                     @Nullable String contentHash) throws MissingSdk {
             Optional<Stream<String>> explanation;
 
             try {
                 explanation = Optional.of(
-                        ExecUtil
-                                .execAndGetOutput(generalCommandLine)
-                                .getStdoutLines(true)
+                        credo(project, module, credoArgumentList(this), contentHash)
                                 .stream()
-                                .skip(3)
+                                // drop the empty lines before skipping the header, as `getStdoutLines(true)` did
                                 .filter(line -> !line.isEmpty())
+                                .skip(3)
                 );
             } catch (ExecutionException executionException) {
                 explanation = Optional.empty();
@@ -580,8 +594,10 @@ public class Annotator extends ExternalAnnotator<PsiFile, List<Annotator.Issue>>
             return explanation;
         }
 
-        void putExplanation(@NotNull Project project, @Nullable Module module) throws MissingSdk {
-            this.explanation = explanation(project, module);
+        void putExplanation(@NotNull Project project,
+                            @Nullable Module module,
+                            @Nullable String contentHash) throws MissingSdk {
+            this.explanation = explanation(project, module, contentHash);
         }
 
         public enum Check {
@@ -0,0 +1,29 @@
+package org.elixir_lang.credo
+
+import java.io.File
+import java.io.IOException
+
+object Modules {
+    private const val BASE_PATH = "/credo"
+    private const val INTELLIJ_ELIXIR_CREDO_WORKER = "lib/intellij_elixir/credo/worker.ex"
+
+    @Throws(IOException::class)
+    fun copy(): File = org.elixir_lang.ElixirModules.copy(BASE_PATH, listOf(INTELLIJ_ELIXIR_CREDO_WORKER)).single()
+
+    /**
+     * `mix` arguments that start `IntelliJElixir.Credo.Worker` in the Mix project without compiling or starting it.
+     */
+    @Throws(IOException::class)
+    fun mixArgumentList(): List<String> {
+        // Erlang expects file paths to be separated by '/', even on Windows.
+        val path = copy().path.replace('\\', '/')
+
+        return listOf(
+                "run",
+                "--no-compile",
+                "--no-start",
+                "-e",
+                "Code.require_file(\"$path\"); IntelliJElixir.Credo.Worker.start()"
+        )
+    }
+}
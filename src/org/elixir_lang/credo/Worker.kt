@@ -0,0 +1,162 @@
+package org.elixir_lang.credo
+
+import com.intellij.execution.ExecutionException
+import com.intellij.execution.configurations.GeneralCommandLine
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.util.concurrency.AppExecutorUtil
+import java.io.BufferedReader
+import java.io.BufferedWriter
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * A long-lived VM running `IntelliJElixir.Credo.Worker` for one Mix project.
+ *
+ * Requests are written to the VM's standard input and responses are read from its standard output, so that the VM
+ * boot and Mix project load are only paid for once instead of on every `mix credo`.
+ */
+class Worker private constructor(private val process: Process) : Disposable {
+    private val reader: BufferedReader = process.inputStream.bufferedReader(Charsets.UTF_8)
+    private val writer: BufferedWriter = process.outputStream.bufferedWriter(Charsets.UTF_8)
+
+    val isAlive: Boolean
+        get() = process.isAlive
+
+    /**
+     * @return the standard output lines `mix credo` would have printed for [argumentList]; `null` if the worker died.
+     * @throws ExecutionException if the worker did not respond within the timeout for [argumentList], in which case
+     *   the worker is killed.
+     */
+    @Synchronized
+    @Throws(ExecutionException::class)
+    fun credo(argumentList: List<String>): List<String>? {
+        val timeout = timeout(argumentList.size)
+
+        return readLineListUntil(END_OF_RESPONSE, timeout, "`mix credo` did not respond") {
+            writer.write(argumentList.joinToString("\t"))
+            writer.newLine()
+            writer.flush()
+        }
+    }
+
+    override fun dispose() {
+        process.destroy()
+    }
+
+    /**
+     * Runs [write] and then [readLineListUntil] [marker], killing the VM if that takes longer than [timeout]
+     * milliseconds.
+     *
+     * @return lines read before [marker]; `null` if the end of the stream was reached first or reading failed.
+     * @throws ExecutionException with [timeoutMessage] if [timeout] elapsed, in which case the VM is killed.
+     */
+    @Throws(ExecutionException::class)
+    private fun readLineListUntil(
+            marker: String,
+            timeout: Int,
+            timeoutMessage: String,
+            write: () -> Unit = {}
+    ): List<String>? {
+        val timedOut = AtomicBoolean(false)
+        // `readLine` can't be interrupted, so killing the VM is the only way to stop waiting
+        val timeoutFuture = AppExecutorUtil.getAppScheduledExecutorService().schedule(
+                {
+                    timedOut.set(true)
+                    process.destroy()
+                },
+                timeout.toLong(),
+                TimeUnit.MILLISECONDS
+        )
+
+        val lineList = try {
+            write()
+
+            readLineListUntil(marker)
+        } catch (ioException: IOException) {
+            if (!timedOut.get()) {
+                LOGGER.warn(ioException)
+            }
+
+            null
+        } finally {
+            timeoutFuture.cancel(false)
+        }
+
+        if (timedOut.get()) {
+            throw ExecutionException("$timeoutMessage within $timeout milliseconds")
+        }
+
+        return lineList
+    }
+
+    /**
+     * @return lines read before [marker]; `null` if the end of the stream was reached first.
+     */
+    private fun readLineListUntil(marker: String): List<String>? {
+        val lineList = mutableListOf<String>()
+
+        while (true) {
+            val line = reader.readLine() ?: return null
+
+            if (line == marker) {
+                return lineList
+            }
+
+            lineList.add(line)
+        }
+    }
+
+    companion object {
+        private val LOGGER = Logger.getInstance(Worker::class.java)
+
+        /**
+         * @return `null` if the worker exited before it was ready, such as when the Mix project does not have
+         *   `credo` as a dependency or the `credo` version can only be run with `System.halt`.
+         * @throws ExecutionException if the worker was not ready within [START_TIMEOUT_IN_MILLISECONDS], such as when
+         *   `mix` is waiting on a prompt to install Hex or rebar, compiling deps or waiting on a lock, in which case
+         *   the worker is killed.
+         */
+        @Throws(ExecutionException::class)
+        fun start(commandLine: GeneralCommandLine): Worker? {
+            val process = commandLine.createProcess()
+
+            // stderr must be drained or the VM will block once the pipe's buffer is full
+            ApplicationManager.getApplication().executeOnPooledThread {
+                try {
+                    process.errorStream.bufferedReader(Charsets.UTF_8).forEachLine { LOGGER.debug(it) }
+                } catch (ioException: IOException) {
+                    LOGGER.debug(ioException)
+                }
+            }
+
+            val worker = Worker(process)
+            val ready = worker.readLineListUntil(
+                    READY,
+                    START_TIMEOUT_IN_MILLISECONDS,
+                    "`mix credo` worker was not ready"
+            ) != null
+
+            return if (ready) {
+                worker
+            } else {
+                worker.dispose()
+                null
+            }
+        }
+    }
+}
+
+private fun timeout(argumentCount: Int): Int =
+        CREDO_TIMEOUT_IN_MILLISECONDS + argumentCount * CREDO_TIMEOUT_PER_ARGUMENT_IN_MILLISECONDS
+
+// `mix run` may need to compile the Mix project and its deps before the worker is ready
+private const val START_TIMEOUT_IN_MILLISECONDS = 5 * 60 * 1000
+// `mix credo` loads the Mix project and all the checks on the first request
+private const val CREDO_TIMEOUT_IN_MILLISECONDS = 60000
+// an argument is usually a path to check
+private const val CREDO_TIMEOUT_PER_ARGUMENT_IN_MILLISECONDS = 1000
+private const val END_OF_RESPONSE = "\u0000intellij_elixir.credo.end"
+private const val READY = "\u0000intellij_elixir.credo.ready"
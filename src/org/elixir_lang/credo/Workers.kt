@@ -0,0 +1,211 @@
+package org.elixir_lang.credo
+
+import com.intellij.execution.ExecutionException
+import com.intellij.execution.configurations.GeneralCommandLine
+import com.intellij.execution.util.ExecUtil
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.components.ServiceManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.projectRoots.Sdk
+import com.intellij.openapi.util.Disposer
+import com.intellij.util.containers.ContainerUtil
+import org.elixir_lang.Mix
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedDeque
+
+/**
+ * Reuses [Worker]s for each Mix project and SDK across annotation passes and caches `mix credo` output by the
+ * content hash of the files being checked, the SDK and the modification time of the Mix project's `.credo.exs`.
+ *
+ * A [Worker] only runs one request at a time, so concurrent requests for the same Mix project start more [Worker]s,
+ * which are kept idle until [trim].
+ */
+class Workers : Disposable {
+    @Volatile
+    private var disposed = false
+    private val idleWorkersByKey = ConcurrentHashMap<Key, ConcurrentLinkedDeque<Worker>>()
+    /**
+     * Keys whose [Worker] exited before it was ready, so `mix credo` is run directly instead of trying to start the
+     * [Worker] again on every file.
+     */
+    private val unstartableKeySet = ContainerUtil.newConcurrentSet<Key>()
+    private val lineListByRequest = ContainerUtil.createConcurrentSoftValueMap<Request, List<String>>()
+    private val lineListByBatchRequest = ContainerUtil.createConcurrentSoftValueMap<BatchRequest, List<String>>()
+
+    /**
+     * @param contentHash hash of the content of the file being checked.  `null` disables caching.
+     * @return standard output lines of `mix credo` with [argumentList]
+     */
+    @Throws(ExecutionException::class)
+    fun credo(workingDirectory: String, sdk: Sdk, argumentList: List<String>, contentHash: String?): List<String> {
+        val request = contentHash?.let {
+            Request(workingDirectory, sdk.homePath, dotCredoLastModified(workingDirectory), argumentList, it)
+        }
+
+        return request?.let { lineListByRequest[it] } ?:
+        credo(Key(workingDirectory, sdk.homePath), sdk, argumentList).also { lineList ->
+            request?.let { lineListByRequest[it] = lineList }
+        }
+    }
+
+    /**
+     * Runs `mix credo --format flycheck` once for all the paths in [contentHashByPath], unless the output for the
+     * same paths with the same content hashes, SDK and `.credo.exs` is cached.
+     *
+     * The output is cached for the batch as a whole and never combined with the output of other batches: checks that
+     * compare files, such as duplicated code and consistency checks, report different issues for a path in a batch
+     * than for the path on its own.
+     *
+     * @param contentHashByPath content hash of each absolute path.  Any `null` hash disables caching.
+     * @return flycheck lines for all paths
+     */
+    @Throws(ExecutionException::class)
+    fun flycheck(workingDirectory: String, sdk: Sdk, contentHashByPath: Map<String, String?>): List<String> {
+        val batchRequest = if (contentHashByPath.values.all { it != null }) {
+            BatchRequest(workingDirectory, sdk.homePath, dotCredoLastModified(workingDirectory), contentHashByPath)
+        } else {
+            null
+        }
+
+        val argumentList = flycheckArgumentList(contentHashByPath.keys)
+
+        return batchRequest?.let { lineListByBatchRequest[it] } ?:
+        credo(Key(workingDirectory, sdk.homePath), sdk, argumentList).also { lineList ->
+            batchRequest?.let { lineListByBatchRequest[it] = lineList }
+        }
+    }
+
+    /**
+     * Disposes all but one idle [Worker] for each Mix project, such as after a batch inspection started more.
+     */
+    fun trim() {
+        for (idleWorkers in idleWorkersByKey.values) {
+            while (idleWorkers.size > 1) {
+                idleWorkers.pollLast()?.let { Disposer.dispose(it) }
+            }
+        }
+    }
+
+    override fun dispose() {
+        disposed = true
+
+        for (idleWorkers in idleWorkersByKey.values) {
+            while (true) {
+                val worker = idleWorkers.poll() ?: break
+                Disposer.dispose(worker)
+            }
+        }
+
+        idleWorkersByKey.clear()
+    }
+
+    @Throws(ExecutionException::class)
+    private fun credo(key: Key, sdk: Sdk, argumentList: List<String>): List<String> =
+            acquire(key, sdk)?.let { worker ->
+                val lineList = try {
+                    worker.credo(argumentList)
+                } catch (executionException: ExecutionException) {
+                    // timed out, so the worker was killed
+                    Disposer.dispose(worker)
+
+                    throw executionException
+                }
+
+                if (lineList != null) {
+                    release(key, worker)
+                } else {
+                    // the worker died, so a later request starts a new one
+                    Disposer.dispose(worker)
+                }
+
+                lineList
+            } ?:
+            ExecUtil.execAndGetOutput(commandLine(key.workingDirectory, sdk, listOf("credo") + argumentList)).stdoutLines
+
+    @Throws(ExecutionException::class)
+    private fun acquire(key: Key, sdk: Sdk): Worker? =
+            if (unstartableKeySet.contains(key)) {
+                null
+            } else {
+                pollAliveIdleWorker(key) ?: startWorker(key, sdk)
+            }
+
+    private fun idleWorkers(key: Key) = idleWorkersByKey.computeIfAbsent(key) { ConcurrentLinkedDeque() }
+
+    private fun pollAliveIdleWorker(key: Key): Worker? {
+        val idleWorkers = idleWorkers(key)
+
+        while (true) {
+            val worker = idleWorkers.pollFirst() ?: return null
+
+            if (worker.isAlive) {
+                return worker
+            }
+
+            Disposer.dispose(worker)
+        }
+    }
+
+    private fun release(key: Key, worker: Worker) {
+        if (disposed) {
+            Disposer.dispose(worker)
+        } else {
+            idleWorkers(key).offerFirst(worker)
+        }
+    }
+
+    @Throws(ExecutionException::class)
+    private fun startWorker(key: Key, sdk: Sdk): Worker? {
+        val mixArgumentList = try {
+            Modules.mixArgumentList()
+        } catch (ioException: IOException) {
+            throw ExecutionException(ioException)
+        }
+
+        val worker = Worker.start(commandLine(key.workingDirectory, sdk, mixArgumentList))
+
+        if (worker == null) {
+            unstartableKeySet.add(key)
+        }
+
+        return worker
+    }
+
+    private fun commandLine(workingDirectory: String, sdk: Sdk, mixArgumentList: List<String>): GeneralCommandLine =
+            Mix.commandLine(emptyMap(), workingDirectory, sdk).apply {
+                addParameters(mixArgumentList)
+            }
+
+    private data class Key(val workingDirectory: String, val sdkHomePath: String?)
+    private data class Request(val workingDirectory: String,
+                               val sdkHomePath: String?,
+                               val dotCredoLastModified: List<Long>,
+                               val argumentList: List<String>,
+                               val contentHash: String)
+    private data class BatchRequest(val workingDirectory: String,
+                                    val sdkHomePath: String?,
+                                    val dotCredoLastModified: List<Long>,
+                                    val contentHashByPath: Map<String, String?>)
+
+    companion object {
+        @JvmStatic
+        fun getInstance(project: Project): Workers = ServiceManager.getService(project, Workers::class.java)
+    }
+}
+
+/**
+ * The paths, relative to the Mix project, where `credo` looks for its configuration.
+ */
+private val DOT_CREDO_RELATIVE_PATH_LIST = listOf(".credo.exs", "config/.credo.exs")
+
+/**
+ * The last modified time of each of [DOT_CREDO_RELATIVE_PATH_LIST] in [workingDirectory], `0` for those that don't
+ * exist, so that cached output is not reused after the configuration changes.
+ */
+private fun dotCredoLastModified(workingDirectory: String): List<Long> =
+        DOT_CREDO_RELATIVE_PATH_LIST.map { File(workingDirectory, it).lastModified() }
+
+private fun flycheckArgumentList(pathCollection: Collection<String>): List<String> =
+        listOf("--format", "flycheck") + pathCollection
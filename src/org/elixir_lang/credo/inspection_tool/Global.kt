@@ -1,14 +1,11 @@
 package org.elixir_lang.credo.inspection_tool
 
-import com.google.common.base.Charsets
 import com.intellij.analysis.AnalysisScope
 import com.intellij.codeInsight.daemon.impl.AnnotationHolderImpl
 import com.intellij.codeInsight.intention.IntentionAction
 import com.intellij.codeInspection.*
 import com.intellij.codeInspection.reference.*
 import com.intellij.execution.ExecutionException
-import com.intellij.execution.configurations.GeneralCommandLine
-import com.intellij.execution.util.ExecUtil
 import com.intellij.lang.ExternalLanguageAnnotators
 import com.intellij.lang.annotation.Annotation
 import com.intellij.lang.annotation.AnnotationSession
@@ -17,6 +14,7 @@ import com.intellij.lang.annotation.HighlightSeverity
 import com.intellij.openapi.application.ReadAction
 import com.intellij.openapi.module.Module
 import com.intellij.openapi.module.ModuleUtilCore
+import com.intellij.openapi.progress.ProgressManager
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.roots.ModuleRootManager
 import com.intellij.openapi.vfs.LocalFileSystem
@@ -24,23 +22,22 @@ import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiFile
 import com.intellij.psi.PsiManager
+import com.intellij.util.concurrency.AppExecutorUtil
 import com.intellij.util.containers.ContainerUtil
 import org.elixir_lang.ElixirLanguage
 import org.elixir_lang.credo.Annotator
-import org.elixir_lang.jps.builder.ParametersList
+import org.elixir_lang.credo.Workers
 import org.elixir_lang.mix.MissingSdk
+import org.elixir_lang.psi.ElixirFile
 
 import java.nio.file.Paths
 import java.util.*
+import java.util.concurrent.Callable
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
 
 
-private fun put(pathSetByWorkingDirectory: MutableMap<String, MutableSet<String>>,
-                workingDirectorySet: Set<String>) {
-    for (workingDirectory in workingDirectorySet) {
-        put(pathSetByWorkingDirectory, workingDirectory, workingDirectory)
-    }
-}
-
 private fun put(pathSetByWorkingDirectory: MutableMap<String, MutableSet<String>>,
                 workingDirectorySet: Set<String>,
                 path: String) {
@@ -57,26 +54,51 @@ private fun put(pathSetByWorkingDirectory: MutableMap<String, MutableSet<String>
             .add(path)
 }
 
-private fun generalCommandLine(workingDirectoryGeneralCommandLine: GeneralCommandLine,
-                               module: Module,
-                               mixParametersList: ParametersList): GeneralCommandLine =
-        TODO()
-//        MixRunningStateUtil.commandLine(
-//                workingDirectoryGeneralCommandLine,
-//                module,
-//                ParametersList(),
-//                mixParametersList
-//        )
-
-private fun runInspection(module: Module,
-                          workingDirectory: String,
-                          pathSet: Set<String>): List<Annotator.Issue> {
+/**
+ * Files in the same Mix project that are checked by one `mix credo`.
+ *
+ * @param contentHashByPath content hash of each absolute path, so that a batch of unchanged files can reuse the
+ *   output cached from the last time it was checked.
+ */
+private class Batch(val module: Module, val workingDirectory: String, val contentHashByPath: Map<String, String?>)
+
+/**
+ * Splits the files of each Mix project into at most one batch per core, so that the batches can run in parallel.
+ */
+private fun batchList(project: Project, pathSetByWorkingDirectory: Map<String, Set<String>>): List<Batch> {
+    val localFileSystem = LocalFileSystem.getInstance()
+    val batchSize = Math.max(1, Math.ceil(
+            pathSetByWorkingDirectory.values.sumBy { it.size }.toDouble() / PARALLELISM
+    ).toInt())
+
+    return pathSetByWorkingDirectory.flatMap { (workingDirectory, pathSet) ->
+        localFileSystem.findFileByPath(workingDirectory)?.let { virtualFile ->
+            ModuleUtilCore.findModuleForFile(virtualFile, project)?.let { module ->
+                // sorted, so that an unchanged project is split into the same batches and their cached output is reused
+                pathSet.sorted().chunked(batchSize).map { pathList ->
+                    val contentHashByPath = pathList.associate { path ->
+                        path to Annotator.contentHash(localFileSystem.findFileByPath(path))
+                    }
+
+                    Batch(module, workingDirectory, contentHashByPath)
+                }
+            }
+        } ?: emptyList()
+    }
+}
+
+private fun runInspection(batch: Batch): List<Annotator.Issue> {
+    val module = batch.module
+    val project = module.project
+
     return try {
-        val processOutput = ExecUtil.execAndGetOutput(
-                generalCommandLine(workingDirectory, module, pathSet)
+        val lineList = Workers.getInstance(project).flycheck(
+                batch.workingDirectory,
+                Annotator.sdk(project, module),
+                batch.contentHashByPath
         )
 
-        Annotator.lineListToIssueList(processOutput.stdoutLines)
+        Annotator.lineListToIssueList(lineList)
     } catch (executionException: ExecutionException) {
         emptyList()
     } catch (missingSdk: MissingSdk) {
@@ -84,45 +106,39 @@ private fun runInspection(module: Module,
     }
 }
 
-private fun runInspection(project: Project,
-                          workingDirectory: String,
-                          pathSet: Set<String>): List<Annotator.Issue> =
-        LocalFileSystem.getInstance().findFileByPath(workingDirectory)?.let { virtualFile ->
-            ModuleUtilCore.findModuleForFile(virtualFile, project)?.let { module ->
-                runInspection(module, workingDirectory, pathSet)
-            }
-        } ?: emptyList()
-
-private fun generalCommandLine(workingDirectory: String,
-                               module: Module,
-                               mixParametersList: ParametersList): GeneralCommandLine =
-        generalCommandLine(
-                GeneralCommandLine().withCharset(Charsets.UTF_8).apply {
-                    withWorkDirectory(workingDirectory)
-                },
-                module,
-                mixParametersList
-        )
-
-private fun generalCommandLine(workingDirectory: String,
-                               module: Module,
-                               pathSet: Set<String>): GeneralCommandLine =
-        generalCommandLine(workingDirectory, module, mixParameterList(pathSet))
+/**
+ * Runs [batchList] with at most [PARALLELISM] `mix credo`s at once.
+ *
+ * @return issues by the batch's working directory
+ */
+private fun runInspection(batchList: List<Batch>): List<Pair<String, List<Annotator.Issue>>> {
+    val executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Credo", PARALLELISM)
+    val futureList: List<Pair<String, Future<List<Annotator.Issue>>>> = batchList.map { batch ->
+        batch.workingDirectory to executor.submit(Callable { runInspection(batch) })
+    }
 
-private fun mixParametersList(): ParametersList = ParametersList().apply {
-    add("credo")
+    return try {
+        futureList.map { (workingDirectory, future) -> workingDirectory to getCheckingCanceled(future) }
+    } finally {
+        futureList.forEach { (_, future) -> future.cancel(false) }
+        executor.shutdown()
+    }
 }
 
-private fun mixParameterList(pathSet: Set<String>): ParametersList {
-    val parametersList = mixParametersList()
-    parametersList.add("--format")
-    parametersList.add("flycheck")
-
-    for (path in pathSet) {
-        parametersList.add(path)
+/**
+ * Waits for [future] in slices of [CANCELED_CHECK_INTERVAL_IN_MILLISECONDS], so that cancelling the inspection does
+ * not have to wait for a whole `mix credo` run.
+ */
+private fun <T> getCheckingCanceled(future: Future<T>): T {
+    while (true) {
+        ProgressManager.checkCanceled()
+
+        try {
+            return future.get(CANCELED_CHECK_INTERVAL_IN_MILLISECONDS, TimeUnit.MILLISECONDS)
+        } catch (timeoutException: TimeoutException) {
+            continue
+        }
     }
-
-    return parametersList
 }
 
 private fun workingDirectorySet(module: Module): Set<String> {
@@ -279,49 +295,29 @@ private fun problemDescriptors(
         }
 
 class Global : GlobalInspectionTool() {
+    /**
+     * Only the Elixir files are collected, instead of also whole modules, directories, or the project, so that each
+     * file is checked once and the batches can reuse their cached output when their files have not changed.
+     */
     private fun pathSetByWorkingDirectory(globalContext: GlobalInspectionContext): Map<String, Set<String>> {
         val pathSetByWorkingDirectory = mutableMapOf<String, MutableSet<String>>()
 
         globalContext.refManager.iterate(object : RefVisitor() {
             override fun visitElement(refEntity: RefEntity) {
-                if (globalContext.shouldCheck(refEntity, this@Global)) {
-                    when (refEntity) {
-                        is RefModule -> put(pathSetByWorkingDirectory, workingDirectorySet(refEntity.module))
-                        is RefProject -> {
-                            globalContext.project.basePath?.let {
-                                put(pathSetByWorkingDirectory, setOf(it))
-                            }
-                        }
-                        is RefFile -> {
-                            val psiFile = refEntity.element
+                if (refEntity is RefFile && globalContext.shouldCheck(refEntity, this@Global)) {
+                    val psiFile = refEntity.element
+                    val virtualFile = psiFile?.virtualFile
 
-                            val workingDirectorySet: Set<String>
-                            val module = ModuleUtilCore.findModuleForPsiElement(refEntity.element)
+                    if (psiFile is ElixirFile && virtualFile != null) {
+                        val module = ModuleUtilCore.findModuleForPsiElement(psiFile)
 
-                            workingDirectorySet = if (module != null) {
-                                workingDirectorySet(module)
-                            } else {
-                                workingDirectorySet(psiFile.project)
-                            }
-
-                            put(pathSetByWorkingDirectory, workingDirectorySet, psiFile.virtualFile.path)
-                        }
-                        is RefDirectory -> {
-                            val refModule = refEntity.module
-                            val workingDirectorySet: Set<String>
-
-                            workingDirectorySet = if (refModule != null) {
-                                workingDirectorySet(refModule.module)
-                            } else {
-                                workingDirectorySet(refEntity.element.project)
-                            }
-
-                            put(
-                                    pathSetByWorkingDirectory,
-                                    workingDirectorySet,
-                                    refEntity.element.containingFile.virtualFile.path
-                            )
+                        val workingDirectorySet = if (module != null) {
+                            workingDirectorySet(module)
+                        } else {
+                            workingDirectorySet(psiFile.project)
                         }
+
+                        put(pathSetByWorkingDirectory, workingDirectorySet, virtualFile.path)
                     }
                 }
             }
@@ -334,16 +330,20 @@ class Global : GlobalInspectionTool() {
                                manager: InspectionManager,
                                globalContext: GlobalInspectionContext,
                                problemDescriptionsProcessor: ProblemDescriptionsProcessor) {
+        val project = manager.project
         val pathSetByWorkingDirectory = pathSetByWorkingDirectory(globalContext)
         val issueListByFullPath = mutableMapOf<String, MutableList<Annotator.Issue>>()
 
-        for ((workingDirectory, value) in pathSetByWorkingDirectory) {
-            val issueList = runInspection(manager.project, workingDirectory, value)
-
-            for (issue in issueList) {
-                val fullPath = Paths.get(workingDirectory, issue.path).toString()
-                issueListByFullPath.computeIfAbsent(fullPath, { mutableListOf() }).add(issue)
+        try {
+            for ((workingDirectory, issueList) in runInspection(batchList(project, pathSetByWorkingDirectory))) {
+                for (issue in issueList) {
+                    val fullPath = Paths.get(workingDirectory).resolve(issue.path).normalize().toString()
+                    issueListByFullPath.computeIfAbsent(fullPath, { mutableListOf() }).add(issue)
+                }
             }
+        } finally {
+            // only keep one worker per Mix project for the annotator
+            Workers.getInstance(project).trim()
         }
 
         val localFileSystem = LocalFileSystem.getInstance()
@@ -372,3 +372,6 @@ class Global : GlobalInspectionTool() {
         val SHORT_NAME = "Credo"
     }
 }
+
+private val PARALLELISM = Runtime.getRuntime().availableProcessors()
+private const val CANCELED_CHECK_INTERVAL_IN_MILLISECONDS = 100L
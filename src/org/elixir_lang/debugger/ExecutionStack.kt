@@ -20,18 +20,68 @@ package org.elixir_lang.debugger
 import com.intellij.xdebugger.frame.XExecutionStack
 import com.intellij.xdebugger.frame.XStackFrame
 import org.elixir_lang.debugger.node.ProcessSnapshot
+import org.elixir_lang.debugger.node.TraceElement
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
 
 internal class ExecutionStack(private val process: Process, private val processSnapshot: ProcessSnapshot) :
         XExecutionStack(processSnapshot.pidString) {
-    private val stackFrames: List<StackFrame> by lazy {
-        processSnapshot.stack.map { traceElement ->
-           StackFrame(process, processSnapshot.pid, traceElement)
-       }
+    private val stackFrames: List<StackFrame>? by lazy {
+        processSnapshot.stack?.let { stackFrames(it) }
     }
 
-    override fun getTopFrame(): XStackFrame? = stackFrames.firstOrNull()
+    /**
+     * The stack fetched for a process that did not reach the breakpoint, so that selecting it again, or the frames list
+     * asking for more frames, doesn't send another `{:stack, pid}`.  Cleared if the fetch fails, so the next
+     * [computeStackFrames] retries it.
+     */
+    private var fetchedStackFrames: CompletableFuture<List<StackFrame>>? = null
+
+    private fun fetchStackFrames(): CompletableFuture<List<StackFrame>> =
+            synchronized(this) {
+                fetchedStackFrames ?: process
+                        .stackAsync(processSnapshot.pid)
+                        .thenApply { stackFrames(it) }
+                        .also { fetching ->
+                            fetchedStackFrames = fetching
+
+                            fetching.whenComplete { _, throwable ->
+                                if (throwable != null) {
+                                    synchronized(this) {
+                                        if (fetchedStackFrames === fetching) {
+                                            fetchedStackFrames = null
+                                        }
+                                    }
+                                }
+                            }
+                        }
+            }
+
+    private fun stackFrames(stack: List<TraceElement>): List<StackFrame> =
+            stack.map { traceElement ->
+                StackFrame(process, processSnapshot.pid, traceElement)
+            }
+
+    /**
+     * `null` for processes that did not reach the breakpoint, so that their stack is only fetched once it is selected.
+     */
+    override fun getTopFrame(): XStackFrame? = stackFrames?.firstOrNull()
 
     override fun computeStackFrames(firstFrameIndex: Int, container: XExecutionStack.XStackFrameContainer) {
-        container.addStackFrames(stackFrames, true)
+        val stackFrames = stackFrames
+
+        if (stackFrames != null) {
+            container.addStackFrames(stackFrames, true)
+        } else {
+            fetchStackFrames().whenComplete { frames, throwable ->
+                if (throwable == null) {
+                    container.addStackFrames(frames, true)
+                } else {
+                    val cause = (throwable as? CompletionException)?.cause ?: throwable
+
+                    container.errorOccurred(cause.message ?: cause.toString())
+                }
+            }
+        }
     }
 }
@@ -7,6 +7,10 @@ import com.intellij.xdebugger.evaluation.XDebuggerEvaluator
 import org.elixir_lang.Clause
 import org.elixir_lang.Server
 import org.elixir_lang.beam.term.inspect
+import org.elixir_lang.debugger.node.Interpretation
+import org.elixir_lang.debugger.node.ModuleLine
+import org.elixir_lang.debugger.node.ProcessSnapshot
+import org.elixir_lang.debugger.node.TraceElement
 import org.elixir_lang.debugger.node.event.Listener
 import org.elixir_lang.debugger.node.handle_cast.BreakpointReached
 import org.elixir_lang.debugger.node.ok_error.OKError
@@ -17,6 +21,7 @@ import org.elixir_lang.generic_server.Behaviour
 import org.elixir_lang.generic_server.handleMessage
 import org.elixir_lang.run
 import java.nio.charset.Charset
+import java.util.concurrent.CompletableFuture
 
 fun otpErlangMapOf(vararg pairs: Pair<OtpErlangObject, OtpErlangObject>): OtpErlangMap {
     val map = OtpErlangMap()
@@ -83,12 +88,32 @@ class Node(
                     .let { callDebugged(it) }
                     .let { OKErrorReason.from(it) }!!
 
+    fun setBreakpointAsync(module: OtpErlangAtom, line: Int): CompletableFuture<OKErrorReason> =
+            setBreakpointRequest(module, line)
+                    .let { callDebuggedAsync(it) }
+                    .thenApply { OKErrorReason.from(it)!! }
+
+    /**
+     * Sets all the [ModuleLine]s with one request instead of a round-trip for each.
+     *
+     * @return completed with the result for each of [moduleLines] in the same order.
+     */
+    fun setBreakpointsAsync(moduleLines: List<ModuleLine>): CompletableFuture<List<OKErrorReason>> =
+            setBreakpointsRequest(moduleLines)
+                    .let { callDebuggedAsync(it) }
+                    .thenApply { reply -> (reply as OtpErlangList).map { OKErrorReason.from(it)!! } }
+
     fun removeBreakpoint(module: OtpErlangAtom, line: Int): OK =
             removeBreakpointRequest(module, line)
                     .let { callDebugged(it) }
                     .let { OKErrorReason.from(it) }
                     .let { it as OK }
 
+    fun removeBreakpointAsync(module: OtpErlangAtom, line: Int): CompletableFuture<OKErrorReason> =
+            removeBreakpointRequest(module, line)
+                    .let { callDebuggedAsync(it) }
+                    .thenApply { OKErrorReason.from(it)!! }
+
     private fun setBreakpointRequest(module: OtpErlangAtom, line: Int) =
             OtpErlangTuple(arrayOf(
                     OtpErlangAtom("set_breakpoint"),
@@ -96,6 +121,15 @@ class Node(
                     OtpErlangInt(line)
             ))
 
+    private fun setBreakpointsRequest(moduleLines: List<ModuleLine>) =
+            OtpErlangTuple(arrayOf(
+                    OtpErlangAtom("set_breakpoints"),
+                    moduleLines
+                            .map { (module, line) -> OtpErlangTuple(arrayOf(module, OtpErlangInt(line))) }
+                            .toTypedArray<OtpErlangObject>()
+                            .let { OtpErlangList(it) }
+            ))
+
     private fun removeBreakpointRequest(module: OtpErlangAtom, line: Int) =
             OtpErlangTuple(arrayOf(
                     OtpErlangAtom("remove_breakpoint"),
@@ -114,16 +148,31 @@ class Node(
                     module
             ))
 
-    fun interpret(sdkPaths: Iterable<String>, doNotInterpretPatterns: Iterable<String>): org.elixir_lang.debugger.node.ok_error.OK =
-            interpretRequest(sdkPaths, doNotInterpretPatterns)
+    /**
+     * @param interpretOnDemand only interpret [interpretPatterns] now and the other modules when they get breakpoints
+     *   or are stepped into.
+     * @return how long each module took to interpret or why interpreting failed; `null` if the reply could not be
+     *   decoded.
+     */
+    fun interpret(sdkPaths: Iterable<String>,
+                  doNotInterpretPatterns: Iterable<String>,
+                  interpretOnDemand: Boolean,
+                  interpretPatterns: Iterable<String>): Interpretation? =
+            interpretRequest(sdkPaths, doNotInterpretPatterns, interpretOnDemand, interpretPatterns)
                     .let { callDebugged(it) }
-                    .let { OKError.from(it) }
-                    .let { it as org.elixir_lang.debugger.node.ok_error.OK }
+                    .let { Interpretation.from(it) }
 
-    private fun interpretRequest(sdkPaths: Iterable<String>, doNotInterpretPatterns: Iterable<String>) =
+    private fun interpretRequest(sdkPaths: Iterable<String>,
+                                 doNotInterpretPatterns: Iterable<String>,
+                                 interpretOnDemand: Boolean,
+                                 interpretPatterns: Iterable<String>) =
             OtpErlangTuple(arrayOf(
                     OtpErlangAtom("interpret"),
                     otpErlangMapOf(
+                            OtpErlangAtom("interpret_elixir_module_name_patterns") to
+                                    interpretPatterns.toOtpErlangList(),
+                            OtpErlangAtom("interpret_on_demand") to
+                                    OtpErlangAtom(interpretOnDemand),
                             OtpErlangAtom("reject_elixir_module_name_patterns") to
                                     doNotInterpretPatterns.toOtpErlangList(),
                             OtpErlangAtom("sdk_paths") to
@@ -149,6 +198,19 @@ class Node(
                     module
             ))
 
+    /**
+     * The stack of a process that was not sent with the [ProcessSnapshot]s because it did not reach the breakpoint.
+     */
+    fun stackAsync(pid: OtpErlangPid): CompletableFuture<List<TraceElement>> =
+            stackRequest(pid)
+                    .let { callDebuggedAsync(it) }
+                    .thenApply { ProcessSnapshot.otpStackToDebuggerStack(it as OtpErlangList) }
+
+    private fun stackRequest(pid: OtpErlangPid) = OtpErlangTuple(arrayOf(
+            OtpErlangAtom("stack"),
+            pid
+    ))
+
     fun stepInto(): org.elixir_lang.debugger.node.ok_error.OK =
             stepIntoRequest(myLastSuspendedPid!!)
                     .let { callDebugged(it) }
@@ -203,8 +265,14 @@ class Node(
                  expression: String,
                  callback: XDebuggerEvaluator.XEvaluationCallback) {
         evaluateRequest(pid, stackPointer, module, function, arity, file, line, expression)
-                .let { callDebugged(it) }
-                .let { callback.evaluated(Factory.create(it)) }
+                .let { callDebuggedAsync(it) }
+                .whenComplete { reply, throwable ->
+                    if (throwable == null) {
+                        callback.evaluated(Factory.create(reply))
+                    } else {
+                        callback.errorOccurred(throwable.message ?: throwable.toString())
+                    }
+                }
     }
 
     private fun otpErlangLong(int: Int) = OtpErlangLong(int.toLong())
@@ -254,6 +322,13 @@ class Node(
     private fun callDebugged(request: OtpErlangObject): OtpErlangObject =
             mailBox.genericServerCall(remote, request, TIMEOUT_IN_MILLISECONDS)
 
+    /**
+     * Sends [request] without waiting for the reply, so that requests are pipelined to the debugged node, which
+     * handles them in the order they are sent.
+     */
+    private fun callDebuggedAsync(request: OtpErlangObject): CompletableFuture<OtpErlangObject> =
+            mailBox.genericServerCallAsync(remote, request, TIMEOUT_IN_MILLISECONDS)
+
     private tailrec fun loop() {
         mailBox.receive { receivedMessage ->
             handleMessage(receivedMessage)
@@ -54,16 +54,23 @@ import org.elixir_lang.debugger.configuration.doNotInterpretPatterns
 import org.elixir_lang.debugger.line_breakpoint.Handler
 import org.elixir_lang.debugger.line_breakpoint.Properties
 import org.elixir_lang.debugger.node.Exception
+import org.elixir_lang.debugger.node.Interpretation
+import org.elixir_lang.debugger.node.ModuleInterpretationTime
+import org.elixir_lang.debugger.node.ModuleLine
 import org.elixir_lang.debugger.node.ProcessSnapshot
+import org.elixir_lang.debugger.node.TraceElement
 import org.elixir_lang.debugger.node.event.Listener
 import org.elixir_lang.debugger.node.ok_error_reason.ErrorReason
 import org.elixir_lang.debugger.node.ok_error_reason.OK
+import org.elixir_lang.debugger.node.ok_error_reason.OKErrorReason
 import org.elixir_lang.psi.ElixirFile
 import org.elixir_lang.psi.impl.getModuleName
 import org.elixir_lang.run.Configuration
 import org.elixir_lang.run.ensureWorkingDirectory
+import org.elixir_lang.utils.ElixirModulesUtil
 import org.elixir_lang.utils.ElixirModulesUtil.elixirModuleNameToErlang
 import java.util.*
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ConcurrentLinkedQueue
 import java.util.concurrent.TimeUnit
@@ -129,9 +136,14 @@ class Process(session: XDebugSession, private val executionEnvironment: Executio
                     moduleName
                             .let(::elixirModuleNameToErlang)
                             .let(::OtpErlangAtom)
-                            .run {
-                                afterInitialized { addBreakpoint(breakpoint, sourcePosition, this) }
+                            .let { module ->
+                                PendingBreakpoint(
+                                        breakpoint,
+                                        sourcePosition,
+                                        ModuleLine(module, sourcePositionLineToModuleLine(sourcePosition.line))
+                                )
                             }
+                            .let { addBreakpoint(it) }
                 }
             } else {
                 session.reportMessage(
@@ -150,19 +162,64 @@ class Process(session: XDebugSession, private val executionEnvironment: Executio
         }
     }
 
-    private fun addBreakpoint(breakpoint: XLineBreakpoint<Properties>, sourcePosition: SourcePosition, module: OtpErlangAtom) {
-        try {
-            val response = node.setBreakpoint(module, sourcePositionLineToModuleLine(sourcePosition.line))
+    /**
+     * Breakpoints added before the debugger is initialized are set in one batch by [setPendingBreakpoints] instead of
+     * with a round-trip for each.
+     */
+    private fun addBreakpoint(pendingBreakpoint: PendingBreakpoint) {
+        if (initialized.get()) {
+            setBreakpoints(listOf(pendingBreakpoint))
+        } else {
+            pendingBreakpoints.add(pendingBreakpoint)
+            afterInitialized { setPendingBreakpoints() }
+        }
+    }
 
-            when (response) {
-                OK -> session.reportMessage("Breakpoint at ${sourcePosition.file}:${sourcePosition.line} set", MessageType.INFO)
-                is ErrorReason -> session.updateBreakpointPresentation(breakpoint, null, inspect(response.reason))
-            }
-        } catch (exception: Exception) {
-            session.updateBreakpointPresentation(breakpoint, null, exception.message)
+    private fun setPendingBreakpoints() {
+        val pendingBreakpointList = mutableListOf<PendingBreakpoint>()
+
+        while (true) {
+            pendingBreakpointList.add(pendingBreakpoints.poll() ?: break)
         }
+
+        if (pendingBreakpointList.isNotEmpty()) {
+            setBreakpoints(pendingBreakpointList)
+        }
+    }
+
+    /**
+     * Does not wait for the breakpoints to be set: the debugged node handles requests in order, so they are set before
+     * any later request, such as `attach`, is handled.
+     */
+    private fun setBreakpoints(pendingBreakpointList: List<PendingBreakpoint>) {
+        node
+                .setBreakpointsAsync(pendingBreakpointList.map { it.moduleLine })
+                .whenComplete { responses, throwable ->
+                    if (throwable == null) {
+                        pendingBreakpointList.zip(responses).forEach { (pendingBreakpoint, response) ->
+                            breakpointSet(pendingBreakpoint, response)
+                        }
+                    } else {
+                        pendingBreakpointList.forEach { pendingBreakpoint ->
+                            session.updateBreakpointPresentation(pendingBreakpoint.breakpoint, null, throwable.message)
+                        }
+                    }
+                }
     }
 
+    private fun breakpointSet(pendingBreakpoint: PendingBreakpoint, response: OKErrorReason) {
+        val sourcePosition = pendingBreakpoint.sourcePosition
+
+        when (response) {
+            OK ->
+                session.reportMessage("Breakpoint at ${sourcePosition.file}:${sourcePosition.line} set", MessageType.INFO)
+            is ErrorReason ->
+                session.updateBreakpointPresentation(pendingBreakpoint.breakpoint, null, inspect(response.reason))
+        }
+    }
+
+    private val pendingBreakpoints = ConcurrentLinkedQueue<PendingBreakpoint>()
+
     // sourcePosition.line is 0-based, but `:int` lines are 1-based
     private fun sourcePositionLineToModuleLine(sourcePositionLine: Int) = sourcePositionLine + 1
 
@@ -316,15 +373,35 @@ class Process(session: XDebugSession, private val executionEnvironment: Executio
                moduleName
                        .let(::elixirModuleNameToErlang)
                        .let(::OtpErlangAtom)
-                       .let { node.removeBreakpoint(it, breakpointPosition.line) }
+                       .let { module ->
+                           node
+                                   .removeBreakpointAsync(module, breakpointPosition.line)
+                                   .whenComplete { response, throwable ->
+                                       when {
+                                           throwable != null ->
+                                               breakpointNotRemoved(module, breakpointPosition.line, throwable.message)
+                                           response is ErrorReason ->
+                                               breakpointNotRemoved(module, breakpointPosition.line, inspect(response.reason))
+                                       }
+                                   }
+                       }
            }
        }
     }
 
+    private fun breakpointNotRemoved(module: OtpErlangAtom, line: Int, reason: String?) {
+        session.reportMessage(
+                "Failed to remove breakpoint. Module: $module Line: ${line + 1} Reason: $reason",
+                MessageType.WARNING
+        )
+    }
+
     override fun resume() {
         node.resume()
     }
 
+    fun stackAsync(pid: OtpErlangPid): CompletableFuture<List<TraceElement>> = node.stackAsync(pid)
+
     override fun runToPosition(position: XSourcePosition) {
         //TODO implement me
     }
@@ -336,14 +413,33 @@ class Process(session: XDebugSession, private val executionEnvironment: Executio
         afterInitialized {
             session.reportMessage("Interpreting modules... ", MessageType.INFO)
 
+            val settings = Settings.getInstance()
+            var interpretation: Interpretation? = null
+
             val interpretationSeconds = measureNanoTime {
-                node.interpret(
+                interpretation = node.interpret(
                         debuggableConfiguration.let { it as Configuration }.sdkPaths(),
-                        debuggableConfiguration.doNotInterpretPatterns()
+                        debuggableConfiguration.doNotInterpretPatterns(),
+                        settings.interpretOnDemand,
+                        settings.interpretModulePatterns
                 )
             }.let { TimeUnit.NANOSECONDS.toSeconds(it) }
 
-            session.reportMessage("... completed ($interpretationSeconds seconds)", MessageType.INFO)
+            val completedInterpretation = interpretation
+
+            when (completedInterpretation) {
+                is Interpretation.OK -> {
+                    session.reportMessage("... completed ($interpretationSeconds seconds)", MessageType.INFO)
+                    reportSlowestModuleInterpretationTimes(completedInterpretation.moduleInterpretationTimes)
+                }
+                is Interpretation.ErrorReason ->
+                    session.reportMessage(
+                            "... failed: ${inspect(completedInterpretation.reason)}",
+                            MessageType.ERROR
+                    )
+                null ->
+                    session.reportMessage("... failed: unexpected reply from Elixir node", MessageType.ERROR)
+            }
         }
         afterInitialized {
             node.attach()
@@ -353,6 +449,26 @@ class Process(session: XDebugSession, private val executionEnvironment: Executio
         asyncRunInitializers()
     }
 
+    private fun reportSlowestModuleInterpretationTimes(moduleInterpretationTimes: List<ModuleInterpretationTime>) {
+        val slowest = moduleInterpretationTimes
+                .sortedByDescending(ModuleInterpretationTime::microseconds)
+                .take(SLOWEST_MODULE_INTERPRETATION_TIME_COUNT)
+
+        if (slowest.isNotEmpty()) {
+            val slowestString = slowest.joinToString(", ") { (module, microseconds) ->
+                "${ElixirModulesUtil.erlangModuleNameToElixir(module.atomValue())} " +
+                        "(${TimeUnit.MICROSECONDS.toMillis(microseconds)} ms)"
+            }
+
+            session.reportMessage(
+                    "Slowest Modules to interpret: $slowestString.  Add them to the Module filters in " +
+                            "Preferences > Build, Execution, Deployment > Debugger > Stepping > Elixir or the run " +
+                            "configuration to skip interpreting them.",
+                    MessageType.INFO
+            )
+        }
+    }
+
     private fun asyncRunInitializers() {
         ApplicationManager.getApplication().executeOnPooledThread {
             try {
@@ -415,3 +531,11 @@ class Process(session: XDebugSession, private val executionEnvironment: Executio
         node.evaluate(pid, stackPointer, module, function, arity, file, line, expression, callback)
     }
 }
+
+private const val SLOWEST_MODULE_INTERPRETATION_TIME_COUNT = 5
+
+private data class PendingBreakpoint(
+        val breakpoint: XLineBreakpoint<Properties>,
+        val sourcePosition: SourcePosition,
+        val moduleLine: ModuleLine
+)
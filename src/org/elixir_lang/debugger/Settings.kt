@@ -10,12 +10,24 @@ import com.intellij.xdebugger.settings.XDebuggerSettings
 import org.elixir_lang.debugger.settings.stepping.ModuleFilter
 import org.elixir_lang.debugger.settings.stepping.UI
 
-class Settings(moduleFilters: List<ModuleFilter> = defaultModuleFilters()):
+class Settings(moduleFilters: List<ModuleFilter> = defaultModuleFilters(),
+               interpretOnDemand: Boolean = false,
+               interpretModulePatterns: List<String> = emptyList()):
         XDebuggerSettings<Settings>("elixir"), Getter<Settings> {
     @Tag("module-filters")
     // `var` only for `XmlSerializerUtil.copyBean(state, this)`
     var moduleFilters: MutableList<ModuleFilter> = moduleFilters.toMutableList()
 
+    /**
+     * Instead of interpreting all modules when the debugger starts, only interpret [interpretModulePatterns] at start
+     * and the modules with breakpoints or stepped into when they are needed.
+     */
+    @Tag("interpret-on-demand")
+    var interpretOnDemand: Boolean = interpretOnDemand
+
+    @Tag("interpret-module-patterns")
+    var interpretModulePatterns: MutableList<String> = interpretModulePatterns.toMutableList()
+
     override fun createConfigurables(category: DebuggerSettingsCategory): Collection<Configurable> =
         when (category) {
             DebuggerSettingsCategory.STEPPING ->
@@ -35,18 +47,22 @@ class Settings(moduleFilters: List<ModuleFilter> = defaultModuleFilters()):
             = moduleFilters.filter(ModuleFilter::enabled).map(ModuleFilter::pattern)
 
     override fun equals(other: Any?) =
-            other is Settings && other.moduleFilters.let { otherModuleFilters ->
-              moduleFilters.size == otherModuleFilters.size &&
-                      moduleFilters
-                              .zip(otherModuleFilters)
-                              .all { (moduleFilter, otherModuleFilter) ->
-                                  moduleFilter == otherModuleFilter
-                              }
-            }
+            other is Settings &&
+                    other.moduleFilters.let { otherModuleFilters ->
+                        moduleFilters.size == otherModuleFilters.size &&
+                                moduleFilters
+                                        .zip(otherModuleFilters)
+                                        .all { (moduleFilter, otherModuleFilter) ->
+                                            moduleFilter == otherModuleFilter
+                                        }
+                    } &&
+                    interpretOnDemand == other.interpretOnDemand &&
+                    interpretModulePatterns == other.interpretModulePatterns
 
     override fun get(): Settings = this
     override fun getState()= this
-    override fun hashCode(): Int = moduleFilters.hashCode()
+    override fun hashCode(): Int =
+            (moduleFilters.hashCode() * 31 + interpretOnDemand.hashCode()) * 31 + interpretModulePatterns.hashCode()
 
     override fun loadState(state: Settings) {
         XmlSerializerUtil.copyBean(state, this)
@@ -28,6 +28,8 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 public final class SourcePosition {
   @NotNull
   private final XSourcePosition mySourcePosition;
@@ -86,7 +88,13 @@ public final class SourcePosition {
 
   @Nullable
   public static SourcePosition create(@NotNull ProcessSnapshot snapshot) {
-    return create(snapshot.getStack().get(0));
+    List<TraceElement> stack = snapshot.getStack();
+
+    if (stack != null && !stack.isEmpty()) {
+      return create(stack.get(0));
+    } else {
+      return null;
+    }
   }
 
   @Nullable
@@ -26,15 +26,19 @@ import com.intellij.ui.SimpleTextAttributes
 import com.intellij.xdebugger.XSourcePosition
 import com.intellij.xdebugger.evaluation.XDebuggerEvaluator
 import com.intellij.xdebugger.frame.XCompositeNode
+import com.intellij.xdebugger.frame.XNamedValue
 import com.intellij.xdebugger.frame.XStackFrame
 import com.intellij.xdebugger.frame.XValueChildrenList
 import org.elixir_lang.debugger.node.Binding
 import org.elixir_lang.debugger.node.TraceElement
+import org.elixir_lang.debugger.stack_frame.value.LazyContainer
+import org.elixir_lang.debugger.stack_frame.value.computeChildren
 import org.elixir_lang.debugger.stack_frame.variable.Elixir
 import org.elixir_lang.debugger.stack_frame.variable.Erlang
 import org.elixir_lang.utils.ElixirModulesUtil
 
-class StackFrame(private val process: Process, private val pid: OtpErlangPid, private val traceElement: TraceElement) : XStackFrame() {
+class StackFrame(private val process: Process, private val pid: OtpErlangPid, private val traceElement: TraceElement) :
+        LazyContainer, XStackFrame() {
     private val sourcePosition: SourcePosition? = SourcePosition.create(traceElement)
 
     override fun getEvaluator(): XDebuggerEvaluator = Evaluator(
@@ -63,8 +67,11 @@ class StackFrame(private val process: Process, private val pid: OtpErlangPid, pr
         component.setIcon(AllIcons.Debugger.StackFrame)
     }
 
-    override fun computeChildren(node: XCompositeNode) {
-        val children = XValueChildrenList(traceElement.bindings.size)
+    /**
+     * Frames can bind many variables, so they are shown [XCompositeNode.MAX_CHILDREN_TO_SHOW] at a time like the
+     * children of a [org.elixir_lang.debugger.stack_frame.value.LazyParent].
+     */
+    private val variables: List<XNamedValue> by lazy {
         traceElement
                 .bindings
                 .groupBy(Binding::elixirName)
@@ -82,7 +89,18 @@ class StackFrame(private val process: Process, private val pid: OtpErlangPid, pr
                         erlangVariables
                     }
                 }
-                .forEach { children.add(it) }
-        node.addChildren(children, true)
+    }
+
+    override val childCount: Int
+        get() = variables.size
+
+    override var nextChildIndexToCompute = 0
+
+    override fun computeChildren(node: XCompositeNode) {
+        computeChildren(this, node)
+    }
+
+    override fun computeChild(children: XValueChildrenList, index: Int) {
+        children.add(variables[index])
     }
 }
@@ -0,0 +1,44 @@
+package org.elixir_lang.debugger.node
+
+import com.ericsson.otp.erlang.OtpErlangAtom
+import com.ericsson.otp.erlang.OtpErlangList
+import com.ericsson.otp.erlang.OtpErlangObject
+import com.ericsson.otp.erlang.OtpErlangTuple
+import com.intellij.openapi.diagnostic.Logger
+import org.elixir_lang.beam.term.inspect
+
+/**
+ * The reply to interpreting the modules on the code path: `{:ok, [{module, microseconds}]}` or `{:error, reason}`.
+ */
+sealed class Interpretation {
+    companion object {
+        private const val ARITY = 2
+
+        private val LOGGER by lazy { Logger.getInstance(Interpretation::class.java) }
+
+        fun from(term: OtpErlangObject): Interpretation? =
+                if (term is OtpErlangTuple && term.arity() == ARITY) {
+                    val tag = term.elementAt(0)
+                    val value = term.elementAt(1)
+
+                    when {
+                        tag == OtpErlangAtom("ok") && value is OtpErlangList ->
+                            OK(value.mapNotNull { ModuleInterpretationTime.from(it) })
+                        tag == OtpErlangAtom("error") ->
+                            ErrorReason(value)
+                        else -> {
+                            LOGGER.error("Interpretation (${inspect(term)}) is neither {:ok, list} nor {:error, reason}")
+
+                            null
+                        }
+                    }
+                } else {
+                    LOGGER.error("Interpretation (${inspect(term)}) is not a 2-tuple")
+
+                    null
+                }
+    }
+
+    data class OK(val moduleInterpretationTimes: List<ModuleInterpretationTime>) : Interpretation()
+    data class ErrorReason(val reason: OtpErlangObject) : Interpretation()
+}
@@ -0,0 +1,38 @@
+package org.elixir_lang.debugger.node
+
+import com.ericsson.otp.erlang.OtpErlangAtom
+import com.ericsson.otp.erlang.OtpErlangLong
+import com.ericsson.otp.erlang.OtpErlangObject
+import com.ericsson.otp.erlang.OtpErlangTuple
+import com.intellij.openapi.diagnostic.Logger
+import org.elixir_lang.beam.term.inspect
+
+/**
+ * How long it took the debugged node to interpret [module], so that slow modules can be reported and added to the
+ * module filters.
+ */
+data class ModuleInterpretationTime(val module: OtpErlangAtom, val microseconds: Long) {
+    companion object {
+        private const val ARITY = 2
+
+        private val LOGGER = Logger.getInstance(ModuleInterpretationTime::class.java)
+
+        fun from(term: OtpErlangObject): ModuleInterpretationTime? =
+                if (term is OtpErlangTuple && term.arity() == ARITY) {
+                    val module = term.elementAt(0)
+                    val microseconds = term.elementAt(1)
+
+                    if (module is OtpErlangAtom && microseconds is OtpErlangLong) {
+                        ModuleInterpretationTime(module, microseconds.longValue())
+                    } else {
+                        LOGGER.error("ModuleInterpretationTime (${inspect(term)}) is not {module, microseconds}")
+
+                        null
+                    }
+                } else {
+                    LOGGER.error("ModuleInterpretationTime (${inspect(term)}) is not a 2-tuple")
+
+                    null
+                }
+    }
+}
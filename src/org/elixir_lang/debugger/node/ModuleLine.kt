@@ -0,0 +1,8 @@
+package org.elixir_lang.debugger.node
+
+import com.ericsson.otp.erlang.OtpErlangAtom
+
+/**
+ * A breakpoint location as `:int.break/2` takes it: a `module()` and a 1-based `line`.
+ */
+data class ModuleLine(val module: OtpErlangAtom, val line: Int)
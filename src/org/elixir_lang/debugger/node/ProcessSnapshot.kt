@@ -1,12 +1,17 @@
 package org.elixir_lang.debugger.node
 
+import com.ericsson.otp.erlang.OtpErlangAtom
 import com.ericsson.otp.erlang.OtpErlangList
 import com.ericsson.otp.erlang.OtpErlangObject
 import com.ericsson.otp.erlang.OtpErlangPid
 import com.ericsson.otp.erlang.OtpErlangTuple
 import com.intellij.openapi.diagnostic.Logger
 
-class ProcessSnapshot(val pid: OtpErlangPid, val stack: List<TraceElement>) {
+/**
+ * @param stack `null` if the stack was not sent with the snapshot because [pid] is not the process that reached the
+ *   breakpoint.  It can be fetched with [org.elixir_lang.debugger.Node.stackAsync].
+ */
+class ProcessSnapshot(val pid: OtpErlangPid, val stack: List<TraceElement>?) {
     val pidString: String
         get() = pid.toString()
 
@@ -35,14 +40,14 @@ class ProcessSnapshot(val pid: OtpErlangPid, val stack: List<TraceElement>) {
                 if (pid is OtpErlangPid) {
                     val otpStack = tuple.elementAt(4)
 
-                    if (otpStack is OtpErlangList) {
-                        val stack = otpStackToDebuggerStack(otpStack)
+                    when {
+                        otpStack is OtpErlangList -> ProcessSnapshot(pid, otpStackToDebuggerStack(otpStack))
+                        otpStack == NOT_LOADED -> ProcessSnapshot(pid, null)
+                        else -> {
+                            LOGGER.error("Element at index 4 is neither an OtpErlangList nor :not_loaded")
 
-                        ProcessSnapshot(pid, stack)
-                    } else {
-                        LOGGER.error("Element at index 4 is not an OtpErlangList")
-
-                        null
+                            null
+                        }
                     }
                 } else {
                     LOGGER.error("Element at index 0 is not an OtpErlangPid")
@@ -56,10 +61,12 @@ class ProcessSnapshot(val pid: OtpErlangPid, val stack: List<TraceElement>) {
             }
         }
 
-        private fun otpStackToDebuggerStack(otpStack: OtpErlangList): List<TraceElement> =
+        fun otpStackToDebuggerStack(otpStack: OtpErlangList): List<TraceElement> =
                 otpStack.mapNotNull { otpStackFrame ->
                     TraceElement.from(otpStackFrame)
                 }
 
     }
 }
+
+private val NOT_LOADED = OtpErlangAtom("not_loaded")
@@ -3,13 +3,18 @@ package org.elixir_lang.debugger.settings.stepping
 import com.intellij.openapi.options.ConfigurableUi
 import org.elixir_lang.debugger.Settings
 import org.elixir_lang.debugger.settings.stepping.module_filter.Editor
+import com.intellij.ui.components.JBCheckBox
+import com.intellij.ui.components.JBTextField
 import java.awt.BorderLayout
+import javax.swing.BoxLayout
 import javax.swing.JComponent
 import javax.swing.JLabel
 import javax.swing.JPanel
 
 class UI: ConfigurableUi<Settings> {
     private lateinit var filterEditor: Editor
+    private lateinit var interpretOnDemandCheckBox: JBCheckBox
+    private lateinit var interpretModulePatternsTextField: JBTextField
 
     override fun apply(settings: Settings) {
         filterEditor.stopEditing()
@@ -18,6 +23,8 @@ class UI: ConfigurableUi<Settings> {
             clear()
             addAll(filterEditor.filters)
         }
+        settings.interpretOnDemand = interpretOnDemandCheckBox.isSelected
+        settings.interpretModulePatterns = interpretModulePatterns().toMutableList()
     }
 
     override fun getComponent(): JComponent =
@@ -26,15 +33,37 @@ class UI: ConfigurableUi<Settings> {
 
             add(JLabel("Do not step into the Modules:"), BorderLayout.NORTH)
             add(filterEditor, BorderLayout.CENTER)
+            add(interpretOnDemandPanel(), BorderLayout.SOUTH)
         }
 
+    private fun interpretOnDemandPanel(): JPanel =
+        JPanel().apply {
+            layout = BoxLayout(this, BoxLayout.Y_AXIS)
+
+            interpretOnDemandCheckBox = JBCheckBox(
+                    "Interpret Modules on demand: only Modules with breakpoints, stepped into, or matching below"
+            )
+            interpretModulePatternsTextField = JBTextField().apply {
+                emptyText.text = "Comma-separated Module patterns, such as MyApp.*"
+            }
+
+            add(interpretOnDemandCheckBox)
+            add(interpretModulePatternsTextField)
+        }
+
+    private fun interpretModulePatterns(): List<String> =
+        interpretModulePatternsTextField.text.split(',').map(String::trim).filter(String::isNotEmpty)
+
     override fun isModified(settings: Settings)= toSettings() != settings
 
     override fun reset(settings: Settings) {
         filterEditor.filters = settings.moduleFilters
+        interpretOnDemandCheckBox.isSelected = settings.interpretOnDemand
+        interpretModulePatternsTextField.text = settings.interpretModulePatterns.joinToString(", ")
     }
 
     // Private Functions
 
-    private fun toSettings() = Settings(filterEditor.filters)
+    private fun toSettings() =
+        Settings(filterEditor.filters, interpretOnDemandCheckBox.isSelected, interpretModulePatterns())
 }
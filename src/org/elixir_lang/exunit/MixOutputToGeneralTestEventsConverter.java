@@ -2,39 +2,25 @@ package org.elixir_lang.exunit;
 
 import com.intellij.execution.process.ProcessOutputTypes;
 import com.intellij.execution.testframework.TestConsoleProperties;
-import com.intellij.execution.testframework.sm.runner.OutputLineSplitter;
 import com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter;
-import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Key;
+import jetbrains.buildServer.messages.serviceMessages.ServiceMessageVisitor;
 import org.elixir_lang.mix.runner.Status;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.text.ParseException;
 
+/**
+ * Turns `mix test` output into test events.
+ *
+ * Lines come from the {@link com.intellij.execution.testframework.sm.runner.OutputLineSplitter} in
+ * {@link OutputToGeneralTestEventsConverter#process(String, Key)}, so they are only split once, and reach
+ * {@link #processConsistentText(String, Key, boolean)} as a normal override instead of through reflection.
+ */
 public class MixOutputToGeneralTestEventsConverter extends OutputToGeneralTestEventsConverter {
-    private static final Logger LOGGER = Logger.getInstance(MixOutputToGeneralTestEventsConverter.class);
-    @NotNull
-    private static final Method SUPER_PROCESS_CONSISTENT_TEXT_METHOD;
-
-    static {
-        try {
-            SUPER_PROCESS_CONSISTENT_TEXT_METHOD = OutputToGeneralTestEventsConverter.class.getDeclaredMethod(
-                    "processConsistentText",
-                    String.class,
-                    Key.class,
-                    boolean.class
-            );
-            // counter `private` in IntelliJ IDEA prior to 2016.2
-            SUPER_PROCESS_CONSISTENT_TEXT_METHOD.setAccessible(true);
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException(e);
-        }
-    }
+    private static final String SERVICE_MESSAGE_PREFIX = "##teamcity[";
 
-    @NotNull
-    private OutputLineSplitter splitter;
     @Nullable
     private Status stderrStatus = null;
     @Nullable
@@ -42,13 +28,22 @@ public class MixOutputToGeneralTestEventsConverter extends OutputToGeneralTestEv
 
     MixOutputToGeneralTestEventsConverter(@NotNull String testFrameworkName, @NotNull TestConsoleProperties consoleProperties) {
         super(testFrameworkName, consoleProperties);
+    }
 
-        splitter = new OutputLineSplitter(consoleProperties.isEditable()) {
-            @Override
-            protected void onLineAvailable(@NotNull String text, @NotNull Key outputType, boolean tcLikeFakeOutput) {
-                subProcessConsistentText(text, outputType, tcLikeFakeOutput);
-            }
-        };
+    /**
+     * Scans for {@link #SERVICE_MESSAGE_PREFIX} after any leading whitespace without copying {@code text}, so that the
+     * plain output between service messages, such as progress dots and `IO.puts` in tests, is never trimmed and
+     * handed to the service message parser.
+     */
+    static boolean isServiceMessage(@NotNull String text) {
+        int length = text.length();
+        int offset = 0;
+
+        while (offset < length && Character.isWhitespace(text.charAt(offset))) {
+            offset++;
+        }
+
+        return text.startsWith(SERVICE_MESSAGE_PREFIX, offset);
     }
 
     /**
@@ -61,8 +56,10 @@ public class MixOutputToGeneralTestEventsConverter extends OutputToGeneralTestEv
     }
 
     @Override
-    public void process(String text, Key outputType) {
-        splitter.process(text, outputType);
+    protected boolean processServiceMessages(String text,
+                                             Key outputType,
+                                             ServiceMessageVisitor visitor) throws ParseException {
+        return isServiceMessage(text) && super.processServiceMessages(text, outputType, visitor);
     }
 
     private void processStatus(@NotNull Status status, @NotNull Key outputType) {
@@ -89,7 +86,8 @@ public class MixOutputToGeneralTestEventsConverter extends OutputToGeneralTestEv
         }
     }
 
-    private void subProcessConsistentText(@NotNull String text, @NotNull Key outputType, boolean tcLikeFakeOutput) {
+    @Override
+    protected void processConsistentText(@NotNull String text, @NotNull Key outputType, boolean tcLikeFakeOutput) {
         if (outputType == ProcessOutputTypes.STDERR) {
             if (stderrStatus != null) {
                 if (text.startsWith("  ")) {
@@ -128,10 +126,6 @@ public class MixOutputToGeneralTestEventsConverter extends OutputToGeneralTestEv
     }
 
     private void superProcessConsistentText(@NotNull String text, @NotNull Key outputType, boolean tcLikeFakeOutput) {
-        try {
-            SUPER_PROCESS_CONSISTENT_TEXT_METHOD.invoke(this, text, outputType, tcLikeFakeOutput);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            LOGGER.error(e);
-        }
+        super.processConsistentText(text, outputType, tcLikeFakeOutput);
     }
 }
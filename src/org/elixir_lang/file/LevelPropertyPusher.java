@@ -8,7 +8,6 @@ import com.intellij.openapi.fileTypes.FileTypeManager;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleManager;
 import com.intellij.openapi.module.ModuleType;
-import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.DumbModeTask;
 import com.intellij.openapi.project.DumbService;
@@ -42,85 +41,29 @@ import java.util.*;
 
 import static org.elixir_lang.Level.KEY;
 import static org.elixir_lang.Level.MAXIMUM;
-import static org.elixir_lang.sdk.elixir.Type.mostSpecificSdk;
 
 public class LevelPropertyPusher implements FilePropertyPusher<Level> {
-    private static final Key<Level> LEVEL = Key.create("ELIXIR_LEVEL");
     public static final Key<VirtualFile> VIRTUAL_FILE = Key.create("VIRTUAL_FILE");
+    /**
+     * The {@link Level} of the {@link #VIRTUAL_FILE} being parsed, so the parser doesn't have to look it up again.
+     */
+    public static final Key<Level> LEVEL = Key.create("ELIXIR_LEVEL");
     private static final FileAttribute PERSISTENCE = new FileAttribute("elixir_level_persistence", 1, true);
     private final Map<Module, Sdk> sdkByModule = new WeakHashMap<>();
 
-    private static void putLevel(@NotNull Project project) {
-        project.putUserData(LEVEL, level(project));
-    }
-
     @NotNull
     private static Level level(@NotNull Module module) {
-        Level level;
-
-        Sdk sdk = mostSpecificSdk(module);
-
-        if (sdk != null) {
-            level = level(sdk);
-        } else {
-            level = MAXIMUM;
-        }
-
-        return level;
+        return Levels.getInstance(module.getProject()).level(module);
     }
 
     @NotNull
     public static Level level(@NotNull Project project, @Nullable VirtualFile virtualFile) {
-        Level level;
-
-        if (virtualFile == null) {
-            level = level(project);
-        } else {
-            Module module = ModuleUtilCore.findModuleForFile(virtualFile, project);
-
-            if (module != null) {
-                level = level(module);
-            } else {
-                level = level(project);
-            }
-        }
-
-        return level;
+        return Levels.getInstance(project).level(virtualFile);
     }
 
     @NotNull
     public static Level level(@NotNull Project project) {
-        Level level;
-
-        final ModuleManager moduleManager = ModuleManager.getInstance(project);
-        Level projectLevel = MAXIMUM;
-
-        if (moduleManager != null) {
-            Level maxLevel = null;
-
-            for (Module module : moduleManager.getModules()) {
-                final Sdk moduleSdk = ModuleRootManager.getInstance(module).getSdk();
-
-                if (moduleSdk != null) {
-                    final Level sdkLevel = level(moduleSdk);
-
-                    if (maxLevel == null || maxLevel.ordinal() < sdkLevel.ordinal()) {
-                        maxLevel = sdkLevel;
-                    }
-                }
-            }
-
-            if (maxLevel != null) {
-                projectLevel = maxLevel;
-            } else {
-                Sdk projectSdk = ProjectRootManager.getInstance(project).getProjectSdk();
-                projectLevel = level(projectSdk);
-            }
-        }
-
-        level = projectLevel;
-
-        return level;
+        return Levels.getInstance(project).getProjectLevel();
     }
 
     @NotNull
@@ -153,19 +96,13 @@ public class LevelPropertyPusher implements FilePropertyPusher<Level> {
         return levelOrdinal;
     }
 
-    private static void deleteLevel(@NotNull Project project) {
-        project.putUserData(LEVEL, null);
-    }
-
     @Override
     public void initExtra(@NotNull Project project, @NotNull MessageBus bus, @NotNull Engine languageLevelUpdater) {
         Map<Module, Sdk> sdkByModule = sdkByModule(project);
         Set<Sdk> sdkSet = sdkByModuleToSdkSet(sdkByModule);
 
         this.sdkByModule.putAll(sdkByModule);
-        deleteLevel(project);
         updateSdkLevels(project, sdkSet);
-        putLevel(project);
     }
 
     private Map<Module, Sdk> sdkByModule(@NotNull Project project) {
@@ -301,7 +238,6 @@ public class LevelPropertyPusher implements FilePropertyPusher<Level> {
         }
 
         this.sdkByModule.putAll(sdkByModule);
-        deleteLevel(project);
         updateSdkLevels(project, sdkSet);
 
         if (needToReparseOpenFiles) {
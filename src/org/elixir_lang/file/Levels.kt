@@ -0,0 +1,85 @@
+package org.elixir_lang.file
+
+import com.intellij.openapi.module.Module
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.projectRoots.Sdk
+import com.intellij.openapi.roots.ModuleRootManager
+import com.intellij.openapi.roots.ProjectFileIndex
+import com.intellij.openapi.roots.ProjectRootManager
+import com.intellij.openapi.util.Key
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import org.elixir_lang.Level
+import org.elixir_lang.sdk.elixir.Type.mostSpecificSdk
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * The [Level] of each [Module] and of the [Project] as a whole, derived once from the SDK version strings and cached
+ * on the project until the project roots, and so the module SDKs, change.
+ *
+ * Used by the lexer and parser, which need the [Level] of every file they are asked about during indexing.
+ */
+class Levels private constructor(private val project: Project) {
+    /**
+     * Only used while constructing, so that each SDK's version string is only parsed once.
+     */
+    private val levelBySdk = mutableMapOf<Sdk?, Level>()
+
+    /**
+     * The greatest [Level] of the module SDKs, or the [Level] of the project SDK if no module has an SDK.
+     */
+    val projectLevel: Level
+    private val levelByModule: Map<Module, Level>
+    /**
+     * Files in the same directory are almost always in the same module, so the module is only looked up once per
+     * directory.
+     */
+    private val levelByDirectory = ConcurrentHashMap<VirtualFile, Level>()
+
+    init {
+        val modules = ModuleManager.getInstance(project).modules
+
+        levelByModule = modules.associate { module -> module to level(mostSpecificSdk(module)) }
+        projectLevel = modules
+                .mapNotNull { ModuleRootManager.getInstance(it).sdk }
+                .map { level(it) }
+                .max()
+                ?: level(ProjectRootManager.getInstance(project).projectSdk)
+    }
+
+    private fun level(sdk: Sdk?): Level = levelBySdk.getOrPut(sdk) { LevelPropertyPusher.level(sdk) }
+
+    fun level(module: Module): Level = levelByModule[module] ?: LevelPropertyPusher.level(mostSpecificSdk(module))
+
+    /**
+     * @param virtualFile `null` for the [projectLevel]
+     */
+    fun level(virtualFile: VirtualFile?): Level {
+        val directory = virtualFile?.let { if (it.isDirectory) it else it.parent }
+
+        return if (directory != null) {
+            levelByDirectory.getOrPut(directory) { uncachedLevel(directory) }
+        } else if (virtualFile != null) {
+            uncachedLevel(virtualFile)
+        } else {
+            projectLevel
+        }
+    }
+
+    private fun uncachedLevel(virtualFile: VirtualFile): Level =
+            ProjectFileIndex.getInstance(project).getModuleForFile(virtualFile)?.let { levelByModule[it] }
+                    ?: projectLevel
+
+    companion object {
+        private val KEY = Key.create<CachedValue<Levels>>("ELIXIR_LEVELS")
+
+        @JvmStatic
+        fun getInstance(project: Project): Levels =
+                CachedValuesManager.getManager(project).getCachedValue(project, KEY, {
+                    CachedValueProvider.Result.create(Levels(project), ProjectRootManager.getInstance(project))
+                }, false)
+    }
+}
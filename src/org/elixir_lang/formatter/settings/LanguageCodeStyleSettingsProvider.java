@@ -383,6 +383,12 @@ public class LanguageCodeStyleSettingsProvider extends com.intellij.psi.codeStyl
                 "Align type definition to right of operator (::)",
                 null
         );
+        consumer.showCustomOption(
+                CodeStyleSettings.class,
+                "MIX_FORMAT",
+                "Reformat with mix format (Code.format_string!, Elixir 1.6+)",
+                "mix format"
+        );
     }
 
     @NotNull
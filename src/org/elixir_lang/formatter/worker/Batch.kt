@@ -0,0 +1,146 @@
+package org.elixir_lang.formatter.worker
+
+import com.intellij.execution.ExecutionException
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.projectRoots.Sdk
+import com.intellij.openapi.roots.ProjectFileIndex
+import com.intellij.openapi.util.TextRange
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiFile
+import org.elixir_lang.sdk.elixir.Type.mostSpecificSdk
+
+/**
+ * Files that can be formatted in one [Workers.format] request because they share an SDK and `.formatter.exs`.
+ */
+class Batch(private val sdk: Sdk, private val dotFormatter: VirtualFile?, private val lineLength: Int) {
+    val psiFileList = mutableListOf<PsiFile>()
+    /**
+     * The [com.intellij.openapi.editor.Document.getModificationStamp] of each of [psiFileList] when its text was
+     * taken, so that formatted text is not applied to a document that has changed since.
+     */
+    val modificationStampList = mutableListOf<Long>()
+    private val textList = mutableListOf<String>()
+
+    private fun add(psiFile: PsiFile) {
+        val psiDocumentManager = PsiDocumentManager.getInstance(psiFile.project)
+        val document = psiDocumentManager.getDocument(psiFile)
+
+        psiFileList.add(psiFile)
+        modificationStampList.add(document?.modificationStamp ?: psiFile.modificationStamp)
+        // During Reformat, the PSI is ahead of the document until the postponed operations are done
+        textList.add(
+                document?.takeUnless { psiDocumentManager.isDocumentBlockedByPsi(it) }?.text ?: psiFile.text
+        )
+    }
+
+    /**
+     * Blocks until the [Worker] replies, so call outside of read and write actions when possible.
+     *
+     * @param startWorker `false` to only use a [Worker] that is already running; see [Workers.format].
+     * @return the formatted text of each of [psiFileList] in the same order, or `null` for those that could not be
+     *   parsed; `null` if no [Worker] could format them.
+     */
+    fun formattedList(startWorker: Boolean = true): List<String?>? =
+            try {
+                Workers
+                        .getInstance()
+                        .format(
+                                sdk,
+                                textList,
+                                dotFormatter?.path,
+                                dotFormatter?.modificationStamp ?: 0,
+                                lineLength,
+                                startWorker
+                        )
+            } catch (executionException: ExecutionException) {
+                LOGGER.warn(executionException)
+                null
+            }
+
+    private data class Key(val sdk: Sdk, val dotFormatter: VirtualFile?)
+
+    companion object {
+        private val LOGGER = Logger.getInstance(Batch::class.java)
+
+        /**
+         * Must be called in a read action.  Files without an SDK are skipped.
+         */
+        fun batchList(psiFileList: List<PsiFile>, lineLength: Int): List<Batch> {
+            val batchByKey = mutableMapOf<Key, Batch>()
+
+            for (psiFile in psiFileList) {
+                val sdk = mostSpecificSdk(psiFile) ?: continue
+                val key = Key(sdk, dotFormatter(psiFile))
+
+                batchByKey.computeIfAbsent(key) { Batch(it.sdk, it.dotFormatter, lineLength) }.add(psiFile)
+            }
+
+            return batchByKey.values.toList()
+        }
+
+        /**
+         * Replaces only the part of [psiFile]'s document that differs from [formatted], so that markers and the caret
+         * outside of the changes stay where they are.  Must be called in a write action.
+         *
+         * @param range if not `null`, the document is only changed if all the differences are inside this range of
+         *   the current text, as `Code.format_string!` can only format whole files.
+         * @return the range of [formatted] that replaced text; `null` if nothing was replaced.
+         */
+        fun replace(psiFile: PsiFile, formatted: String, range: TextRange? = null): TextRange? {
+            val psiDocumentManager = PsiDocumentManager.getInstance(psiFile.project)
+            val document = psiDocumentManager.getDocument(psiFile) ?: return null
+
+            psiDocumentManager.doPostponedOperationsAndUnblockDocument(document)
+
+            val text = document.immutableCharSequence
+            val prefixLength = StringUtil.commonPrefixLength(text, formatted)
+
+            if (prefixLength == text.length && prefixLength == formatted.length) {
+                return null
+            }
+
+            val suffixLength = Math.min(
+                    StringUtil.commonSuffixLength(text, formatted),
+                    Math.min(text.length, formatted.length) - prefixLength
+            )
+
+            if (range != null && !range.contains(TextRange(prefixLength, text.length - suffixLength))) {
+                return null
+            }
+
+            document.replaceString(
+                    prefixLength,
+                    text.length - suffixLength,
+                    formatted.subSequence(prefixLength, formatted.length - suffixLength)
+            )
+            psiDocumentManager.commitDocument(document)
+
+            return TextRange(prefixLength, formatted.length - suffixLength)
+        }
+
+        /**
+         * The nearest `.formatter.exs` in the directories containing [psiFile], up to its content root.
+         */
+        private fun dotFormatter(psiFile: PsiFile): VirtualFile? {
+            val virtualFile = psiFile.virtualFile ?: return null
+            val contentRoot = ProjectFileIndex.getInstance(psiFile.project).getContentRootForFile(virtualFile)
+            var directory = virtualFile.parent
+
+            while (directory != null) {
+                directory.findChild(DOT_FORMATTER)?.let { return it }
+
+                if (directory == contentRoot) {
+                    break
+                }
+
+                directory = directory.parent
+            }
+
+            return null
+        }
+    }
+}
+
+private const val DOT_FORMATTER = ".formatter.exs"
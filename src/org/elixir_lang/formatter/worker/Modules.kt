@@ -0,0 +1,20 @@
+package org.elixir_lang.formatter.worker
+
+import java.io.File
+import java.io.IOException
+
+object Modules {
+    private const val BASE_PATH = "/formatter"
+    private const val INTELLIJ_ELIXIR_FORMATTER_SERVER = "lib/intellij_elixir/formatter/server.ex"
+
+    @Throws(IOException::class)
+    fun copy(): List<File> = org.elixir_lang.ElixirModules.copy(BASE_PATH, listOf(INTELLIJ_ELIXIR_FORMATTER_SERVER))
+
+    /**
+     * `elixir` arguments that start `IntelliJElixir.Formatter.Server` and keep the VM running after it is started.
+     */
+    @Throws(IOException::class)
+    fun elixirArgumentList(): List<String> =
+            org.elixir_lang.ElixirModules.parametersList(copy()) +
+                    listOf("--no-halt", "-e", "IntelliJElixir.Formatter.Server.start()")
+}
@@ -0,0 +1,36 @@
+package org.elixir_lang.formatter.worker
+
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.codeStyle.CodeStyleSettings
+import org.elixir_lang.ElixirLanguage
+import org.elixir_lang.psi.ElixirFile
+
+/**
+ * When [org.elixir_lang.code_style.CodeStyleSettings.MIX_FORMAT] is on, replaces the result of the built-in formatter
+ * with `Code.format_string!` from a [Worker], so Reformat Code matches `mix format`.
+ *
+ * Reformat calls this in a write action on the EDT, so only a [Worker] that is already running is used.  If there is
+ * none, one is started in the background for later reformats and the text is left as the built-in formatter left it.
+ *
+ * `Code.format_string!` only formats whole files, so when only a range was requested, the text is only replaced if
+ * `Code.format_string!` changes nothing outside of that range.
+ */
+class PostFormatProcessor : com.intellij.psi.impl.source.codeStyle.PostFormatProcessor {
+    override fun processElement(source: PsiElement, settings: CodeStyleSettings): PsiElement = source
+
+    override fun processText(source: PsiFile, rangeToReformat: TextRange, settings: CodeStyleSettings): TextRange =
+            if (source is ElixirFile &&
+                    settings.getCustomSettings(org.elixir_lang.code_style.CodeStyleSettings::class.java).MIX_FORMAT) {
+                Batch
+                        .batchList(listOf(source), settings.getRightMargin(ElixirLanguage))
+                        .singleOrNull()
+                        ?.formattedList(startWorker = false)
+                        ?.single()
+                        ?.let { formatted -> Batch.replace(source, formatted, rangeToReformat) }
+                        ?: rangeToReformat
+            } else {
+                rangeToReformat
+            }
+}
@@ -0,0 +1,193 @@
+package org.elixir_lang.formatter.worker
+
+import com.ericsson.otp.erlang.*
+import com.intellij.execution.ExecutionException
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.projectRoots.Sdk
+import com.intellij.util.TimeoutUtil.sleep
+import org.elixir_lang.Elixir
+import org.elixir_lang.MailBox
+import org.elixir_lang.Server
+import org.elixir_lang.otpErlangTuple
+import java.io.IOException
+import java.io.InputStream
+import java.util.*
+
+/**
+ * A long-lived Elixir node running `IntelliJElixir.Formatter.Server` for one SDK.
+ *
+ * Requests are `GenServer` calls over a [MailBox], so that the VM boot is only paid for once instead of on every
+ * `mix format` and any number of files can be formatted in one request.
+ */
+class Worker private constructor(
+        private val process: Process,
+        private val mailBox: MailBox,
+        private val remote: Server
+) : Disposable {
+    val isAlive: Boolean
+        get() = process.isAlive
+
+    /**
+     * @param dotFormatterPath path to the `.formatter.exs` whose options override [lineLength]
+     * @return the formatted version of each of [textList] in the same order, or `null` for those that could not be
+     *   parsed; `null` if the worker did not reply.
+     */
+    fun format(textList: List<String>, dotFormatterPath: String?, lineLength: Int): List<String?>? =
+            try {
+                val reply = mailBox.genericServerCall(
+                        remote,
+                        formatRequest(textList, dotFormatterPath, lineLength),
+                        timeout(textList.size)
+                )
+
+                (reply as OtpErlangList).map { formatted(it) }
+            } catch (exception: Exception) {
+                LOGGER.warn(exception)
+                null
+            }
+
+    override fun dispose() {
+        mailBox.close()
+        process.destroy()
+    }
+
+    companion object {
+        private val LOGGER = Logger.getInstance(Worker::class.java)
+
+        /**
+         * @return `null` if the node exited or did not register `IntelliJElixir.Formatter.Server` before
+         *   [START_TIMEOUT_IN_MILLISECONDS], such as when the SDK is older than Elixir 1.6.
+         */
+        @Throws(ExecutionException::class)
+        fun start(sdk: Sdk): Worker? {
+            val nodesUUID = UUID.randomUUID()
+            val cookie = nodesUUID.toString()
+            val remote = Server(SERVER_NAME, "formatter$nodesUUID@127.0.0.1")
+            val local = Server(CLIENT_NAME, "formatter_client$nodesUUID@127.0.0.1")
+            val elixirArgumentList = try {
+                Modules.elixirArgumentList()
+            } catch (ioException: IOException) {
+                throw ExecutionException(ioException)
+            }
+            val commandLine = Elixir.commandLine(
+                    emptyMap(),
+                    null,
+                    sdk,
+                    listOf("-name", remote.nodeName, "-setcookie", cookie)
+            ).apply {
+                addParameters(elixirArgumentList)
+            }
+
+            // starting the node with `-name` also starts `epmd`, which the local node needs
+            val process = commandLine.createProcess().apply {
+                // output must be drained or the VM will block once the pipe's buffer is full
+                drain(inputStream)
+                drain(errorStream)
+            }
+            val deadline = System.currentTimeMillis() + START_TIMEOUT_IN_MILLISECONDS
+            val otpNode = localNode(process, local.nodeName, cookie, deadline)
+
+            return if (otpNode != null && awaitNode(process, otpNode, remote.nodeName, deadline)) {
+                val worker = Worker(process, MailBox(otpNode, otpNode.createMbox(local.registeredNamed)), remote)
+
+                if (worker.awaitServer(deadline)) {
+                    worker
+                } else {
+                    worker.dispose()
+                    null
+                }
+            } else {
+                otpNode?.close()
+                process.destroy()
+                null
+            }
+        }
+
+        /**
+         * Unlike [Server.mailBox], gives up once [process] exits or [deadline] passes, so that an SDK that can't
+         * start a node doesn't hang formatting.
+         */
+        private fun localNode(process: Process, nodeName: String, cookie: String, deadline: Long): OtpNode? {
+            while (process.isAlive && System.currentTimeMillis() < deadline) {
+                try {
+                    return OtpNode(nodeName, cookie)
+                } catch (ioException: IOException) {
+                    // `epmd` is not running yet
+                    sleep(START_POLL_IN_MILLISECONDS.toLong())
+                }
+            }
+
+            return null
+        }
+
+        private fun awaitNode(process: Process, otpNode: OtpNode, remoteNodeName: String, deadline: Long): Boolean {
+            while (process.isAlive && System.currentTimeMillis() < deadline) {
+                if (otpNode.ping(remoteNodeName, START_POLL_IN_MILLISECONDS.toLong())) {
+                    return true
+                }
+            }
+
+            return false
+        }
+
+        private fun drain(inputStream: InputStream) {
+            ApplicationManager.getApplication().executeOnPooledThread {
+                try {
+                    inputStream.bufferedReader(Charsets.UTF_8).forEachLine { LOGGER.debug(it) }
+                } catch (ioException: IOException) {
+                    LOGGER.debug(ioException)
+                }
+            }
+        }
+    }
+
+    /**
+     * The node is reachable before `IntelliJElixir.Formatter.Server` is registered, so empty requests are retried
+     * until one is answered.
+     */
+    private fun awaitServer(deadline: Long): Boolean {
+        while (isAlive && System.currentTimeMillis() < deadline) {
+            try {
+                mailBox.genericServerCall(remote, formatRequest(emptyList(), null, 0), START_POLL_IN_MILLISECONDS)
+
+                return true
+            } catch (exception: Exception) {
+                sleep(START_POLL_IN_MILLISECONDS.toLong())
+            }
+        }
+
+        return false
+    }
+}
+
+private fun formatRequest(textList: List<String>, dotFormatterPath: String?, lineLength: Int): OtpErlangObject =
+        otpErlangTuple(
+                OtpErlangAtom("format"),
+                OtpErlangList(textList.map { OtpErlangBinary(it.toByteArray(Charsets.UTF_8)) }.toTypedArray()),
+                dotFormatterPath?.let { OtpErlangBinary(it.toByteArray(Charsets.UTF_8)) } ?: OtpErlangAtom("nil"),
+                OtpErlangList(arrayOf<OtpErlangObject>(
+                        otpErlangTuple(OtpErlangAtom("line_length"), OtpErlangLong(lineLength.toLong()))
+                ))
+        )
+
+private fun formatted(result: OtpErlangObject): String? =
+        (result as? OtpErlangTuple)
+                ?.takeIf { it.arity() == 2 && it.elementAt(0) == OK }
+                ?.let { it.elementAt(1) as? OtpErlangBinary }
+                ?.let { String(it.binaryValue(), Charsets.UTF_8) }
+
+/**
+ * Formatting is linear in the text, so the timeout grows with the batch instead of failing large directories.
+ */
+private fun timeout(textCount: Int): Int =
+        FORMAT_TIMEOUT_IN_MILLISECONDS + textCount * FORMAT_TIMEOUT_PER_TEXT_IN_MILLISECONDS
+
+private val OK = OtpErlangAtom("ok")
+private const val CLIENT_NAME = "Elixir.IntelliJElixir.Formatter.Client"
+private const val FORMAT_TIMEOUT_IN_MILLISECONDS = 10000
+private const val FORMAT_TIMEOUT_PER_TEXT_IN_MILLISECONDS = 100
+private const val SERVER_NAME = "Elixir.IntelliJElixir.Formatter.Server"
+private const val START_POLL_IN_MILLISECONDS = 500
+private const val START_TIMEOUT_IN_MILLISECONDS = 30000
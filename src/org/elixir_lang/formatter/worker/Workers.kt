@@ -0,0 +1,172 @@
+package org.elixir_lang.formatter.worker
+
+import com.intellij.execution.ExecutionException
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.components.ServiceManager
+import com.intellij.openapi.projectRoots.Sdk
+import com.intellij.openapi.util.Disposer
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.util.containers.ContainerUtil
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Reuses one [Worker] for each SDK across reformats and caches formatted text by the content hash of the text and the
+ * options it was formatted with.
+ *
+ * Unlike `credo`'s workers, a [Worker] formats many requests at once, so there is never more than one for an SDK.
+ */
+class Workers : Disposable {
+    @Volatile
+    private var disposed = false
+    private val workerBySdkHomePath = ConcurrentHashMap<String, Worker>()
+    /**
+     * SDK home paths whose [Worker] could not be started, so formatting falls back to the built-in formatter instead
+     * of trying to start the [Worker] again on every file.
+     */
+    private val unstartableSdkHomePathSet = ContainerUtil.newConcurrentSet<String>()
+    private val formattedByRequest = ContainerUtil.createConcurrentSoftValueMap<Request, String>()
+
+    /**
+     * Formats all of [textList] in one request for those that do not have cached output.
+     *
+     * @param dotFormatterPath path to the `.formatter.exs` that applies to all of [textList]
+     * @param dotFormatterModificationStamp so that cached output is not reused after `.formatter.exs` changes
+     * @param startWorker `false` when the caller cannot wait for the VM to boot, such as in a write action on the EDT.
+     *   If the [Worker] for [sdk] is not already running, it is started on a pooled thread for later requests and
+     *   `null` is returned.
+     * @return the formatted version of each of [textList] in the same order, or `null` for those that could not be
+     *   parsed; `null` if the [Worker] could not be started.
+     */
+    @Throws(ExecutionException::class)
+    fun format(sdk: Sdk,
+               textList: List<String>,
+               dotFormatterPath: String?,
+               dotFormatterModificationStamp: Long,
+               lineLength: Int,
+               startWorker: Boolean = true): List<String?>? {
+        val sdkHomePath = sdk.homePath ?: return null
+        val requestList = textList.map { text ->
+            Request(sdkHomePath, contentHash(text), dotFormatterPath, dotFormatterModificationStamp, lineLength)
+        }
+        val formattedList = requestList.mapTo(mutableListOf<String?>()) { formattedByRequest[it] }
+        val unformattedIndexList = formattedList.indices.filter { formattedList[it] == null }
+
+        if (unformattedIndexList.isNotEmpty()) {
+            val worker = if (startWorker) {
+                worker(sdkHomePath, sdk)
+            } else {
+                runningWorker(sdkHomePath) ?: run {
+                    LOGGER.info(
+                            "No formatter worker is running for $sdkHomePath yet, so the built-in formatter's " +
+                                    "output is kept while one is started in the background"
+                    )
+                    startWorkerInBackground(sdkHomePath, sdk)
+
+                    null
+                }
+            } ?: return null
+            val unformattedTextList = unformattedIndexList.map { textList[it] }
+            val workerFormattedList = worker.format(unformattedTextList, dotFormatterPath, lineLength)
+
+            if (workerFormattedList == null) {
+                remove(sdkHomePath, worker)
+
+                return null
+            }
+
+            unformattedIndexList.zip(workerFormattedList).forEach { (index, formatted) ->
+                formattedList[index] = formatted
+
+                formatted?.let { formattedByRequest[requestList[index]] = it }
+            }
+        }
+
+        return formattedList
+    }
+
+    override fun dispose() {
+        disposed = true
+
+        for (worker in workerBySdkHomePath.values) {
+            Disposer.dispose(worker)
+        }
+
+        workerBySdkHomePath.clear()
+    }
+
+    @Throws(ExecutionException::class)
+    private fun worker(sdkHomePath: String, sdk: Sdk): Worker? =
+            if (disposed || unstartableSdkHomePathSet.contains(sdkHomePath)) {
+                null
+            } else {
+                workerBySdkHomePath[sdkHomePath]?.takeIf { it.isAlive } ?: startWorker(sdkHomePath, sdk)
+            }
+
+    private fun runningWorker(sdkHomePath: String): Worker? =
+            if (disposed) null else workerBySdkHomePath[sdkHomePath]?.takeIf { it.isAlive }
+
+    private fun startWorkerInBackground(sdkHomePath: String, sdk: Sdk) {
+        if (!disposed && !unstartableSdkHomePathSet.contains(sdkHomePath)) {
+            ApplicationManager.getApplication().executeOnPooledThread {
+                try {
+                    worker(sdkHomePath, sdk)
+                } catch (executionException: ExecutionException) {
+                    LOGGER.warn(executionException)
+                }
+            }
+        }
+    }
+
+    /**
+     * Synchronized so that concurrent reformats of the same SDK don't boot more than one VM.
+     */
+    @Synchronized
+    @Throws(ExecutionException::class)
+    private fun startWorker(sdkHomePath: String, sdk: Sdk): Worker? {
+        val current = workerBySdkHomePath[sdkHomePath]
+
+        return if (current != null && current.isAlive) {
+            current
+        } else {
+            current?.let { remove(sdkHomePath, it) }
+
+            val worker = Worker.start(sdk)
+
+            if (worker != null) {
+                workerBySdkHomePath[sdkHomePath] = worker
+            } else {
+                unstartableSdkHomePathSet.add(sdkHomePath)
+            }
+
+            worker
+        }
+    }
+
+    /**
+     * The [worker] died or stopped replying, so a later request starts a new one.
+     */
+    private fun remove(sdkHomePath: String, worker: Worker) {
+        if (workerBySdkHomePath.remove(sdkHomePath, worker)) {
+            Disposer.dispose(worker)
+        }
+    }
+
+    private data class Request(val sdkHomePath: String,
+                               val contentHash: String,
+                               val dotFormatterPath: String?,
+                               val dotFormatterModificationStamp: Long,
+                               val lineLength: Int)
+
+    companion object {
+        private val LOGGER = Logger.getInstance(Workers::class.java)
+
+        @JvmStatic
+        fun getInstance(): Workers = ServiceManager.getService(Workers::class.java)
+    }
+}
+
+private fun contentHash(text: String): String =
+        StringUtil.toHexString(MessageDigest.getInstance("SHA-1").digest(text.toByteArray(Charsets.UTF_8)))
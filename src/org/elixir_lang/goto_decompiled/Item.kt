@@ -1,12 +1,18 @@
 package org.elixir_lang.goto_decompiled
 
 import com.intellij.navigation.GotoRelatedItem
-import org.elixir_lang.psi.call.Call
+import com.intellij.navigation.NavigationItem
+import com.intellij.psi.PsiElement
 import javax.swing.Icon
 
-class Item(definer: Call) : GotoRelatedItem(definer, "Decompiled BEAM") {
-    override fun getCustomContainerName(): String? = definerPresentation?.locationString
-    override fun getCustomIcon(): Icon? = definerPresentation?.getIcon(true)
+/**
+ * @param decompiled a `.beam` [org.elixir_lang.beam.psi.impl.ModuleImpl] or
+ *   [org.elixir_lang.beam.psi.impl.CallDefinitionImpl], whose presentation comes from its stub, so that listing it
+ *   doesn't decompile its module.
+ */
+class Item(decompiled: PsiElement) : GotoRelatedItem(decompiled, "Decompiled BEAM") {
+    override fun getCustomContainerName(): String? = decompiledPresentation?.locationString
+    override fun getCustomIcon(): Icon? = decompiledPresentation?.getIcon(true)
 
-    private val definerPresentation by lazy { definer.presentation }
+    private val decompiledPresentation by lazy { (decompiled as? NavigationItem)?.presentation }
 }
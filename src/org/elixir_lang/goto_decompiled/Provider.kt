@@ -7,16 +7,16 @@ import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiFile
 import com.intellij.psi.search.GlobalSearchScope
 import com.intellij.psi.stubs.StubIndex
+import org.elixir_lang.beam.psi.impl.CallDefinitionImpl
 import org.elixir_lang.beam.psi.impl.ModuleImpl
-import org.elixir_lang.overlaps
 import org.elixir_lang.psi.CallDefinitionClause.nameArityRange
 import org.elixir_lang.psi.Definition
-import org.elixir_lang.psi.Modular
 import org.elixir_lang.psi.NamedElement
 import org.elixir_lang.psi.call.Call
 import org.elixir_lang.psi.call.StubBased
 import org.elixir_lang.psi.definition
 import org.elixir_lang.psi.stub.index.AllName
+import org.elixir_lang.psi.stub.index.ModularNameArity
 
 /**
  * Go To Related from source to decompiled version of the same function
@@ -51,7 +51,7 @@ class Provider : GotoRelatedProvider() {
     private fun definitionItems(definition: Definition, definer: Call): List<GotoRelatedItem> =
         definitionDecompiledSet(definition, definer).map { Item(it) }
 
-    private fun definitionDecompiledSet(definition: Definition, definer: Call): Set<Call> =
+    private fun definitionDecompiledSet(definition: Definition, definer: Call): Set<PsiElement> =
             if (definition.type == Definition.Type.CALLABLE) {
                 callableDefinerToDecompiledSet(definer)
             } else {
@@ -60,26 +60,43 @@ class Provider : GotoRelatedProvider() {
 
     private fun callableDefinerToDecompiledSet(definer: Call) =
             callableDefinerToModularDefiner(definer)
+                    ?.let { it as? StubBased<*> }
                     ?.let { modularDefiner ->
-                        nameArityRange(definer)?.let { nameArityRange ->
-                            modularDefinerToDecompiledSet(modularDefiner)
-                                    .flatMap { decompiledModularDefiner ->
-                                        Modular
-                                                .callDefinitionClauseCallSequence(decompiledModularDefiner)
-                                                .mapNotNull { decompiledDefiner ->
-                                                    nameArityRange(decompiledDefiner)?.let { decompiledNameArityRange ->
-                                                        if (nameArityRange.name == decompiledNameArityRange.name && nameArityRange.arityRange.overlaps(decompiledNameArityRange.arityRange)) {
-                                                            decompiledDefiner
-                                                        } else {
-                                                            null
-                                                        }
-                                                    }
-                                                }.asIterable()
+                        nameArityRange(definer)?.let { (name, arityRange) ->
+                            val project = definer.project
+                            val scope = GlobalSearchScope.projectScope(project)
+
+                            modularDefiner
+                                    .canonicalNameSet()
+                                    .flatMapTo(mutableSetOf()) { modularName ->
+                                        arityRange.flatMap { arity ->
+                                            decompiledCallDefinitionSet(
+                                                    project,
+                                                    scope,
+                                                    ModularNameArity.key(modularName, name, arity)
+                                            )
+                                        }
                                     }
-                                    .toSet()
                         }
                     } ?: emptySet()
 
+    /**
+     * Only the `.beam` [CallDefinitionImpl] stubs are loaded and they are listed as themselves, so the decompiled
+     * source is only built if the user navigates to one of them.
+     */
+    private fun decompiledCallDefinitionSet(
+            project: Project,
+            scope: GlobalSearchScope,
+            modularNameArity: String
+    ): Set<PsiElement> =
+        StubIndex.getElements(
+                ModularNameArity.KEY,
+                modularNameArity,
+                project,
+                scope,
+                NamedElement::class.java
+        ).filterIsInstanceTo(mutableSetOf<PsiElement>(), CallDefinitionImpl::class.java)
+
     private tailrec fun callableDefinerToModularDefiner(ancestor: PsiElement): Call? {
         return if (ancestor is Call && definition(ancestor)?.type == Definition.Type.MODULAR) {
             ancestor
@@ -90,7 +107,7 @@ class Provider : GotoRelatedProvider() {
         }
     }
 
-    private fun modularDefinerToDecompiledSet(modularDefiner: Call): Set<Call> {
+    private fun modularDefinerToDecompiledSet(modularDefiner: Call): Set<PsiElement> {
         val project = modularDefiner.project
         val scope = GlobalSearchScope.projectScope(project)
 
@@ -107,19 +124,15 @@ class Provider : GotoRelatedProvider() {
             project: Project,
             scope: GlobalSearchScope,
             canonicalNameIterable: Iterable<String>
-    ): Set<Call> =
+    ): Set<PsiElement> =
             canonicalNameIterable.flatMapTo(mutableSetOf()) { decompiledSet(project, scope, it) }
 
-    private fun decompiledSet(project: Project, scope: GlobalSearchScope, canonicalName: String): Set<Call> =
+    private fun decompiledSet(project: Project, scope: GlobalSearchScope, canonicalName: String): Set<PsiElement> =
         StubIndex.getElements(
                 AllName.KEY,
                 canonicalName,
                 project,
                 scope,
                 NamedElement::class.java
-        ).mapNotNull { namedElement ->
-            (namedElement as? ModuleImpl<*>)
-                    ?.navigationElement
-                    ?.let { it as Call }
-        }.toSet()
+        ).filterIsInstanceTo(mutableSetOf<PsiElement>(), ModuleImpl::class.java)
 }
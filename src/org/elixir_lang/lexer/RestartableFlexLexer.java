@@ -0,0 +1,60 @@
+package org.elixir_lang.lexer;
+
+import com.intellij.lexer.FlexLexer;
+import com.intellij.psi.tree.IElementType;
+import org.elixir_lang.ElixirFlexLexer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Exposes the {@link ElixirFlexLexer#getStack()} along with {@link ElixirFlexLexer#yystate()} through
+ * {@link StackStates}, so that a {@link com.intellij.lexer.FlexAdapter} around it reports states that
+ * {@link #reset(CharSequence, int, int, int)} can restart from, even inside heredocs, sigils, and interpolation.
+ */
+public class RestartableFlexLexer implements FlexLexer {
+    @NotNull
+    private final ElixirFlexLexer elixirFlexLexer;
+
+    public RestartableFlexLexer(@NotNull ElixirFlexLexer elixirFlexLexer) {
+        this.elixirFlexLexer = elixirFlexLexer;
+    }
+
+    @NotNull
+    public ElixirFlexLexer getElixirFlexLexer() {
+        return elixirFlexLexer;
+    }
+
+    @Override
+    public void yybegin(int state) {
+        elixirFlexLexer.yybegin(StackStates.lexicalState(state));
+        elixirFlexLexer.setStack(StackStates.stack(state));
+    }
+
+    @Override
+    public int yystate() {
+        return StackStates.encode(elixirFlexLexer.yystate(), elixirFlexLexer.getStack());
+    }
+
+    @Override
+    public int getTokenStart() {
+        return elixirFlexLexer.getTokenStart();
+    }
+
+    @Override
+    public int getTokenEnd() {
+        return elixirFlexLexer.getTokenEnd();
+    }
+
+    @Override
+    public IElementType advance() throws IOException {
+        return elixirFlexLexer.advance();
+    }
+
+    @Override
+    public void reset(CharSequence buffer, int start, int end, int initialState) {
+        elixirFlexLexer.reset(buffer, start, end, StackStates.lexicalState(initialState));
+        // without this, a restart would keep whatever stack the previous pass left behind
+        elixirFlexLexer.setStack(StackStates.stack(initialState));
+    }
+}
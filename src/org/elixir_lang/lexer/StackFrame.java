@@ -8,6 +8,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Created by luke.imhoff on 8/19/14.
@@ -53,6 +54,17 @@ public class StackFrame {
         this.promoter = promoter;
     }
 
+    /**
+     * Copies {@code stackFrame}, so that the copy can be mutated (or left unmutated) independently of the original.
+     */
+    public StackFrame(@NotNull StackFrame stackFrame) {
+        this.group = stackFrame.group;
+        this.interpolation = stackFrame.interpolation;
+        this.lastLexicalState = stackFrame.lastLexicalState;
+        this.promoter = stackFrame.promoter;
+        this.sigilName = stackFrame.sigilName;
+    }
+
     private Base getGroup() {
         if (this.group == null) {
             throw new IllegalStateException("Group not set.");
@@ -214,4 +226,29 @@ public class StackFrame {
 
         return terminator;
     }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+
+        if (!(object instanceof StackFrame)) {
+            return false;
+        }
+
+        StackFrame other = (StackFrame) object;
+
+        // groups are cached by Quote.fetch and Sigil.fetch, so identity is enough
+        return group == other.group &&
+                Objects.equals(interpolation, other.interpolation) &&
+                Objects.equals(lastLexicalState, other.lastLexicalState) &&
+                Objects.equals(promoter, other.promoter) &&
+                Objects.equals(sigilName, other.sigilName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(group, interpolation, lastLexicalState, promoter, sigilName);
+    }
 }
@@ -0,0 +1,160 @@
+package org.elixir_lang.lexer;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes the lexical state and the {@link Stack} of an {@link org.elixir_lang.ElixirFlexLexer} into a single
+ * {@code int}, so that a lexer can be restarted at any token boundary from only
+ * {@link com.intellij.lexer.Lexer#getState()}.
+ *
+ * When the stack is empty, the state is the lexical state itself, so {@code YYINITIAL} with an empty stack stays
+ * {@code 0}, the initial state the editor highlighter looks for when choosing where to restart.  Any other stack is
+ * interned in a table shared by all lexers and its state is {@link #FIRST_INTERNED_STATE} plus its index in the table.
+ * The table only grows, but the number of distinct nestings in real code is small.
+ */
+public class StackStates {
+    /*
+     * Static
+     */
+
+    /**
+     * Greater than every lexical state in {@link org.elixir_lang.ElixirFlexLexer}
+     */
+    public static final int FIRST_INTERNED_STATE = 1 << 8;
+
+    private static final Map<Snapshot, Integer> STATE_BY_SNAPSHOT = new ConcurrentHashMap<>();
+    private static final List<Snapshot> SNAPSHOTS = new ArrayList<>();
+
+    public static int encode(int lexicalState, @NotNull Stack stack) {
+        if (lexicalState >= FIRST_INTERNED_STATE) {
+            throw new IllegalArgumentException(
+                    "Lexical state (" + lexicalState + ") must be less than " + FIRST_INTERNED_STATE
+            );
+        }
+
+        int state;
+
+        if (stack.isEmpty()) {
+            state = lexicalState;
+        } else {
+            Snapshot snapshot = new Snapshot(lexicalState, stack);
+            Integer interned = STATE_BY_SNAPSHOT.get(snapshot);
+
+            if (interned != null) {
+                state = interned;
+            } else {
+                state = intern(snapshot);
+            }
+        }
+
+        return state;
+    }
+
+    /**
+     * @return the lexical state encoded in {@code state}
+     */
+    public static int lexicalState(int state) {
+        int lexicalState;
+
+        if (state < FIRST_INTERNED_STATE) {
+            lexicalState = state;
+        } else {
+            lexicalState = snapshot(state).lexicalState;
+        }
+
+        return lexicalState;
+    }
+
+    /**
+     * @return a new {@link Stack} equal to the one encoded in {@code state} that the lexer is free to mutate.
+     */
+    @NotNull
+    public static Stack stack(int state) {
+        Stack stack = new Stack();
+
+        if (state >= FIRST_INTERNED_STATE) {
+            for (StackFrame stackFrame : snapshot(state).stackFrames) {
+                stack.push(new StackFrame(stackFrame));
+            }
+        }
+
+        return stack;
+    }
+
+    private static synchronized int intern(@NotNull Snapshot snapshot) {
+        // another lexer may have interned an equal snapshot between the unsynchronized get and here
+        Integer interned = STATE_BY_SNAPSHOT.get(snapshot);
+        int state;
+
+        if (interned != null) {
+            state = interned;
+        } else {
+            state = FIRST_INTERNED_STATE + SNAPSHOTS.size();
+            SNAPSHOTS.add(snapshot);
+            STATE_BY_SNAPSHOT.put(snapshot, state);
+        }
+
+        return state;
+    }
+
+    @NotNull
+    private static synchronized Snapshot snapshot(int state) {
+        int index = state - FIRST_INTERNED_STATE;
+
+        if (index >= SNAPSHOTS.size()) {
+            throw new IllegalArgumentException("State (" + state + ") was never interned");
+        }
+
+        return SNAPSHOTS.get(index);
+    }
+
+    /*
+     * Classes
+     */
+
+    private static class Snapshot {
+        private final int lexicalState;
+        @NotNull
+        private final List<StackFrame> stackFrames;
+        private final int hashCode;
+
+        Snapshot(int lexicalState, @NotNull Stack stack) {
+            List<StackFrame> stackFrames = new ArrayList<>(stack.size());
+
+            // copy because the lexer mutates the top frame as it lexes promoters and sigil names
+            for (StackFrame stackFrame : stack) {
+                stackFrames.add(new StackFrame(stackFrame));
+            }
+
+            this.lexicalState = lexicalState;
+            this.stackFrames = Collections.unmodifiableList(stackFrames);
+            this.hashCode = 31 * lexicalState + stackFrames.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+
+            if (!(object instanceof Snapshot)) {
+                return false;
+            }
+
+            Snapshot other = (Snapshot) object;
+
+            return lexicalState == other.lexicalState && stackFrames.equals(other.stackFrames);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
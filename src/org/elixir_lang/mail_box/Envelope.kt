@@ -0,0 +1,34 @@
+package org.elixir_lang.mail_box
+
+import com.ericsson.otp.erlang.OtpErlangObject
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * A received [message] that is waiting to be selectively received.
+ *
+ * Any thread can [claim] the [message] while it tries to hand it to a matcher, but only one at a time.  If the
+ * hand-off succeeds the message is [consume]d; otherwise, it is [release]d so other matchers can try it.
+ */
+class Envelope(val message: OtpErlangObject) {
+    private val state = AtomicInteger(AVAILABLE)
+
+    val isAvailable: Boolean
+        get() = state.get() == AVAILABLE
+
+    val isConsumed: Boolean
+        get() = state.get() == CONSUMED
+
+    fun claim(): Boolean = state.compareAndSet(AVAILABLE, CLAIMED)
+
+    fun consume() {
+        state.set(CONSUMED)
+    }
+
+    fun release() {
+        state.set(AVAILABLE)
+    }
+}
+
+private const val AVAILABLE = 0
+private const val CLAIMED = 1
+private const val CONSUMED = 2
@@ -187,6 +187,7 @@ class Builder : ProjectImportBuilder<OtpApp>() {
             obtainedModuleModel.commit()
         }
 
+        // Asynchronous: the deps libraries are added in a later write action, after the modules are committed
         project.getComponent(DepsWatcher::class.java).syncLibraries(project)
 
         if (myIsImportingProject) {
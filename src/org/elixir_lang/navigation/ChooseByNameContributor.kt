@@ -9,6 +9,8 @@ import com.intellij.psi.stubs.StubIndex
 import com.intellij.psi.stubs.StubIndexKey
 import com.intellij.util.ArrayUtil
 import org.elixir_lang.Visibility
+import org.elixir_lang.beam.psi.impl.CallDefinitionImpl
+import org.elixir_lang.beam.psi.impl.ModuleImpl
 import org.elixir_lang.errorreport.Logger
 import org.elixir_lang.psi.AtUnqualifiedNoParenthesesCall
 import org.elixir_lang.psi.NamedElement
@@ -56,17 +58,24 @@ open class ChooseByNameContributor(private val stubIndexKey: StubIndexKey<String
         val callDefinitionByTuple = HashMap<CallDefinition.Tuple, CallDefinition>()
 
         for (element in result) {
-            // Use navigation element so that source element is used for compiled elements
-            val sourceElement = element.navigationElement
-
-            if (sourceElement is Call) {
-                getItemsByNameFromCall(
-                        name,
-                        items,
-                        enclosingModularByCall,
-                        callDefinitionByTuple,
-                        sourceElement
-                )
+            when (element) {
+                // `.beam` elements render from their stubs, so that listing them doesn't decompile their modules
+                is CallDefinitionImpl<*> -> items.add(element)
+                is ModuleImpl<*> -> items.add(element)
+                else -> {
+                    // Use navigation element so that source element is used for compiled elements
+                    val sourceElement = element.navigationElement
+
+                    if (sourceElement is Call) {
+                        getItemsByNameFromCall(
+                                name,
+                                items,
+                                enclosingModularByCall,
+                                callDefinitionByTuple,
+                                sourceElement
+                        )
+                    }
+                }
             }
         }
 
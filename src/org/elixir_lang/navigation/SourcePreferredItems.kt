@@ -5,6 +5,8 @@ import com.intellij.navigation.NavigationItem
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiElementResolveResult
 import org.elixir_lang.beam.psi.BeamFileImpl
+import org.elixir_lang.beam.psi.impl.CallDefinitionImpl
+import org.elixir_lang.beam.psi.impl.ModuleImpl
 import org.elixir_lang.structure_view.element.*
 import org.elixir_lang.structure_view.element.modular.Modular
 import org.elixir_lang.structure_view.element.modular.Module
@@ -120,6 +122,24 @@ class SourcePreferredItems  {
         }
     }
 
+    /**
+     * Only returned if no source [CallDefinition] or [CallDefinitionClause] has the same module, name, and arity.
+     */
+    fun add(decompiledCallDefinition: CallDefinitionImpl<*>) {
+        decompiledCallDefinitionListByArityByNameByModularName
+                .computeIfAbsent(decompiledCallDefinition.moduleName()) { mutableMapOf() }
+                .computeIfAbsent(decompiledCallDefinition.name) { mutableMapOf() }
+                .computeIfAbsent(decompiledCallDefinition.exportedArity()) { mutableListOf() }
+                .add(decompiledCallDefinition)
+    }
+
+    /**
+     * Only returned if no source [Modular] has the same name.
+     */
+    fun add(decompiledModule: ModuleImpl<*>) {
+        decompiledModuleListByName.computeIfAbsent(decompiledModule.name) { mutableListOf() }.add(decompiledModule)
+    }
+
     fun add(callDefinitionSpecification: CallDefinitionSpecification) {
         // currently we don't decompile specifications, so no need to check
         callDefinitionSpecificationList.add(callDefinitionSpecification)
@@ -160,7 +180,9 @@ class SourcePreferredItems  {
                         callDefinitionListByArityByNameByModularName.values.flatMap { it.values.flatMap { it.values.flatten() } } +
                         callDefinitionSpecificationList +
                         callDefinitionHeadListByArityByNameByModularName.values.flatMap { it.values.flatMap { it.values.flatten() } } +
-                        callbackList
+                        callbackList +
+                        decompiledModuleList() +
+                        decompiledCallDefinitionList()
 
         return navigationItemList
                 .distinctBy { navigationItem ->
@@ -172,18 +194,52 @@ class SourcePreferredItems  {
                 .toTypedArray()
     }
 
+    private fun decompiledModuleList(): List<ModuleImpl<*>> =
+            decompiledModuleListByName
+                    .filterKeys { name -> modularListByName[name]?.isDecompiled() ?: true }
+                    .values
+                    .flatten()
+
+    private fun decompiledCallDefinitionList(): List<CallDefinitionImpl<*>> =
+            decompiledCallDefinitionListByArityByNameByModularName.flatMap { (modularName, listByArityByName) ->
+                listByArityByName.flatMap { (name, listByArity) ->
+                    listByArity.flatMap { (arity, list) ->
+                        if (hasSourceCallDefinition(modularName, name, arity)) {
+                            emptyList()
+                        } else {
+                            list
+                        }
+                    }
+                }
+            }
+
+    private fun hasSourceCallDefinition(modularName: ModularName, name: Name, arity: Arity): Boolean =
+            callDefinitionListByArityByNameByModularName[modularName]?.get(name)?.get(arity)?.let {
+                !it.isDecompiled()
+            } ?: false ||
+            callDefinitionClauseListByArityByNameByModularName[modularName]?.get(name)?.get(arity)?.let {
+                !it.isDecompiled()
+            } ?: false ||
+            // `defdelegate` and bodiless heads
+            callDefinitionHeadListByArityByNameByModularName[modularName]?.get(name)?.get(arity)?.let {
+                !it.isDecompiled()
+            } ?: false
+
     private val callDefinitionListByArityByNameByModularName = mutableMapOf<ModularName, MutableMap<Name, MutableMap<Arity, MutableList<CallDefinition>>>>()
     private val callDefinitionClauseListByArityByNameByModularName = mutableMapOf<ModularName, MutableMap<Name, MutableMap<Arity, MutableList<CallDefinitionClause>>>>()
     private val callDefinitionHeadListByArityByNameByModularName = mutableMapOf<ModularName, MutableMap<Name, MutableMap<Arity, MutableList<CallDefinitionHead>>>>()
     private val callDefinitionSpecificationList = mutableListOf<CallDefinitionSpecification>()
     private val callbackList = mutableListOf<Callback>()
     private val modularListByName = mutableMapOf<Name, MutableList<Modular>>()
+    private val decompiledCallDefinitionListByArityByNameByModularName = mutableMapOf<ModularName, MutableMap<Name, MutableMap<Arity, MutableList<CallDefinitionImpl<*>>>>>()
+    private val decompiledModuleListByName = mutableMapOf<Name, MutableList<ModuleImpl<*>>>()
 }
 
 private fun Any.isDecompiled(): Boolean =
     when (this) {
         is CallDefinition -> isDecompiled()
         is CallDefinitionClause -> isDecompiled()
+        is CallDefinitionHead -> isDecompiled()
         is Module -> isDecompiled()
         is PsiElement -> isDecompiled()
         is PsiElementResolveResult -> isDecompiled()
@@ -192,6 +248,7 @@ private fun Any.isDecompiled(): Boolean =
 
 private fun CallDefinition.isDecompiled(): Boolean = modular.isDecompiled()
 private fun CallDefinitionClause.isDecompiled(): Boolean = callDefinition.isDecompiled()
+private fun CallDefinitionHead.isDecompiled(): Boolean = callDefinition.isDecompiled()
 
 private fun Modular.isDecompiled(): Boolean =
         when (this) {
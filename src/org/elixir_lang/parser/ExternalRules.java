@@ -8,6 +8,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.function.BiFunction;
 
+import static org.elixir_lang.file.LevelPropertyPusher.LEVEL;
 import static org.elixir_lang.file.LevelPropertyPusher.VIRTUAL_FILE;
 import static org.elixir_lang.file.LevelPropertyPusher.level;
 
@@ -16,9 +17,13 @@ public class ExternalRules {
                              @SuppressWarnings("unused") int depth,
                              @NotNull Operator operator,
                              @SuppressWarnings("SameParameterValue") @NotNull Level targetLevel) {
-        Project project = psiBuilder.getProject();
-        VirtualFile virtualFile = psiBuilder.getUserData(VIRTUAL_FILE);
-        Level virtualFileLevel = level(project, virtualFile);
+        Level virtualFileLevel = psiBuilder.getUserData(LEVEL);
+
+        if (virtualFileLevel == null) {
+            Project project = psiBuilder.getProject();
+            VirtualFile virtualFile = psiBuilder.getUserData(VIRTUAL_FILE);
+            virtualFileLevel = level(project, virtualFile);
+        }
 
         return operator.keepParsing(virtualFileLevel, targetLevel);
     }
@@ -7,6 +7,7 @@ import org.elixir_lang.psi.call.name.Function.USE
 import org.elixir_lang.psi.call.name.Module.KERNEL
 import org.elixir_lang.psi.impl.call.finalArguments
 import org.elixir_lang.psi.impl.maybeModularNameToModular
+import org.elixir_lang.psi.use.Summary
 
 /**
  * A `use` call
@@ -15,25 +16,11 @@ object Use {
     /**
      * Calls `function` on each call definition clause added to the scope from the `quote` block inside the `__using__`
      * macro called by `useCall` while `function` returns `true`.  Stops the first time `function` returns `false`.
+     *
+     * The call definition clauses come from the [Summary] cached on the used modular.
      */
     fun callDefinitionClauseCallWhile(useCall: Call, keepProcessing: (Call) -> Boolean): Boolean =
-        modular(useCall)?.let { modularCall ->
-            var accumulatedKeepProcessing = true
-
-            for (definer in Using.definers(modularCall)) {
-                accumulatedKeepProcessing = Using.callDefinitionClauseCallWhile(
-                        usingCall = definer,
-                        useCall = useCall,
-                        keepProcessing = keepProcessing
-                )
-
-                if (!accumulatedKeepProcessing) {
-                    break
-                }
-            }
-
-            accumulatedKeepProcessing
-        } ?: true
+        Summary.forUseCall(useCall)?.callDefinitionClauseList?.all(keepProcessing) ?: true
 
     fun elementDescription(call: Call, location: ElementDescriptionLocation): String? {
         var elementDescription: String? = null
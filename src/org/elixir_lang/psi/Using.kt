@@ -12,14 +12,22 @@ import org.elixir_lang.psi.impl.maybeModularNameToModular
 
 object Using {
     fun callDefinitionClauseCallWhile(usingCall: Call, useCall: Call?, keepProcessing: (Call) -> Boolean): Boolean =
+        quoteCallWhile(usingCall, useCall) { quoteCall ->
+            QuoteMacro.callDefinitionClauseCallWhile(quoteCall, keepProcessing)
+        }
+
+    /**
+     * Calls `keepProcessing` on each `quote` call whose body is injected by `usingCall`, either directly as its last
+     * expression or through the functions it calls, while `keepProcessing` returns `true`.
+     */
+    fun quoteCallWhile(usingCall: Call, useCall: Call?, keepProcessing: (Call) -> Boolean): Boolean =
         usingCall.macroChildCallSequence().lastOrNull()?.let { lastChildCall ->
             val resolvedModuleName = lastChildCall.resolvedModuleName()
             val functionName = lastChildCall.functionName()
 
             if (resolvedModuleName != null && functionName != null) {
                 when {
-                    resolvedModuleName == KERNEL && functionName == QUOTE ->
-                        QuoteMacro.callDefinitionClauseCallWhile(lastChildCall, keepProcessing)
+                    resolvedModuleName == KERNEL && functionName == QUOTE -> keepProcessing(lastChildCall)
 
                     resolvedModuleName == KERNEL && functionName == APPLY -> {
                         lastChildCall.finalArguments()?.let { arguments ->
@@ -30,7 +38,7 @@ object Using {
                                         // TODO resolve argument[1] AND use its inferred value to select only one of the functions
                                         Modular.callDefinitionClauseCallWhile(modular) { callDefinitionClauseCall ->
                                             if (CallDefinitionClause.isFunction(callDefinitionClauseCall)) {
-                                                Using.callDefinitionClauseCallWhile(callDefinitionClauseCall, useCall, keepProcessing)
+                                                quoteCallWhile(callDefinitionClauseCall, useCall, keepProcessing)
                                             } else {
                                                 true
                                             }
@@ -56,10 +64,8 @@ object Using {
                             }
 
                             for (resolved in resolvedList) {
-                                val text = resolved.text
-
                                 accumulatedKeepProcessing = if (resolved is Call && CallDefinitionClause.`is`(resolved)) {
-                                    Using.callDefinitionClauseCallWhile(
+                                    quoteCallWhile(
                                             usingCall = resolved,
                                             useCall = useCall,
                                             keepProcessing = keepProcessing
@@ -7,12 +7,11 @@ import com.intellij.psi.scope.PsiScopeProcessor
 import org.elixir_lang.errorreport.Logger
 import org.elixir_lang.psi.ElixirFile
 import org.elixir_lang.psi.Import
-import org.elixir_lang.psi.Modular
 import org.elixir_lang.psi.Use
 import org.elixir_lang.psi.call.Call
-import org.elixir_lang.psi.call.name.Module.KERNEL
 import org.elixir_lang.psi.call.name.Module.KERNEL_SPECIAL_FORMS
 import org.elixir_lang.psi.impl.call.macroChildCalls
+import org.elixir_lang.psi.scope.call_definition_clause.ImplicitImports
 import org.elixir_lang.structure_view.element.modular.Module
 
 abstract class CallDefinitionClause : PsiScopeProcessor {
@@ -102,47 +101,33 @@ abstract class CallDefinitionClause : PsiScopeProcessor {
             true
         }
 
-    private fun implicitImports(element: PsiElement, state: ResolveState): Boolean {
-        val project = element.project
-
-        var keepProcessing = org.elixir_lang.Reference.forEachNavigationElement(
-                project,
-                KERNEL
-        ) { navigationElement ->
-            var keepProcessingNavigationElements = true
-
-            if (navigationElement is Call) {
+    /**
+     * The name of the call definition clauses that [executeOnCallDefinitionClause] needs from the implicit imports.
+     *
+     * @return `null` if every implicitly imported call definition clause is needed.
+     */
+    protected open fun implicitImportName(): String? = null
 
-                keepProcessingNavigationElements = Modular.callDefinitionClauseCallWhile(
-                        navigationElement
-                ) { callDefinitionClause -> executeOnCallDefinitionClause(callDefinitionClause, state) }
+    /**
+     * The implicit `import Kernel` and `import Kernel.SpecialForms`, looked up in the project's cached
+     * [ImplicitImports] table instead of walking `Kernel` and `Kernel.SpecialForms` again.
+     */
+    private fun implicitImports(element: PsiElement, state: ResolveState): Boolean {
+        val implicitImports = ImplicitImports.getInstance(element.project)
+        val clauseList = implicitImportName()?.let { implicitImports.clauseList(it) } ?: implicitImports.clauseList
+        var keepProcessing = true
+
+        for (clause in clauseList) {
+            val clauseState = if (clause.modularCanonicalName == KERNEL_SPECIAL_FORMS) {
+                state.put(MODULAR_CANONICAL_NAME, KERNEL_SPECIAL_FORMS)
+            } else {
+                state
             }
 
-            keepProcessingNavigationElements
-        }
-
-        // the implicit `import Kernel.SpecialForms`
-        if (keepProcessing) {
-            val modularCanonicalNameState = state.put(MODULAR_CANONICAL_NAME, KERNEL_SPECIAL_FORMS)
-            keepProcessing = org.elixir_lang.Reference.forEachNavigationElement(
-                    project,
-                    KERNEL_SPECIAL_FORMS
-            ) { navigationElement ->
-                var keepProcessingNavigationElements = true
-
-                if (navigationElement is Call) {
-
-                    keepProcessingNavigationElements = Modular.callDefinitionClauseCallWhile(
-                            navigationElement
-                    ) { callDefinitionClause ->
-                        executeOnCallDefinitionClause(
-                                callDefinitionClause,
-                                modularCanonicalNameState
-                        )
-                    }
-                }
+            keepProcessing = executeOnCallDefinitionClause(clause.call, clauseState)
 
-                keepProcessingNavigationElements
+            if (!keepProcessing) {
+                break
             }
         }
 
@@ -5,16 +5,19 @@ import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiNamedElement
 import com.intellij.psi.ResolveState
 import com.intellij.psi.scope.PsiScopeProcessor
+import com.intellij.psi.util.PsiTreeUtil
 import org.elixir_lang.psi.*
 import org.elixir_lang.psi.call.Call
 import org.elixir_lang.psi.call.Named
 
 import org.elixir_lang.psi.call.name.Function.ALIAS
 import org.elixir_lang.psi.call.name.Module.KERNEL
+import org.elixir_lang.psi.impl.ElixirPsiImplUtil.ENTRANCE
 import org.elixir_lang.psi.impl.call.finalArguments
 import org.elixir_lang.psi.impl.call.keywordArgument
 import org.elixir_lang.psi.impl.stripAccessExpression
 import org.elixir_lang.psi.stub.type.call.Stub.isModular
+import org.elixir_lang.psi.use.Summary
 
 abstract class Module : PsiScopeProcessor {
     override fun <T> getHint(hintKey: Key<T>): T? = null
@@ -34,6 +37,7 @@ abstract class Module : PsiScopeProcessor {
             when {
                 isModular(match) -> executeOnMaybeAliasedName(match, match.name, state)
                 match.isCalling(KERNEL, ALIAS) -> executeOnAliasCall(match, state)
+                Use.`is`(match) -> executeOnUseCall(match, state)
                 else -> true
             }
 
@@ -72,6 +76,17 @@ abstract class Module : PsiScopeProcessor {
         }
     }
 
+    /**
+     * The `alias`es injected by the `__using__` of the modular used by [useCall].  Skipped when resolving the name of
+     * the used modular itself, as the `alias`es can't be known until it is resolved.
+     */
+    private fun executeOnUseCall(useCall: Named, state: ResolveState): Boolean =
+            if (state.get(ENTRANCE)?.let { PsiTreeUtil.isAncestor(useCall, it, false) } == true) {
+                true
+            } else {
+                Summary.forUseCall(useCall)?.aliasCallList?.all { executeOnAliasCall(it, state) } ?: true
+            }
+
     private fun executeOnAliasCallArgument(accessExpression: ElixirAccessExpression,
                                            state: ResolveState): Boolean =
             executeOnAliasCallArgument(accessExpression.children, state)
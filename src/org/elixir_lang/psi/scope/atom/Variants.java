@@ -1,81 +1,108 @@
 package org.elixir_lang.psi.scope.atom;
 
-import com.intellij.codeInsight.lookup.LookupElement;
-import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.stubs.StubIndex;
-import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.elixir_lang.atom.Index;
 import org.elixir_lang.psi.NamedElement;
-import org.elixir_lang.psi.scope.Atom;
-import org.elixir_lang.psi.stub.index.AllName;
-import org.jetbrains.annotations.Contract;
+import org.elixir_lang.psi.stub.index.ModularName;
+import org.elixir_lang.psi.stub.index.SortedKeys;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
-public class Variants extends Atom {
-    @NotNull
-    public static List<LookupElement> lookupElementList(@NotNull PsiElement entrance) {
-        return new Variants().projectLookupElementStream(entrance);
+/**
+ * Atom names for completion from the keys of the atom literal {@link Index} and the `:`-prefixed (Erlang) module names
+ * in {@link ModularName}, without loading any PSI.
+ */
+public final class Variants {
+    private static final SortedKeys ATOM_SORTED_KEYS = new SortedKeys(
+            "atom",
+            project -> FileBasedIndex.getInstance().getAllKeys(Index.Companion.getNAME(), project)
+    );
+    private static final SortedKeys MODULE_SORTED_KEYS = new SortedKeys(
+            "atom.module",
+            project -> StubIndex.getInstance().getAllKeys(ModularName.KEY, project)
+    );
+
+    private Variants() {
     }
 
-    private List<LookupElement> projectLookupElementStream(@NotNull PsiElement entrance) {
-        Project project = entrance.getProject();
-        /* getAllKeys is not the actual keys in the actual project.  They need to be checked.
-           See https://intellij-support.jetbrains.com/hc/en-us/community/posts/207930789-StubIndex-persisting-between-test-runs-leading-to-incorrect-completions */
-        Collection<String> indexedNameCollection = StubIndex.getInstance().getAllKeys(AllName.KEY, project);
+    /**
+     * @param prefix the atom typed so far, including the leading `:`
+     * @param limit the maximum number of names to return
+     * @return sorted, distinct names that start with {@code prefix}.  If there are more than {@code limit}, then
+     *   {@code limit + 1} names are returned, so that callers can tell the list was truncated.
+     */
+    @NotNull
+    public static List<String> prefixedNameList(@NotNull Project project, @NotNull String prefix, int limit) {
+        List<String> atomNameList = ATOM_SORTED_KEYS.prefixed(project, prefix);
+        List<String> moduleNameList = MODULE_SORTED_KEYS.prefixed(project, prefix);
         GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+        List<String> prefixedNameList = new ArrayList<>();
+        int atomIndex = 0;
+        int moduleIndex = 0;
+
+        while (prefixedNameList.size() <= limit &&
+                (atomIndex < atomNameList.size() || moduleIndex < moduleNameList.size())) {
+            String atomName = atomIndex < atomNameList.size() ? atomNameList.get(atomIndex) : null;
+            String moduleName = moduleIndex < moduleNameList.size() ? moduleNameList.get(moduleIndex) : null;
+            int comparison;
 
-        Collection<String> atomNameCollection = atomNameCollection(indexedNameCollection);
-        String prefix = prefix(entrance);
-        Collection<String> prefixedNameCollection = prefixedNameCollection(atomNameCollection, prefix);
-        List<LookupElement> lookupElementList = new ArrayList<>();
+            if (atomName == null) {
+                comparison = 1;
+            } else if (moduleName == null) {
+                comparison = -1;
+            } else {
+                comparison = atomName.compareTo(moduleName);
+            }
 
-        for (String atomName : prefixedNameCollection) {
-            Collection<NamedElement> atomNamedElementCollection = StubIndex.getElements(
-                    AllName.KEY,
-                    atomName,
-                    project,
-                    scope,
-                    NamedElement.class
-            );
+            boolean hasValue = false;
+            String name;
 
-            for (NamedElement atomNamedElement : atomNamedElementCollection) {
-                PsiElement navigationElement = atomNamedElement.getNavigationElement();
-                lookupElementList.add(
-                        LookupElementBuilder.createWithSmartPointer(atomName, navigationElement)
-                );
+            if (comparison <= 0) {
+                name = atomName;
+                hasValue = isAtom(scope, atomName);
+                atomIndex++;
+            } else {
+                name = moduleName;
             }
-        }
 
-        return lookupElementList;
-    }
+            if (comparison >= 0) {
+                hasValue = hasValue || isModule(project, scope, moduleName);
+                moduleIndex++;
+            }
 
-    @Contract(pure = true)
-    @NotNull
-    private Collection<String> prefixedNameCollection(Collection<String> atomNameCollection, String prefix) {
-        return ContainerUtil.filter(atomNameCollection, atomName -> atomName.startsWith(prefix));
-    }
+            if (hasValue) {
+                prefixedNameList.add(name);
+            }
+        }
 
-    @Contract(pure = true)
-    @NotNull
-    private static String prefix(PsiElement atom) {
-        return atom.getText().replace("IntellijIdeaRulezzz", "");
+        return prefixedNameList;
     }
 
-    @Contract(pure = true)
-    @NotNull
-    private static Collection<String> atomNameCollection(@NotNull Collection<String> indexedNameCollection) {
-        return ContainerUtil.filter(indexedNameCollection, Variants::isAtomName);
+    /*
+     * getAllKeys is not the actual keys in the actual project.  They need to be checked.
+     * See https://intellij-support.jetbrains.com/hc/en-us/community/posts/207930789-StubIndex-persisting-between-test-runs-leading-to-incorrect-completions
+     * Only the names that are returned are checked, so the cost is bounded by the limit and not the number of keys.
+     */
+
+    private static boolean isAtom(@NotNull GlobalSearchScope scope, @NotNull String name) {
+        return !FileBasedIndex
+                .getInstance()
+                .processValues(Index.Companion.getNAME(), name, null, (virtualFile, value) -> false, scope);
     }
 
-    @Contract(value = "null -> false", pure = true)
-    private static boolean isAtomName(@Nullable String indexedName) {
-        return indexedName != null && indexedName.startsWith(":");
+    private static boolean isModule(@NotNull Project project, @NotNull GlobalSearchScope scope, @NotNull String name) {
+        return !StubIndex.getInstance().processElements(
+                ModularName.KEY,
+                name,
+                project,
+                scope,
+                NamedElement.class,
+                namedElement -> false
+        );
     }
 }
@@ -0,0 +1,66 @@
+package org.elixir_lang.psi.scope.call_definition_clause
+
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootManager
+import com.intellij.psi.PsiFile
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import org.elixir_lang.psi.CallDefinitionClause.nameArityRange
+import org.elixir_lang.psi.Modular
+import org.elixir_lang.psi.call.Call
+import org.elixir_lang.psi.call.name.Module.KERNEL
+import org.elixir_lang.psi.call.name.Module.KERNEL_SPECIAL_FORMS
+
+/**
+ * The call definition clauses of the implicit `import Kernel` and `import Kernel.SpecialForms`, collected once by
+ * walking the (usually decompiled) `Kernel` and `Kernel.SpecialForms` and then indexed by name.
+ *
+ * The table is cached on the project and recomputed when the project roots, and so the SDKs, change or when the files
+ * `Kernel` and `Kernel.SpecialForms` were collected from change.
+ */
+class ImplicitImports private constructor(val clauseList: List<Clause>) {
+    /**
+     * @param modularCanonicalName [KERNEL] or [KERNEL_SPECIAL_FORMS]
+     */
+    data class Clause(val call: Call, val name: String?, val modularCanonicalName: String)
+
+    private val clauseListByName: Map<String?, List<Clause>> = clauseList.groupBy { it.name }
+
+    fun clauseList(name: String): List<Clause> = clauseListByName[name].orEmpty()
+
+    companion object {
+        fun getInstance(project: Project): ImplicitImports =
+                CachedValuesManager.getManager(project).getCachedValue(project) {
+                    val clauseList = mutableListOf<Clause>()
+                    val fileSet = mutableSetOf<PsiFile>()
+
+                    for (modularCanonicalName in arrayOf(KERNEL, KERNEL_SPECIAL_FORMS)) {
+                        org.elixir_lang.Reference.forEachNavigationElement(
+                                project,
+                                modularCanonicalName
+                        ) { navigationElement ->
+                            if (navigationElement is Call) {
+                                navigationElement.containingFile?.let { fileSet.add(it) }
+
+                                Modular.callDefinitionClauseCallWhile(navigationElement) { callDefinitionClause ->
+                                    val name = nameArityRange(callDefinitionClause)?.name
+
+                                    clauseList.add(Clause(callDefinitionClause, name, modularCanonicalName))
+
+                                    true
+                                }
+                            }
+
+                            true
+                        }
+                    }
+
+                    // the files are only modified when `Kernel` is in project sources and is edited
+                    CachedValueProvider.Result.create(
+                            ImplicitImports(clauseList),
+                            *fileSet.toTypedArray<Any>(),
+                            ProjectRootManager.getInstance(project)
+                    )
+                }
+    }
+}
@@ -34,6 +34,16 @@ private constructor(private val name: String,
             }
         } ?: true
 
+    /**
+     * Prefix matches for incomplete code need every implicitly imported call definition clause.
+     */
+    override fun implicitImportName(): String? =
+            if (incompleteCode) {
+                null
+            } else {
+                name
+            }
+
     override fun keepProcessing(): Boolean = resolveResultOrderedSet.keepProcessing(incompleteCode)
     fun resolveResults(): Array<PsiElementResolveResult> = resolveResultOrderedSet.toTypedArray()
 
@@ -8,16 +8,14 @@ import com.intellij.psi.ResolveState
 import com.intellij.psi.search.GlobalSearchScope
 import com.intellij.psi.stubs.StubIndex
 import com.intellij.psi.util.PsiTreeUtil.treeWalkUp
-import com.intellij.util.containers.ContainerUtil
 import org.elixir_lang.Module.concat
 import org.elixir_lang.Module.split
-import org.elixir_lang.Reference.indexedNameCollection
 import org.elixir_lang.psi.*
 import org.elixir_lang.psi.call.Named
 import org.elixir_lang.psi.impl.ElixirPsiImplUtil.ENTRANCE
 import org.elixir_lang.psi.operation.Normalized
 import org.elixir_lang.psi.scope.Module
-import org.elixir_lang.psi.stub.index.AllName
+import org.elixir_lang.psi.stub.index.ModularAlias
 import org.elixir_lang.reference.module.UnaliasedName
 
 class Variants : Module() {
@@ -47,19 +45,14 @@ class Variants : Module() {
 
         UnaliasedName.unaliasedName(match)?.let { unaliasedName ->
             val project = match.project
-
-            val indexedNameCollection = indexedNameCollection(project)
-            val unaliasedNestedNames = ContainerUtil.findAll(
-                    indexedNameCollection,
-                    org.elixir_lang.Module.IsNestedUnder(unaliasedName)
-            )
+            val unaliasedNestedNames = ModularAlias.prefixedKeys(project, "$unaliasedName.")
 
             if (unaliasedNestedNames.isNotEmpty()) {
                 val scope = GlobalSearchScope.allScope(project)
 
                 for (unaliasedNestedName in unaliasedNestedNames) {
                     val unaliasedNestedNamedElementCollection = StubIndex.getElements(
-                            AllName.KEY,
+                            ModularAlias.KEY,
                             unaliasedNestedName,
                             project,
                             scope,
@@ -104,10 +97,7 @@ class Variants : Module() {
         val prefix = multipleAliases.indexedNamePrefix()
         /* getAllKeys is not the actual keys in the actual project.  They need to be checked.
            See https://intellij-support.jetbrains.com/hc/en-us/community/posts/207930789-StubIndex-persisting-between-test-runs-leading-to-incorrect-completions */
-        val prefixedNameCollection = StubIndex.getInstance()
-                .getAllKeys(AllName.KEY, project)
-                .filter(String::isAlias)
-                .filterStartsWithMaybe(prefix)
+        val prefixedNameCollection = ModularAlias.prefixedKeys(project, prefix)
 
         val scope = GlobalSearchScope.allScope(project)
 
@@ -115,19 +105,17 @@ class Variants : Module() {
             val lookupName = prefixedName.removeMaybePrefix(prefix)
 
             StubIndex.getElements(
-                    AllName.KEY,
+                    ModularAlias.KEY,
                     prefixedName,
                     project,
                     scope,
                     NamedElement::class.java
             ).map { prefixedNameNamedElement ->
-                /* Generalizes over whether the prefixedNameNamedElement is a source element or a compiled element as
-                   the navigation element is defined to be always be a source element */
-                val navigationElement = prefixedNameNamedElement.navigationElement
-
+                /* The indexed element instead of its navigation element, so that compiled elements are not decompiled
+                   for every lookup.  Navigation to source happens only when a lookup element is navigated to. */
                 LookupElementBuilder.createWithSmartPointer(
                         lookupName,
-                        navigationElement
+                        prefixedNameNamedElement
                 )
             }
         }
@@ -167,12 +155,6 @@ private fun ElixirMultipleAliases?.indexedNamePrefix(): String? =
             )!!.indexNamePrefix()
         }
 
-private fun List<String>.filterStartsWithMaybe(maybePrefix: String?): List<String> =
-        maybePrefix?.let { prefix ->
-            filter { element -> element.startsWith(prefix) }
-        } ?:
-        this
-
 private fun ElixirAccessExpression.indexNamePrefix(): String? =
         children.singleOrNull()?.indexNamePrefix()
 
@@ -185,11 +167,6 @@ private fun PsiElement.indexNamePrefix(): String? =
 
 private fun QualifiableAlias.indexNamePrefix(): String? = fullyQualifiedName()?.let { "$it." }
 
-/**
- * Only those names that work as Alias, that is those that start with a capital letter
- */
-private fun String?.isAlias(): Boolean = this?.codePointAt(0)?.let { Character.isUpperCase(it) } ?: false
-
 private fun String.removeMaybePrefix(maybePrefix: String?): String =
         maybePrefix?.let { prefix -> this.removePrefix(prefix) } ?:
         this
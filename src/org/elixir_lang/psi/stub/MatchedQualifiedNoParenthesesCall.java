@@ -2,6 +2,7 @@ package org.elixir_lang.psi.stub;
 
 import com.intellij.psi.stubs.IStubElementType;
 import com.intellij.psi.stubs.StubElement;
+import kotlin.ranges.IntRange;
 import org.elixir_lang.psi.ElixirMatchedQualifiedNoParenthesesCall;
 import org.elixir_lang.psi.stub.call.Deserialized;
 import org.elixir_lang.psi.stub.call.Stub;
@@ -26,7 +27,8 @@ public class MatchedQualifiedNoParenthesesCall extends Stub<ElixirMatchedQualifi
             int resolvedFinalArity,
             boolean hasDoBlockOrKeyword,
             @NotNull String name,
-            @NotNull Set<String> canonicalNameSet
+            @NotNull Set<String> canonicalNameSet,
+            @Nullable IntRange callDefinitionClauseArityRange
     ) {
         super(
                 parent,
@@ -36,7 +38,8 @@ public class MatchedQualifiedNoParenthesesCall extends Stub<ElixirMatchedQualifi
                 resolvedFinalArity,
                 hasDoBlockOrKeyword,
                 name,
-                canonicalNameSet
+                canonicalNameSet,
+                callDefinitionClauseArityRange
         );
     }
 }
@@ -5,6 +5,7 @@ import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.util.io.StringRef;
 import gnu.trove.THashSet;
+import kotlin.ranges.IntRange;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -37,6 +38,8 @@ public class Deserialized {
         }
     }
 
+    @Nullable
+    public final IntRange callDefinitionClauseArityRange;
     @NotNull
     public final Set<StringRef> canonicalNameSet;
     public final boolean hasDoBlockOrKeyword;
@@ -53,13 +56,15 @@ public class Deserialized {
                         int resolvedFinalArity,
                         boolean hasDoBlockOrKeyword,
                         @NotNull StringRef name,
-                        @NotNull Set<StringRef> canonicalNameSet) {
+                        @NotNull Set<StringRef> canonicalNameSet,
+                        @Nullable IntRange callDefinitionClauseArityRange) {
         this.resolvedModuleName = resolvedModuleName;
         this.resolvedFunctionName = resolvedFunctionName;
         this.resolvedFinalArity = resolvedFinalArity;
         this.hasDoBlockOrKeyword = hasDoBlockOrKeyword;
         this.name = name;
         this.canonicalNameSet = canonicalNameSet;
+        this.callDefinitionClauseArityRange = callDefinitionClauseArityRange;
     }
 
     public <T extends Stubbic> Deserialized(@NotNull T stubbic) {
@@ -69,7 +74,8 @@ public class Deserialized {
                 stubbic.resolvedFinalArity(),
                 stubbic.hasDoBlockOrKeyword(),
                 StringRef.fromNullableString(stubbic.getName()),
-                stringRefSet(stubbic.canonicalNameSet())
+                stringRefSet(stubbic.canonicalNameSet()),
+                stubbic.callDefinitionClauseArityRange()
         );
     }
 
@@ -96,6 +102,7 @@ public class Deserialized {
         boolean hasDoBlockOrKeyword = deserializeHasDoBlockOrKeyword(stubInputStream);
         StringRef name = deserializeName(stubInputStream);
         Set<StringRef> canonicalNameSet = deserializeCanonicalNameSet(stubInputStream);
+        IntRange callDefinitionClauseArityRange = deserializeCallDefinitionClauseArityRange(stubInputStream);
 
         assertGuard(stubInputStream, END);
 
@@ -105,10 +112,17 @@ public class Deserialized {
                 resolvedFinalArity,
                 hasDoBlockOrKeyword,
                 name,
-                canonicalNameSet
+                canonicalNameSet,
+                callDefinitionClauseArityRange
         );
     }
 
+    @Nullable
+    private static IntRange deserializeCallDefinitionClauseArityRange(@NotNull StubInputStream stubInputStream)
+            throws IOException {
+        return readGuarded(stubInputStream, Deserialized::readArityRange);
+    }
+
     private static Set<StringRef> deserializeCanonicalNameSet(@NotNull StubInputStream stubInputStream)
             throws IOException {
         return readGuarded(stubInputStream, Deserialized::readNameSet);
@@ -155,6 +169,26 @@ public class Deserialized {
         return read;
     }
 
+    /**
+     * Reads an arity range written by {@link #writeArityRange(StubOutputStream, IntRange)}
+     */
+    @Nullable
+    private static IntRange readArityRange(@NotNull StubInputStream stubInputStream) throws IOException {
+        int shiftedStart = stubInputStream.readVarInt();
+        IntRange arityRange;
+
+        if (shiftedStart == 0) {
+            arityRange = null;
+        } else {
+            int start = shiftedStart - 1;
+            int end = start + stubInputStream.readVarInt();
+
+            arityRange = new IntRange(start, end);
+        }
+
+        return arityRange;
+    }
+
     private static StringRef readGuardedName(@NotNull StubInputStream stubInputStream) throws IOException {
         return readGuarded(stubInputStream, StubInputStream::readName);
     }
@@ -219,6 +253,20 @@ public class Deserialized {
         return stringRefSet;
     }
 
+    /**
+     * Writes the start shifted up by 1, so that {@code 0} can mark a {@code null} range, followed by the length of the
+     * range.
+     */
+    private static void writeArityRange(@NotNull StubOutputStream stubOutputStream, @Nullable IntRange arityRange)
+            throws IOException {
+        if (arityRange == null) {
+            stubOutputStream.writeVarInt(0);
+        } else {
+            stubOutputStream.writeVarInt(arityRange.getStart() + 1);
+            stubOutputStream.writeVarInt(arityRange.getEndInclusive() - arityRange.getStart());
+        }
+    }
+
     private static void writeGuard(@NotNull StubOutputStream stubOutputStream, byte[] guard) throws IOException {
         stubOutputStream.write(guard);
     }
@@ -248,10 +296,19 @@ public class Deserialized {
                     serializeHasDoBlockOrKeyword(guardedStubOutputStream);
                     serializeName(guardedStubOutputStream);
                     serializeCanonicalNameSet(guardedStubOutputStream);
+                    serializeCallDefinitionClauseArityRange(guardedStubOutputStream);
                 }
         );
     }
 
+    private void serializeCallDefinitionClauseArityRange(@NotNull StubOutputStream stubOutputStream)
+            throws IOException {
+        writeGuarded(
+                stubOutputStream,
+                guardedStubOutputStream -> writeArityRange(guardedStubOutputStream, callDefinitionClauseArityRange)
+        );
+    }
+
     private void serializeCanonicalNameSet(@NotNull StubOutputStream stubOutputStream) throws IOException {
         writeGuarded(
                 stubOutputStream,
@@ -1,6 +1,7 @@
 package org.elixir_lang.psi.stub.call
 
 import com.intellij.psi.PsiReference
+import org.elixir_lang.ArityRange
 import org.elixir_lang.psi.Definition
 import org.elixir_lang.psi.call.Call
 
@@ -16,6 +17,14 @@ interface Stubbic {
      */
     fun canonicalNameSet(): Set<String>
 
+    /**
+     * The arities of the function or macro defined by this call definition clause.
+     *
+     * @return more than one arity when default arguments are used; `null` if this is not a call definition clause.
+     * @see org.elixir_lang.psi.CallDefinitionClause.nameArityRange
+     */
+    fun callDefinitionClauseArityRange(): ArityRange?
+
     /**
      * Whether this call has a `do` block or a `:do` keyword, so it is a macro
      *
@@ -0,0 +1,44 @@
+package org.elixir_lang.psi.stub.index
+
+import com.intellij.openapi.project.Project
+import com.intellij.psi.stubs.StringStubIndexExtension
+import com.intellij.psi.stubs.StubIndex
+import com.intellij.psi.stubs.StubIndexKey
+import org.elixir_lang.psi.NamedElement
+
+/**
+ * Indexes modules, implementations, and protocols by their Alias names, such as `Foo.Bar`, but not Erlang modules or
+ * functions, so that module completion only has to look at module names instead of all of [AllName].
+ */
+class ModularAlias : StringStubIndexExtension<NamedElement>() {
+    override fun getVersion(): Int = super.getVersion() + VERSION
+
+    override fun getKey(): StubIndexKey<String, NamedElement> = KEY
+
+    companion object {
+        @JvmField
+        val KEY = StubIndexKey.createIndexKey<String, NamedElement>("elixir.modular.alias")
+
+        /**
+         * Only those names that work as Alias, that is those that start with a capital letter
+         */
+        @JvmStatic
+        fun isAlias(name: String): Boolean = name.isNotEmpty() && Character.isUpperCase(name.codePointAt(0))
+
+        private val SORTED_KEYS = SortedKeys("modular.alias") { project ->
+            StubIndex.getInstance().getAllKeys(KEY, project)
+        }
+
+        /**
+         * The keys that start with [prefix].  [prefix] should end in `.`, so that only names nested under a whole
+         * segment match.
+         *
+         * @param prefix `null` to get all keys
+         * @see SortedKeys
+         */
+        @JvmStatic
+        fun prefixedKeys(project: Project, prefix: String?): List<String> = SORTED_KEYS.prefixed(project, prefix)
+    }
+}
+
+private const val VERSION = 0
@@ -0,0 +1,27 @@
+package org.elixir_lang.psi.stub.index
+
+import com.intellij.psi.stubs.StringStubIndexExtension
+import com.intellij.psi.stubs.StubIndexKey
+import org.elixir_lang.Arity
+import org.elixir_lang.Name
+import org.elixir_lang.psi.NamedElement
+
+/**
+ * Indexes call definition clauses by `Module.name/arity`, with a key for each arity when default arguments are used, so
+ * that qualified calls can find the definition without building the module's tree.
+ */
+class ModularNameArity : StringStubIndexExtension<NamedElement>() {
+    override fun getVersion(): Int = super.getVersion() + VERSION
+
+    override fun getKey(): StubIndexKey<String, NamedElement> = KEY
+
+    companion object {
+        @JvmField
+        val KEY = StubIndexKey.createIndexKey<String, NamedElement>("elixir.modular.name.arity")
+
+        @JvmStatic
+        fun key(modularName: String, name: Name, arity: Arity): String = "$modularName.$name/$arity"
+    }
+}
+
+private const val VERSION = 1
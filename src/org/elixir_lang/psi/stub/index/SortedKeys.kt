@@ -0,0 +1,63 @@
+package org.elixir_lang.psi.stub.index
+
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.roots.ProjectRootManager
+import com.intellij.openapi.util.Key
+import com.intellij.openapi.util.ModificationTracker
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.openapi.vfs.newvfs.ManagingFS
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+
+/**
+ * The keys of an index sorted once per change to file contents on disk, the file system structure, or roots, so that
+ * keys with a prefix can be found with a binary search instead of scanning all keys on every keystroke.
+ *
+ * The keys are not re-sorted on every PSI change, as typing changes the PSI on every keystroke.  Keys added by
+ * unsaved edits are only seen once the file is saved, which matters little as the elements of the file being edited
+ * are found by walking its PSI instead of through the index.
+ *
+ * Like [com.intellij.psi.stubs.StubIndex.getAllKeys], keys may be stale, so check that they still have values.
+ */
+class SortedKeys(private val debugName: String, private val allKeys: (Project) -> Collection<String>) {
+    private val key = Key.create<CachedValue<Array<String>>>("elixir.sorted.keys.$debugName")
+
+    /**
+     * @param prefix `null` to get all keys
+     */
+    fun prefixed(project: Project, prefix: String?): List<String> = prefixed(sorted(project), prefix)
+
+    private fun sorted(project: Project): Array<String> =
+            CachedValuesManager.getManager(project).getCachedValue(project, key, {
+                CachedValueProvider.Result.create(
+                        allKeys(project).toTypedArray().apply { sort() },
+                        CONTENT_MODIFICATIONS,
+                        VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+                        ProjectRootManager.getInstance(project)
+                )
+            }, false)
+
+    companion object {
+        /**
+         * Changes when the content of any file changes on disk, such as when a document is saved, which is when the
+         * keys indexed for the file change.
+         */
+        private val CONTENT_MODIFICATIONS = ModificationTracker { ManagingFS.getInstance().modificationCount.toLong() }
+
+        fun prefixed(sortedKeys: Array<String>, prefix: String?): List<String> =
+                if (prefix == null) {
+                    sortedKeys.asList()
+                } else {
+                    val insertionPoint = sortedKeys.binarySearch(prefix)
+                    val start = if (insertionPoint >= 0) insertionPoint else -(insertionPoint + 1)
+                    var end = start
+
+                    while (end < sortedKeys.size && sortedKeys[end].startsWith(prefix)) {
+                        end++
+                    }
+
+                    sortedKeys.asList().subList(start, end)
+                }
+    }
+}
@@ -2,6 +2,7 @@ package org.elixir_lang.psi.stub.type;
 
 import com.intellij.lang.*;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.StubBuilder;
@@ -17,10 +18,12 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 
+import static org.elixir_lang.file.LevelPropertyPusher.LEVEL;
 import static org.elixir_lang.file.LevelPropertyPusher.VIRTUAL_FILE;
+import static org.elixir_lang.file.LevelPropertyPusher.level;
 
 public class File extends IStubFileElementType<org.elixir_lang.psi.stub.File> {
-    public static final int VERSION = 3;
+    public static final int VERSION = 5;
     public static final IStubFileElementType INSTANCE = new File();
 
     public File() {
@@ -66,9 +69,12 @@ public class File extends IStubFileElementType<org.elixir_lang.psi.stub.File> {
     protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
         Project project = psi.getProject();
         Language languageForParser = getLanguageForParser(psi);
+        VirtualFile virtualFile = psi.getContainingFile().getVirtualFile();
         PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(project, chameleon, null, languageForParser, chameleon.getChars());
         PsiParser parser = LanguageParserDefinitions.INSTANCE.forLanguage(languageForParser).createParser(project);
-        builder.putUserData(VIRTUAL_FILE, psi.getContainingFile().getVirtualFile());
+        builder.putUserData(VIRTUAL_FILE, virtualFile);
+        // Looked up once per file instead of on every version-dependent rule
+        builder.putUserData(LEVEL, level(project, virtualFile));
         ASTNode node = parser.parse(this, builder);
         return node.getFirstChildNode();
     }
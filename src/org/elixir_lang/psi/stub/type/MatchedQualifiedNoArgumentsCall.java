@@ -40,7 +40,8 @@ public class MatchedQualifiedNoArgumentsCall extends Stub<org.elixir_lang.psi.st
                 psi.resolvedFinalArity(),
                 psi.hasDoBlockOrKeyword(),
                 StringUtil.notNullize(psi.getName(), "?"),
-                psi.canonicalNameSet()
+                psi.canonicalNameSet(),
+                callDefinitionClauseArityRange(psi)
         );
     }
 
@@ -40,7 +40,8 @@ public class MatchedQualifiedNoParenthesesCall extends Stub<org.elixir_lang.psi.
                 psi.resolvedFinalArity(),
                 psi.hasDoBlockOrKeyword(),
                 StringUtil.notNullize(psi.getName(), "?"),
-                psi.canonicalNameSet()
+                psi.canonicalNameSet(),
+                callDefinitionClauseArityRange(psi)
         );
     }
 
@@ -40,7 +40,8 @@ public class MatchedUnqualifiedNoArgumentsCall extends Stub<org.elixir_lang.psi.
                 psi.resolvedFinalArity(),
                 psi.hasDoBlockOrKeyword(),
                 StringUtil.notNullize(psi.getName(), "?"),
-                psi.canonicalNameSet()
+                psi.canonicalNameSet(),
+                callDefinitionClauseArityRange(psi)
         );
     }
 
@@ -3,13 +3,16 @@ package org.elixir_lang.psi.stub.type
 import com.intellij.psi.PsiNameIdentifierOwner
 import com.intellij.psi.stubs.IndexSink
 import com.intellij.psi.stubs.NamedStubBase
+import com.intellij.psi.stubs.StubElement
 import org.elixir_lang.psi.Definition
 import org.elixir_lang.psi.NamedElement
 import org.elixir_lang.psi.call.Call
 import org.elixir_lang.psi.definition
 import org.elixir_lang.psi.stub.call.Stubbic
 import org.elixir_lang.psi.stub.index.AllName
+import org.elixir_lang.psi.stub.index.ModularAlias
 import org.elixir_lang.psi.stub.index.ModularName
+import org.elixir_lang.psi.stub.index.ModularNameArity
 import org.jetbrains.annotations.NonNls
 
 abstract class Named<S : NamedStubBase<T>, T : PsiNameIdentifierOwner>(@NonNls debugName: String) : Element<S, T>(debugName) {
@@ -23,7 +26,7 @@ abstract class Named<S : NamedStubBase<T>, T : PsiNameIdentifierOwner>(@NonNls d
                 sink.occurrence<NamedElement, String>(AllName.KEY, name)
 
                 if (stub is Call && definition(stub)?.type == Definition.Type.MODULAR) {
-                    sink.occurrence<NamedElement, String>(ModularName.KEY, name)
+                    indexModularName(name, sink)
                 }
             }
         }
@@ -46,11 +49,45 @@ abstract class Named<S : NamedStubBase<T>, T : PsiNameIdentifierOwner>(@NonNls d
                 sink.occurrence<NamedElement, String>(AllName.KEY, name)
             }
 
-            if (stubbic.definition?.type == Definition.Type.MODULAR) {
-                nameSet.forEach { name ->
-                    sink.occurrence<NamedElement, String>(ModularName.KEY, name)
+            when (stubbic.definition?.type) {
+                Definition.Type.MODULAR ->
+                    nameSet.forEach { name ->
+                        indexModularName(name, sink)
+                    }
+                Definition.Type.CALLABLE ->
+                    indexModularNameArity(stubbic, sink)
+            }
+        }
+
+        private fun indexModularName(name: String, sink: IndexSink) {
+            sink.occurrence<NamedElement, String>(ModularName.KEY, name)
+
+            if (ModularAlias.isAlias(name)) {
+                sink.occurrence<NamedElement, String>(ModularAlias.KEY, name)
+            }
+        }
+
+        private fun <T : Stubbic> indexModularNameArity(stubbic: T, sink: IndexSink) {
+            stubbic.name?.let { name ->
+                stubbic.callDefinitionClauseArityRange()?.let { arityRange ->
+                    enclosingModularStubbic(stubbic)?.canonicalNameSet()?.forEach { modularName ->
+                        arityRange.forEach { arity ->
+                            sink.occurrence<NamedElement, String>(
+                                    ModularNameArity.KEY,
+                                    ModularNameArity.key(modularName, name, arity)
+                            )
+                        }
+                    }
                 }
             }
         }
+
+        /**
+         * Only call definition clauses that are direct macro children of a modular have an arity range, so the
+         * modular is always the parent stub.
+         */
+        private fun enclosingModularStubbic(stubbic: Stubbic): Stubbic? =
+                ((stubbic as? StubElement<*>)?.parentStub as? Stubbic)
+                        ?.takeIf { it.definition?.type == Definition.Type.MODULAR }
     }
 }
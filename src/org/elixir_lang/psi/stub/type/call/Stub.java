@@ -2,6 +2,8 @@ package org.elixir_lang.psi.stub.type.call;
 
 import com.intellij.lang.ASTNode;
 import com.intellij.psi.stubs.StubOutputStream;
+import kotlin.ranges.IntRange;
+import org.elixir_lang.NameArityRange;
 import org.elixir_lang.psi.CallDefinitionClause;
 import org.elixir_lang.psi.call.Call;
 import org.elixir_lang.psi.call.StubBased;
@@ -13,9 +15,13 @@ import org.elixir_lang.structure_view.element.modular.Implementation;
 import org.elixir_lang.structure_view.element.modular.Module;
 import org.elixir_lang.structure_view.element.modular.Protocol;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 
+import static org.elixir_lang.psi.impl.PsiElementImplKt.enclosingMacroCall;
+import static org.elixir_lang.psi.impl.call.CallImplKt.macroChildCallList;
+
 public abstract class Stub<Stub extends org.elixir_lang.psi.stub.call.Stub<Psi>,
         Psi extends org.elixir_lang.psi.call.StubBased> extends org.elixir_lang.psi.stub.type.Named<Stub, Psi> {
     /*
@@ -26,6 +32,37 @@ public abstract class Stub<Stub extends org.elixir_lang.psi.stub.call.Stub<Psi>,
         super(debugName);
     }
 
+    /**
+     * The arities of the call definition defined by {@code call}, so that they can be indexed without the PSI.
+     *
+     * @param call a call that may be a call definition clause
+     * @return {@code null} if {@code call} is not a call definition clause or is not a direct macro child of a
+     *   module, such as a clause in a {@code quote} in {@code __using__}, so that only the clauses that
+     *   {@link org.elixir_lang.psi.Modular#callDefinitionClauseCallFoldWhile} would find are indexed.
+     */
+    @Nullable
+    protected static IntRange callDefinitionClauseArityRange(@NotNull Call call) {
+        IntRange arityRange = null;
+
+        if (CallDefinitionClause.is(call) && isModularMacroChild(call)) {
+            NameArityRange nameArityRange = CallDefinitionClause.nameArityRange(call);
+
+            if (nameArityRange != null) {
+                arityRange = nameArityRange.getArityRange();
+            }
+        }
+
+        return arityRange;
+    }
+
+    private static boolean isModularMacroChild(@NotNull Call call) {
+        Call enclosingMacroCall = enclosingMacroCall(call);
+
+        return enclosingMacroCall != null &&
+                isModular(enclosingMacroCall) &&
+                macroChildCallList(enclosingMacroCall).contains(call);
+    }
+
     public static boolean isModular(Call call) {
         return Implementation.is(call) || Module.Companion.is(call) || Protocol.is(call);
     }
@@ -0,0 +1,150 @@
+package org.elixir_lang.psi.use
+
+import com.intellij.openapi.roots.ProjectRootManager
+import com.intellij.openapi.util.Key
+import com.intellij.openapi.util.RecursionManager
+import com.intellij.openapi.vfs.VirtualFileManager
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import org.elixir_lang.psi.CallDefinitionClause
+import org.elixir_lang.psi.Import
+import org.elixir_lang.psi.Use
+import org.elixir_lang.psi.Using
+import org.elixir_lang.psi.call.Call
+import org.elixir_lang.psi.call.Named
+import org.elixir_lang.psi.call.name.Function.ALIAS
+import org.elixir_lang.psi.call.name.Module.KERNEL
+import org.elixir_lang.psi.impl.call.finalArguments
+import org.elixir_lang.psi.impl.call.macroChildCallSequence
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
+
+/**
+ * What the `__using__` macros of a modular inject into each module that `use`s it, so that resolving and completing
+ * in the hundreds of modules that `use` the same modular don't each walk its `__using__` and `quote`s again.
+ *
+ * Summaries are cached on the used modular by the text of the `use` options.  A summary is recomputed when any file
+ * it was collected from is modified, when the file system structure changes, or when the project roots change.
+ */
+class Summary private constructor(
+        /**
+         * The call definition clauses defined in the `quote`s and those imported by `import`s in the `quote`s,
+         * including those from nested `use`s.
+         */
+        val callDefinitionClauseList: List<Call>,
+        /**
+         * The `alias` calls in the `quote`s, including those from nested `use`s.
+         */
+        val aliasCallList: List<Named>,
+        /**
+         * The `import` calls in the `quote`s, including those from nested `use`s.
+         */
+        val importCallList: List<Call>,
+        private val modificationStampByFile: Map<PsiFile, Long>
+) {
+    /**
+     * Whether all the files the summary was collected from are unchanged since it was collected.
+     */
+    fun isValid(): Boolean =
+            modificationStampByFile.all { (file, modificationStamp) ->
+                file.isValid && file.modificationStamp == modificationStamp
+            }
+
+    private class Builder {
+        val callDefinitionClauseList = mutableListOf<Call>()
+        val aliasCallList = mutableListOf<Named>()
+        val importCallList = mutableListOf<Call>()
+        val modificationStampByFile = mutableMapOf<PsiFile, Long>()
+
+        fun depend(element: PsiElement) {
+            element.containingFile?.let { file ->
+                modificationStampByFile.putIfAbsent(file, file.modificationStamp)
+            }
+        }
+
+        fun addQuote(quoteCall: Call) {
+            depend(quoteCall)
+
+            for (childCall in quoteCall.macroChildCallSequence()) {
+                when {
+                    CallDefinitionClause.`is`(childCall) -> callDefinitionClauseList.add(childCall)
+                    Import.`is`(childCall) -> {
+                        importCallList.add(childCall)
+
+                        Import.callDefinitionClauseCallWhile(childCall) { callDefinitionClause ->
+                            depend(callDefinitionClause)
+                            callDefinitionClauseList.add(callDefinitionClause)
+
+                            true
+                        }
+                    }
+                    Use.`is`(childCall) -> forUseCall(childCall)?.let { addSummary(it) }
+                    childCall is Named && childCall.isCalling(KERNEL, ALIAS) -> aliasCallList.add(childCall)
+                }
+            }
+        }
+
+        private fun addSummary(summary: Summary) {
+            callDefinitionClauseList.addAll(summary.callDefinitionClauseList)
+            aliasCallList.addAll(summary.aliasCallList)
+            importCallList.addAll(summary.importCallList)
+
+            for ((file, modificationStamp) in summary.modificationStampByFile) {
+                modificationStampByFile.putIfAbsent(file, modificationStamp)
+            }
+        }
+
+        fun build(): Summary =
+                Summary(callDefinitionClauseList, aliasCallList, importCallList, modificationStampByFile)
+    }
+
+    companion object {
+        private val KEY = Key.create<CachedValue<ConcurrentMap<String, Summary>>>("USE_SUMMARY_BY_OPTIONS")
+
+        /**
+         * @param useCall a [Call] where [Use.is] is `true`.
+         * @return `null` if the modular used by [useCall] cannot be resolved or is already being summarized because
+         *   of recursive `use`s.
+         */
+        fun forUseCall(useCall: Call): Summary? =
+                Use.modular(useCall)?.let { modular ->
+                    val summaryByOptions = CachedValuesManager.getCachedValue(modular, KEY) {
+                        CachedValueProvider.Result.create(
+                                ConcurrentHashMap<String, Summary>(),
+                                modular.containingFile,
+                                VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+                                ProjectRootManager.getInstance(modular.project)
+                        )
+                    }
+                    val options = useCall.finalArguments()?.getOrNull(1)?.text ?: ""
+                    val cached = summaryByOptions[options]
+
+                    if (cached != null && cached.isValid()) {
+                        cached
+                    } else {
+                        RecursionManager.doPreventingRecursion(modular, false) {
+                            summary(modular, useCall)
+                        }?.also { summaryByOptions[options] = it }
+                    }
+                }
+
+        private fun summary(modular: Call, useCall: Call): Summary {
+            val builder = Builder()
+
+            builder.depend(modular)
+
+            for (definer in Using.definers(modular)) {
+                Using.quoteCallWhile(usingCall = definer, useCall = useCall) { quoteCall ->
+                    builder.addQuote(quoteCall)
+
+                    true
+                }
+            }
+
+            return builder.build()
+        }
+    }
+}
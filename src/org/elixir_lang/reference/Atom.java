@@ -1,30 +1,29 @@
 package org.elixir_lang.reference;
 
-import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiPolyVariantReference;
 import com.intellij.psi.PsiReferenceBase;
 import com.intellij.psi.ResolveResult;
 import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.util.ArrayUtil;
 import org.elixir_lang.psi.ElixirAtom;
-import org.elixir_lang.psi.scope.atom.Variants;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
-
 public class Atom extends PsiReferenceBase<ElixirAtom> implements PsiPolyVariantReference {
     public Atom(ElixirAtom atom) {
         super(atom, TextRange.create(0, atom.getTextLength()));
     }
 
+    /**
+     * Atoms are completed by {@link org.elixir_lang.code_insight.completion.contributor.Atom}, which can restart
+     * completion when the prefix changes, instead of here.
+     */
     @NotNull
     @Override
     public Object[] getVariants() {
-        List<LookupElement> lookupElementList = Variants.lookupElementList(myElement);
-
-        return lookupElementList.toArray(new Object[lookupElementList.size()]);
+        return ArrayUtil.EMPTY_OBJECT_ARRAY;
     }
 
     /**
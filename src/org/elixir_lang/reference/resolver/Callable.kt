@@ -1,14 +1,20 @@
 package org.elixir_lang.reference.resolver
 
+import com.intellij.openapi.project.DumbService
 import com.intellij.psi.PsiElementResolveResult
 import com.intellij.psi.ResolveResult
 import com.intellij.psi.impl.source.resolve.ResolveCache
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.stubs.StubIndex
 import org.elixir_lang.psi.AccumulatorContinue
 import org.elixir_lang.psi.Modular
+import org.elixir_lang.psi.NamedElement
 import org.elixir_lang.psi.UnqualifiedNoArgumentsCall
 import org.elixir_lang.psi.call.Call
+import org.elixir_lang.psi.call.StubBased
 import org.elixir_lang.psi.call.qualification.Qualified
 import org.elixir_lang.psi.impl.call.qualification.qualifiedToModular
+import org.elixir_lang.psi.stub.index.ModularNameArity
 
 object Callable : ResolveCache.PolyVariantResolver<org.elixir_lang.reference.Callable> {
     override fun resolve(callable: org.elixir_lang.reference.Callable, incompleteCode: Boolean): Array<ResolveResult> {
@@ -62,6 +68,7 @@ object Callable : ResolveCache.PolyVariantResolver<org.elixir_lang.reference.Cal
             element.functionName()?.let { name ->
                 val resolvedFinalArity = element.resolvedFinalArity()
 
+                indexedResolveResultList(modular, name, resolvedFinalArity).takeUnless { it.isEmpty() } ?:
                 Modular.callDefinitionClauseCallFoldWhile(
                         modular,
                         name,
@@ -74,4 +81,36 @@ object Callable : ResolveCache.PolyVariantResolver<org.elixir_lang.reference.Cal
             }
         } ?:
         emptyList()
+
+    /**
+     * Looks up the call definition clauses of `modular` in [ModularNameArity], so that only the matching stubs are
+     * loaded instead of walking all the children of `modular`.
+     *
+     * @return empty if the index cannot be used, such as when indexing or when `modular` is not in a stubbed file, so
+     *   that the caller falls back to [Modular.callDefinitionClauseCallFoldWhile].
+     */
+    private fun indexedResolveResultList(modular: Call, name: String, arity: Int): List<ResolveResult> {
+        val project = modular.project
+        val virtualFile = modular.containingFile.virtualFile
+
+        return if (modular is StubBased<*> && virtualFile != null && !DumbService.isDumb(project)) {
+            val scope = GlobalSearchScope.fileScope(project, virtualFile)
+
+            modular
+                    .canonicalNameSet()
+                    .flatMap { modularName ->
+                        StubIndex.getElements(
+                                ModularNameArity.KEY,
+                                ModularNameArity.key(modularName, name, arity),
+                                project,
+                                scope,
+                                NamedElement::class.java
+                        )
+                    }
+                    .filterIsInstance<Call>()
+                    .map { PsiElementResolveResult(it, true) }
+        } else {
+            emptyList()
+        }
+    }
 }
@@ -0,0 +1,7 @@
+defmodule Kernel do
+  def implicit_function(argument), do: argument
+end
+
+defmodule Kernel.SpecialForms do
+  defmacro implicit_special_form(argument), do: argument
+end
@@ -0,0 +1,5 @@
+defmodule KernelUsage do
+  def usage do
+    implicit_<caret>function(1)
+  end
+end
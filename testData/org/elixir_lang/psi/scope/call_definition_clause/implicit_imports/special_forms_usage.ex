@@ -0,0 +1,5 @@
+defmodule SpecialFormsUsage do
+  def usage do
+    implicit_<caret>special_form(1)
+  end
+end
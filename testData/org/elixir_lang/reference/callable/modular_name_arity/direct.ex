@@ -0,0 +1,5 @@
+defmodule Direct do
+  def call(conn, params) do
+    MyAppWeb.<caret>action(conn, params)
+  end
+end
@@ -0,0 +1,5 @@
+defmodule Quoted do
+  def call(conn) do
+    MyAppWeb.<caret>quoted(conn)
+  end
+end
@@ -0,0 +1,14 @@
+defmodule MyAppWeb do
+  def controller do
+    quote do
+      def action(conn, params), do: {:quoted, conn, params}
+      def quoted(conn), do: conn
+    end
+  end
+
+  defmacro __using__(which) when is_atom(which) do
+    apply(__MODULE__, which, [])
+  end
+
+  def action(conn, params), do: {:direct, conn, params}
+end
@@ -0,0 +1,93 @@
+package org.elixir_lang
+
+import com.intellij.openapi.application.ApplicationAdapter
+import com.intellij.openapi.application.ApplicationManager
+import com.intellij.openapi.application.runWriteAction
+import com.intellij.openapi.module.ModuleManager
+import com.intellij.openapi.roots.OrderRootType
+import com.intellij.openapi.roots.libraries.LibraryTablesRegistrar
+import com.intellij.openapi.vfs.VirtualFileEvent
+import com.intellij.testFramework.PlatformTestCase
+import com.intellij.util.ui.UIUtil
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class DepsWatcherTest : PlatformTestCase() {
+    /**
+     * Simulates the VFS events of `mix deps.get && mix compile` for [DEP_COUNT] deps.  Before syncs were coalesced,
+     * each of the [EVENT_COUNT] events was its own write action over the whole library table.
+     */
+    fun testBurstIsSyncedInFewWriteActions() {
+        val depNameList = (0 until DEP_COUNT).map { "dep_$it" }
+        val deps = runWriteAction {
+            val baseDir = project.baseDir
+            val deps = baseDir.createChildDirectory(this, "deps")
+            val buildLib = baseDir
+                    .createChildDirectory(this, "_build")
+                    .createChildDirectory(this, "dev")
+                    .createChildDirectory(this, "lib")
+
+            for (depName in depNameList) {
+                deps.createChildDirectory(this, depName).createChildDirectory(this, "lib")
+                buildLib.createChildDirectory(this, depName).createChildDirectory(this, "ebin")
+            }
+
+            deps
+        }
+        val depsWatcher = project.getComponent(DepsWatcher::class.java)
+        val writeActionCount = AtomicInteger(0)
+
+        ApplicationManager.getApplication().addApplicationListener(
+                object : ApplicationAdapter() {
+                    override fun writeActionStarted(action: Any) {
+                        writeActionCount.incrementAndGet()
+                    }
+                },
+                testRootDisposable
+        )
+
+        for (i in 0 until EVENT_COUNT) {
+            val dep = deps.findChild(depNameList[i % DEP_COUNT])!!
+            val lib = dep.findChild("lib")!!
+
+            depsWatcher.fileCreated(VirtualFileEvent(null, lib, lib.name, dep))
+        }
+
+        // queuing is only bookkeeping, so the libraries are only changed once the burst is synced
+        assertEquals(0, writeActionCount.get())
+
+        waitForSync(depsWatcher)
+
+        // one for the library table and one for each module's mix.Watcher
+        assertTrue(writeActionCount.get() <= 1 + ModuleManager.getInstance(project).modules.size)
+
+        val libraryTable = LibraryTablesRegistrar.getInstance().getLibraryTable(project)
+
+        for (depName in depNameList) {
+            val library = libraryTable.getLibraryByName(depName)
+
+            assertNotNull("No library for $depName", library)
+            assertEquals(1, library!!.getFiles(OrderRootType.SOURCES).size)
+            assertEquals(1, library.getFiles(OrderRootType.CLASSES).size)
+        }
+    }
+
+    private fun waitForSync(depsWatcher: DepsWatcher) {
+        val deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30)
+        var idleChecks = 0
+
+        // checked twice in a row, as the sync alarm is empty for a moment between dequeuing and starting the sync
+        while (idleChecks < 2) {
+            assertTrue("Sync did not finish", System.currentTimeMillis() < deadline)
+
+            UIUtil.dispatchAllInvocationEvents()
+
+            idleChecks = if (depsWatcher.isSyncing()) 0 else idleChecks + 1
+
+            Thread.sleep(10)
+        }
+    }
+}
+
+private const val DEP_COUNT = 100
+private const val EVENT_COUNT = 10_000
@@ -0,0 +1,139 @@
+package org.elixir_lang
+
+import com.intellij.lexer.DelegateLexer
+import com.intellij.lexer.Lexer
+import com.intellij.openapi.editor.colors.EditorColorsManager
+import com.intellij.openapi.editor.ex.util.LexerEditorHighlighter
+import com.intellij.openapi.editor.impl.DocumentImpl
+import com.intellij.psi.tree.IElementType
+import com.intellij.testFramework.LightPlatformTestCase
+
+/**
+ * Checks that the editor highlighter only relexes around each keystroke in a 10k-line file and that restarting the
+ * [ElixirSyntaxHighlighter.getHighlightingLexer] mid-file highlights the same as lexing from the start.
+ */
+class ElixirSyntaxHighlighterTest : LightPlatformTestCase() {
+    fun testRelexPerKeystroke() {
+        val text = text(LINE_COUNT)
+        val document = DocumentImpl(text, true)
+        val countingSyntaxHighlighter = CountingSyntaxHighlighter()
+        val highlighter = highlighter(countingSyntaxHighlighter)
+        highlighter.setText(document.immutableCharSequence)
+        document.addDocumentListener(highlighter)
+
+        val relexedLengths = (0 until KEYSTROKE_COUNT).map { keystroke ->
+            // spread the keystrokes over the file, alternating between code and inside interpolation
+            val line = (keystroke.toLong() * (LINE_COUNT - 1) / KEYSTROKE_COUNT).toInt()
+            val lineStartOffset = document.getLineStartOffset(line)
+            val lineText = document.charsSequence.subSequence(lineStartOffset, document.getLineEndOffset(line))
+            val column = if (keystroke % 2 == 0) {
+                lineText.indexOf("value")
+            } else {
+                lineText.indexOf("#{").let { if (it == -1) lineText.indexOf("value") else it + 2 }
+            }.coerceAtLeast(0)
+
+            countingSyntaxHighlighter.relexedLength = 0
+            document.insertString(lineStartOffset + column, "x")
+
+            countingSyntaxHighlighter.relexedLength
+        }
+
+        assertEquals(tokens(highlighter(), document.immutableCharSequence), tokens(highlighter))
+
+        // each module is 10 lines, so a keystroke should never need more than the module around it relexed
+        val maxRelexedLength = text(10).length
+
+        relexedLengths.forEachIndexed { keystroke, relexedLength ->
+            assertTrue(
+                    "Keystroke $keystroke relexed $relexedLength characters, more than the $maxRelexedLength in a module",
+                    relexedLength in 1..maxRelexedLength
+            )
+        }
+    }
+
+    fun testRestartInsideInterpolationInHeredoc() {
+        val document = DocumentImpl(
+                "defmodule Heredoc do\n" +
+                "  @doc \"\"\"\n" +
+                "  Interpolates #{~s(sigil #{nested})} and #{value}\n" +
+                "  \"\"\"\n" +
+                "  def value, do: :value\n" +
+                "end\n",
+                true
+        )
+        val highlighter = highlighter()
+        highlighter.setText(document.immutableCharSequence)
+        document.addDocumentListener(highlighter)
+
+        document.insertString(document.text.indexOf("nested"), "more_")
+        document.insertString(document.text.indexOf("value}"), "(1)")
+        document.deleteString(document.text.indexOf("\"\"\"\n  def"), document.text.indexOf("\"\"\"\n  def") + 3)
+
+        assertEquals(tokens(highlighter(), document.immutableCharSequence), tokens(highlighter))
+    }
+
+    private fun highlighter(syntaxHighlighter: ElixirSyntaxHighlighter = ElixirSyntaxHighlighter()) =
+            LexerEditorHighlighter(syntaxHighlighter, EditorColorsManager.getInstance().globalScheme)
+
+    private fun tokens(highlighter: LexerEditorHighlighter, text: CharSequence): List<Token> {
+        highlighter.setText(text)
+
+        return tokens(highlighter)
+    }
+
+    private fun tokens(highlighter: LexerEditorHighlighter): List<Token> {
+        val iterator = highlighter.createIterator(0)
+        val tokens = mutableListOf<Token>()
+
+        while (!iterator.atEnd()) {
+            tokens.add(Token(iterator.start, iterator.end, iterator.tokenType))
+            iterator.advance()
+        }
+
+        return tokens
+    }
+
+    private data class Token(val start: Int, val end: Int, val type: IElementType)
+
+    /**
+     * Counts the characters lexed by the [getHighlightingLexer]s it creates.
+     */
+    private class CountingSyntaxHighlighter : ElixirSyntaxHighlighter() {
+        var relexedLength = 0
+
+        override fun getHighlightingLexer(): Lexer =
+                object : DelegateLexer(super.getHighlightingLexer()) {
+                    override fun advance() {
+                        relexedLength += tokenEnd - tokenStart
+                        super.advance()
+                    }
+                }
+    }
+}
+
+private fun text(lineCount: Int): String {
+    val builder = StringBuilder()
+    var line = 0
+    var module = 0
+
+    while (line < lineCount) {
+        builder
+                .append("defmodule Module").append(module).append(" do\n")
+                .append("  @moduledoc \"\"\"\n")
+                .append("  Module #{").append(module).append("} with ~w(words #{\"nested\"})\n")
+                .append("  \"\"\"\n")
+                .append("\n")
+                .append("  def function(value) do\n")
+                .append("    string = \"value is #{inspect(value)} and #{~s(sigil)}\"\n")
+                .append("    [value | [string]]\n")
+                .append("  end\n")
+                .append("end\n")
+        line += 10
+        module++
+    }
+
+    return builder.toString()
+}
+
+private const val KEYSTROKE_COUNT = 500
+private const val LINE_COUNT = 10000
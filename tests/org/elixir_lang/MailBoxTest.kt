@@ -0,0 +1,159 @@
+package org.elixir_lang
+
+import com.ericsson.otp.erlang.*
+import com.intellij.testFramework.LightPlatformTestCase
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Stress tests [MailBox.genericServerCall] with many concurrent callers against echoing `rex` and `GenServer`
+ * stand-ins running on the same [OtpNode], so that only the [MailBox] reply matching is exercised.
+ *
+ * Requires `epmd` to be running, like the quoter tests.  Each test registers its own node name, so that a node still
+ * unregistering from `epmd` after an earlier test can't collide with it.
+ */
+class MailBoxTest : LightPlatformTestCase() {
+    private lateinit var otpNode: OtpNode
+    private lateinit var mailBox: MailBox
+    private val serveThreadList = mutableListOf<Thread>()
+    private val whereIsCount = AtomicInteger(0)
+
+    override fun setUp() {
+        super.setUp()
+
+        otpNode = OtpNode("${NODE_NAME_PREFIX}_${NODE_COUNT.incrementAndGet()}_${System.nanoTime()}@$HOST", COOKIE)
+
+        val serverMbox = otpNode.createMbox(SERVER_NAME)
+        val rexMbox = otpNode.createMbox("rex")
+
+        serve(rexMbox) {
+            whereIsCount.incrementAndGet()
+            serverMbox.self()
+        }
+        serve(serverMbox) { request -> request }
+        mailBox = MailBox(otpNode, otpNode.createMbox())
+    }
+
+    override fun tearDown() {
+        try {
+            val stopper = otpNode.createMbox()
+
+            for (serverName in arrayOf(SERVER_NAME, "rex")) {
+                stopper.send(serverName, STOP)
+            }
+
+            for (serveThread in serveThreadList) {
+                serveThread.join(TIMEOUT_IN_MILLISECONDS.toLong())
+                assertFalse("${serveThread.name} did not stop", serveThread.isAlive)
+            }
+
+            // [MailBox.close] closes [otpNode] asynchronously, so close it here too, so it is unregistered from `epmd`
+            // before the next test
+            mailBox.close()
+            otpNode.close()
+        } finally {
+            super.tearDown()
+        }
+    }
+
+    fun testConcurrentGenericServerCalls() {
+        val executorService = Executors.newFixedThreadPool(CALLER_COUNT)
+        val server = Server(SERVER_NAME, otpNode.node())
+
+        try {
+            val responseFutureList = (0 until CALL_COUNT).map { index ->
+                val request = OtpErlangLong(index.toLong())
+
+                request to executorService.submit(Callable<OtpErlangObject> {
+                    mailBox.genericServerCall(server, request, TIMEOUT_IN_MILLISECONDS)
+                })
+            }
+
+            for ((request, responseFuture) in responseFutureList) {
+                assertEquals(request, responseFuture.get())
+            }
+
+            // every reply was handed to its caller instead of being left in the mailbox
+            assertNull(mailBox.match { it })
+            // the server's PID is looked up by the first concurrent calls and then reused
+            assertTrue(whereIsCount.get() in 1..CALLER_COUNT)
+        } finally {
+            executorService.shutdownNow()
+        }
+    }
+
+    fun testReceiveAfterCalls() {
+        val server = Server(SERVER_NAME, otpNode.node())
+        val sender = otpNode.createMbox()
+        val selfPid = mailBoxPid()
+
+        sender.send(selfPid, otpErlangTuple(OtpErlangAtom("first"), OtpErlangLong(1)))
+        sender.send(selfPid, otpErlangTuple(OtpErlangAtom("second"), OtpErlangLong(2)))
+
+        assertEquals(OtpErlangLong(3), mailBox.genericServerCall(server, OtpErlangLong(3), TIMEOUT_IN_MILLISECONDS))
+
+        val second = mailBox.receive(TIMEOUT_IN_MILLISECONDS) { message ->
+            if (message is OtpErlangTuple && message.elementAt(0) == OtpErlangAtom("second")) {
+                message.elementAt(1)
+            } else {
+                null
+            }
+        }
+
+        assertEquals(OtpErlangLong(2), second)
+
+        val first = mailBox.receive(TIMEOUT_IN_MILLISECONDS) { message -> message }
+
+        assertEquals(otpErlangTuple(OtpErlangAtom("first"), OtpErlangLong(1)), first)
+    }
+
+    /**
+     * The [MailBox]'s own pid, found by having the `GenServer` stand-in echo back the `from` of a call.
+     */
+    private fun mailBoxPid(): OtpErlangPid {
+        val server = Server(SERVER_NAME, otpNode.node())
+        val from = mailBox.genericServerCall(server, OtpErlangAtom(WHOAMI), TIMEOUT_IN_MILLISECONDS)
+
+        return from as OtpErlangPid
+    }
+
+    private fun serve(otpMbox: OtpMbox, handle: (request: OtpErlangObject) -> OtpErlangObject) {
+        Thread({
+            try {
+                while (true) {
+                    val received = otpMbox.receive()
+
+                    if (received == STOP) {
+                        break
+                    }
+
+                    val message = received as OtpErlangTuple
+                    val from = message.elementAt(1) as OtpErlangTuple
+                    val pid = from.elementAt(0) as OtpErlangPid
+                    val request = message.elementAt(2)
+                    val reply = if (request == OtpErlangAtom(WHOAMI)) pid else handle(request)
+
+                    otpMbox.send(pid, otpErlangTuple(from.elementAt(1), reply))
+                }
+            } catch (otpErlangExit: OtpErlangExit) {
+                // [otpNode] closed before [STOP] was received
+            }
+        }, "${otpMbox.name} serve").apply {
+            isDaemon = true
+            start()
+            serveThreadList.add(this)
+        }
+    }
+}
+
+private const val CALLER_COUNT = 200
+private const val CALL_COUNT = 5000
+private const val COOKIE = "intellij_elixir"
+private const val HOST = "127.0.0.1"
+private val NODE_COUNT = AtomicInteger(0)
+private const val NODE_NAME_PREFIX = "mail_box_test"
+private const val SERVER_NAME = "server"
+private val STOP = OtpErlangAtom("stop")
+private const val TIMEOUT_IN_MILLISECONDS = 10000
+private const val WHOAMI = "whoami"
@@ -14,6 +14,9 @@ import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.stream.Stream;
@@ -96,6 +99,34 @@ public class BeamTest {
         assertEquals(8, (int) secondExtract.arity);
     }
 
+    @Test
+    public void elixirModuleFromByteBuffer() throws IOException {
+        String path = ebinDirectory + "Elixir.Kernel.beam";
+        ByteBuffer byteBuffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)));
+        Beam beam = Beam.Companion.from(byteBuffer, path);
+
+        assertNotNull(beam);
+        assertEquals("byteBuffer position was moved", 0, byteBuffer.position());
+
+        Atoms atoms = beam.atoms();
+
+        assertNotNull(atoms);
+
+        assertEquals("Elixir.Kernel", atoms.moduleName());
+
+        Beam streamedBeam = beam("Elixir.Kernel");
+
+        assertNotNull(streamedBeam);
+
+        SortedSet<MacroNameArity> streamedMacroNameAritySortedSet =
+                CallDefinitions.macroNameAritySortedSet(streamedBeam, streamedBeam.atoms());
+
+        assertEquals(
+                streamedMacroNameAritySortedSet.size(),
+                CallDefinitions.macroNameAritySortedSet(beam, atoms).size()
+        );
+    }
+
     private Beam beam(@NotNull String baseName) throws IOException, OtpErlangDecodeException {
         String path = ebinDirectory + baseName + ".beam";
         DataInputStream dataInputStream = new DataInputStream(
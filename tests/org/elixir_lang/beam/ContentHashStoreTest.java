@@ -0,0 +1,185 @@
+package org.elixir_lang.beam;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.elixir_lang.beam.chunk.CallDefinitions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Round-trips the records of {@link org.elixir_lang.beam.metadata.Store} and
+ * {@link org.elixir_lang.beam.decompiled.Store} through their binary format, and checks that a record that can no
+ * longer be read is replaced.
+ */
+public class ContentHashStoreTest extends LightPlatformCodeInsightFixtureTestCase {
+    private static final String NAME = "test";
+
+    public void testMetadataRoundTrip() throws IOException {
+        ContentHashStore<Metadata> store = new org.elixir_lang.beam.metadata.Store();
+
+        for (String relativePath : new String[]{"erl_syntax.beam", "fprof.beam", "OTP20/Elixir.Kernel.beam"}) {
+            String path = getTestDataPath() + "/" + relativePath;
+            Beam beam = Beam.Companion.from(Files.readAllBytes(new File(path).toPath()), path);
+
+            assertNotNull(path, beam);
+
+            Metadata written = Metadata.Companion.from(beam);
+            Metadata read = roundTrip(store, written);
+
+            assertNotNull(path, read);
+            assertEquals(path, written.getAtoms().toList(), read.getAtoms().toList());
+            assertEquals(path, describe(written.getExports()), describe(read.getExports()));
+            assertEquals(path, describe(written.getLocals()), describe(read.getLocals()));
+            assertTrue(path, Arrays.equals(written.getAttributesByteArray(), read.getAttributesByteArray()));
+        }
+    }
+
+    public void testDecompiledRoundTrip() throws IOException {
+        ContentHashStore<Decompiled> store = new org.elixir_lang.beam.decompiled.Store();
+        StringBuilder text = new StringBuilder("defmodule Large do\n");
+        Map<String, Integer> offsetByNameArity = new HashMap<>();
+
+        // larger than `writeUTF`'s 64KB limit
+        for (int i = 0; i < 4096; i++) {
+            offsetByNameArity.put(Decompiled.Companion.nameArity("function_" + i, 0), text.length());
+            text.append("  def function_").append(i).append("(), do: :ok\n");
+        }
+
+        text.append("end\n");
+
+        Decompiled written = new Decompiled(text, 0, offsetByNameArity);
+        Decompiled read = roundTrip(store, written);
+
+        assertNotNull(read);
+        assertEquals(written.getText().toString(), read.getText().toString());
+        assertEquals(written.getModuleOffset(), read.getModuleOffset());
+        assertEquals(written.getOffsetByNameArity(), read.getOffsetByNameArity());
+
+        Decompiled undecompiled = roundTrip(store, new Decompiled("", null, new HashMap<>()));
+
+        assertNotNull(undecompiled);
+        assertNull(undecompiled.getModuleOffset());
+    }
+
+    public void testUnreadableRecordIsReplaced() {
+        VersionedStore store = new VersionedStore();
+        ByteBuffer byteBuffer = ByteBuffer.wrap("contents".getBytes(StandardCharsets.UTF_8));
+        String path = "/not/in/an/sdk/contents.beam";
+
+        assertEquals("first", store.getOrPut(byteBuffer, path, () -> "first"));
+        assertEquals(1, store.decodeCount());
+        assertEquals("first", store.getOrPut(byteBuffer, path, () -> "unused"));
+        assertEquals(1, store.decodeCount());
+
+        store.version = VersionedStore.VERSION + 1;
+
+        assertEquals("replaced", store.getOrPut(byteBuffer, path, () -> "replaced"));
+        assertEquals(2, store.decodeCount());
+        assertEquals("replaced", store.getOrPut(byteBuffer, path, () -> "unused"));
+        assertEquals(2, store.decodeCount());
+    }
+
+    @Override
+    protected String getTestDataPath() {
+        return "testData/org/elixir_lang/beam/decompiler";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        deleteVersionedStore();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            deleteVersionedStore();
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    @Nullable
+    private static <T> T roundTrip(@NotNull ContentHashStore<T> store, @NotNull T record) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+        try (DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream)) {
+            store.write(dataOutputStream, record);
+        }
+
+        try (DataInputStream dataInputStream =
+                     new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()))) {
+            T read = store.read(dataInputStream);
+
+            assertEquals("Not all of the record was read", 0, dataInputStream.available());
+
+            return read;
+        }
+    }
+
+    @Nullable
+    private static List<String> describe(@Nullable CallDefinitions callDefinitions) {
+        List<String> descriptionList = null;
+
+        if (callDefinitions != null) {
+            descriptionList = callDefinitions
+                    .callDefinitionCollection
+                    .stream()
+                    .map(callDefinition ->
+                            callDefinition.getAtomIndex() + "/" + callDefinition.getArity() + "@" + callDefinition.getLabel()
+                    )
+                    .collect(Collectors.toList());
+        }
+
+        return descriptionList;
+    }
+
+    private static void deleteVersionedStore() {
+        FileUtil.delete(new File(PathManager.getSystemPath(), "elixir/beam/" + NAME));
+    }
+
+    /**
+     * Stores {@link String}s after a version, so that changing {@link #version} makes stored records unreadable like
+     * changing the record format of a real store would.
+     */
+    private static class VersionedStore extends ContentHashStore<String> {
+        private static final int VERSION = 1;
+
+        int version = VERSION;
+
+        VersionedStore() {
+            super(NAME, VERSION, 1024 * 1024);
+        }
+
+        @Nullable
+        @Override
+        protected String read(@NotNull DataInput dataInput) {
+            try {
+                return dataInput.readInt() == version ? dataInput.readUTF() : null;
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        }
+
+        @Override
+        protected void write(@NotNull DataOutput dataOutput, @NotNull String record) {
+            try {
+                dataOutput.writeInt(version);
+                dataOutput.writeUTF(record);
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        }
+    }
+}
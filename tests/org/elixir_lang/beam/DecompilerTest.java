@@ -193,6 +193,35 @@ public class DecompilerTest extends LightCodeInsightTestCase {
         assertEquals(expected, decompiled.toString());
     }
 
+    public void testDecompiledOffsets() {
+        String ebinDirectory = ebinDirectory();
+
+        VfsRootAccess.allowRootAccess(ebinDirectory);
+
+        VirtualFile virtualFile = LocalFileSystem
+                .getInstance()
+                .findFileByIoFile(
+                        new File(ebinDirectory + "Elixir.Bitwise.beam")
+                );
+
+        assertNotNull(virtualFile);
+
+        Decompiled decompiled = Decompiled.Companion.from(virtualFile);
+        String text = decompiled.getText().toString();
+
+        Integer moduleOffset = decompiled.getModuleOffset();
+        assertNotNull(moduleOffset);
+        assertTrue(text.startsWith("defmodule Bitwise do\n", moduleOffset));
+
+        Integer usingOffset = decompiled.callDefinitionOffset("__using__", 1);
+        assertNotNull(usingOffset);
+        assertTrue(text.startsWith("  defmacro __using__(p0) do\n", usingOffset));
+
+        // cached for the unchanged file
+        assertSame(decompiled, Decompiled.Companion.from(virtualFile));
+        assertEquals(text, new Decompiler().decompile(virtualFile).toString());
+    }
+
     private String ebinDirectory() {
         String ebinDirectory = System.getenv("ELIXIR_EBIN_DIRECTORY");
 
@@ -0,0 +1,70 @@
+package org.elixir_lang.beam;
+
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.elixir_lang.beam.metadata.Store;
+import org.elixir_lang.beam.psi.BeamFileImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that {@link Prebuilder#Companion} stores the metadata that
+ * {@link StubBuilder#buildStubTree(com.intellij.util.indexing.FileContent)} builds stubs from, using every `ebin`
+ * directory in the Elixir `lib` directory that contains `ELIXIR_EBIN_DIRECTORY`.
+ */
+public class PrebuilderTest extends LightPlatformCodeInsightFixtureTestCase {
+    private List<File> beamFileList;
+
+    public void testStubsAreBuiltFromPrebuiltMetadata() throws IOException {
+        Store store = Store.Companion.getInstance();
+
+        assertNotNull(store);
+
+        int storedCount = Prebuilder.Companion.storeMetadata(beamFileList, store, null);
+
+        assertTrue("No metadata was stored", storedCount > 0);
+
+        long decodeCount = store.decodeCount();
+        int stubCount = 0;
+
+        for (File beamFile : beamFileList) {
+            if (BeamFileImpl.buildFileStub(Files.readAllBytes(beamFile.toPath()), beamFile.getPath()).isPresent()) {
+                stubCount++;
+            }
+        }
+
+        assertEquals(storedCount, stubCount);
+        assertEquals("Stubs decoded .beam files instead of using the stored metadata", decodeCount, store.decodeCount());
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        String ebinDirectory = System.getenv("ELIXIR_EBIN_DIRECTORY");
+
+        assertNotNull("ELIXIR_EBIN_DIRECTORY is not set", ebinDirectory);
+
+        File libDirectory = new File(ebinDirectory).getParentFile().getParentFile();
+        File[] applicationDirectories = libDirectory.listFiles(File::isDirectory);
+
+        assertNotNull(applicationDirectories);
+
+        List<File> ebinDirectoryList = new ArrayList<>();
+
+        for (File applicationDirectory : applicationDirectories) {
+            File applicationEbinDirectory = new File(applicationDirectory, "ebin");
+
+            if (applicationEbinDirectory.isDirectory()) {
+                ebinDirectoryList.add(applicationEbinDirectory);
+            }
+        }
+
+        beamFileList = Prebuilder.Companion.beamFileList(ebinDirectoryList);
+
+        assertFalse("No .beam files found in " + libDirectory, beamFileList.isEmpty());
+    }
+}
@@ -0,0 +1,246 @@
+package org.elixir_lang.beam.chunk;
+
+import org.elixir_lang.beam.Beam;
+import org.elixir_lang.beam.chunk.code.Operation;
+import org.elixir_lang.beam.chunk.code.Operations;
+import org.elixir_lang.beam.term.*;
+import kotlin.ranges.IntRange;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares {@link Operations#Companion} against decoding every {@link Operation} with {@link Term#Companion} on the
+ * `.beam` files in `testData`, with and without OTP 20's literal floats, and on the largest `.beam` files in
+ * `ELIXIR_EBIN_DIRECTORY`.
+ */
+public class CodeTest {
+    /**
+     * Offset of the first operation after the 5 unsigned int header fields of the `Code` chunk
+     */
+    private static final int OPERATIONS_OFFSET = 5 * 4;
+    private static final int LARGEST_BEAM_COUNT = 5;
+    private static final String TEST_DATA_DIRECTORY = "testData/org/elixir_lang";
+
+    private List<File> largestBeamFileList;
+
+    /**
+     * The `.beam` files in `testData` span OTP versions from before and after floats became literals, so both
+     * decodings are compared for each, including where they fail.
+     */
+    @Test
+    public void operationsMatchOperationFromForTestData() throws IOException {
+        List<File> beamFileList = Files
+                .walk(new File(TEST_DATA_DIRECTORY).toPath())
+                .map(java.nio.file.Path::toFile)
+                .filter(file -> file.getName().endsWith(".beam"))
+                .collect(Collectors.toList());
+
+        assertTrue("Less than 2 .beam files in " + TEST_DATA_DIRECTORY, beamFileList.size() >= 2);
+
+        int decodedCount = 0;
+
+        for (File beamFile : beamFileList) {
+            byte[] data = codeData(beamFile);
+
+            for (boolean literalFloat : new boolean[]{true, false}) {
+                if (assertOperationsMatchOperationFrom(beamFile.getName() + " (literalFloat = " + literalFloat + ")",
+                        data,
+                        literalFloat)) {
+                    decodedCount++;
+                }
+            }
+        }
+
+        assertTrue("No .beam file could be decoded", decodedCount >= beamFileList.size());
+    }
+
+    @Test
+    public void operationsMatchOperationFrom() throws IOException {
+        for (File beamFile : largestBeamFileList()) {
+            assertTrue(
+                    beamFile.getName() + " could not be decoded",
+                    assertOperationsMatchOperationFrom(beamFile.getName(), codeData(beamFile), true)
+            );
+        }
+    }
+
+    @Test
+    public void windowsCoverEveryFunctionOnce() throws IOException {
+        for (File beamFile : largestBeamFileList()) {
+            Code code = Code.Companion.from(codeChunk(beamFile), true);
+            int functionCount = code.functionCount();
+            int firstFunctionIndex = 0;
+
+            assertTrue(beamFile.getName() + " has no functions", functionCount > 0);
+
+            while (firstFunctionIndex < functionCount) {
+                IntRange window = code.window(firstFunctionIndex);
+
+                assertEquals(beamFile.getName(), firstFunctionIndex, window.getFirst());
+                assertTrue(beamFile.getName(), window.getLast() >= window.getFirst());
+                assertTrue(beamFile.getName(), window.getLast() < functionCount);
+
+                firstFunctionIndex = window.getLast() + 1;
+            }
+        }
+    }
+
+    @Before
+    public void setLargestBeamFileList() {
+        String ebinDirectory = System.getenv("ELIXIR_EBIN_DIRECTORY");
+
+        if (ebinDirectory != null) {
+            File[] beamFiles = new File(ebinDirectory).listFiles((directory, name) -> name.endsWith(".beam"));
+
+            assertNotNull(beamFiles);
+
+            largestBeamFileList = Arrays
+                    .stream(beamFiles)
+                    .sorted(Comparator.comparingLong(File::length).reversed())
+                    .limit(LARGEST_BEAM_COUNT)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @NotNull
+    private List<File> largestBeamFileList() {
+        assertNotNull("ELIXIR_EBIN_DIRECTORY is not set", largestBeamFileList);
+
+        return largestBeamFileList;
+    }
+
+    /**
+     * Asserts that {@link Operations#Companion} decodes the same operations as {@link Operation#Companion} or that both
+     * fail.
+     *
+     * @return {@code true} if both decoded all the operations; {@code false} if both failed.
+     */
+    private static boolean assertOperationsMatchOperationFrom(@NotNull String name,
+                                                              @NotNull byte[] data,
+                                                              boolean literalFloat) {
+        List<Operation> operationList;
+
+        try {
+            operationList = operationList(data, literalFloat);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException operationFromException) {
+            operationList = null;
+        }
+
+        Operations operations;
+
+        try {
+            operations = Operations.Companion.from(data, OPERATIONS_OFFSET, literalFloat);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException operationsFromException) {
+            operations = null;
+        }
+
+        assertEquals(name + " decoded by only one of Operation.from and Operations.from",
+                operationList == null,
+                operations == null);
+
+        if (operationList != null) {
+            assertEquals(name, operationList.size(), operations.getSize());
+
+            for (int i = 0; i < operationList.size(); i++) {
+                assertEquals(name + " operation " + i, describe(operationList.get(i)), describe(operations.get(i)));
+            }
+        }
+
+        return operationList != null;
+    }
+
+    @NotNull
+    private static byte[] codeData(@NotNull File beamFile) throws IOException {
+        return codeChunk(beamFile).getData();
+    }
+
+    @NotNull
+    private static Chunk codeChunk(@NotNull File beamFile) throws IOException {
+        Beam beam = Beam.Companion.from(ByteBuffer.wrap(Files.readAllBytes(beamFile.toPath())), beamFile.getPath());
+
+        assertNotNull(beam);
+
+        Chunk codeChunk = null;
+
+        for (Chunk chunk : beam.chunkCollection()) {
+            if (chunk.typeID.equals(Chunk.TypeID.CODE.toString())) {
+                codeChunk = chunk;
+            }
+        }
+
+        assertNotNull(codeChunk);
+
+        return codeChunk;
+    }
+
+    @NotNull
+    private static List<Operation> operationList(@NotNull byte[] data, boolean literalFloat) {
+        List<Operation> operationList = new ArrayList<>();
+        int offset = OPERATIONS_OFFSET;
+
+        while (offset < data.length - 1) {
+            kotlin.Pair<Operation, Integer> operationByteCount = Operation.Companion.from(data, offset, literalFloat);
+            operationList.add(operationByteCount.getFirst());
+            offset += operationByteCount.getSecond();
+        }
+
+        return operationList;
+    }
+
+    @NotNull
+    private static String describe(@NotNull Operation operation) {
+        return operation.getCode() + operation.getTermList().stream().map(CodeTest::describe).collect(
+                Collectors.joining(", ", "(", ")")
+        );
+    }
+
+    @NotNull
+    private static String describe(@NotNull Term term) {
+        String description;
+
+        if (term instanceof Literal) {
+            description = "literal(" + ((Literal) term).getIndex() + ")";
+        } else if (term instanceof org.elixir_lang.beam.term.Integer) {
+            description = "integer(" + ((org.elixir_lang.beam.term.Integer) term).getLong() + ")";
+        } else if (term instanceof Atom) {
+            description = "atom(" + ((Atom) term).getIndex() + ")";
+        } else if (term instanceof XRegister) {
+            description = "x(" + ((XRegister) term).getIndex() + ")";
+        } else if (term instanceof YRegister) {
+            description = "y(" + ((YRegister) term).getIndex() + ")";
+        } else if (term instanceof Label) {
+            description = "label(" + ((Label) term).getIndex() + ")";
+        } else if (term instanceof org.elixir_lang.beam.term.Character) {
+            description = "character(" + ((org.elixir_lang.beam.term.Character) term).getCodePoint() + ")";
+        } else if (term instanceof org.elixir_lang.beam.term.Float) {
+            description = "float()";
+        } else if (term instanceof org.elixir_lang.beam.term.List) {
+            description = ((org.elixir_lang.beam.term.List) term)
+                    .getElements()
+                    .stream()
+                    .map(CodeTest::describe)
+                    .collect(Collectors.joining(", ", "[", "]"));
+        } else if (term instanceof FloatingPointRegister) {
+            description = "fr(" + ((FloatingPointRegister) term).getIndex() + ")";
+        } else if (term instanceof AllocationList) {
+            description = ((AllocationList) term).getAllocationList().toString();
+        } else {
+            throw new IllegalArgumentException("Unknown term class (" + term.getClass() + ")");
+        }
+
+        return description;
+    }
+}
@@ -0,0 +1,144 @@
+package org.elixir_lang.beam.chunk;
+
+import com.ericsson.otp.erlang.*;
+import org.elixir_lang.beam.Beam;
+import org.elixir_lang.beam.chunk.literals.LiteralKt;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link Literals} decoding each literal on demand, and again after it is evicted from the decoded cache,
+ * gives the same terms as decoding the whole `LitT` table up front.
+ */
+public class LiteralsTest {
+    private static final String DECOMPILER_DIRECTORY = "testData/org/elixir_lang/beam/decompiler";
+    /**
+     * More literals than {@link Literals} keeps decoded
+     */
+    private static final int EVICTING_LITERAL_COUNT = 1024;
+
+    @Test
+    public void decodeOnDemandMatchesEagerDecode() throws DataFormatException, IOException {
+        for (String relativePath : new String[]{"erl_syntax.beam", "OTP-PUB-KEY.beam", "OTP20/Elixir.Kernel.beam"}) {
+            String path = DECOMPILER_DIRECTORY + "/" + relativePath;
+            Beam beam = Beam.Companion.from(Files.readAllBytes(new File(path).toPath()), path);
+
+            assertNotNull(path, beam);
+
+            Chunk chunk = beam
+                    .chunkCollection()
+                    .stream()
+                    .filter(candidate -> candidate.typeID.equals(Chunk.TypeID.LITT.toString()))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError(path + " has no LitT chunk"));
+            List<OtpErlangObject> eagerList = eagerList(chunk);
+            Literals literals = Literals.Companion.from(chunk);
+
+            assertNotNull(path, literals);
+            assertEquals(path, eagerList.size(), literals.size());
+
+            // the opposite order from the eager decode, so no literal's offset depends on decoding the ones before it
+            for (int index = literals.size() - 1; index >= 0; index--) {
+                assertEquals(path + " literal " + index, eagerList.get(index), literals.get(index));
+            }
+        }
+    }
+
+    @Test
+    public void reDecodeAfterEvictionMatches() throws IOException {
+        Literals literals = literals(EVICTING_LITERAL_COUNT);
+        OtpErlangObject first = literals.get(0);
+
+        assertSame("Decoded literal was not cached", first, literals.get(0));
+
+        for (int index = 1; index < EVICTING_LITERAL_COUNT; index++) {
+            assertEquals(term(index), literals.get(index));
+        }
+
+        OtpErlangObject reDecoded = literals.get(0);
+
+        assertNotSame("Decoded literal was not evicted", first, reDecoded);
+        assertEquals(first, reDecoded);
+        assertEquals(term(0), reDecoded);
+    }
+
+    @Test
+    public void getOrNullOutOfBounds() throws IOException {
+        Literals literals = literals(2);
+
+        assertNull(literals.getOrNull(-1));
+        assertNull(literals.getOrNull(2));
+        assertEquals(term(1), literals.getOrNull(1));
+    }
+
+    /**
+     * Decodes every literal in the `LitT` `chunk` in order, the way the table was read before it was decoded on demand.
+     */
+    @NotNull
+    private static List<OtpErlangObject> eagerList(@NotNull Chunk chunk) throws DataFormatException {
+        ByteBuffer data = ByteBuffer.wrap(chunk.getData());
+        byte[] inflated = new byte[data.getInt()];
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(data.array(), data.position(), data.remaining());
+        inflater.inflate(inflated);
+        inflater.end();
+
+        ByteBuffer inflatedByteBuffer = ByteBuffer.wrap(inflated);
+        int count = inflatedByteBuffer.getInt();
+        int offset = inflatedByteBuffer.position();
+        List<OtpErlangObject> eagerList = new ArrayList<>(count);
+
+        for (int index = 0; index < count; index++) {
+            kotlin.Pair<OtpErlangObject, Integer> literalByteCount = LiteralKt.literal(inflated, offset);
+            eagerList.add(literalByteCount.getFirst());
+            offset += literalByteCount.getSecond();
+        }
+
+        return eagerList;
+    }
+
+    /**
+     * An inflated `LitT` table of `count` {@link #term(int)}s
+     */
+    @NotNull
+    private static Literals literals(int count) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        int[] offsets = new int[count];
+
+        dataOutputStream.writeInt(count);
+
+        for (int index = 0; index < count; index++) {
+            offsets[index] = dataOutputStream.size();
+
+            byte[] termBytes = new OtpOutputStream(term(index)).toByteArray();
+            dataOutputStream.writeInt(termBytes.length);
+            dataOutputStream.write(termBytes);
+        }
+
+        return new Literals(byteArrayOutputStream.toByteArray(), offsets);
+    }
+
+    @NotNull
+    private static OtpErlangObject term(int index) {
+        return new OtpErlangTuple(new OtpErlangObject[]{
+                new OtpErlangAtom("literal"),
+                new OtpErlangLong(index),
+                new OtpErlangBinary(("binary " + index).getBytes())
+        });
+    }
+}
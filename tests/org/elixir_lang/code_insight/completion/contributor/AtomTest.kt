@@ -0,0 +1,22 @@
+package org.elixir_lang.code_insight.completion.contributor
+
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase
+
+class AtomTest : LightPlatformCodeInsightFixtureTestCase() {
+    fun testCompletesAtomLiteralsFromOtherFiles() {
+        myFixture.addFileToProject("other.ex", "defmodule Other do\n  def f, do: [:alpha, :alphabet, :beta]\nend\n")
+        myFixture.configureByText("completion.ex", "defmodule Completion do\n  def g, do: :alp<caret>\nend\n")
+
+        val completionVariants = myFixture.completeBasic().map { it.lookupString }
+
+        assertSameElements(completionVariants, ":alpha", ":alphabet")
+    }
+
+    fun testCompletesErlangModules() {
+        myFixture.addFileToProject("erlang_module.ex", "defmodule :erlang_module do\nend\n")
+        myFixture.configureByText("completion.ex", "defmodule Completion do\n  def g, do: :erlang_m<caret>\nend\n")
+        myFixture.completeBasic()
+
+        myFixture.checkResult("defmodule Completion do\n  def g, do: :erlang_module\nend\n")
+    }
+}
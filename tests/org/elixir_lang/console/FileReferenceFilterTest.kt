@@ -0,0 +1,99 @@
+package org.elixir_lang.console
+
+import com.intellij.execution.filters.OpenFileHyperlinkInfo
+import com.intellij.openapi.project.DumbServiceImpl
+import com.intellij.openapi.project.IndexNotReadyException
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase
+
+/**
+ * Checks [FileReferenceFilter.applyFilter] on a 100k-line `mix test` log full of stack traces that keep repeating the
+ * same project and dependency paths, so that each path is only resolved once.
+ *
+ * Resolving a path that isn't cached looks up its file name in the [com.intellij.psi.search.FilenameIndex], which
+ * throws [IndexNotReadyException] in dumb mode, so filtering the log again in dumb mode shows every path was cached.
+ */
+class FileReferenceFilterTest : LightPlatformCodeInsightFixtureTestCase() {
+    fun testRepeatedPathsAreResolvedOnce() {
+        myFixture.addFileToProject("lib/example.ex", "defmodule Example do\nend\n")
+        myFixture.addFileToProject("test/example_test.exs", "defmodule ExampleTest do\nend\n")
+
+        val filter = FileReferenceFilter(project, ElixirConsoleUtil.COMPILATION_ERROR_PATH, testRootDisposable)
+        val lines = log(LINE_COUNT)
+        val virtualFileList = hyperlinkedVirtualFileList(filter, lines)
+
+        // each failure links its test and the 2 project frames of its stack trace, but not the dependency frame
+        assertEquals(FAILURE_COUNT * 3, virtualFileList.size)
+        // test/example_test.exs and lib/example.ex are each linked to the same file every time
+        assertEquals(2, virtualFileList.distinct().size)
+
+        val dumbService = DumbServiceImpl.getInstance(project)
+
+        dumbService.isDumb = true
+
+        try {
+            val cachedVirtualFileList = hyperlinkedVirtualFileList(filter, lines)
+
+            assertEquals(virtualFileList.size, cachedVirtualFileList.size)
+            assertTrue(
+                    "paths linked to different files when cached",
+                    virtualFileList.zip(cachedVirtualFileList).all { (virtualFile, cachedVirtualFile) ->
+                        virtualFile === cachedVirtualFile
+                    }
+            )
+
+            try {
+                filter.applyFilter("       lib/uncached.ex:1: Uncached.run/0\n", 0)
+                fail("uncached path was resolved without the FilenameIndex")
+            } catch (indexNotReadyException: IndexNotReadyException) {
+                // uncached paths use the FilenameIndex, so cached paths can't have
+            }
+        } finally {
+            dumbService.isDumb = false
+        }
+    }
+}
+
+/**
+ * The [VirtualFile] of every hyperlink [filter] adds to [lines], in order
+ */
+private fun hyperlinkedVirtualFileList(filter: FileReferenceFilter, lines: List<String>): List<VirtualFile> {
+    val virtualFileList = mutableListOf<VirtualFile>()
+    var entireLength = 0
+
+    for (line in lines) {
+        entireLength += line.length
+
+        filter.applyFilter(line, entireLength)?.let { result ->
+            for (resultItem in result.resultItems) {
+                virtualFileList.add((resultItem.hyperlinkInfo as OpenFileHyperlinkInfo).descriptor!!.file)
+            }
+        }
+    }
+
+    return virtualFileList
+}
+
+private fun log(lineCount: Int): List<String> {
+    val lines = mutableListOf<String>()
+    val linesPerFailure = lineCount / FAILURE_COUNT
+
+    for (failure in 1..FAILURE_COUNT) {
+        lines.add("  $failure) test example $failure (ExampleTest)\n")
+        lines.add("     test/example_test.exs:${failure % 100 + 1}\n")
+        lines.add("     ** (RuntimeError) failure $failure\n")
+        lines.add("     stacktrace:\n")
+        lines.add("       (elixir) lib/enum.ex:1314: Enum.\"-map/2-lists^map/1-0-\"/2\n")
+        lines.add("       lib/example.ex:${failure % 10 + 1}: Example.run/1\n")
+        lines.add("       lib/example.ex:2: Example.call/0\n")
+
+        while (lines.size < failure * linesPerFailure) {
+            lines.add("...........................................................................\n")
+        }
+    }
+
+    return lines
+}
+
+private const val FAILURE_COUNT = 10000
+private const val LINE_COUNT = 100000
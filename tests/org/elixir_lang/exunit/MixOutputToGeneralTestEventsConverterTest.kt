@@ -0,0 +1,110 @@
+package org.elixir_lang.exunit
+
+import com.intellij.execution.executors.DefaultRunExecutor
+import com.intellij.execution.process.ProcessOutputTypes
+import com.intellij.execution.testframework.sm.runner.GeneralIdBasedToSMTRunnerEventsConvertor
+import com.intellij.execution.testframework.sm.runner.SMTestProxy
+import com.intellij.openapi.util.Disposer
+import com.intellij.testFramework.LightPlatformTestCase
+
+/**
+ * Replays a `mix test` transcript of [TEST_COUNT] tests through [MixOutputToGeneralTestEventsConverter] in
+ * process-sized chunks and checks the test tree it builds.
+ */
+class MixOutputToGeneralTestEventsConverterTest : LightPlatformTestCase() {
+    fun testIsServiceMessage() {
+        assertTrue(MixOutputToGeneralTestEventsConverter.isServiceMessage("##teamcity[testStarted name='a']\n"))
+        assertTrue(MixOutputToGeneralTestEventsConverter.isServiceMessage("  ##teamcity[testStarted name='a']\n"))
+        assertFalse(MixOutputToGeneralTestEventsConverter.isServiceMessage("....\n"))
+        assertFalse(MixOutputToGeneralTestEventsConverter.isServiceMessage("output ##teamcity[testStarted]\n"))
+        assertFalse(MixOutputToGeneralTestEventsConverter.isServiceMessage(""))
+    }
+
+    fun testReplay() {
+        val consoleProperties = TestConsoleProperties(
+                Configuration("ExUnit", project),
+                TEST_FRAMEWORK_NAME,
+                DefaultRunExecutor.getRunExecutorInstance()
+        )
+        val converter = consoleProperties.createTestEventsConverter(TEST_FRAMEWORK_NAME, consoleProperties)
+        val root = SMTestProxy.SMRootTestProxy()
+        val processor = GeneralIdBasedToSMTRunnerEventsConvertor(project, root, TEST_FRAMEWORK_NAME)
+        val transcript = transcript()
+
+        try {
+            converter.setProcessor(processor)
+            processor.onStartTesting()
+
+            var offset = 0
+
+            while (offset < transcript.length) {
+                val end = Math.min(offset + CHUNK_LENGTH, transcript.length)
+                converter.process(transcript.substring(offset, end), ProcessOutputTypes.STDOUT)
+                offset = end
+            }
+
+            converter.flushBufferBeforeTerminating()
+            processor.onFinishTesting()
+
+            assertEquals(MODULE_COUNT, root.children.size)
+
+            for (suite in root.children) {
+                assertEquals(TEST_COUNT / MODULE_COUNT, suite.children.size)
+            }
+
+            assertEquals(TEST_COUNT, root.allTests.count { it.isLeaf })
+            // service messages split across chunks would have been shown as output or failed to start their test
+            assertTrue(root.allTests.filter { it.isLeaf }.all { it.isPassed })
+        } finally {
+            Disposer.dispose(converter)
+            Disposer.dispose(processor)
+        }
+    }
+}
+
+/**
+ * The output of `TeamCityExUnitFormatting` for [TEST_COUNT] passing tests spread over [MODULE_COUNT] modules, with
+ * test output between some of the service messages.
+ */
+private fun transcript(): String {
+    val builder = StringBuilder()
+    val testsPerModule = TEST_COUNT / MODULE_COUNT
+
+    builder.append("##teamcity[enteredTheMatrix]\n")
+
+    for (module in 0 until MODULE_COUNT) {
+        val moduleName = "Elixir.Example$module"
+
+        builder
+                .append("##teamcity[testSuiteStarted locationHint='file://test/example_${module}_test.exs' ")
+                .append("name='$moduleName' nodeId='$moduleName' parentNodeId='0']\n")
+
+        for (test in 0 until testsPerModule) {
+            val testName = "test example $test"
+            val nodeId = "$moduleName.$testName"
+
+            builder
+                    .append("##teamcity[testStarted locationHint='file://test/example_${module}_test.exs:${test + 1}' ")
+                    .append("name='$testName' nodeId='$nodeId' parentNodeId='$moduleName']\n")
+
+            if (test % 10 == 0) {
+                builder.append("output from $testName\n")
+            }
+
+            builder
+                    .append("##teamcity[testFinished duration='1' name='$testName' nodeId='$nodeId' ")
+                    .append("parentNodeId='$moduleName']\n")
+        }
+
+        builder.append("##teamcity[testSuiteFinished name='$moduleName' nodeId='$moduleName' parentNodeId='0']\n")
+    }
+
+    builder.append("\nFinished in 12.3 seconds\n$TEST_COUNT tests, 0 failures\n")
+
+    return builder.toString()
+}
+
+private const val CHUNK_LENGTH = 8192
+private const val MODULE_COUNT = 200
+private const val TEST_COUNT = 20000
+private const val TEST_FRAMEWORK_NAME = "ExUnit"
@@ -0,0 +1,27 @@
+package org.elixir_lang.file
+
+import com.intellij.openapi.application.runWriteAction
+import com.intellij.openapi.roots.ex.ProjectRootManagerEx
+import com.intellij.openapi.util.EmptyRunnable
+import com.intellij.openapi.vfs.VirtualFile
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase
+
+class LevelsTest : LightPlatformCodeInsightFixtureTestCase() {
+    fun testReusedUntilRootsChange() {
+        val levels = Levels.getInstance(project)
+
+        assertSame(levels, Levels.getInstance(project))
+
+        runWriteAction {
+            ProjectRootManagerEx.getInstance(project).makeRootsChange(EmptyRunnable.INSTANCE, false, true)
+        }
+
+        assertNotSame(levels, Levels.getInstance(project))
+    }
+
+    fun testFilesWithoutModuleUseProjectLevel() {
+        val levels = Levels.getInstance(project)
+
+        assertEquals(levels.projectLevel, levels.level(null as VirtualFile?))
+    }
+}
@@ -0,0 +1,122 @@
+package org.elixir_lang.psi.scope.call_definition_clause;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.roots.ex.ProjectRootManagerEx;
+import com.intellij.openapi.util.EmptyRunnable;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiPolyVariantReference;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase;
+import org.elixir_lang.psi.call.Call;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+import static org.elixir_lang.psi.call.name.Module.KERNEL;
+import static org.elixir_lang.psi.call.name.Module.KERNEL_SPECIAL_FORMS;
+
+public class ImplicitImportsTest extends LightPlatformCodeInsightFixtureTestCase {
+    /*
+     * Tests
+     */
+
+    public void testKernel() {
+        myFixture.configureByFiles("kernel_usage.ex", "kernel.ex");
+
+        assertResolvesToImplicitImport(
+                "implicit_function",
+                KERNEL,
+                "def implicit_function(argument), do: argument"
+        );
+    }
+
+    public void testKernelSpecialForms() {
+        myFixture.configureByFiles("special_forms_usage.ex", "kernel.ex");
+
+        assertResolvesToImplicitImport(
+                "implicit_special_form",
+                KERNEL_SPECIAL_FORMS,
+                "defmacro implicit_special_form(argument), do: argument"
+        );
+    }
+
+    public void testRebuiltAfterRootsChange() {
+        myFixture.configureByFiles("kernel_usage.ex", "kernel.ex");
+
+        ImplicitImports implicitImports = ImplicitImports.Companion.getInstance(getProject());
+
+        assertSame(implicitImports, ImplicitImports.Companion.getInstance(getProject()));
+
+        ApplicationManager.getApplication().runWriteAction(() ->
+                ProjectRootManagerEx
+                        .getInstanceEx(getProject())
+                        .makeRootsChange(EmptyRunnable.INSTANCE, false, true)
+        );
+
+        ImplicitImports rebuiltImplicitImports = ImplicitImports.Companion.getInstance(getProject());
+
+        assertNotSame(implicitImports, rebuiltImplicitImports);
+        assertSize(1, rebuiltImplicitImports.clauseList("implicit_function"));
+        assertResolvesToImplicitImport(
+                "implicit_function",
+                KERNEL,
+                "def implicit_function(argument), do: argument"
+        );
+    }
+
+    /*
+     * Protected Instance Methods
+     */
+
+    @Override
+    protected String getTestDataPath() {
+        return "testData/org/elixir_lang/psi/scope/call_definition_clause/implicit_imports";
+    }
+
+    /*
+     * Private Instance Methods
+     */
+
+    private void assertResolvesToImplicitImport(@NotNull String name,
+                                                @NotNull String modularCanonicalName,
+                                                @NotNull String expectedText) {
+        List<ImplicitImports.Clause> clauseList =
+                ImplicitImports.Companion.getInstance(getProject()).clauseList(name);
+
+        assertSize(1, clauseList);
+        assertEquals(modularCanonicalName, clauseList.get(0).getModularCanonicalName());
+
+        ResolveResult[] resolveResults = resolveResults(name);
+
+        assertEquals(1, resolveResults.length);
+
+        PsiElement resolved = resolveResults[0].getElement();
+
+        assertSame("resolved to a clause outside the implicit imports table", clauseList.get(0).getCall(), resolved);
+        assertEquals(expectedText, resolved.getText());
+    }
+
+    @NotNull
+    private ResolveResult[] resolveResults(@NotNull String name) {
+        PsiElement elementAtCaret = myFixture
+                .getFile()
+                .findElementAt(myFixture.getCaretOffset());
+
+        assertNotNull(elementAtCaret);
+
+        PsiElement grandParent = elementAtCaret.getParent().getParent();
+
+        assertInstanceOf(grandParent, Call.class);
+
+        Call grandParentCall = (Call) grandParent;
+
+        assertEquals(name, grandParentCall.functionName());
+
+        PsiReference reference = grandParentCall.getReference();
+
+        assertInstanceOf(reference, PsiPolyVariantReference.class);
+
+        return ((PsiPolyVariantReference) reference).multiResolve(false);
+    }
+}
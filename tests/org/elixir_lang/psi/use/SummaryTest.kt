@@ -0,0 +1,75 @@
+package org.elixir_lang.psi.use
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.testFramework.fixtures.LightPlatformCodeInsightFixtureTestCase
+import org.elixir_lang.psi.CallDefinitionClause
+import org.elixir_lang.psi.Use
+import org.elixir_lang.psi.call.Call
+
+class SummaryTest : LightPlatformCodeInsightFixtureTestCase() {
+    fun testSummaryIsSharedAndInvalidatedByTheDefiningFile() {
+        val definingFile = myFixture.addFileToProject(
+                "my_app_web.ex",
+                """
+                defmodule MyAppWeb do
+                  defmacro __using__(_) do
+                    quote do
+                      alias MyApp.Repo
+                      import MyApp.Helpers
+
+                      def injected, do: :ok
+                    end
+                  end
+                end
+                """.trimIndent()
+        )
+        myFixture.addFileToProject(
+                "my_app/helpers.ex",
+                """
+                defmodule MyApp.Helpers do
+                  def helper(x), do: x
+                end
+                """.trimIndent()
+        )
+        val firstUseCall = useCall("page_controller.ex", "MyAppWeb.PageController")
+        val secondUseCall = useCall("user_controller.ex", "MyAppWeb.UserController")
+
+        val summary = Summary.forUseCall(firstUseCall)!!
+
+        assertSameElements(
+                summary.callDefinitionClauseList.map { CallDefinitionClause.nameArityRange(it)!!.name },
+                "injected",
+                "helper"
+        )
+        assertEquals(1, summary.aliasCallList.size)
+        assertEquals(1, summary.importCallList.size)
+        assertSame(summary, Summary.forUseCall(secondUseCall))
+
+        val psiDocumentManager = PsiDocumentManager.getInstance(project)
+        val document = psiDocumentManager.getDocument(definingFile)!!
+
+        WriteCommandAction.runWriteCommandAction(project) {
+            document.insertString(document.textLength, "\n")
+            psiDocumentManager.commitDocument(document)
+        }
+
+        assertNotSame(summary, Summary.forUseCall(secondUseCall))
+    }
+
+    private fun useCall(fileName: String, moduleName: String): Call =
+            PsiTreeUtil
+                    .findChildrenOfType(
+                            myFixture.addFileToProject(
+                                    fileName,
+                                    """
+                                    defmodule $moduleName do
+                                      use MyAppWeb, :controller
+                                    end
+                                    """.trimIndent()
+                            ),
+                            Call::class.java
+                    )
+                    .single { Use.`is`(it) }
+}
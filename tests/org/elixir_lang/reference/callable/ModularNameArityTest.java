@@ -0,0 +1,78 @@
+package org.elixir_lang.reference.callable;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiPolyVariantReference;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+import org.elixir_lang.psi.CallDefinitionClause;
+import org.elixir_lang.psi.call.Call;
+import org.jetbrains.annotations.NotNull;
+
+public class ModularNameArityTest extends LightCodeInsightFixtureTestCase {
+    /*
+     * Tests
+     */
+
+    public void testDirect() {
+        myFixture.configureByFiles("direct.ex", "referenced.ex");
+
+        ResolveResult[] resolveResults = resolveResults("action", 2);
+
+        assertEquals("the `def` in the `quote` in `controller` is also resolved", 1, resolveResults.length);
+
+        PsiElement resolved = resolveResults[0].getElement();
+
+        assertInstanceOf(resolved, Call.class);
+        assertTrue(CallDefinitionClause.is((Call) resolved));
+        assertEquals("def action(conn, params), do: {:direct, conn, params}", resolved.getText());
+    }
+
+    public void testQuoted() {
+        myFixture.configureByFiles("quoted.ex", "referenced.ex");
+
+        assertEquals(
+                "the `def` in the `quote` in `controller` is resolved as if defined in the module",
+                0,
+                resolveResults("quoted", 1).length
+        );
+    }
+
+    /*
+     * Protected Instance Methods
+     */
+
+    @Override
+    protected String getTestDataPath() {
+        return "testData/org/elixir_lang/reference/callable/modular_name_arity";
+    }
+
+    /*
+     * Private Instance Methods
+     */
+
+    @NotNull
+    private ResolveResult[] resolveResults(@NotNull String name, int arity) {
+        PsiElement elementAtCaret = myFixture
+                .getFile()
+                .findElementAt(myFixture.getCaretOffset());
+
+        assertNotNull(elementAtCaret);
+
+        PsiElement grandParent = elementAtCaret.getParent().getParent();
+
+        assertNotNull(grandParent);
+        assertInstanceOf(grandParent, Call.class);
+
+        Call grandParentCall = (Call) grandParent;
+
+        assertEquals(name, grandParentCall.functionName());
+        assertEquals(arity, grandParentCall.resolvedFinalArity());
+
+        PsiReference reference = grandParentCall.getReference();
+
+        assertInstanceOf(reference, PsiPolyVariantReference.class);
+
+        return ((PsiPolyVariantReference) reference).multiResolve(false);
+    }
+}